@@ -3,6 +3,7 @@ package com.escuelaposgrado.Autenticacion.config;
 import java.util.Arrays;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,7 +14,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -22,8 +22,11 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.escuelaposgrado.Autenticacion.security.jwt.AuthEntryPointJwt;
 import com.escuelaposgrado.Autenticacion.security.jwt.AuthTokenFilter;
+import com.escuelaposgrado.Autenticacion.security.services.BoundedPasswordEncoder;
 import com.escuelaposgrado.Autenticacion.security.services.UserDetailsServiceImpl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Configuración de seguridad para el microservicio de autenticación
  */
@@ -38,6 +41,18 @@ public class WebSecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.passwordHashing.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int passwordHashingThreads;
+
+    @Value("${app.passwordHashing.queueCapacity:100}")
+    private int passwordHashingQueueCapacity;
+
+    @Value("${app.passwordHashing.timeoutMs:10000}")
+    private long passwordHashingTimeoutMs;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
@@ -57,9 +72,13 @@ public class WebSecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    /**
+     * BCrypt ejecutado en un pool propio y acotado (ver BoundedPasswordEncoder)
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingThreads,
+                passwordHashingQueueCapacity, passwordHashingTimeoutMs, meterRegistry);
     }
 
     @Bean
@@ -72,7 +91,15 @@ public class WebSecurityConfig {
                 // Endpoints públicos
                 .requestMatchers("/api/auth/login").permitAll()
                 .requestMatchers("/api/auth/google-login").permitAll()
+                .requestMatchers("/api/auth/refresh").permitAll()
+                .requestMatchers("/api/auth/logout").permitAll()
+                // Protegido con la clave de servicio compartida (ver AuthController)
+                .requestMatchers("/api/auth/revocaciones").permitAll()
+                .requestMatchers("/api/auth/introspeccion").permitAll()
+                .requestMatchers("/api/auth/eventos-usuarios").permitAll()
+                .requestMatchers("/.well-known/jwks.json").permitAll()
                 .requestMatchers("/api/health/**").permitAll()
+                // Solo atiende en management.server.port, que no se publica fuera de la red interna
                 .requestMatchers("/actuator/**").permitAll()
                 .requestMatchers("/error").permitAll()
                 
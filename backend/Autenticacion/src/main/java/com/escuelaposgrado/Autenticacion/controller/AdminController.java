@@ -6,12 +6,15 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -24,13 +27,22 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.escuelaposgrado.Autenticacion.dto.request.ActualizarUsuarioAdminRequest;
+import com.escuelaposgrado.Autenticacion.dto.request.ListadoUsuariosRequest;
 import com.escuelaposgrado.Autenticacion.dto.request.RegistroRequest;
+import com.escuelaposgrado.Autenticacion.dto.response.EstadisticasUsuariosResponse;
+import com.escuelaposgrado.Autenticacion.dto.response.ImportacionResponse;
+import com.escuelaposgrado.Autenticacion.dto.response.LimpiezaDuplicadosResponse;
 import com.escuelaposgrado.Autenticacion.dto.response.MessageResponse;
+import com.escuelaposgrado.Autenticacion.dto.response.PaginaResponse;
 import com.escuelaposgrado.Autenticacion.dto.response.UsuarioResponse;
+import com.escuelaposgrado.Autenticacion.exception.ServicioSaturadoException;
 import com.escuelaposgrado.Autenticacion.model.enums.Role;
 import com.escuelaposgrado.Autenticacion.service.AuthService;
 import com.escuelaposgrado.Autenticacion.service.DataCleanupService;
 import com.escuelaposgrado.Autenticacion.service.ExcelService;
+import com.escuelaposgrado.Autenticacion.service.ImportacionUsuariosService;
+import com.escuelaposgrado.Autenticacion.service.UsuarioEstadisticasService;
+import com.escuelaposgrado.Autenticacion.service.UsuarioListadoService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -41,6 +53,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 /**
@@ -63,12 +76,22 @@ public class AdminController {
     @Autowired
     private ExcelService excelService;
 
+    @Autowired
+    private ImportacionUsuariosService importacionUsuariosService;
+
+    @Autowired
+    private UsuarioListadoService usuarioListadoService;
+
+    @Autowired
+    private UsuarioEstadisticasService usuarioEstadisticasService;
+
     /**
      * Obtener todos los usuarios
      */
     @Operation(
             summary = "Obtener todos los usuarios",
-            description = "Devuelve una lista de todos los usuarios activos en el sistema",
+            description = "Devuelve una página de los usuarios activos, ordenada y filtrada según los parámetros. " +
+                          "La página siguiente se pide con el valor de siguienteCursor",
             security = @SecurityRequirement(name = "bearerAuth"),
             tags = {"👨‍💼 Administración"}
     )
@@ -93,9 +116,9 @@ public class AdminController {
             )
     })
     @GetMapping("/usuarios")
-    public ResponseEntity<List<UsuarioResponse>> getAllUsuarios() {
-        List<UsuarioResponse> usuarios = authService.getAllUsuarios();
-        return ResponseEntity.ok(usuarios);
+    public ResponseEntity<PaginaResponse<UsuarioResponse>> getAllUsuarios(
+            @ParameterObject ListadoUsuariosRequest listado) {
+        return ResponseEntity.ok(usuarioListadoService.listar(null, true, listado));
     }
 
     /**
@@ -166,6 +189,8 @@ public class AdminController {
             } else {
                 return ResponseEntity.badRequest().body(response);
             }
+        } catch (ServicioSaturadoException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new MessageResponse("Error al crear usuario: " + e.getMessage(), false));
         }
@@ -188,9 +213,9 @@ public class AdminController {
         )
     })
     @GetMapping("/usuarios/all")
-    public ResponseEntity<List<UsuarioResponse>> getAllUsuariosIncluyendoInactivos() {
-        List<UsuarioResponse> usuarios = authService.getAllUsuariosIncluyendoInactivos();
-        return ResponseEntity.ok(usuarios);
+    public ResponseEntity<PaginaResponse<UsuarioResponse>> getAllUsuariosIncluyendoInactivos(
+            @ParameterObject ListadoUsuariosRequest listado) {
+        return ResponseEntity.ok(usuarioListadoService.listar(null, null, listado));
     }
 
     /**
@@ -223,11 +248,11 @@ public class AdminController {
             )
     })
     @GetMapping("/usuarios/rol/{role}")
-    public ResponseEntity<List<UsuarioResponse>> getUsuariosByRole(
+    public ResponseEntity<PaginaResponse<UsuarioResponse>> getUsuariosByRole(
             @Parameter(description = "Rol a filtrar (ADMIN, COORDINADOR, DOCENTE, ALUMNO, POSTULANTE)", required = true)
-            @PathVariable Role role) {
-        List<UsuarioResponse> usuarios = authService.getUsuariosByRole(role);
-        return ResponseEntity.ok(usuarios);
+            @PathVariable Role role,
+            @ParameterObject ListadoUsuariosRequest listado) {
+        return ResponseEntity.ok(usuarioListadoService.listar(role, true, listado));
     }
 
     /**
@@ -260,11 +285,11 @@ public class AdminController {
             )
     })
     @GetMapping("/usuarios/rol/{role}/all")
-    public ResponseEntity<List<UsuarioResponse>> getUsuariosByRoleIncluyendoInactivos(
+    public ResponseEntity<PaginaResponse<UsuarioResponse>> getUsuariosByRoleIncluyendoInactivos(
             @Parameter(description = "Rol a filtrar (ADMIN, COORDINADOR, DOCENTE, ALUMNO, POSTULANTE)", required = true)
-            @PathVariable Role role) {
-        List<UsuarioResponse> usuarios = authService.getUsuariosByRoleIncluyendoInactivos(role);
-        return ResponseEntity.ok(usuarios);
+            @PathVariable Role role,
+            @ParameterObject ListadoUsuariosRequest listado) {
+        return ResponseEntity.ok(usuarioListadoService.listar(role, null, listado));
     }
 
     /**
@@ -407,54 +432,58 @@ public class AdminController {
     /**
      * Obtener estadísticas de usuarios
      */
+    @Operation(
+            summary = "Obtener estadísticas de usuarios",
+            description = "Conteos por rol y estado, usuarios con acceso reciente y registros por día. " +
+                          "Los valores se recalculan en segundo plano y pueden tener algunos segundos de antigüedad",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            tags = {"👨‍💼 Administración"}
+    )
     @GetMapping("/estadisticas")
-    public ResponseEntity<MessageResponse> getEstadisticas() {
-        MessageResponse response = authService.getEstadisticas();
-        return ResponseEntity.ok(response);
+    public ResponseEntity<EstadisticasUsuariosResponse> getEstadisticas() {
+        return ResponseEntity.ok(usuarioEstadisticasService.getEstadisticas());
     }
 
     /**
      * Obtener docentes
      */
     @GetMapping("/docentes")
-    public ResponseEntity<List<UsuarioResponse>> getDocentes() {
-        List<UsuarioResponse> docentes = authService.getUsuariosByRole(Role.DOCENTE);
-        return ResponseEntity.ok(docentes);
+    public ResponseEntity<PaginaResponse<UsuarioResponse>> getDocentes(@ParameterObject ListadoUsuariosRequest listado) {
+        return ResponseEntity.ok(usuarioListadoService.listar(Role.DOCENTE, true, listado));
     }
 
     /**
      * Obtener coordinadores
      */
     @GetMapping("/coordinadores")
-    public ResponseEntity<List<UsuarioResponse>> getCoordinadores() {
-        List<UsuarioResponse> coordinadores = authService.getUsuariosByRole(Role.COORDINADOR);
-        return ResponseEntity.ok(coordinadores);
+    public ResponseEntity<PaginaResponse<UsuarioResponse>> getCoordinadores(@ParameterObject ListadoUsuariosRequest listado) {
+        return ResponseEntity.ok(usuarioListadoService.listar(Role.COORDINADOR, true, listado));
     }
 
     /**
      * Obtener alumnos
      */
     @GetMapping("/alumnos")
-    public ResponseEntity<List<UsuarioResponse>> getAlumnos() {
-        List<UsuarioResponse> alumnos = authService.getUsuariosByRole(Role.ALUMNO);
-        return ResponseEntity.ok(alumnos);
+    public ResponseEntity<PaginaResponse<UsuarioResponse>> getAlumnos(@ParameterObject ListadoUsuariosRequest listado) {
+        return ResponseEntity.ok(usuarioListadoService.listar(Role.ALUMNO, true, listado));
     }
 
     /**
      * Obtener postulantes
      */
     @GetMapping("/postulantes")
-    public ResponseEntity<List<UsuarioResponse>> getPostulantes() {
-        List<UsuarioResponse> postulantes = authService.getUsuariosByRole(Role.POSTULANTE);
-        return ResponseEntity.ok(postulantes);
+    public ResponseEntity<PaginaResponse<UsuarioResponse>> getPostulantes(@ParameterObject ListadoUsuariosRequest listado) {
+        return ResponseEntity.ok(usuarioListadoService.listar(Role.POSTULANTE, true, listado));
     }
 
     /**
-     * Buscar usuarios por nombres y apellidos
+     * Buscar usuarios por nombres, apellidos, DNI o códigos
      */
     @Operation(
-            summary = "Buscar usuarios por nombres y apellidos",
-            description = "Busca usuarios que coincidan parcialmente con el texto proporcionado en nombres o apellidos",
+            summary = "Buscar usuarios",
+            description = "Busca usuarios por nombres, apellidos, DNI o códigos. La búsqueda ignora tildes, tolera " +
+                          "errores de tipeo y devuelve los resultados paginados y ordenados por relevancia. " +
+                          "Sin texto devuelve la página pedida con los mismos filtros, ordenada por apellidos",
             security = @SecurityRequirement(name = "bearerAuth"),
             tags = {"👨‍💼 Administración"}
     )
@@ -480,9 +509,17 @@ public class AdminController {
     })
     @GetMapping("/usuarios/buscar")
     public ResponseEntity<List<UsuarioResponse>> buscarUsuarios(
-            @Parameter(description = "Texto a buscar en nombres y apellidos", required = true)
-            @RequestParam String texto) {
-        List<UsuarioResponse> usuarios = authService.buscarUsuariosPorNombre(texto);
+            @Parameter(description = "Texto a buscar en nombres, apellidos, DNI o códigos")
+            @RequestParam(defaultValue = "") String texto,
+            @Parameter(description = "Filtrar por rol")
+            @RequestParam(required = false) Role rol,
+            @Parameter(description = "Solo usuarios activos")
+            @RequestParam(defaultValue = "false") boolean soloActivos,
+            @Parameter(description = "Número de página (desde 0)")
+            @RequestParam(defaultValue = "0") int pagina,
+            @Parameter(description = "Resultados por página (máximo 100)")
+            @RequestParam(defaultValue = "20") int tamanio) {
+        List<UsuarioResponse> usuarios = authService.buscarUsuarios(texto, rol, soloActivos, pagina, tamanio);
         return ResponseEntity.ok(usuarios);
     }
 
@@ -491,7 +528,8 @@ public class AdminController {
      */
     @Operation(
             summary = "Limpiar datos duplicados",
-            description = "Elimina registros duplicados de la base de datos basándose en campos únicos como username, email, DNI, etc.",
+            description = "Elimina registros duplicados de la base de datos basándose en campos únicos como username, email, DNI, etc. " +
+                          "Con simular=true solo informa cuántos registros se eliminarían, sin modificar datos.",
             security = @SecurityRequirement(name = "bearerAuth"),
             tags = {"👨‍💼 Administración"}
     )
@@ -501,13 +539,19 @@ public class AdminController {
                     description = "Limpieza de duplicados completada exitosamente",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(implementation = MessageResponse.class),
+                            schema = @Schema(implementation = LimpiezaDuplicadosResponse.class),
                             examples = @ExampleObject(
                                     name = "Limpieza exitosa",
                                     value = """
                                             {
                                               "message": "Limpieza de duplicados completada exitosamente",
-                                              "success": true
+                                              "success": true,
+                                              "simulacion": false,
+                                              "totalEliminados": 2,
+                                              "detalle": [
+                                                { "campo": "username", "grupos": 1, "eliminados": 1 },
+                                                { "campo": "email", "grupos": 1, "eliminados": 1 }
+                                              ]
                                             }
                                             """
                             )
@@ -542,14 +586,14 @@ public class AdminController {
             )
     })
     @PostMapping("/limpiar-duplicados")
-    public ResponseEntity<MessageResponse> limpiarDuplicados() {
+    public ResponseEntity<?> limpiarDuplicados(
+            @Parameter(description = "Solo informar lo que se eliminaría, sin borrar")
+            @RequestParam(defaultValue = "false") boolean simular) {
         try {
-            if (dataCleanupService.existenDuplicados()) {
-                dataCleanupService.limpiarDuplicados();
-                return ResponseEntity.ok(new MessageResponse("Limpieza de duplicados completada exitosamente"));
-            } else {
-                return ResponseEntity.ok(new MessageResponse("No se encontraron registros duplicados"));
-            }
+            LimpiezaDuplicadosResponse response = simular
+                    ? dataCleanupService.simularLimpieza()
+                    : dataCleanupService.limpiarDuplicados();
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.status(500)
                     .body(new MessageResponse("Error al limpiar duplicados: " + e.getMessage(), false));
@@ -590,46 +634,43 @@ public class AdminController {
             )
     })
     @GetMapping("/usuarios/exportar-excel")
-    public ResponseEntity<InputStreamResource> exportarUsuariosExcel() {
-        try {
-            List<UsuarioResponse> usuarios = authService.getAllUsuariosIncluyendoInactivos();
-            ByteArrayInputStream in = excelService.exportUsuariosToExcel(usuarios);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.add("Content-Disposition", "attachment; filename=usuarios_" + 
-                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
-            
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                    .body(new InputStreamResource(in));
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public void exportarUsuariosExcel(HttpServletResponse response) throws IOException {
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=usuarios_" +
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".xlsx");
+
+        // El archivo se escribe directamente en la respuesta, sin generarlo antes en memoria
+        excelService.exportUsuariosToExcel(response.getOutputStream());
     }
 
     /**
-     * Importar usuarios desde Excel
+     * Importar usuarios desde Excel (en segundo plano)
      */
     @Operation(
             summary = "Importar usuarios desde Excel",
-            description = "Importa usuarios al sistema desde un archivo Excel. El archivo debe seguir el formato de la plantilla.",
+            description = "Encola la importación de usuarios desde un archivo Excel con el formato de la plantilla. " +
+                          "Devuelve de inmediato el identificador de la importación, cuyo avance se consulta en " +
+                          "/usuarios/importaciones/{id}.",
             security = @SecurityRequirement(name = "bearerAuth"),
             tags = {"👨‍💼 Administración"}
     )
     @ApiResponses(value = {
             @ApiResponse(
-                    responseCode = "200",
-                    description = "Importación completada",
+                    responseCode = "202",
+                    description = "Importación encolada",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(implementation = MessageResponse.class),
+                            schema = @Schema(implementation = ImportacionResponse.class),
                             examples = @ExampleObject(
-                                    name = "Importación exitosa",
+                                    name = "Importación encolada",
                                     value = """
                                             {
-                                              "message": "Importación completada.\\nUsuarios creados exitosamente: 5\\nErrores encontrados: 1",
-                                              "success": true
+                                              "id": 12,
+                                              "nombreArchivo": "alumnos_2025.xlsx",
+                                              "estado": "PENDIENTE",
+                                              "filasProcesadas": 0,
+                                              "exitosos": 0,
+                                              "fallidos": 0
                                             }
                                             """
                             )
@@ -645,7 +686,7 @@ public class AdminController {
                                     name = "Error de formato",
                                     value = """
                                             {
-                                              "message": "Error al procesar el archivo Excel: Formato inválido",
+                                              "message": "El archivo debe ser de formato Excel (.xlsx)",
                                               "success": false
                                             }
                                             """
@@ -664,9 +705,10 @@ public class AdminController {
             )
     })
     @PostMapping(value = "/usuarios/importar-excel", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<MessageResponse> importarUsuariosExcel(
+    public ResponseEntity<?> importarUsuariosExcel(
             @Parameter(description = "Archivo Excel con los usuarios a importar", required = true)
-            @RequestParam("file") MultipartFile file) {
+            @RequestParam("file") MultipartFile file,
+            Authentication authentication) {
         
         // Validar archivo
         if (file.isEmpty()) {
@@ -681,14 +723,52 @@ public class AdminController {
         }
         
         try {
-            MessageResponse response = excelService.importUsuariosFromExcel(file);
-            return ResponseEntity.ok(response);
+            ImportacionResponse response = importacionUsuariosService.crearImportacion(file, authentication.getName());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(new MessageResponse("Error al procesar el archivo: " + e.getMessage(), false));
         }
     }
 
+    /**
+     * Consultar el avance de una importación
+     */
+    @Operation(
+            summary = "Estado de una importación",
+            description = "Devuelve el estado de una importación de usuarios: filas procesadas, exitosas, " +
+                          "fallidas y filas procesadas por segundo",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            tags = {"👨‍💼 Administración"}
+    )
+    @GetMapping("/usuarios/importaciones/{id}")
+    public ResponseEntity<ImportacionResponse> getImportacion(@PathVariable Long id) {
+        return importacionUsuariosService.getImportacion(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Descargar los errores por fila de una importación
+     */
+    @Operation(
+            summary = "Descargar errores de una importación",
+            description = "Descarga en formato CSV los errores por fila de una importación de usuarios",
+            security = @SecurityRequirement(name = "bearerAuth"),
+            tags = {"👨‍💼 Administración"}
+    )
+    @GetMapping("/usuarios/importaciones/{id}/errores")
+    public void descargarErroresImportacion(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        if (importacionUsuariosService.getImportacion(id).isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setContentType("text/csv; charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=importacion_" + id + "_errores.csv");
+        importacionUsuariosService.escribirErroresCsv(id, response.getWriter());
+    }
+
     /**
      * Descargar plantilla Excel para importar usuarios
      */
@@ -1,8 +1,14 @@
 package com.escuelaposgrado.Autenticacion.controller;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Set;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -10,19 +16,27 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.escuelaposgrado.Autenticacion.dto.request.ActualizarPerfilRequest;
 import com.escuelaposgrado.Autenticacion.dto.request.CambiarPasswordRequest;
 import com.escuelaposgrado.Autenticacion.dto.request.GoogleLoginRequest;
+import com.escuelaposgrado.Autenticacion.dto.request.IntrospeccionRequest;
 import com.escuelaposgrado.Autenticacion.dto.request.LoginRequest;
+import com.escuelaposgrado.Autenticacion.dto.request.RefreshTokenRequest;
 import com.escuelaposgrado.Autenticacion.dto.request.RegistroRequest;
 import com.escuelaposgrado.Autenticacion.dto.response.AuthResponse;
 import com.escuelaposgrado.Autenticacion.dto.response.MessageResponse;
 import com.escuelaposgrado.Autenticacion.dto.response.UsuarioResponse;
+import com.escuelaposgrado.Autenticacion.exception.ServicioSaturadoException;
+import com.escuelaposgrado.Autenticacion.security.services.RevocacionTokenService;
 import com.escuelaposgrado.Autenticacion.service.AuthService;
+import com.escuelaposgrado.Autenticacion.service.EventoUsuarioService;
 import com.escuelaposgrado.Autenticacion.service.GoogleOAuthService;
+import com.escuelaposgrado.Autenticacion.service.IntrospeccionService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -33,6 +47,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PostConstruct;
 import jakarta.validation.Valid;
 
 /**
@@ -47,12 +62,44 @@ public class AuthController {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
+    private static final String CABECERA_CLAVE_SERVICIO = "X-Service-Key";
+
+    // Valores de ejemplo de application.properties y .env.example: nunca son una clave válida
+    private static final Set<String> CLAVES_SERVICIO_DE_EJEMPLO = Set.of(
+            "your-service-api-key-here", "your_service_api_key_change_in_production");
+
     @Autowired
     private AuthService authService;
 
     @Autowired
     private GoogleOAuthService googleOAuthService;
 
+    @Autowired
+    private RevocacionTokenService revocacionTokenService;
+
+    @Autowired
+    private IntrospeccionService introspeccionService;
+
+    @Autowired
+    private EventoUsuarioService eventoUsuarioService;
+
+    @Value("${app.revocaciones.claveServicio}")
+    private String claveServicio;
+
+    /**
+     * Los endpoints entre servicios (revocaciones, introspección y eventos de usuarios) se
+     * protegen solo con la clave de servicio: sin una clave real no se arranca, porque una
+     * clave vacía o de ejemplo los dejaría abiertos a cualquiera
+     */
+    @PostConstruct
+    public void validarClaveServicio() {
+        if (claveServicio == null || claveServicio.isBlank()
+                || CLAVES_SERVICIO_DE_EJEMPLO.contains(claveServicio.trim())) {
+            throw new IllegalStateException("app.revocaciones.claveServicio no está configurada: "
+                    + "defina la variable de entorno SERVICE_API_KEY con una clave secreta");
+        }
+    }
+
     /**
      * Endpoint para login
      */
@@ -112,6 +159,8 @@ public class AuthController {
             AuthResponse response = authService.login(loginRequest);
             logger.info("Login exitoso para usuario: {}", loginRequest.getUsernameOrEmail());
             return ResponseEntity.ok(response);
+        } catch (ServicioSaturadoException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error en login para usuario {}: {}", loginRequest.getUsernameOrEmail(), e.getMessage(), e);
             
@@ -416,6 +465,8 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(response);
             }
             
+        } catch (ServicioSaturadoException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error inesperado al actualizar perfil: {}", e.getMessage());
             return ResponseEntity.badRequest().body(
@@ -522,6 +573,8 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(response);
             }
             
+        } catch (ServicioSaturadoException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error inesperado al cambiar contraseña: {}", e.getMessage());
             return ResponseEntity.badRequest().body(
@@ -589,6 +642,8 @@ public class AuthController {
             AuthResponse response = googleOAuthService.authenticateWithGoogle(googleLoginRequest);
             logger.info("Login con Google exitoso para usuario: {}", response.getEmail());
             return ResponseEntity.ok(response);
+        } catch (ServicioSaturadoException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error en login con Google: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(
@@ -596,4 +651,113 @@ public class AuthController {
             );
         }
     }
+
+    /**
+     * Renovar el token de acceso con un token de refresco
+     */
+    @Operation(
+            summary = "Renovar token de acceso",
+            description = "Canjea el token de refresco por un nuevo token de acceso y un nuevo token de refresco. " +
+                          "El token usado deja de ser válido; presentarlo de nuevo revoca la sesión completa",
+            tags = {"🔐 Autenticación"}
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tokens renovados",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = AuthResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Token de refresco inválido, expirado o revocado",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = MessageResponse.class))
+            )
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refrescarToken(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refrescarToken(request.getRefreshToken()));
+    }
+
+    /**
+     * Cerrar la sesión (revoca el token de refresco y los obtenidos a partir de él)
+     */
+    @Operation(
+            summary = "Cerrar sesión",
+            description = "Revoca el token de refresco de la sesión. El token de acceso caduca por sí solo",
+            tags = {"🔐 Autenticación"}
+    )
+    @PostMapping("/logout")
+    public ResponseEntity<MessageResponse> cerrarSesion(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.cerrarSesion(request.getRefreshToken()));
+    }
+
+    /**
+     * Revocaciones de tokens de acceso para los demás microservicios
+     */
+    @Operation(
+            summary = "Revocaciones de tokens (uso interno)",
+            description = "Devuelve las revocaciones posteriores a 'desde' (ms) que aún afectan a tokens vigentes. " +
+                          "Requiere la cabecera X-Service-Key con la clave compartida entre microservicios",
+            tags = {"🔐 Autenticación"}
+    )
+    @GetMapping("/revocaciones")
+    public ResponseEntity<?> getRevocaciones(
+            @RequestHeader(value = CABECERA_CLAVE_SERVICIO, required = false) String claveServicio,
+            @RequestParam(defaultValue = "0") long desde) {
+        if (!esClaveServicioValida(claveServicio)) {
+            return claveServicioInvalida();
+        }
+        return ResponseEntity.ok(revocacionTokenService.getRevocacionesDesde(desde));
+    }
+
+    /**
+     * Introspección en lote de tokens y usuarios para los demás microservicios
+     */
+    @Operation(
+            summary = "Introspección en lote (uso interno)",
+            description = "Devuelve rol, estado y nombre de los usuarios de hasta 500 tokens y 500 ids en una sola " +
+                          "llamada. Requiere la cabecera X-Service-Key con la clave compartida entre microservicios",
+            tags = {"🔐 Autenticación"}
+    )
+    @PostMapping("/introspeccion")
+    public ResponseEntity<?> introspeccionar(
+            @RequestHeader(value = CABECERA_CLAVE_SERVICIO, required = false) String claveServicio,
+            @Valid @RequestBody IntrospeccionRequest request) {
+        if (!esClaveServicioValida(claveServicio)) {
+            return claveServicioInvalida();
+        }
+        return ResponseEntity.ok(introspeccionService.introspeccionar(request));
+    }
+
+    /**
+     * Cambios de usuarios para mantener sincronizadas las copias de los demás microservicios
+     */
+    @Operation(
+            summary = "Eventos de usuarios (uso interno)",
+            description = "Devuelve, en orden, los altas, cambios y bajas de usuarios posteriores a la posición " +
+                          "(desdeTransaccion, desdeId), con el estado vigente de cada usuario. Requiere la cabecera " +
+                          "X-Service-Key con la clave compartida entre microservicios",
+            tags = {"🔐 Autenticación"}
+    )
+    @GetMapping("/eventos-usuarios")
+    public ResponseEntity<?> getEventosUsuarios(
+            @RequestHeader(value = CABECERA_CLAVE_SERVICIO, required = false) String claveServicio,
+            @RequestParam(defaultValue = "0") long desdeTransaccion,
+            @RequestParam(defaultValue = "0") long desdeId,
+            @RequestParam(defaultValue = "500") int limite) {
+        if (!esClaveServicioValida(claveServicio)) {
+            return claveServicioInvalida();
+        }
+        return ResponseEntity.ok(eventoUsuarioService.getEventosDesde(desdeTransaccion, desdeId, limite));
+    }
+
+    private boolean esClaveServicioValida(String claveServicio) {
+        return claveServicio != null && MessageDigest.isEqual(
+                claveServicio.getBytes(StandardCharsets.UTF_8), this.claveServicio.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ResponseEntity<MessageResponse> claveServicioInvalida() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new MessageResponse("Clave de servicio inválida", false));
+    }
 }
@@ -0,0 +1,43 @@
+package com.escuelaposgrado.Autenticacion.controller;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.escuelaposgrado.Autenticacion.security.services.JwtKeyService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * Publica las claves públicas con las que se verifican los tokens de acceso
+ */
+@Tag(name = "🔐 Autenticación", description = "Endpoints para autenticación y registro de usuarios")
+@RestController
+public class JwksController {
+
+    // Los consumidores vuelven a consultar antes si encuentran un kid desconocido
+    private static final long MAX_AGE_SEGUNDOS = 300;
+
+    @Autowired
+    private JwtKeyService jwtKeyService;
+
+    /**
+     * Documento JWKS (RFC 7517) con las claves de firma publicadas
+     */
+    @Operation(
+            summary = "Claves públicas de firma (JWKS)",
+            description = "Claves ES256 vigentes y recién retiradas con las que los demás servicios verifican los tokens de acceso"
+    )
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(MAX_AGE_SEGUNDOS, TimeUnit.SECONDS).cachePublic())
+                .body(jwtKeyService.getJwks());
+    }
+}
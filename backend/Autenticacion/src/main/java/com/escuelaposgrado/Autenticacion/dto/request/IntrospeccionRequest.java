@@ -0,0 +1,49 @@
+package com.escuelaposgrado.Autenticacion.dto.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO para consultar en lote el estado de tokens de acceso y de usuarios (uso interno)
+ */
+@Schema(description = "Tokens de acceso y/o ids de usuario a consultar en una sola llamada")
+public class IntrospeccionRequest {
+
+    public static final int MAXIMO_POR_LOTE = 500;
+
+    @Schema(description = "Tokens de acceso a verificar")
+    @Size(max = MAXIMO_POR_LOTE, message = "Máximo " + MAXIMO_POR_LOTE + " tokens por consulta")
+    private List<String> tokens = new ArrayList<>();
+
+    @Schema(description = "Ids de usuario a consultar", example = "[1, 2, 3]")
+    @Size(max = MAXIMO_POR_LOTE, message = "Máximo " + MAXIMO_POR_LOTE + " usuarios por consulta")
+    private List<Long> usuarioIds = new ArrayList<>();
+
+    // Constructores
+    public IntrospeccionRequest() {}
+
+    public IntrospeccionRequest(List<String> tokens, List<Long> usuarioIds) {
+        this.tokens = tokens;
+        this.usuarioIds = usuarioIds;
+    }
+
+    // Getters y Setters
+    public List<String> getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    public List<Long> getUsuarioIds() {
+        return usuarioIds;
+    }
+
+    public void setUsuarioIds(List<Long> usuarioIds) {
+        this.usuarioIds = usuarioIds;
+    }
+}
@@ -0,0 +1,90 @@
+package com.escuelaposgrado.Autenticacion.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Parámetros de paginación, orden y filtro de los listados de usuarios
+ */
+@Schema(description = "Paginación por cursor, orden y filtros de los listados de usuarios")
+public class ListadoUsuariosRequest {
+
+    /**
+     * Campos por los que se puede ordenar un listado
+     */
+    public enum Orden {
+        ID,
+        APELLIDOS,
+        NOMBRES,
+        FECHA_CREACION
+    }
+
+    @Schema(description = "Campo de orden", example = "APELLIDOS", defaultValue = "ID")
+    private Orden orden = Orden.ID;
+
+    @Schema(description = "Orden descendente", defaultValue = "false")
+    private boolean descendente = false;
+
+    @Schema(description = "Cursor devuelto en siguienteCursor por la página anterior")
+    private String cursor;
+
+    @Schema(description = "Cantidad de usuarios por página (máximo 200)", example = "50", defaultValue = "50")
+    private Integer limite;
+
+    @Schema(description = "Filtrar por especialidad (docentes y coordinadores)")
+    private String especialidad;
+
+    @Schema(description = "Filtrar por programa de interés (postulantes)")
+    private String programaInteres;
+
+    // Constructores
+    public ListadoUsuariosRequest() {}
+
+    // Getters y Setters
+    public Orden getOrden() {
+        return orden;
+    }
+
+    public void setOrden(Orden orden) {
+        this.orden = orden;
+    }
+
+    public boolean isDescendente() {
+        return descendente;
+    }
+
+    public void setDescendente(boolean descendente) {
+        this.descendente = descendente;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getLimite() {
+        return limite;
+    }
+
+    public void setLimite(Integer limite) {
+        this.limite = limite;
+    }
+
+    public String getEspecialidad() {
+        return especialidad;
+    }
+
+    public void setEspecialidad(String especialidad) {
+        this.especialidad = especialidad;
+    }
+
+    public String getProgramaInteres() {
+        return programaInteres;
+    }
+
+    public void setProgramaInteres(String programaInteres) {
+        this.programaInteres = programaInteres;
+    }
+}
@@ -0,0 +1,31 @@
+package com.escuelaposgrado.Autenticacion.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * DTO para renovar el token de acceso o cerrar la sesión
+ */
+@Schema(description = "Token de refresco recibido en el login o en la última renovación")
+public class RefreshTokenRequest {
+
+    @Schema(description = "Token de refresco", example = "q8B0mWc7nq1...", required = true)
+    @NotBlank(message = "El token de refresco es obligatorio")
+    private String refreshToken;
+
+    // Constructores
+    public RefreshTokenRequest() {}
+
+    public RefreshTokenRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    // Getters y Setters
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -11,6 +11,8 @@ public class AuthResponse {
 
     private String token;
     private String type = "Bearer";
+    private String refreshToken;
+    private Long expiresIn; // Segundos de vigencia del token de acceso
     private Long id;
     private String username;
     private String email;
@@ -51,6 +53,22 @@ public class AuthResponse {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+
     public String getType() {
         return type;
     }
@@ -0,0 +1,194 @@
+package com.escuelaposgrado.Autenticacion.dto.response;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.escuelaposgrado.Autenticacion.model.enums.Role;
+
+/**
+ * DTO con las estadísticas de usuarios del panel de administración.
+ *
+ * message conserva el texto "Total: N, Admins: N, ..." que interpretaba el frontend.
+ */
+public class EstadisticasUsuariosResponse {
+
+    private String message;
+    private boolean success = true;
+    private long totalUsuarios;
+    private long activos;
+    private long inactivos;
+    private Map<Role, ConteoRol> porRol = new EnumMap<>(Role.class);
+    private int diasActividad;
+    private long activosUltimosDias;
+    private int diasRegistros;
+    private List<RegistrosDia> registrosPorDia = new ArrayList<>();
+    private LocalDateTime generadoEn;
+
+    /**
+     * Usuarios activos e inactivos de un rol
+     */
+    public static class ConteoRol {
+
+        private long activos;
+        private long inactivos;
+
+        public ConteoRol() {}
+
+        public ConteoRol(long activos, long inactivos) {
+            this.activos = activos;
+            this.inactivos = inactivos;
+        }
+
+        public long getActivos() {
+            return activos;
+        }
+
+        public void setActivos(long activos) {
+            this.activos = activos;
+        }
+
+        public long getInactivos() {
+            return inactivos;
+        }
+
+        public void setInactivos(long inactivos) {
+            this.inactivos = inactivos;
+        }
+    }
+
+    /**
+     * Usuarios registrados en un día
+     */
+    public static class RegistrosDia {
+
+        private LocalDate fecha;
+        private long cantidad;
+
+        public RegistrosDia() {}
+
+        public RegistrosDia(LocalDate fecha, long cantidad) {
+            this.fecha = fecha;
+            this.cantidad = cantidad;
+        }
+
+        public LocalDate getFecha() {
+            return fecha;
+        }
+
+        public void setFecha(LocalDate fecha) {
+            this.fecha = fecha;
+        }
+
+        public long getCantidad() {
+            return cantidad;
+        }
+
+        public void setCantidad(long cantidad) {
+            this.cantidad = cantidad;
+        }
+    }
+
+    // Constructores
+    public EstadisticasUsuariosResponse() {}
+
+    /**
+     * Activos de un rol (0 si no hay usuarios con ese rol)
+     */
+    public long activosDe(Role role) {
+        ConteoRol conteo = porRol.get(role);
+        return conteo != null ? conteo.getActivos() : 0;
+    }
+
+    // Getters y Setters
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public long getTotalUsuarios() {
+        return totalUsuarios;
+    }
+
+    public void setTotalUsuarios(long totalUsuarios) {
+        this.totalUsuarios = totalUsuarios;
+    }
+
+    public long getActivos() {
+        return activos;
+    }
+
+    public void setActivos(long activos) {
+        this.activos = activos;
+    }
+
+    public long getInactivos() {
+        return inactivos;
+    }
+
+    public void setInactivos(long inactivos) {
+        this.inactivos = inactivos;
+    }
+
+    public Map<Role, ConteoRol> getPorRol() {
+        return porRol;
+    }
+
+    public void setPorRol(Map<Role, ConteoRol> porRol) {
+        this.porRol = porRol;
+    }
+
+    public int getDiasActividad() {
+        return diasActividad;
+    }
+
+    public void setDiasActividad(int diasActividad) {
+        this.diasActividad = diasActividad;
+    }
+
+    public long getActivosUltimosDias() {
+        return activosUltimosDias;
+    }
+
+    public void setActivosUltimosDias(long activosUltimosDias) {
+        this.activosUltimosDias = activosUltimosDias;
+    }
+
+    public int getDiasRegistros() {
+        return diasRegistros;
+    }
+
+    public void setDiasRegistros(int diasRegistros) {
+        this.diasRegistros = diasRegistros;
+    }
+
+    public List<RegistrosDia> getRegistrosPorDia() {
+        return registrosPorDia;
+    }
+
+    public void setRegistrosPorDia(List<RegistrosDia> registrosPorDia) {
+        this.registrosPorDia = registrosPorDia;
+    }
+
+    public LocalDateTime getGeneradoEn() {
+        return generadoEn;
+    }
+
+    public void setGeneradoEn(LocalDateTime generadoEn) {
+        this.generadoEn = generadoEn;
+    }
+}
@@ -0,0 +1,223 @@
+package com.escuelaposgrado.Autenticacion.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con una página de eventos de la bandeja de salida de usuarios.
+ *
+ * Cada evento trae el estado vigente del usuario, no el del momento del cambio: aplicarlo
+ * varias veces o fuera de orden deja la misma copia local. La posición (hastaTransaccion,
+ * hastaId) se envía como desdeTransaccion/desdeId en la siguiente consulta.
+ */
+public class EventosUsuarioResponse {
+
+    private long hastaTransaccion;
+    private long hastaId;
+    // true si la página se llenó y conviene pedir la siguiente sin esperar
+    private boolean hayMas;
+    private List<Evento> eventos = new ArrayList<>();
+
+    /**
+     * Cambio de un usuario; si tipo es ELIMINADO solo vienen id, tipo y usuarioId
+     */
+    public static class Evento {
+
+        private long id;
+        private long transaccion;
+        private String tipo;
+        private Long usuarioId;
+        private String username;
+        private String email;
+        private String nombres;
+        private String apellidos;
+        private String dni;
+        private String telefono;
+        private String direccion;
+        private String role;
+        private boolean activo;
+        private String codigoEstudiante;
+        private String codigoDocente;
+        private String especialidad;
+        private String programaInteres;
+
+        public Evento() {}
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public long getTransaccion() {
+            return transaccion;
+        }
+
+        public void setTransaccion(long transaccion) {
+            this.transaccion = transaccion;
+        }
+
+        public String getTipo() {
+            return tipo;
+        }
+
+        public void setTipo(String tipo) {
+            this.tipo = tipo;
+        }
+
+        public Long getUsuarioId() {
+            return usuarioId;
+        }
+
+        public void setUsuarioId(Long usuarioId) {
+            this.usuarioId = usuarioId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public String getNombres() {
+            return nombres;
+        }
+
+        public void setNombres(String nombres) {
+            this.nombres = nombres;
+        }
+
+        public String getApellidos() {
+            return apellidos;
+        }
+
+        public void setApellidos(String apellidos) {
+            this.apellidos = apellidos;
+        }
+
+        public String getDni() {
+            return dni;
+        }
+
+        public void setDni(String dni) {
+            this.dni = dni;
+        }
+
+        public String getTelefono() {
+            return telefono;
+        }
+
+        public void setTelefono(String telefono) {
+            this.telefono = telefono;
+        }
+
+        public String getDireccion() {
+            return direccion;
+        }
+
+        public void setDireccion(String direccion) {
+            this.direccion = direccion;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public void setRole(String role) {
+            this.role = role;
+        }
+
+        public boolean isActivo() {
+            return activo;
+        }
+
+        public void setActivo(boolean activo) {
+            this.activo = activo;
+        }
+
+        public String getCodigoEstudiante() {
+            return codigoEstudiante;
+        }
+
+        public void setCodigoEstudiante(String codigoEstudiante) {
+            this.codigoEstudiante = codigoEstudiante;
+        }
+
+        public String getCodigoDocente() {
+            return codigoDocente;
+        }
+
+        public void setCodigoDocente(String codigoDocente) {
+            this.codigoDocente = codigoDocente;
+        }
+
+        public String getEspecialidad() {
+            return especialidad;
+        }
+
+        public void setEspecialidad(String especialidad) {
+            this.especialidad = especialidad;
+        }
+
+        public String getProgramaInteres() {
+            return programaInteres;
+        }
+
+        public void setProgramaInteres(String programaInteres) {
+            this.programaInteres = programaInteres;
+        }
+    }
+
+    // Constructores
+    public EventosUsuarioResponse() {}
+
+    public EventosUsuarioResponse(long hastaTransaccion, long hastaId) {
+        this.hastaTransaccion = hastaTransaccion;
+        this.hastaId = hastaId;
+    }
+
+    // Getters y Setters
+    public long getHastaTransaccion() {
+        return hastaTransaccion;
+    }
+
+    public void setHastaTransaccion(long hastaTransaccion) {
+        this.hastaTransaccion = hastaTransaccion;
+    }
+
+    public long getHastaId() {
+        return hastaId;
+    }
+
+    public void setHastaId(long hastaId) {
+        this.hastaId = hastaId;
+    }
+
+    public boolean isHayMas() {
+        return hayMas;
+    }
+
+    public void setHayMas(boolean hayMas) {
+        this.hayMas = hayMas;
+    }
+
+    public List<Evento> getEventos() {
+        return eventos;
+    }
+
+    public void setEventos(List<Evento> eventos) {
+        this.eventos = eventos;
+    }
+}
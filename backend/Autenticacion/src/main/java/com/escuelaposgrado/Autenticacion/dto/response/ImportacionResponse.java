@@ -0,0 +1,115 @@
+package com.escuelaposgrado.Autenticacion.dto.response;
+
+import java.time.LocalDateTime;
+
+import com.escuelaposgrado.Autenticacion.model.enums.EstadoImportacion;
+
+/**
+ * DTO con el estado y el avance de una importación masiva de usuarios
+ */
+public class ImportacionResponse {
+
+    private Long id;
+    private String nombreArchivo;
+    private EstadoImportacion estado;
+    private Integer filasProcesadas;
+    private Integer exitosos;
+    private Integer fallidos;
+    private Double filasPorSegundo;
+    private String mensaje;
+    private LocalDateTime fechaCreacion;
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaFin;
+
+    // Constructores
+    public ImportacionResponse() {}
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNombreArchivo() {
+        return nombreArchivo;
+    }
+
+    public void setNombreArchivo(String nombreArchivo) {
+        this.nombreArchivo = nombreArchivo;
+    }
+
+    public EstadoImportacion getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoImportacion estado) {
+        this.estado = estado;
+    }
+
+    public Integer getFilasProcesadas() {
+        return filasProcesadas;
+    }
+
+    public void setFilasProcesadas(Integer filasProcesadas) {
+        this.filasProcesadas = filasProcesadas;
+    }
+
+    public Integer getExitosos() {
+        return exitosos;
+    }
+
+    public void setExitosos(Integer exitosos) {
+        this.exitosos = exitosos;
+    }
+
+    public Integer getFallidos() {
+        return fallidos;
+    }
+
+    public void setFallidos(Integer fallidos) {
+        this.fallidos = fallidos;
+    }
+
+    public Double getFilasPorSegundo() {
+        return filasPorSegundo;
+    }
+
+    public void setFilasPorSegundo(Double filasPorSegundo) {
+        this.filasPorSegundo = filasPorSegundo;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public void setFechaCreacion(LocalDateTime fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+
+    public LocalDateTime getFechaInicio() {
+        return fechaInicio;
+    }
+
+    public void setFechaInicio(LocalDateTime fechaInicio) {
+        this.fechaInicio = fechaInicio;
+    }
+
+    public LocalDateTime getFechaFin() {
+        return fechaFin;
+    }
+
+    public void setFechaFin(LocalDateTime fechaFin) {
+        this.fechaFin = fechaFin;
+    }
+}
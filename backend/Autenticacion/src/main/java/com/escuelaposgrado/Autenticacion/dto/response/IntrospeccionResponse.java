@@ -0,0 +1,129 @@
+package com.escuelaposgrado.Autenticacion.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado de una introspección en lote.
+ * Los tokens se devuelven en el mismo orden en que se enviaron; los usuarios inexistentes se omiten.
+ */
+public class IntrospeccionResponse {
+
+    private List<TokenIntrospeccion> tokens = new ArrayList<>();
+    private List<UsuarioIntrospeccion> usuarios = new ArrayList<>();
+
+    /**
+     * Datos vigentes de un usuario: rol, estado de la cuenta y nombre para mostrar
+     */
+    public static class UsuarioIntrospeccion {
+
+        private Long id;
+        private String username;
+        private String nombreCompleto;
+        private String role;
+        private boolean activo;
+
+        public UsuarioIntrospeccion() {}
+
+        public UsuarioIntrospeccion(Long id, String username, String nombreCompleto, String role, boolean activo) {
+            this.id = id;
+            this.username = username;
+            this.nombreCompleto = nombreCompleto;
+            this.role = role;
+            this.activo = activo;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getNombreCompleto() {
+            return nombreCompleto;
+        }
+
+        public void setNombreCompleto(String nombreCompleto) {
+            this.nombreCompleto = nombreCompleto;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public void setRole(String role) {
+            this.role = role;
+        }
+
+        public boolean isActivo() {
+            return activo;
+        }
+
+        public void setActivo(boolean activo) {
+            this.activo = activo;
+        }
+    }
+
+    /**
+     * Resultado de un token: valido es false si la firma, la expiración, la revocación o el
+     * estado de la cuenta lo invalidan; en ese caso usuario puede venir vacío
+     */
+    public static class TokenIntrospeccion {
+
+        private boolean valido;
+        private UsuarioIntrospeccion usuario;
+
+        public TokenIntrospeccion() {}
+
+        public TokenIntrospeccion(boolean valido, UsuarioIntrospeccion usuario) {
+            this.valido = valido;
+            this.usuario = usuario;
+        }
+
+        public boolean isValido() {
+            return valido;
+        }
+
+        public void setValido(boolean valido) {
+            this.valido = valido;
+        }
+
+        public UsuarioIntrospeccion getUsuario() {
+            return usuario;
+        }
+
+        public void setUsuario(UsuarioIntrospeccion usuario) {
+            this.usuario = usuario;
+        }
+    }
+
+    // Constructores
+    public IntrospeccionResponse() {}
+
+    // Getters y Setters
+    public List<TokenIntrospeccion> getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(List<TokenIntrospeccion> tokens) {
+        this.tokens = tokens;
+    }
+
+    public List<UsuarioIntrospeccion> getUsuarios() {
+        return usuarios;
+    }
+
+    public void setUsuarios(List<UsuarioIntrospeccion> usuarios) {
+        this.usuarios = usuarios;
+    }
+}
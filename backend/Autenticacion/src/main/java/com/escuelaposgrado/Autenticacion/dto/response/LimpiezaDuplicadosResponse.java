@@ -0,0 +1,114 @@
+package com.escuelaposgrado.Autenticacion.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado (o la simulación) de la limpieza de usuarios duplicados
+ */
+public class LimpiezaDuplicadosResponse {
+
+    private String message;
+    private boolean success = true;
+    private boolean simulacion;
+    private int totalEliminados;
+    private List<ResultadoCampo> detalle = new ArrayList<>();
+
+    /**
+     * Duplicados encontrados para un campo único
+     */
+    public static class ResultadoCampo {
+
+        private String campo;
+        private int grupos;
+        private int eliminados;
+
+        public ResultadoCampo() {}
+
+        public ResultadoCampo(String campo, int grupos, int eliminados) {
+            this.campo = campo;
+            this.grupos = grupos;
+            this.eliminados = eliminados;
+        }
+
+        public String getCampo() {
+            return campo;
+        }
+
+        public void setCampo(String campo) {
+            this.campo = campo;
+        }
+
+        public int getGrupos() {
+            return grupos;
+        }
+
+        public void setGrupos(int grupos) {
+            this.grupos = grupos;
+        }
+
+        public int getEliminados() {
+            return eliminados;
+        }
+
+        public void setEliminados(int eliminados) {
+            this.eliminados = eliminados;
+        }
+    }
+
+    // Constructores
+    public LimpiezaDuplicadosResponse() {}
+
+    public LimpiezaDuplicadosResponse(boolean simulacion) {
+        this.simulacion = simulacion;
+    }
+
+    /**
+     * Agregar el resultado de un campo y acumular el total
+     */
+    public void agregar(ResultadoCampo resultado) {
+        detalle.add(resultado);
+        totalEliminados += resultado.getEliminados();
+    }
+
+    // Getters y Setters
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public boolean isSimulacion() {
+        return simulacion;
+    }
+
+    public void setSimulacion(boolean simulacion) {
+        this.simulacion = simulacion;
+    }
+
+    public int getTotalEliminados() {
+        return totalEliminados;
+    }
+
+    public void setTotalEliminados(int totalEliminados) {
+        this.totalEliminados = totalEliminados;
+    }
+
+    public List<ResultadoCampo> getDetalle() {
+        return detalle;
+    }
+
+    public void setDetalle(List<ResultadoCampo> detalle) {
+        this.detalle = detalle;
+    }
+}
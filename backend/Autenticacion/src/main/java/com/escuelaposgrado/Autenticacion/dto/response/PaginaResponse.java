@@ -0,0 +1,58 @@
+package com.escuelaposgrado.Autenticacion.dto.response;
+
+import java.util.List;
+
+/**
+ * DTO para una página de resultados con paginación por cursor (keyset).
+ * Para obtener la página siguiente se envía siguienteCursor como parámetro cursor.
+ */
+public class PaginaResponse<T> {
+
+    private List<T> items;
+    private String siguienteCursor;
+    private boolean tieneMas;
+    private int limite;
+
+    // Constructores
+    public PaginaResponse() {}
+
+    public PaginaResponse(List<T> items, String siguienteCursor, boolean tieneMas, int limite) {
+        this.items = items;
+        this.siguienteCursor = siguienteCursor;
+        this.tieneMas = tieneMas;
+        this.limite = limite;
+    }
+
+    // Getters y Setters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public void setSiguienteCursor(String siguienteCursor) {
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public boolean isTieneMas() {
+        return tieneMas;
+    }
+
+    public void setTieneMas(boolean tieneMas) {
+        this.tieneMas = tieneMas;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public void setLimite(int limite) {
+        this.limite = limite;
+    }
+}
@@ -0,0 +1,82 @@
+package com.escuelaposgrado.Autenticacion.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con las revocaciones de tokens de acceso que los demás microservicios replican.
+ * Los instantes se expresan en milisegundos desde epoch.
+ */
+public class RevocacionesResponse {
+
+    // Instante hasta el que se incluyen revocaciones; se envía como "desde" en la siguiente consulta
+    private long hasta;
+    // Antigüedad máxima de un token de acceso: las revocaciones más antiguas ya no se envían
+    private long ventanaMs;
+    private List<Revocacion> revocaciones = new ArrayList<>();
+
+    /**
+     * Tokens del usuario emitidos hasta revocadoEn ya no son válidos
+     */
+    public static class Revocacion {
+
+        private Long usuarioId;
+        private long revocadoEn;
+
+        public Revocacion() {}
+
+        public Revocacion(Long usuarioId, long revocadoEn) {
+            this.usuarioId = usuarioId;
+            this.revocadoEn = revocadoEn;
+        }
+
+        public Long getUsuarioId() {
+            return usuarioId;
+        }
+
+        public void setUsuarioId(Long usuarioId) {
+            this.usuarioId = usuarioId;
+        }
+
+        public long getRevocadoEn() {
+            return revocadoEn;
+        }
+
+        public void setRevocadoEn(long revocadoEn) {
+            this.revocadoEn = revocadoEn;
+        }
+    }
+
+    // Constructores
+    public RevocacionesResponse() {}
+
+    public RevocacionesResponse(long hasta, long ventanaMs) {
+        this.hasta = hasta;
+        this.ventanaMs = ventanaMs;
+    }
+
+    // Getters y Setters
+    public long getHasta() {
+        return hasta;
+    }
+
+    public void setHasta(long hasta) {
+        this.hasta = hasta;
+    }
+
+    public long getVentanaMs() {
+        return ventanaMs;
+    }
+
+    public void setVentanaMs(long ventanaMs) {
+        this.ventanaMs = ventanaMs;
+    }
+
+    public List<Revocacion> getRevocaciones() {
+        return revocaciones;
+    }
+
+    public void setRevocaciones(List<Revocacion> revocaciones) {
+        this.revocaciones = revocaciones;
+    }
+}
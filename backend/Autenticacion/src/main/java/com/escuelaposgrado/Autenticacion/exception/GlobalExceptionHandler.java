@@ -0,0 +1,40 @@
+package com.escuelaposgrado.Autenticacion.exception;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import com.escuelaposgrado.Autenticacion.dto.response.MessageResponse;
+
+/**
+ * Manejador global de excepciones
+ */
+@ControllerAdvice
+public class GlobalExceptionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private static final String RETRY_AFTER_SEGUNDOS = "5";
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<MessageResponse> handleBadRequestException(BadRequestException ex) {
+        return ResponseEntity.badRequest().body(new MessageResponse(ex.getMessage(), false));
+    }
+
+    @ExceptionHandler(TokenRefrescoException.class)
+    public ResponseEntity<MessageResponse> handleTokenRefrescoException(TokenRefrescoException ex) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new MessageResponse(ex.getMessage(), false));
+    }
+
+    @ExceptionHandler(ServicioSaturadoException.class)
+    public ResponseEntity<MessageResponse> handleServicioSaturadoException(ServicioSaturadoException ex) {
+        logger.warn("Petición rechazada por saturación: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SEGUNDOS)
+                .body(new MessageResponse(ex.getMessage(), false));
+    }
+}
@@ -0,0 +1,16 @@
+package com.escuelaposgrado.Autenticacion.exception;
+
+/**
+ * Excepción para operaciones rechazadas porque el recurso que las atiende está saturado.
+ * Se traduce a HTTP 503 para que el cliente reintente más tarde.
+ */
+public class ServicioSaturadoException extends RuntimeException {
+
+    public ServicioSaturadoException(String message) {
+        super(message);
+    }
+
+    public ServicioSaturadoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
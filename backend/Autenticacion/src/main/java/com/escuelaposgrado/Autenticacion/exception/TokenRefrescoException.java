@@ -0,0 +1,12 @@
+package com.escuelaposgrado.Autenticacion.exception;
+
+/**
+ * Excepción para tokens de refresco inexistentes, expirados o revocados.
+ * Se traduce a HTTP 401 para que el cliente vuelva a iniciar sesión.
+ */
+public class TokenRefrescoException extends RuntimeException {
+
+    public TokenRefrescoException(String message) {
+        super(message);
+    }
+}
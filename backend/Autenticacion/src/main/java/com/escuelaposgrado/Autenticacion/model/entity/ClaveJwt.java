@@ -0,0 +1,88 @@
+package com.escuelaposgrado.Autenticacion.model.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Par de claves EC (P-256) con el que se firman los tokens de acceso. La clave pública se
+ * publica en el JWKS mientras pueda existir un token firmado con ella.
+ */
+@Entity
+@Table(name = "jwt_claves")
+public class ClaveJwt {
+
+    // Identificador publicado en la cabecera "kid" de los tokens
+    @Id
+    @Column(length = 64)
+    private String kid;
+
+    // PKCS#8 en Base64
+    @Column(name = "clave_privada", nullable = false, columnDefinition = "TEXT")
+    private String clavePrivada;
+
+    // X.509 (SubjectPublicKeyInfo) en Base64
+    @Column(name = "clave_publica", nullable = false, columnDefinition = "TEXT")
+    private String clavePublica;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    // Momento en que dejó de usarse para firmar (null mientras es la clave vigente)
+    @Column(name = "fecha_retiro")
+    private LocalDateTime fechaRetiro;
+
+    // Constructores
+    public ClaveJwt() {}
+
+    public ClaveJwt(String kid, String clavePrivada, String clavePublica) {
+        this.kid = kid;
+        this.clavePrivada = clavePrivada;
+        this.clavePublica = clavePublica;
+        this.fechaCreacion = LocalDateTime.now();
+    }
+
+    // Getters y Setters
+    public String getKid() {
+        return kid;
+    }
+
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+
+    public String getClavePrivada() {
+        return clavePrivada;
+    }
+
+    public void setClavePrivada(String clavePrivada) {
+        this.clavePrivada = clavePrivada;
+    }
+
+    public String getClavePublica() {
+        return clavePublica;
+    }
+
+    public void setClavePublica(String clavePublica) {
+        this.clavePublica = clavePublica;
+    }
+
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public void setFechaCreacion(LocalDateTime fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+
+    public LocalDateTime getFechaRetiro() {
+        return fechaRetiro;
+    }
+
+    public void setFechaRetiro(LocalDateTime fechaRetiro) {
+        this.fechaRetiro = fechaRetiro;
+    }
+}
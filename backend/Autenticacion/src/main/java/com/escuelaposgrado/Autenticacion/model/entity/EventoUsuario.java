@@ -0,0 +1,92 @@
+package com.escuelaposgrado.Autenticacion.model.entity;
+
+import java.time.LocalDateTime;
+
+import com.escuelaposgrado.Autenticacion.model.enums.TipoEventoUsuario;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Evento de la bandeja de salida (outbox) de cambios de usuarios.
+ *
+ * Las filas las inserta un disparador de PostgreSQL sobre usuarios en la misma transacción
+ * que el cambio (ver EventoUsuarioService). transaccion es el id de esa transacción, que
+ * permite entregar los eventos sin huecos aunque las transacciones terminen en otro orden.
+ */
+@Entity
+@Table(name = "usuario_eventos",
+       indexes = {
+           @Index(name = "idx_usuario_eventos_transaccion", columnList = "transaccion, id"),
+           @Index(name = "idx_usuario_eventos_usuario", columnList = "usuario_id")
+       })
+public class EventoUsuario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoEventoUsuario tipo;
+
+    @Column(nullable = false)
+    private Long transaccion;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    // Constructores
+    public EventoUsuario() {}
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public TipoEventoUsuario getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(TipoEventoUsuario tipo) {
+        this.tipo = tipo;
+    }
+
+    public Long getTransaccion() {
+        return transaccion;
+    }
+
+    public void setTransaccion(Long transaccion) {
+        this.transaccion = transaccion;
+    }
+
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public void setFechaCreacion(LocalDateTime fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+}
@@ -0,0 +1,67 @@
+package com.escuelaposgrado.Autenticacion.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Error de una fila durante una importación masiva de usuarios
+ */
+@Entity
+@Table(name = "importacion_errores",
+       indexes = @Index(name = "idx_importacion_errores_importacion", columnList = "importacion_id, fila"))
+public class ImportacionError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "importacion_id", nullable = false)
+    private Long importacionId;
+
+    @Column(nullable = false)
+    private Integer fila;
+
+    @Column(nullable = false, length = 1000)
+    private String mensaje;
+
+    // Constructores
+    public ImportacionError() {}
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getImportacionId() {
+        return importacionId;
+    }
+
+    public void setImportacionId(Long importacionId) {
+        this.importacionId = importacionId;
+    }
+
+    public Integer getFila() {
+        return fila;
+    }
+
+    public void setFila(Integer fila) {
+        this.fila = fila;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+}
@@ -0,0 +1,209 @@
+package com.escuelaposgrado.Autenticacion.model.entity;
+
+import java.time.LocalDateTime;
+
+import com.escuelaposgrado.Autenticacion.model.enums.EstadoImportacion;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+
+/**
+ * Importación masiva de usuarios desde Excel ejecutada en segundo plano.
+ *
+ * Guarda el avance (última fila confirmada y contadores) para que la importación
+ * pueda reanudarse tras un reinicio de la aplicación.
+ */
+@Entity
+@Table(name = "importaciones_usuarios")
+public class ImportacionUsuarios {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "nombre_archivo", nullable = false)
+    private String nombreArchivo;
+
+    @Column(name = "ruta_archivo", nullable = false, length = 500)
+    private String rutaArchivo;
+
+    @Column(name = "creado_por", length = 50)
+    private String creadoPor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoImportacion estado = EstadoImportacion.PENDIENTE;
+
+    @Column(name = "ultima_fila", nullable = false)
+    private Integer ultimaFila = 0;
+
+    @Column(name = "filas_procesadas", nullable = false)
+    private Integer filasProcesadas = 0;
+
+    @Column(nullable = false)
+    private Integer exitosos = 0;
+
+    @Column(nullable = false)
+    private Integer fallidos = 0;
+
+    @Column(length = 1000)
+    private String mensaje;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_inicio")
+    private LocalDateTime fechaInicio;
+
+    @Column(name = "fecha_fin")
+    private LocalDateTime fechaFin;
+
+    // Instancia que la está ejecutando y su último latido; un latido vencido libera la importación
+    @Column(length = 100)
+    private String propietario;
+
+    @Column
+    private LocalDateTime latido;
+
+    // Constructores
+    public ImportacionUsuarios() {}
+
+    public ImportacionUsuarios(String nombreArchivo, String rutaArchivo, String creadoPor) {
+        this.nombreArchivo = nombreArchivo;
+        this.rutaArchivo = rutaArchivo;
+        this.creadoPor = creadoPor;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        fechaCreacion = LocalDateTime.now();
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNombreArchivo() {
+        return nombreArchivo;
+    }
+
+    public void setNombreArchivo(String nombreArchivo) {
+        this.nombreArchivo = nombreArchivo;
+    }
+
+    public String getRutaArchivo() {
+        return rutaArchivo;
+    }
+
+    public void setRutaArchivo(String rutaArchivo) {
+        this.rutaArchivo = rutaArchivo;
+    }
+
+    public String getCreadoPor() {
+        return creadoPor;
+    }
+
+    public void setCreadoPor(String creadoPor) {
+        this.creadoPor = creadoPor;
+    }
+
+    public EstadoImportacion getEstado() {
+        return estado;
+    }
+
+    public void setEstado(EstadoImportacion estado) {
+        this.estado = estado;
+    }
+
+    public Integer getUltimaFila() {
+        return ultimaFila;
+    }
+
+    public void setUltimaFila(Integer ultimaFila) {
+        this.ultimaFila = ultimaFila;
+    }
+
+    public Integer getFilasProcesadas() {
+        return filasProcesadas;
+    }
+
+    public void setFilasProcesadas(Integer filasProcesadas) {
+        this.filasProcesadas = filasProcesadas;
+    }
+
+    public Integer getExitosos() {
+        return exitosos;
+    }
+
+    public void setExitosos(Integer exitosos) {
+        this.exitosos = exitosos;
+    }
+
+    public Integer getFallidos() {
+        return fallidos;
+    }
+
+    public void setFallidos(Integer fallidos) {
+        this.fallidos = fallidos;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    public LocalDateTime getFechaCreacion() {
+        return fechaCreacion;
+    }
+
+    public void setFechaCreacion(LocalDateTime fechaCreacion) {
+        this.fechaCreacion = fechaCreacion;
+    }
+
+    public LocalDateTime getFechaInicio() {
+        return fechaInicio;
+    }
+
+    public void setFechaInicio(LocalDateTime fechaInicio) {
+        this.fechaInicio = fechaInicio;
+    }
+
+    public LocalDateTime getFechaFin() {
+        return fechaFin;
+    }
+
+    public void setFechaFin(LocalDateTime fechaFin) {
+        this.fechaFin = fechaFin;
+    }
+
+    public String getPropietario() {
+        return propietario;
+    }
+
+    public void setPropietario(String propietario) {
+        this.propietario = propietario;
+    }
+
+    public LocalDateTime getLatido() {
+        return latido;
+    }
+
+    public void setLatido(LocalDateTime latido) {
+        this.latido = latido;
+    }
+}
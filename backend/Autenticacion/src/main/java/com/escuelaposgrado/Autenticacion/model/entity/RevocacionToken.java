@@ -0,0 +1,64 @@
+package com.escuelaposgrado.Autenticacion.model.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Revocación de los tokens de acceso de un usuario: se rechazan los emitidos antes de
+ * fechaRevocacion. Solo interesa mientras alguno de esos tokens pueda seguir vigente.
+ */
+@Entity
+@Table(name = "token_revocaciones",
+       indexes = @Index(name = "idx_token_revocaciones_fecha", columnList = "fecha_revocacion"))
+public class RevocacionToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "fecha_revocacion", nullable = false)
+    private LocalDateTime fechaRevocacion;
+
+    // Constructores
+    public RevocacionToken() {}
+
+    public RevocacionToken(Long usuarioId, LocalDateTime fechaRevocacion) {
+        this.usuarioId = usuarioId;
+        this.fechaRevocacion = fechaRevocacion;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public LocalDateTime getFechaRevocacion() {
+        return fechaRevocacion;
+    }
+
+    public void setFechaRevocacion(LocalDateTime fechaRevocacion) {
+        this.fechaRevocacion = fechaRevocacion;
+    }
+}
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,6 +18,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
@@ -30,7 +32,13 @@ import jakarta.validation.constraints.Size;
  * académico de la Escuela de Posgrado UNICA
  */
 @Entity
-@Table(name = "usuarios")
+@Table(name = "usuarios", indexes = {
+    // Índices (campo de orden, id) para los listados paginados por cursor
+    @Index(name = "idx_usuarios_rol_activo_id", columnList = "rol, activo, id"),
+    @Index(name = "idx_usuarios_apellido_id", columnList = "apellido_paterno, id"),
+    @Index(name = "idx_usuarios_nombre_id", columnList = "nombre, id"),
+    @Index(name = "idx_usuarios_fecha_creacion_id", columnList = "fecha_creacion, id")
+})
 public class Usuario implements UserDetails {
 
     @Id
@@ -104,6 +112,11 @@ public class Usuario implements UserDetails {
     @Column(name = "programa_interes")
     private String programaInteres; // Para POSTULANTE
 
+    // Se incrementa con cada cambio que invalida los tokens emitidos (rol, estado, credenciales)
+    @ColumnDefault("0")
+    @Column(name = "version_cuenta", nullable = false)
+    private Integer versionCuenta = 0;
+
     // Constructores
     public Usuario() {
         this.fechaCreacion = LocalDateTime.now();
@@ -364,6 +377,21 @@ public class Usuario implements UserDetails {
         this.programaInteres = programaInteres;
     }
 
+    public Integer getVersionCuenta() {
+        return versionCuenta;
+    }
+
+    public void setVersionCuenta(Integer versionCuenta) {
+        this.versionCuenta = versionCuenta;
+    }
+
+    /**
+     * Marca como obsoletos los tokens emitidos antes de este cambio
+     */
+    public void incrementarVersionCuenta() {
+        this.versionCuenta = (versionCuenta != null ? versionCuenta : 0) + 1;
+    }
+
     public String getNombreCompleto() {
         return nombres + " " + getApellidos();
     }
@@ -0,0 +1,11 @@
+package com.escuelaposgrado.Autenticacion.model.enums;
+
+/**
+ * Estados de una importación masiva de usuarios
+ */
+public enum EstadoImportacion {
+    PENDIENTE,  // En cola, aún no iniciada
+    EN_PROCESO, // Procesando filas
+    COMPLETADA, // Todas las filas procesadas
+    FALLIDA     // Interrumpida por un error del archivo o del sistema
+}
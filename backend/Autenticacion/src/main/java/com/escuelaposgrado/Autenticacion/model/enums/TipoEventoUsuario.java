@@ -0,0 +1,11 @@
+package com.escuelaposgrado.Autenticacion.model.enums;
+
+/**
+ * Tipos de cambio de un usuario publicados a los demás microservicios
+ */
+public enum TipoEventoUsuario {
+    CREADO,      // Alta del usuario
+    ACTUALIZADO, // Cambio de datos, rol o reactivación
+    DESACTIVADO, // La cuenta pasó de activa a inactiva
+    ELIMINADO    // El usuario se borró de la base de datos
+}
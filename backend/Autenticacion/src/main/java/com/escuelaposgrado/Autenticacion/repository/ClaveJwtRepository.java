@@ -0,0 +1,32 @@
+package com.escuelaposgrado.Autenticacion.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.escuelaposgrado.Autenticacion.model.entity.ClaveJwt;
+
+/**
+ * Repositorio para las claves de firma de tokens
+ */
+@Repository
+public interface ClaveJwtRepository extends JpaRepository<ClaveJwt, String> {
+
+    List<ClaveJwt> findAllByOrderByFechaCreacionDesc();
+
+    /**
+     * Retirar de la firma todas las claves salvo la indicada
+     */
+    @Modifying
+    @Query("UPDATE ClaveJwt c SET c.fechaRetiro = :fecha WHERE c.kid <> :kid AND c.fechaRetiro IS NULL")
+    int retirarExcepto(@Param("kid") String kid, @Param("fecha") LocalDateTime fecha);
+
+    @Modifying
+    @Query("DELETE FROM ClaveJwt c WHERE c.fechaRetiro < :fecha")
+    int eliminarRetiradasAntesDe(@Param("fecha") LocalDateTime fecha);
+}
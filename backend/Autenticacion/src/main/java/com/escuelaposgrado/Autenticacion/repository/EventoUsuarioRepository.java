@@ -0,0 +1,28 @@
+package com.escuelaposgrado.Autenticacion.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.escuelaposgrado.Autenticacion.model.entity.EventoUsuario;
+
+/**
+ * Repositorio para la bandeja de salida de cambios de usuarios
+ */
+@Repository
+public interface EventoUsuarioRepository extends JpaRepository<EventoUsuario, Long> {
+
+    /**
+     * Compactar: borrar los eventos anteriores a fecha que ya tienen un evento posterior del
+     * mismo usuario. Siempre queda el último evento de cada usuario, de modo que un consumidor
+     * que empiece desde cero (o muy atrasado) recibe igualmente el estado de todos.
+     */
+    @Modifying
+    @Query("DELETE FROM EventoUsuario e WHERE e.fechaCreacion < :fecha AND EXISTS " +
+           "(SELECT 1 FROM EventoUsuario n WHERE n.usuarioId = e.usuarioId AND n.id > e.id)")
+    int compactarAnteriores(@Param("fecha") LocalDateTime fecha);
+}
@@ -0,0 +1,67 @@
+package com.escuelaposgrado.Autenticacion.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.escuelaposgrado.Autenticacion.model.entity.ImportacionUsuarios;
+import com.escuelaposgrado.Autenticacion.model.enums.EstadoImportacion;
+
+/**
+ * Repositorio para las importaciones masivas de usuarios
+ */
+@Repository
+public interface ImportacionUsuariosRepository extends JpaRepository<ImportacionUsuarios, Long> {
+
+    /**
+     * Importaciones en los estados dados, en orden de llegada
+     */
+    List<ImportacionUsuarios> findByEstadoInOrderByIdAsc(Collection<EstadoImportacion> estados);
+
+    /**
+     * Tomar una importación pendiente para esta instancia: solo si no tiene propietario,
+     * ya es suya o el latido del propietario venció. Devuelve 1 si la obtuvo
+     */
+    @Modifying
+    @Query("UPDATE ImportacionUsuarios i SET i.estado = :enProceso, i.propietario = :propietario, i.latido = :ahora, " +
+           "i.fechaInicio = COALESCE(i.fechaInicio, :ahora) " +
+           "WHERE i.id = :id AND i.estado IN :estados " +
+           "AND (i.propietario IS NULL OR i.propietario = :propietario OR i.latido < :vencido)")
+    int reclamar(@Param("id") Long id, @Param("propietario") String propietario,
+                 @Param("enProceso") EstadoImportacion enProceso, @Param("estados") Collection<EstadoImportacion> estados,
+                 @Param("ahora") LocalDateTime ahora, @Param("vencido") LocalDateTime vencido);
+
+    /**
+     * Renovar el latido de una importación en curso
+     */
+    @Modifying
+    @Query("UPDATE ImportacionUsuarios i SET i.latido = :ahora WHERE i.id = :id AND i.propietario = :propietario")
+    int latir(@Param("id") Long id, @Param("propietario") String propietario, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Sumar el avance de un lote y mover el punto de reanudación (0 si la importación ya no es del propietario)
+     */
+    @Modifying
+    @Query("UPDATE ImportacionUsuarios i SET i.ultimaFila = :ultimaFila, " +
+           "i.filasProcesadas = i.filasProcesadas + :exitosos + :fallidos, " +
+           "i.exitosos = i.exitosos + :exitosos, i.fallidos = i.fallidos + :fallidos, i.latido = :ahora " +
+           "WHERE i.id = :id AND i.propietario = :propietario")
+    int registrarAvance(@Param("id") Long id, @Param("propietario") String propietario,
+                        @Param("ultimaFila") Integer ultimaFila, @Param("exitosos") Integer exitosos,
+                        @Param("fallidos") Integer fallidos, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Cambiar el estado de una importación (0 si ya no es del propietario)
+     */
+    @Modifying
+    @Query("UPDATE ImportacionUsuarios i SET i.estado = :estado, i.mensaje = :mensaje, i.fechaFin = :fechaFin " +
+           "WHERE i.id = :id AND i.propietario = :propietario")
+    int finalizar(@Param("id") Long id, @Param("propietario") String propietario, @Param("estado") EstadoImportacion estado,
+                  @Param("mensaje") String mensaje, @Param("fechaFin") LocalDateTime fechaFin);
+}
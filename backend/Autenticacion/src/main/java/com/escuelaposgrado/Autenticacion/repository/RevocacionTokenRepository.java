@@ -0,0 +1,25 @@
+package com.escuelaposgrado.Autenticacion.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.escuelaposgrado.Autenticacion.model.entity.RevocacionToken;
+
+/**
+ * Repositorio para las revocaciones de tokens de acceso
+ */
+@Repository
+public interface RevocacionTokenRepository extends JpaRepository<RevocacionToken, Long> {
+
+    List<RevocacionToken> findByFechaRevocacionAfterOrderByFechaRevocacionAsc(LocalDateTime desde);
+
+    @Modifying
+    @Query("DELETE FROM RevocacionToken r WHERE r.fechaRevocacion < :fecha")
+    int eliminarAnteriores(@Param("fecha") LocalDateTime fecha);
+}
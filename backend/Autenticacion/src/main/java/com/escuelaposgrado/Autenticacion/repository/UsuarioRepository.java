@@ -1,9 +1,11 @@
 package com.escuelaposgrado.Autenticacion.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -19,6 +21,13 @@ import com.escuelaposgrado.Autenticacion.model.enums.Role;
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
+    /**
+     * Texto normalizado (minúsculas, sin tildes) sobre el que se busca; coincide con la
+     * expresión del índice trigram idx_usuarios_busqueda_trgm
+     */
+    String TEXTO_BUSQUEDA = "usuarios_texto_busqueda(u.nombre, u.apellido_paterno, u.apellido_materno, " +
+                            "u.dni, u.codigo_estudiante, u.codigo_docente)";
+
     /**
      * Buscar usuario por nombre de usuario
      */
@@ -81,6 +90,48 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     @Query("UPDATE Usuario u SET u.ultimoAcceso = :ultimoAcceso WHERE u.id = :id")
     void actualizarUltimoAcceso(@Param("id") Long id, @Param("ultimoAcceso") LocalDateTime ultimoAcceso);
 
+    /**
+     * Obtener el último acceso guardado del usuario
+     */
+    @Query("SELECT u.ultimoAcceso FROM Usuario u WHERE u.id = :id")
+    Optional<LocalDateTime> findUltimoAccesoById(@Param("id") Long id);
+
+    /**
+     * Obtener la versión de cuenta vigente del usuario
+     */
+    @Query("SELECT u.versionCuenta FROM Usuario u WHERE u.id = :id")
+    Optional<Integer> findVersionCuentaById(@Param("id") Long id);
+
+    /**
+     * Usernames ya registrados de entre los dados (validación masiva en importaciones)
+     */
+    @Query("SELECT u.username FROM Usuario u WHERE u.username IN :valores")
+    List<String> findUsernamesExistentes(@Param("valores") Collection<String> valores);
+
+    /**
+     * Emails ya registrados de entre los dados
+     */
+    @Query("SELECT u.email FROM Usuario u WHERE u.email IN :valores")
+    List<String> findEmailsExistentes(@Param("valores") Collection<String> valores);
+
+    /**
+     * DNIs ya registrados de entre los dados
+     */
+    @Query("SELECT u.dni FROM Usuario u WHERE u.dni IN :valores")
+    List<String> findDnisExistentes(@Param("valores") Collection<String> valores);
+
+    /**
+     * Códigos de estudiante ya registrados de entre los dados
+     */
+    @Query("SELECT u.codigoEstudiante FROM Usuario u WHERE u.codigoEstudiante IN :valores")
+    List<String> findCodigosEstudianteExistentes(@Param("valores") Collection<String> valores);
+
+    /**
+     * Códigos de docente ya registrados de entre los dados
+     */
+    @Query("SELECT u.codigoDocente FROM Usuario u WHERE u.codigoDocente IN :valores")
+    List<String> findCodigosDocenteExistentes(@Param("valores") Collection<String> valores);
+
     /**
      * Contar usuarios por rol
      */
@@ -100,6 +151,37 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
            "LOWER(u.apellidoMaterno) LIKE LOWER(CONCAT('%', :texto, '%'))")
     List<Usuario> buscarPorNombre(@Param("texto") String texto);
 
+    /**
+     * Búsqueda indexada (pg_trgm) por nombres, apellidos, DNI y códigos, tolerante a tildes
+     * y errores de tipeo. Primero las coincidencias al inicio de una palabra, luego las
+     * parciales y por último las aproximadas, ordenadas por similitud.
+     */
+    @Query(value = "SELECT u.* FROM usuarios u " +
+                   "WHERE (:texto <% " + TEXTO_BUSQUEDA + " OR " + TEXTO_BUSQUEDA + " LIKE :contiene) " +
+                   "AND (CAST(:rol AS varchar) IS NULL OR u.rol = CAST(:rol AS varchar)) " +
+                   "AND (:soloActivos = false OR u.activo = true) " +
+                   "ORDER BY CASE WHEN " + TEXTO_BUSQUEDA + " LIKE :prefijo OR " + TEXTO_BUSQUEDA + " LIKE :prefijoPalabra THEN 2 " +
+                   "WHEN " + TEXTO_BUSQUEDA + " LIKE :contiene THEN 1 ELSE 0 END " +
+                   "+ word_similarity(:texto, " + TEXTO_BUSQUEDA + ") DESC, u.id",
+           nativeQuery = true)
+    List<Usuario> buscarPorTexto(@Param("texto") String texto,
+                                 @Param("contiene") String contiene,
+                                 @Param("prefijo") String prefijo,
+                                 @Param("prefijoPalabra") String prefijoPalabra,
+                                 @Param("rol") String rol,
+                                 @Param("soloActivos") boolean soloActivos,
+                                 Pageable pageable);
+
+    /**
+     * Página de usuarios con los filtros de la búsqueda pero sin texto, por apellidos y nombres
+     */
+    @Query("SELECT u FROM Usuario u WHERE (:rol IS NULL OR u.role = :rol) " +
+           "AND (:soloActivos = false OR u.activo = true) " +
+           "ORDER BY u.apellidoPaterno, u.apellidoMaterno, u.nombres, u.id")
+    List<Usuario> listarFiltrados(@Param("rol") Role rol,
+                                  @Param("soloActivos") boolean soloActivos,
+                                  Pageable pageable);
+
     /**
      * Buscar postulantes por programa de interés
      */
@@ -1,6 +1,8 @@
 package com.escuelaposgrado.Autenticacion.security.jwt;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,15 +15,25 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.escuelaposgrado.Autenticacion.security.services.AccountVersionService;
+import com.escuelaposgrado.Autenticacion.security.services.RevocacionTokenService;
 import com.escuelaposgrado.Autenticacion.security.services.UserDetailsServiceImpl;
+import com.escuelaposgrado.Autenticacion.security.services.UserPrincipal;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
- * Filtro para validar tokens JWT en cada petición
+ * Filtro para validar tokens JWT en cada petición.
+ *
+ * El tiempo propio del filtro (sin el resto de la cadena) se publica en auth.filtro con el
+ * resultado: autenticado, anonimo (sin token) o rechazado.
  */
 public class AuthTokenFilter extends OncePerRequestFilter {
 
@@ -31,32 +43,94 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private AccountVersionService accountVersionService;
+
+    @Autowired
+    private RevocacionTokenService revocacionTokenService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private static final Logger authLogger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
+    // Timer de auth.filtro por resultado (autenticado, anonimo, rechazado)
+    private Map<String, Timer> tiempos;
+
+    @PostConstruct
+    public void init() {
+        this.tiempos = Map.of(
+                "autenticado", timerFiltro("autenticado"),
+                "anonimo", timerFiltro("anonimo"),
+                "rechazado", timerFiltro("rechazado"));
+    }
+
+    private Timer timerFiltro(String resultado) {
+        return Timer.builder("auth.filtro")
+                .description("Tiempo de validación del token en AuthTokenFilter")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
     @Override
-    protected void doFilterInternal(@NonNull HttpServletRequest request, 
-                                  @NonNull HttpServletResponse response, 
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                  @NonNull HttpServletResponse response,
                                   @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        String resultado = "rechazado";
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            if (jwt == null) {
+                resultado = "anonimo";
+            }
+            Claims claims = jwt != null ? jwtUtils.getValidatedClaims(jwt) : null;
+            if (claims != null) {
+                UserDetails userDetails = resolveUserDetails(claims);
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, 
-                                                           userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(userDetails, null,
+                                                               userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    resultado = "autenticado";
+                }
             }
         } catch (Exception e) {
             authLogger.error("No se puede configurar la autenticación del usuario: {}", e.getMessage());
         }
+        tiempos.get(resultado).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Construir el usuario autenticado a partir de los claims del token. Solo se consulta
+     * la base de datos cuando la versión de cuenta del token ya no es la vigente
+     * (o el token fue emitido antes de incluirla).
+     */
+    private UserDetails resolveUserDetails(Claims claims) {
+        Long userId = jwtUtils.getUserIdFromClaims(claims);
+        Integer tokenVersion = jwtUtils.getAccountVersionFromClaims(claims);
+
+        if (revocacionTokenService.estaRevocado(userId, claims.getIssuedAt())) {
+            authLogger.debug("Token rechazado: los tokens de {} fueron revocados", claims.getSubject());
+            return null;
+        }
+
+        if (accountVersionService.esVersionVigente(userId, tokenVersion)) {
+            return UserPrincipal.fromClaims(userId, claims.getSubject(), jwtUtils.getRolesFromClaims(claims));
+        }
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        if (!userDetails.isEnabled()) {
+            authLogger.debug("Token rechazado: la cuenta {} está desactivada", claims.getSubject());
+            return null;
+        }
+        return userDetails;
+    }
+
     /**
      * Extraer JWT del header Authorization
      */
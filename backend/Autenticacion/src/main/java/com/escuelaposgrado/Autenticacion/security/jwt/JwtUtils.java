@@ -1,117 +1,231 @@
 package com.escuelaposgrado.Autenticacion.security.jwt;
 
+import java.security.Key;
+import java.util.Collections;
 import java.util.Date;
-
-import javax.crypto.SecretKey;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import com.escuelaposgrado.Autenticacion.model.entity.Usuario;
+import com.escuelaposgrado.Autenticacion.security.services.JwtKeyService;
+
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 
 /**
- * Utilidad para generar y validar tokens JWT
+ * Utilidad para generar y validar tokens JWT.
+ *
+ * Los tokens se firman con ES256 usando la clave vigente de JwtKeyService y llevan su kid en
+ * la cabecera; la verificación busca la clave pública por ese kid.
  */
 @Component
 public class JwtUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${app.jwtSecret:escuelaPosgradoUnicaSecretKey2024}")
-    private String jwtSecret;
+    /**
+     * Claim con las autoridades (ROLE_*) del usuario
+     */
+    public static final String CLAIM_ROLES = "roles";
 
-    @Value("${app.jwtExpirationMs:86400000}")
-    private int jwtExpirationMs; // 24 horas por defecto
+    /**
+     * Claim con el id del usuario
+     */
+    public static final String CLAIM_USER_ID = "uid";
 
     /**
-     * Generar token JWT a partir de la autenticación
+     * Claim con la versión de cuenta vigente al emitir el token
      */
-    public String generateJwtToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        return generateTokenFromUsername(userPrincipal.getUsername());
+    public static final String CLAIM_ACCOUNT_VERSION = "ver";
+
+    @Autowired
+    private JwtKeyService jwtKeyService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.jwtExpirationMs:900000}")
+    private int jwtExpirationMs; // 15 minutos por defecto; la sesión se prolonga con el token de refresco
+
+    // Parser creado una sola vez al iniciar (inmutable y thread-safe)
+    private JwtParser jwtParser;
+
+    // Timer de jwt.validacion por resultado (ok, expirado, malformado, firma_invalida, no_soportado, vacio, error)
+    private Map<String, Timer> validaciones;
+
+    @PostConstruct
+    public void init() {
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return jwtKeyService.getClavePublica(header.getKeyId());
+                    }
+                })
+                .build();
+        this.validaciones = Map.of(
+                "ok", timerValidacion("ok"),
+                "expirado", timerValidacion("expirado"),
+                "malformado", timerValidacion("malformado"),
+                "firma_invalida", timerValidacion("firma_invalida"),
+                "no_soportado", timerValidacion("no_soportado"),
+                "vacio", timerValidacion("vacio"),
+                "error", timerValidacion("error"));
+    }
+
+    private Timer timerValidacion(String resultado) {
+        return Timer.builder("jwt.validacion")
+                .description("Verificación de firma y claims de los tokens de acceso")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
     }
 
     /**
-     * Generar token JWT a partir del username
+     * Vigencia de los tokens de acceso en milisegundos
      */
-    public String generateTokenFromUsername(String username) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        
-        return Jwts.builder()
-                .subject(username)
-                .issuedAt(new Date())
-                .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key)
-                .compact();
+    public long getJwtExpirationMs() {
+        return jwtExpirationMs;
     }
 
     /**
-     * Generar token JWT para un usuario específico (alias para generateTokenFromUsername)
+     * Generar token JWT a partir de la autenticación
      */
-    public String generateJwtTokenForUser(String username) {
-        return generateTokenFromUsername(username);
+    public String generateJwtToken(Authentication authentication) {
+        Usuario usuario = (Usuario) authentication.getPrincipal();
+        return generateTokenForUser(usuario);
     }
 
     /**
-     * Obtener username del token JWT
+     * Generar token JWT incluyendo roles, id y versión de cuenta del usuario,
+     * de modo que las peticiones posteriores no necesiten consultar la base de datos
      */
-    public String getUserNameFromJwtToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+    public String generateTokenForUser(Usuario usuario) {
+        List<String> roles = usuario.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        return firmar(Jwts.builder()
+                .subject(usuario.getUsername())
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_USER_ID, usuario.getId())
+                .claim(CLAIM_ACCOUNT_VERSION, usuario.getVersionCuenta())
+                .issuedAt(new Date())
+                .expiration(new Date((new Date()).getTime() + jwtExpirationMs)));
     }
 
     /**
-     * Validar token JWT
+     * Firmar con la clave vigente, indicando su kid en la cabecera
      */
-    public boolean validateJwtToken(String authToken) {
+    private String firmar(JwtBuilder builder) {
+        JwtKeyService.ClaveFirma clave = jwtKeyService.getClaveFirma();
+        return builder.header().keyId(clave.kid()).and()
+                .signWith(clave.clave(), Jwts.SIG.ES256)
+                .compact();
+    }
+
+    /**
+     * Validar token JWT y devolver sus claims en una sola verificación de firma.
+     * Devuelve null si el token no es válido.
+     */
+    public Claims getValidatedClaims(String authToken) {
+        long inicio = System.nanoTime();
+        String resultado = "error";
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            
-            Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(authToken);
-            
-            return true;
+            Claims claims = jwtParser.parseSignedClaims(authToken).getPayload();
+            resultado = "ok";
+            return claims;
         } catch (MalformedJwtException e) {
+            resultado = "malformado";
             logger.error("Token JWT inválido: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
+            resultado = "expirado";
             logger.error("Token JWT expirado: {}", e.getMessage());
+        } catch (SignatureException e) {
+            resultado = "firma_invalida";
+            logger.error("Firma del token JWT inválida: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
+            resultado = "no_soportado";
             logger.error("Token JWT no soportado: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
+            resultado = "vacio";
             logger.error("JWT claims string está vacío: {}", e.getMessage());
         } catch (Exception e) {
             logger.error("Error validando token JWT: {}", e.getMessage());
+        } finally {
+            validaciones.get(resultado).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+
+        return null;
+    }
+
+    /**
+     * Obtener los roles contenidos en los claims del token
+     */
+    public List<String> getRolesFromClaims(Claims claims) {
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        if (roles == null) {
+            return Collections.emptyList();
         }
-        
-        return false;
+        return roles.stream().map(String::valueOf).toList();
+    }
+
+    /**
+     * Obtener el id de usuario contenido en los claims (null en tokens antiguos)
+     */
+    public Long getUserIdFromClaims(Claims claims) {
+        Number id = claims.get(CLAIM_USER_ID, Number.class);
+        return id != null ? id.longValue() : null;
+    }
+
+    /**
+     * Obtener la versión de cuenta contenida en los claims (null en tokens antiguos)
+     */
+    public Integer getAccountVersionFromClaims(Claims claims) {
+        Number version = claims.get(CLAIM_ACCOUNT_VERSION, Number.class);
+        return version != null ? version.intValue() : null;
+    }
+
+    /**
+     * Obtener username del token JWT
+     */
+    public String getUserNameFromJwtToken(String token) {
+        return jwtParser.parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
+    }
+
+    /**
+     * Validar token JWT
+     */
+    public boolean validateJwtToken(String authToken) {
+        return getValidatedClaims(authToken) != null;
     }
 
     /**
      * Obtener fecha de expiración del token
      */
     public Date getExpirationDateFromJwtToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
+        return jwtParser.parseSignedClaims(token)
                 .getPayload()
                 .getExpiration();
     }
@@ -0,0 +1,110 @@
+package com.escuelaposgrado.Autenticacion.security.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.escuelaposgrado.Autenticacion.model.entity.Usuario;
+import com.escuelaposgrado.Autenticacion.repository.UsuarioRepository;
+
+/**
+ * Mantiene en memoria la versión de cuenta vigente de cada usuario para decidir,
+ * sin consultar la base de datos en cada petición, si un token JWT sigue siendo válido.
+ *
+ * La versión se carga desde la base de datos la primera vez que se necesita y se
+ * actualiza localmente cada vez que AuthService modifica la cuenta.
+ */
+@Service
+public class AccountVersionService {
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private final Map<Long, Integer> versiones = new ConcurrentHashMap<>();
+
+    // Se incrementa en cada invalidación; una carga iniciada antes no se guarda
+    private final AtomicLong generacion = new AtomicLong();
+
+    /**
+     * Indica si la versión incluida en el token coincide con la versión vigente
+     */
+    public boolean esVersionVigente(Long usuarioId, Integer versionToken) {
+        if (usuarioId == null || versionToken == null) {
+            return false;
+        }
+        Integer versionActual = getVersionActual(usuarioId);
+        return versionToken.equals(versionActual);
+    }
+
+    /**
+     * Obtener la versión vigente (una consulta por usuario mientras no cambie)
+     */
+    public Integer getVersionActual(Long usuarioId) {
+        Integer version = versiones.get(usuarioId);
+        if (version != null) {
+            return version;
+        }
+        // Consulta fuera de computeIfAbsent: con hilos virtuales, esperar a la base de datos
+        // dentro del bloqueo del mapa fijaría el hilo portador
+        long inicio = generacion.get();
+        version = usuarioRepository.findVersionCuentaById(usuarioId).orElse(null);
+        if (version != null && generacion.get() == inicio) {
+            versiones.putIfAbsent(usuarioId, version);
+        }
+        return version;
+    }
+
+    /**
+     * Registrar la versión actual del usuario tras un login o una modificación.
+     * Dentro de una transacción se aplica tras el commit, para no publicar una
+     * versión que luego se revierta.
+     */
+    public void registrarVersion(Usuario usuario) {
+        Long id = usuario.getId();
+        Integer version = usuario.getVersionCuenta();
+        if (id == null || version == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versiones.put(id, version);
+                }
+            });
+        } else {
+            versiones.put(id, version);
+        }
+    }
+
+    /**
+     * Olvidar la versión conocida, forzando su recarga en la siguiente petición
+     */
+    public void invalidar(Long usuarioId) {
+        generacion.incrementAndGet();
+        versiones.remove(usuarioId);
+    }
+
+    /**
+     * Olvidar todas las versiones conocidas (tras operaciones masivas). Dentro de una
+     * transacción se repite tras el commit.
+     */
+    public void invalidarTodo() {
+        generacion.incrementAndGet();
+        versiones.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generacion.incrementAndGet();
+                    versiones.clear();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.escuelaposgrado.Autenticacion.security.services;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.IncorrectClaimException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+
+/**
+ * Verificación local de los ID tokens de Google.
+ *
+ * La firma se comprueba con las claves públicas de Google (JWKS de app.googleOAuth.certsUrl),
+ * que se guardan en memoria durante el max-age de su cabecera Cache-Control; además se
+ * comprueban audiencia (app.googleOAuth.clientId), emisor y expiración. Así un login no
+ * hace ninguna llamada a Google salvo cuando las claves caducan o rotan.
+ */
+@Component
+public class GoogleIdTokenVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleIdTokenVerifier.class);
+
+    private static final Set<String> EMISORES = Set.of("accounts.google.com", "https://accounts.google.com");
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    private static final Duration TIMEOUT = Duration.ofSeconds(3);
+    private static final long MAX_AGE_POR_DEFECTO_MS = 3_600_000;
+    private static final long DESFASE_RELOJ_SEGUNDOS = 60;
+
+    // Mínimo entre consultas por un kid desconocido, para que tokens inventados no provoquen una llamada cada uno
+    private static final long INTERVALO_CONSULTA_MS = 10_000;
+
+    /**
+     * Claves vigentes y hasta cuándo pueden usarse sin volver a consultar
+     */
+    private record Certificados(Map<String, Key> claves, long expiraEn) {}
+
+    private final RestClient restClient;
+    private final String certsUrl;
+    private final JwtParser jwtParser;
+    // ReentrantLock y no synchronized: en JDK 21 un hilo virtual bloqueado en E/S dentro de synchronized fija su hilo portador
+    private final ReentrantLock bloqueo = new ReentrantLock();
+
+    private volatile Certificados certificados = new Certificados(Map.of(), 0);
+    private volatile long ultimaConsulta = 0;
+
+    public GoogleIdTokenVerifier(@Value("${app.googleOAuth.certsUrl:https://www.googleapis.com/oauth2/v3/certs}") String certsUrl,
+                                 @Value("${app.googleOAuth.clientId}") String clientId) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(TIMEOUT);
+        requestFactory.setReadTimeout(TIMEOUT);
+        this.restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .build();
+        this.certsUrl = certsUrl;
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return getClave(header.getKeyId());
+                    }
+                })
+                .requireAudience(clientId)
+                .clockSkewSeconds(DESFASE_RELOJ_SEGUNDOS)
+                .build();
+    }
+
+    /**
+     * Indica si el token tiene forma de JWT (ID token) y no de access token opaco
+     */
+    public static boolean esIdToken(String token) {
+        return token != null && token.chars().filter(c -> c == '.').count() == 2;
+    }
+
+    /**
+     * Verificar firma, audiencia, emisor y expiración del ID token y devolver sus claims.
+     * Lanza JwtException si el token no es válido.
+     */
+    public Claims verificar(String idToken) {
+        Claims claims = jwtParser.parseSignedClaims(idToken).getPayload();
+        if (!EMISORES.contains(claims.getIssuer())) {
+            throw new IncorrectClaimException(null, claims, "iss", claims.getIssuer(),
+                    "Emisor del token de Google inválido: " + claims.getIssuer());
+        }
+        return claims;
+    }
+
+    private Key getClave(String kid) {
+        if (kid == null) {
+            throw new JwtException("El token de Google no indica su clave de firma (kid)");
+        }
+        Certificados actuales = certificados;
+        long ahora = System.currentTimeMillis();
+        if (ahora >= actuales.expiraEn()
+                || (!actuales.claves().containsKey(kid) && ahora - ultimaConsulta > INTERVALO_CONSULTA_MS)) {
+            actuales = actualizar(actuales);
+        }
+        Key clave = actuales.claves().get(kid);
+        if (clave == null) {
+            throw new JwtException("Clave de firma de Google desconocida: " + kid);
+        }
+        return clave;
+    }
+
+    private Certificados actualizar(Certificados anteriores) {
+        bloqueo.lock();
+        try {
+            return actualizarBloqueado(anteriores);
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    private Certificados actualizarBloqueado(Certificados anteriores) {
+        // Otro hilo pudo haberlas actualizado mientras se esperaba el bloqueo
+        if (certificados != anteriores) {
+            return certificados;
+        }
+        ultimaConsulta = System.currentTimeMillis();
+        try {
+            ResponseEntity<String> respuesta = restClient.get().uri(certsUrl).retrieve().toEntity(String.class);
+            Map<String, Key> claves = new HashMap<>();
+            for (Jwk<?> jwk : Jwks.setParser().build().parse(respuesta.getBody())) {
+                if (jwk.getId() != null) {
+                    claves.put(jwk.getId(), jwk.toKey());
+                }
+            }
+            certificados = new Certificados(Map.copyOf(claves), ultimaConsulta + maxAge(respuesta.getHeaders()));
+        } catch (RestClientException | IllegalArgumentException | JwtException e) {
+            // Google publica cada clave con antelación: las anteriores siguen sirviendo mientras tanto
+            logger.warn("No se pudieron actualizar los certificados de Google: {}", e.getMessage());
+            certificados = new Certificados(anteriores.claves(), ultimaConsulta + INTERVALO_CONSULTA_MS);
+        }
+        return certificados;
+    }
+
+    private long maxAge(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null) {
+            Matcher matcher = MAX_AGE.matcher(cacheControl);
+            if (matcher.find()) {
+                return Long.parseLong(matcher.group(1)) * 1000;
+            }
+        }
+        return MAX_AGE_POR_DEFECTO_MS;
+    }
+}
@@ -0,0 +1,214 @@
+package com.escuelaposgrado.Autenticacion.security.services;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.escuelaposgrado.Autenticacion.model.entity.ClaveJwt;
+import com.escuelaposgrado.Autenticacion.repository.ClaveJwtRepository;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Claves ES256 (ECDSA P-256) con las que se firman los tokens de acceso.
+ *
+ * La clave vigente firma y todas las claves aún útiles se publican en /.well-known/jwks.json,
+ * de modo que Intranet y Matrícula verifican los tokens solo con la clave pública. La clave se
+ * rota cada app.jwt.rotacionHoras; la anterior se sigue publicando hasta que expiran los tokens
+ * firmados con ella. Las claves se guardan en jwt_claves para que todas las instancias firmen
+ * y verifiquen con el mismo juego de claves.
+ */
+@Service
+public class JwtKeyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyService.class);
+
+    public static final String ALGORITMO = "ES256";
+
+    // Tiempo extra que se publica una clave retirada además de la vigencia de los tokens
+    private static final Duration MARGEN_RETIRO = Duration.ofMinutes(5);
+
+    // Mínimo entre recargas desde la base de datos al encontrar un kid desconocido
+    private static final long INTERVALO_RECARGA_MS = 10_000;
+
+    /**
+     * Clave privada vigente y su identificador
+     */
+    public record ClaveFirma(String kid, PrivateKey clave) {}
+
+    @Autowired
+    private ClaveJwtRepository claveJwtRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.jwt.rotacionHoras:168}")
+    private long rotacionHoras;
+
+    @Value("${app.jwtExpirationMs:900000}")
+    private long jwtExpirationMs;
+
+    @Value("${app.jwt.revisionRotacionMs:600000}")
+    private long revisionRotacionMs;
+
+    // Evita recargas simultáneas desde la base de datos
+    private final ReentrantLock bloqueoCarga = new ReentrantLock();
+
+    private volatile ClaveFirma vigente;
+    private volatile Map<String, PublicKey> publicas = Map.of();
+    private volatile String jwks = "{\"keys\":[]}";
+    private volatile long ultimaRecarga = 0;
+
+    @PostConstruct
+    public void init() {
+        cargar();
+        if (debeRotar()) {
+            rotar();
+        }
+    }
+
+    /**
+     * Clave con la que se firman los tokens nuevos
+     */
+    public ClaveFirma getClaveFirma() {
+        return vigente;
+    }
+
+    /**
+     * Clave pública para verificar un token por su kid (null si no se conoce)
+     */
+    public PublicKey getClavePublica(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        PublicKey clave = publicas.get(kid);
+        // Otra instancia pudo haber rotado la clave: recargar, como mucho cada INTERVALO_RECARGA_MS
+        if (clave == null && System.currentTimeMillis() - ultimaRecarga > INTERVALO_RECARGA_MS) {
+            bloqueoCarga.lock();
+            try {
+                // Otro hilo pudo haber recargado mientras se esperaba el bloqueo
+                if (System.currentTimeMillis() - ultimaRecarga > INTERVALO_RECARGA_MS) {
+                    cargarBloqueado();
+                }
+            } finally {
+                bloqueoCarga.unlock();
+            }
+            clave = publicas.get(kid);
+        }
+        return clave;
+    }
+
+    /**
+     * Documento JWKS con las claves públicas publicadas
+     */
+    public String getJwks() {
+        return jwks;
+    }
+
+    /**
+     * Rotar la clave cuando corresponde y eliminar las claves retiradas que ya no verifican ningún token
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revisionRotacionMs:600000}",
+               initialDelayString = "${app.jwt.revisionRotacionMs:600000}")
+    public void revisarRotacion() {
+        cargar();
+        if (debeRotar()) {
+            rotar();
+        }
+        // Una instancia que aún no vio la rotación sigue firmando con la clave retirada hasta su
+        // próxima revisión, así que la clave debe publicarse ese intervalo más la vigencia del token
+        Duration retencion = Duration.ofMillis(jwtExpirationMs + revisionRotacionMs).plus(MARGEN_RETIRO);
+        LocalDateTime limite = LocalDateTime.now().minus(retencion);
+        Integer eliminadas = transactionTemplate.execute(status -> claveJwtRepository.eliminarRetiradasAntesDe(limite));
+        if (eliminadas != null && eliminadas > 0) {
+            logger.info("Eliminadas {} claves JWT retiradas", eliminadas);
+            cargar();
+        }
+    }
+
+    private boolean debeRotar() {
+        ClaveFirma actual = vigente;
+        if (actual == null) {
+            return true;
+        }
+        return claveJwtRepository.findById(actual.kid())
+                .map(c -> c.getFechaCreacion().isBefore(LocalDateTime.now().minusHours(rotacionHoras)))
+                .orElse(true);
+    }
+
+    private void rotar() {
+        KeyPair par = Jwts.SIG.ES256.keyPair().build();
+        String kid = Jwks.builder().key((ECPublicKey) par.getPublic()).idFromThumbprint().build().getId();
+        ClaveJwt clave = new ClaveJwt(kid,
+                Base64.getEncoder().encodeToString(par.getPrivate().getEncoded()),
+                Base64.getEncoder().encodeToString(par.getPublic().getEncoded()));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            claveJwtRepository.save(clave);
+            claveJwtRepository.retirarExcepto(kid, LocalDateTime.now());
+        });
+        logger.info("Nueva clave de firma JWT {}", kid);
+        cargar();
+    }
+
+    private void cargar() {
+        bloqueoCarga.lock();
+        try {
+            cargarBloqueado();
+        } finally {
+            bloqueoCarga.unlock();
+        }
+    }
+
+    private void cargarBloqueado() {
+        List<ClaveJwt> claves = claveJwtRepository.findAllByOrderByFechaCreacionDesc();
+        Map<String, PublicKey> nuevas = new LinkedHashMap<>();
+        ClaveFirma firma = null;
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            for (ClaveJwt clave : claves) {
+                nuevas.put(clave.getKid(), keyFactory.generatePublic(
+                        new X509EncodedKeySpec(Base64.getDecoder().decode(clave.getClavePublica()))));
+                if (firma == null && clave.getFechaRetiro() == null) {
+                    firma = new ClaveFirma(clave.getKid(), keyFactory.generatePrivate(
+                            new PKCS8EncodedKeySpec(Base64.getDecoder().decode(clave.getClavePrivada()))));
+                }
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudieron leer las claves JWT", e);
+        }
+
+        this.publicas = Map.copyOf(nuevas);
+        this.jwks = nuevas.entrySet().stream()
+                .map(e -> Jwks.json(Jwks.builder().key((ECPublicKey) e.getValue())
+                        .id(e.getKey()).algorithm(ALGORITMO).publicKeyUse("sig").build()))
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        if (firma != null) {
+            this.vigente = firma;
+        }
+        this.ultimaRecarga = System.currentTimeMillis();
+    }
+}
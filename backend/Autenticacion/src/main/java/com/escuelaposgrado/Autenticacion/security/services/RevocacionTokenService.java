@@ -0,0 +1,163 @@
+package com.escuelaposgrado.Autenticacion.security.services;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.escuelaposgrado.Autenticacion.dto.response.RevocacionesResponse;
+import com.escuelaposgrado.Autenticacion.model.entity.RevocacionToken;
+import com.escuelaposgrado.Autenticacion.repository.RevocacionTokenRepository;
+import com.escuelaposgrado.Autenticacion.security.jwt.JwtUtils;
+
+/**
+ * Revocación de los tokens de acceso ya emitidos de un usuario.
+ *
+ * Cada revocación se guarda en token_revocaciones y en un mapa en memoria usuario -> instante,
+ * consultado en O(1) en cada petición. Solo hace falta recordarla mientras pueda existir un
+ * token emitido antes de ella (app.jwtExpirationMs), así que el conjunto se mantiene pequeño.
+ * Intranet y Matrícula replican las mismas revocaciones consultando /api/auth/revocaciones.
+ *
+ * Las demás instancias de Autenticación las incorporan en sincronizar() y, con cada revocación
+ * nueva, descartan los datos en caché del usuario (UsuarioCache y AccountVersionService), de modo
+ * que una baja o un cambio de contraseña hecho en otra instancia se aplica también al login.
+ */
+@Service
+public class RevocacionTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocacionTokenService.class);
+
+    // Solapamiento entre consultas para no perder revocaciones confirmadas con retraso
+    private static final long MARGEN_SINCRONIZACION_MS = 30_000;
+
+    @Autowired
+    private RevocacionTokenRepository revocacionTokenRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UsuarioCache usuarioCache;
+
+    @Autowired
+    private AccountVersionService accountVersionService;
+
+    private final Map<Long, Long> revocaciones = new ConcurrentHashMap<>();
+
+    private volatile long ultimaSincronizacion = 0;
+
+    /**
+     * Revocar todos los tokens de acceso emitidos hasta ahora para el usuario
+     */
+    @Transactional
+    public void revocar(Long usuarioId) {
+        LocalDateTime ahora = LocalDateTime.now();
+        revocacionTokenRepository.save(new RevocacionToken(usuarioId, ahora));
+
+        long instante = aMilisegundos(ahora);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    revocaciones.merge(usuarioId, instante, Math::max);
+                }
+            });
+        } else {
+            revocaciones.merge(usuarioId, instante, Math::max);
+        }
+    }
+
+    /**
+     * Indica si un token del usuario emitido en emitidoEn fue revocado. El iat del token
+     * tiene precisión de segundos, por lo que un token emitido en el mismo segundo que la
+     * revocación también se rechaza.
+     */
+    public boolean estaRevocado(Long usuarioId, Date emitidoEn) {
+        if (usuarioId == null || emitidoEn == null) {
+            return false;
+        }
+        Long revocadoEn = revocaciones.get(usuarioId);
+        return revocadoEn != null && emitidoEn.getTime() <= revocadoEn;
+    }
+
+    /**
+     * Revocaciones posteriores a desde (ms) que aún pueden afectar a tokens vigentes
+     */
+    @Transactional(readOnly = true)
+    public RevocacionesResponse getRevocacionesDesde(long desde) {
+        long ahora = System.currentTimeMillis();
+        long ventana = jwtUtils.getJwtExpirationMs();
+        long inicio = Math.max(desde - MARGEN_SINCRONIZACION_MS, ahora - ventana);
+
+        RevocacionesResponse response = new RevocacionesResponse(ahora, ventana);
+        for (RevocacionToken revocacion : revocacionTokenRepository
+                .findByFechaRevocacionAfterOrderByFechaRevocacionAsc(aFecha(inicio))) {
+            response.getRevocaciones().add(new RevocacionesResponse.Revocacion(
+                    revocacion.getUsuarioId(), aMilisegundos(revocacion.getFechaRevocacion())));
+        }
+        return response;
+    }
+
+    /**
+     * Incorporar las revocaciones hechas por otras instancias y olvidar las que ya no
+     * pueden afectar a ningún token vigente
+     */
+    @Scheduled(fixedDelayString = "${app.revocaciones.intervaloMs:5000}")
+    public void sincronizar() {
+        try {
+            RevocacionesResponse nuevas = getRevocacionesDesde(ultimaSincronizacion);
+            Set<Long> revocados = new HashSet<>();
+            for (RevocacionesResponse.Revocacion r : nuevas.getRevocaciones()) {
+                Long anterior = revocaciones.get(r.getUsuarioId());
+                if (anterior == null || r.getRevocadoEn() > anterior) {
+                    revocaciones.merge(r.getUsuarioId(), r.getRevocadoEn(), Math::max);
+                    revocados.add(r.getUsuarioId());
+                }
+            }
+            ultimaSincronizacion = nuevas.getHasta();
+
+            // Revocación hecha en otra instancia: su caché de esta cuenta puede estar desactualizada
+            usuarioCache.invalidarPorId(revocados);
+            revocados.forEach(accountVersionService::invalidar);
+
+            long limite = nuevas.getHasta() - nuevas.getVentanaMs();
+            revocaciones.values().removeIf(instante -> instante < limite);
+        } catch (Exception e) {
+            logger.error("Error al sincronizar revocaciones de tokens: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Borrar las revocaciones que ya no afectan a ningún token
+     */
+    @Scheduled(fixedDelayString = "${app.revocaciones.purgaIntervaloMs:3600000}")
+    @Transactional
+    public void purgar() {
+        long limite = System.currentTimeMillis() - jwtUtils.getJwtExpirationMs() - MARGEN_SINCRONIZACION_MS;
+        int eliminadas = revocacionTokenRepository.eliminarAnteriores(aFecha(limite));
+        if (eliminadas > 0) {
+            logger.debug("Eliminadas {} revocaciones de tokens caducadas", eliminadas);
+        }
+    }
+
+    private static long aMilisegundos(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime aFecha(long milisegundos) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(milisegundos), ZoneId.systemDefault());
+    }
+}
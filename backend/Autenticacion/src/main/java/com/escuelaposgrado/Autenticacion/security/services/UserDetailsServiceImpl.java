@@ -19,10 +19,14 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private UsuarioCache usuarioCache;
+
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByUsernameOrEmail(username, username)
+        Usuario usuario = usuarioCache.getPorLogin(username,
+                        valor -> usuarioRepository.findByUsernameOrEmail(valor, valor))
                 .orElseThrow(() -> new UsernameNotFoundException(
                     "Usuario no encontrado con username o email: " + username));
 
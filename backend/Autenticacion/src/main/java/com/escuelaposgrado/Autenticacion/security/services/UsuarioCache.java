@@ -0,0 +1,191 @@
+package com.escuelaposgrado.Autenticacion.security.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.escuelaposgrado.Autenticacion.model.entity.Usuario;
+import com.escuelaposgrado.Autenticacion.model.enums.Role;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caché en memoria, acotada en tamaño y con expiración, de las búsquedas de usuarios
+ * por username o email. La base de datos sigue siendo la fuente de verdad: AuthService
+ * invalida las entradas de un usuario cada vez que lo modifica, y RevocacionTokenService las
+ * de los usuarios revocados en otras instancias al sincronizar.
+ *
+ * Se guarda una copia inmutable de los datos de la cuenta (sin ultimoAcceso ni
+ * fechaActualizacion, que cambian con cada login) y cada lectura devuelve una entidad
+ * Usuario nueva y desconectada, de modo que ningún llamador comparte instancias con otro.
+ *
+ * Las métricas (cache.gets, cache.evictions, cache.size y usuarios.cache.invalidations)
+ * se publican en /actuator/metrics.
+ */
+@Component
+public class UsuarioCache {
+
+    private static final String CACHE_NAME = "usuarios";
+    private static final String PREFIJO_LOGIN = "login:";
+    private static final String PREFIJO_USERNAME = "username:";
+
+    private final Cache<String, Entrada> cache;
+    private final Counter invalidaciones;
+
+    // Se incrementa antes de cada invalidación; una carga iniciada antes no se guarda
+    private final AtomicLong generacion = new AtomicLong();
+
+    public UsuarioCache(MeterRegistry meterRegistry,
+                        @Value("${app.cache.usuarios.maxSize:10000}") long maxSize,
+                        @Value("${app.cache.usuarios.ttlSeconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.invalidaciones = Counter.builder("usuarios.cache.invalidations")
+                .description("Invalidaciones explícitas por cambios en la cuenta")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buscar por username o email (clave de login)
+     */
+    public Optional<Usuario> getPorLogin(String usernameOrEmail, Function<String, Optional<Usuario>> loader) {
+        return get(PREFIJO_LOGIN + usernameOrEmail, usernameOrEmail, loader);
+    }
+
+    /**
+     * Buscar por username exacto
+     */
+    public Optional<Usuario> getPorUsername(String username, Function<String, Optional<Usuario>> loader) {
+        return get(PREFIJO_USERNAME + username, username, loader);
+    }
+
+    private Optional<Usuario> get(String key, String valor, Function<String, Optional<Usuario>> loader) {
+        Entrada entrada = cache.getIfPresent(key);
+        if (entrada != null) {
+            return Optional.of(entrada.aUsuario());
+        }
+        // Carga fuera de cache.get(key, loader), que retiene un bloqueo del mapa durante la
+        // consulta (ver AccountVersionService.getVersionActual). Las búsquedas sin resultado no se guardan.
+        long inicio = generacion.get();
+        Optional<Usuario> cargado = loader.apply(valor);
+        if (cargado.isPresent() && generacion.get() == inicio) {
+            cache.asMap().putIfAbsent(key, Entrada.de(cargado.get()));
+        }
+        return cargado;
+    }
+
+    /**
+     * Invalidar todas las entradas de un usuario. Si hay una transacción activa, se
+     * invalida de nuevo tras el commit para que una lectura concurrente no vuelva a
+     * cachear el estado anterior.
+     */
+    public void invalidar(String username, String email) {
+        evict(username, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(username, email);
+                }
+            });
+        }
+    }
+
+    public void invalidar(Usuario usuario) {
+        invalidar(usuario.getUsername(), usuario.getEmail());
+    }
+
+    /**
+     * Invalidar las entradas de los usuarios indicados, sin conocer su username ni su email
+     * (cambios hechos en otra instancia)
+     */
+    public void invalidarPorId(Collection<Long> usuarioIds) {
+        if (usuarioIds.isEmpty()) {
+            return;
+        }
+        generacion.incrementAndGet();
+        cache.asMap().values().removeIf(entrada -> usuarioIds.contains(entrada.id()));
+        invalidaciones.increment();
+    }
+
+    /**
+     * Vaciar la caché (operaciones masivas como la limpieza de duplicados)
+     */
+    public void invalidarTodo() {
+        generacion.incrementAndGet();
+        cache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generacion.incrementAndGet();
+                    cache.invalidateAll();
+                }
+            });
+        }
+        invalidaciones.increment();
+    }
+
+    private void evict(String username, String email) {
+        generacion.incrementAndGet();
+        if (username != null) {
+            cache.invalidate(PREFIJO_LOGIN + username);
+            cache.invalidate(PREFIJO_USERNAME + username);
+        }
+        if (email != null) {
+            cache.invalidate(PREFIJO_LOGIN + email);
+        }
+        invalidaciones.increment();
+    }
+
+    /**
+     * Datos de la cuenta guardados en la caché
+     */
+    private record Entrada(Long id, String username, String email, String password, String nombres,
+                           String apellidoPaterno, String apellidoMaterno, String dni, String telefono,
+                           String direccion, Role role, Boolean activo, String estado,
+                           LocalDateTime fechaCreacion, String codigoEstudiante, String codigoDocente,
+                           String especialidad, String programaInteres, Integer versionCuenta) {
+
+        static Entrada de(Usuario u) {
+            return new Entrada(u.getId(), u.getUsername(), u.getEmail(), u.getPassword(), u.getNombres(),
+                    u.getApellidoPaterno(), u.getApellidoMaterno(), u.getDni(), u.getTelefono(),
+                    u.getDireccion(), u.getRole(), u.getActivo(), u.getEstado(),
+                    u.getFechaCreacion(), u.getCodigoEstudiante(), u.getCodigoDocente(),
+                    u.getEspecialidad(), u.getProgramaInteres(), u.getVersionCuenta());
+        }
+
+        Usuario aUsuario() {
+            Usuario u = new Usuario(username, email, password, nombres, apellidoPaterno, apellidoMaterno, role);
+            u.setId(id);
+            u.setDni(dni);
+            u.setTelefono(telefono);
+            u.setDireccion(direccion);
+            u.setActivo(activo);
+            u.setEstado(estado);
+            u.setFechaCreacion(fechaCreacion);
+            u.setCodigoEstudiante(codigoEstudiante);
+            u.setCodigoDocente(codigoDocente);
+            u.setEspecialidad(especialidad);
+            u.setProgramaInteres(programaInteres);
+            u.setVersionCuenta(versionCuenta);
+            return u;
+        }
+    }
+}
@@ -2,17 +2,22 @@ package com.escuelaposgrado.Autenticacion.service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AccountStatusException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.escuelaposgrado.Autenticacion.dto.request.ActualizarPerfilRequest;
 import com.escuelaposgrado.Autenticacion.dto.request.ActualizarUsuarioAdminRequest;
@@ -22,10 +27,19 @@ import com.escuelaposgrado.Autenticacion.dto.request.RegistroRequest;
 import com.escuelaposgrado.Autenticacion.dto.response.AuthResponse;
 import com.escuelaposgrado.Autenticacion.dto.response.MessageResponse;
 import com.escuelaposgrado.Autenticacion.dto.response.UsuarioResponse;
+import com.escuelaposgrado.Autenticacion.exception.ServicioSaturadoException;
+import com.escuelaposgrado.Autenticacion.exception.TokenRefrescoException;
 import com.escuelaposgrado.Autenticacion.model.entity.Usuario;
 import com.escuelaposgrado.Autenticacion.model.enums.Role;
 import com.escuelaposgrado.Autenticacion.repository.UsuarioRepository;
 import com.escuelaposgrado.Autenticacion.security.jwt.JwtUtils;
+import com.escuelaposgrado.Autenticacion.security.services.AccountVersionService;
+import com.escuelaposgrado.Autenticacion.security.services.RevocacionTokenService;
+import com.escuelaposgrado.Autenticacion.security.services.UsuarioCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 
 /**
  * Servicio para la autenticación y gestión de usuarios
@@ -46,26 +60,127 @@ public class AuthService {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private AccountVersionService accountVersionService;
+
+    @Autowired
+    private UsuarioCache usuarioCache;
+
+    @Autowired
+    private UltimoAccesoService ultimoAccesoService;
+
+    @Autowired
+    private UsuarioBusquedaService usuarioBusquedaService;
+
+    @Autowired
+    private UsuarioEstadisticasService usuarioEstadisticasService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RevocacionTokenService revocacionTokenService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Timer de auth.login por resultado (ok, credenciales_invalidas, cuenta_deshabilitada, saturado, error)
+    private Map<String, Timer> tiemposLogin;
+
+    @PostConstruct
+    public void init() {
+        this.tiemposLogin = Map.of(
+                "ok", timerLogin("ok"),
+                "credenciales_invalidas", timerLogin("credenciales_invalidas"),
+                "cuenta_deshabilitada", timerLogin("cuenta_deshabilitada"),
+                "saturado", timerLogin("saturado"),
+                "error", timerLogin("error"));
+    }
+
+    private Timer timerLogin(String resultado) {
+        return Timer.builder("auth.login")
+                .description("Login con usuario y contraseña, incluida la verificación BCrypt")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
     /**
-     * Autenticar usuario y generar token JWT
+     * Autenticar usuario y generar token JWT.
+     * Sin transacción: la verificación BCrypt espera en la cola del codificador y no debe
+     * retener una conexión del pool mientras tanto
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse login(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(
-                loginRequest.getUsernameOrEmail(), 
-                loginRequest.getPassword()
-            )
-        );
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        String resultado = "error";
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(
+                    loginRequest.getUsernameOrEmail(), 
+                    loginRequest.getPassword()
+                )
+            );
+
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            String jwt = jwtUtils.generateJwtToken(authentication);
+
+            Usuario usuario = (Usuario) authentication.getPrincipal();
+            accountVersionService.registrarVersion(usuario);
+            
+            // Registrar último acceso (se escribe en lote, fuera de la transacción de login)
+            LocalDateTime ahora = LocalDateTime.now();
+            ultimoAccesoService.registrarAcceso(usuario.getId(), ahora);
+            usuario.setUltimoAcceso(ahora);
+
+            AuthResponse response = mapToAuthResponse(jwt, refreshTokenService.emitir(usuario.getId()), usuario);
+            resultado = "ok";
+            return response;
+        } catch (BadCredentialsException e) {
+            resultado = "credenciales_invalidas";
+            throw e;
+        } catch (AccountStatusException e) {
+            resultado = "cuenta_deshabilitada";
+            throw e;
+        } catch (ServicioSaturadoException e) {
+            resultado = "saturado";
+            throw e;
+        } finally {
+            muestra.stop(tiemposLogin.get(resultado));
+        }
+    }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
+    /**
+     * Canjear un token de refresco por un nuevo token de acceso (y un nuevo token de refresco)
+     */
+    @Transactional(noRollbackFor = TokenRefrescoException.class)
+    public AuthResponse refrescarToken(String refreshToken) {
+        RefreshTokenService.Rotacion rotacion = refreshTokenService.rotar(refreshToken);
+
+        Usuario usuario = usuarioRepository.findById(rotacion.usuarioId())
+                .filter(u -> Boolean.TRUE.equals(u.getActivo()))
+                .orElse(null);
+        if (usuario == null) {
+            refreshTokenService.revocarTodas(rotacion.usuarioId());
+            throw new TokenRefrescoException("La cuenta de usuario está desactivada");
+        }
 
-        Usuario usuario = (Usuario) authentication.getPrincipal();
-        
-        // Actualizar último acceso
-        usuarioRepository.actualizarUltimoAcceso(usuario.getId(), LocalDateTime.now());
+        // El nuevo token refleja el rol y la versión de cuenta actuales
+        String jwt = jwtUtils.generateTokenForUser(usuario);
+        accountVersionService.registrarVersion(usuario);
+        ultimoAccesoService.registrarAcceso(usuario.getId());
 
-        return mapToAuthResponse(jwt, usuario);
+        return mapToAuthResponse(jwt, rotacion.refreshToken(), usuario);
+    }
+
+    /**
+     * Cerrar la sesión asociada al token de refresco
+     */
+    public MessageResponse cerrarSesion(String refreshToken) {
+        refreshTokenService.revocarSesion(refreshToken);
+        return new MessageResponse("Sesión cerrada exitosamente");
     }
 
     /**
@@ -107,6 +222,7 @@ public class AuthService {
         usuario.setDireccion(registroRequest.getDireccion());
 
         usuarioRepository.save(usuario);
+        usuarioEstadisticasService.invalidar();
 
         return new MessageResponse("Usuario registrado exitosamente");
     }
@@ -141,6 +257,7 @@ public class AuthService {
             // Actualizar contraseña si se proporciona
             if (request.isUpdatingPassword()) {
                 usuario.setPassword(encoder.encode(request.getPassword()));
+                usuario.incrementarVersionCuenta();
             }
 
             // Actualizar fecha de modificación
@@ -148,17 +265,29 @@ public class AuthService {
 
             // Guardar cambios
             usuarioRepository.save(usuario);
+            accountVersionService.registrarVersion(usuario);
+            usuarioCache.invalidar(usuario);
+            if (request.isUpdatingPassword()) {
+                // Las demás sesiones no podrán renovarse con la contraseña anterior, y la revocación
+                // hace que las otras instancias descarten la cuenta en caché
+                revocarSesiones(usuario.getId());
+            }
 
             return new MessageResponse("Perfil actualizado exitosamente", true);
 
+        } catch (ServicioSaturadoException e) {
+            throw e;
         } catch (Exception e) {
             return new MessageResponse("Error interno del servidor: " + e.getMessage(), false);
         }
     }
 
     /**
-     * Cambiar contraseña del usuario autenticado
+     * Cambiar contraseña del usuario autenticado.
+     * Las verificaciones y el hash BCrypt se hacen fuera de la transacción; solo el guardado
+     * ocupa una conexión del pool
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public MessageResponse cambiarPassword(String username, CambiarPasswordRequest request) {
         try {
             // Buscar usuario por username
@@ -184,15 +313,32 @@ public class AuthService {
                 return new MessageResponse("Error: La nueva contraseña debe ser diferente a la actual", false);
             }
 
-            // Actualizar contraseña
-            usuario.setPassword(encoder.encode(request.getNuevaPassword()));
-            usuario.setFechaActualizacion(LocalDateTime.now());
+            String nuevaPassword = encoder.encode(request.getNuevaPassword());
+            String passwordVerificada = usuario.getPassword();
 
-            // Guardar cambios
-            usuarioRepository.save(usuario);
+            // Guardar cambios sobre la fila actual, si la contraseña no cambió mientras tanto
+            Boolean cambiada = transactionTemplate.execute(status -> {
+                Usuario actual = usuarioRepository.findById(usuario.getId()).orElse(null);
+                if (actual == null || !passwordVerificada.equals(actual.getPassword())) {
+                    return false;
+                }
+                actual.setPassword(nuevaPassword);
+                actual.setFechaActualizacion(LocalDateTime.now());
+                actual.incrementarVersionCuenta();
+                usuarioRepository.save(actual);
+                accountVersionService.registrarVersion(actual);
+                usuarioCache.invalidar(actual);
+                revocarSesiones(actual.getId());
+                return true;
+            });
+            if (!Boolean.TRUE.equals(cambiada)) {
+                return new MessageResponse("Error: La contraseña se modificó mientras se procesaba la solicitud", false);
+            }
 
             return new MessageResponse("Contraseña cambiada exitosamente", true);
 
+        } catch (ServicioSaturadoException e) {
+            throw e;
         } catch (Exception e) {
             return new MessageResponse("Error interno del servidor: " + e.getMessage(), false);
         }
@@ -201,9 +347,12 @@ public class AuthService {
     /**
      * Obtener información del usuario actual
      */
+    @Transactional(readOnly = true)
     public UsuarioResponse getCurrentUser(String username) {
-        Usuario usuario = usuarioRepository.findByUsername(username)
+        Usuario usuario = usuarioCache.getPorUsername(username, usuarioRepository::findByUsername)
             .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        // La caché no guarda el último acceso
+        usuario.setUltimoAcceso(ultimoAccesoService.getUltimoAcceso(usuario.getId()));
         
         return mapToUsuarioResponse(usuario);
     }
@@ -251,14 +400,11 @@ public class AuthService {
     }
 
     /**
-     * Buscar usuarios por nombres y apellidos
+     * Buscar usuarios por nombres, apellidos, DNI o códigos, ordenados por relevancia
+     * (sin texto, la página pedida con los mismos filtros)
      */
-    public List<UsuarioResponse> buscarUsuariosPorNombre(String texto) {
-        if (texto == null || texto.trim().isEmpty()) {
-            return getAllUsuarios();
-        }
-        
-        List<Usuario> usuarios = usuarioRepository.buscarPorNombre(texto.trim());
+    public List<UsuarioResponse> buscarUsuarios(String texto, Role rol, boolean soloActivos, int pagina, int tamanio) {
+        List<Usuario> usuarios = usuarioBusquedaService.buscar(texto, rol, soloActivos, pagina, tamanio);
         return usuarios.stream()
                       .map(this::mapToUsuarioResponse)
                       .collect(Collectors.toList());
@@ -275,7 +421,12 @@ public class AuthService {
 
         Usuario usuario = usuarioOpt.get();
         usuario.setActivo(false);
+        usuario.incrementarVersionCuenta();
         usuarioRepository.save(usuario);
+        accountVersionService.registrarVersion(usuario);
+        usuarioCache.invalidar(usuario);
+        usuarioEstadisticasService.invalidar();
+        revocarSesiones(usuario.getId());
 
         return new MessageResponse("Usuario desactivado exitosamente");
     }
@@ -291,7 +442,11 @@ public class AuthService {
 
         Usuario usuario = usuarioOpt.get();
         usuario.setActivo(true);
+        usuario.incrementarVersionCuenta();
         usuarioRepository.save(usuario);
+        accountVersionService.registrarVersion(usuario);
+        usuarioCache.invalidar(usuario);
+        usuarioEstadisticasService.invalidar();
 
         return new MessageResponse("Usuario activado exitosamente");
     }
@@ -308,6 +463,9 @@ public class AuthService {
             }
 
             Usuario usuario = usuarioOpt.get();
+            String usernameAnterior = usuario.getUsername();
+            String emailAnterior = usuario.getEmail();
+            Role rolAnterior = usuario.getRole();
 
             // Validar que el username y email no estén siendo usados por otro usuario
             if (!usuario.getUsername().equals(request.getUsername())) {
@@ -353,11 +511,28 @@ public class AuthService {
             // Actualizar fecha de modificación
             usuario.setFechaActualizacion(LocalDateTime.now());
 
+            // Username, rol o contraseña pueden haber cambiado: invalidar tokens emitidos
+            usuario.incrementarVersionCuenta();
+
             // Guardar cambios
             usuarioRepository.save(usuario);
+            accountVersionService.registrarVersion(usuario);
+            usuarioCache.invalidar(usernameAnterior, emailAnterior);
+            usuarioCache.invalidar(usuario);
+            if (rolAnterior != usuario.getRole()) {
+                usuarioEstadisticasService.invalidar();
+            }
+
+            // Los demás servicios confían en el username y los roles del token
+            if (!usernameAnterior.equals(usuario.getUsername()) || rolAnterior != usuario.getRole()
+                    || request.isUpdatingPassword()) {
+                revocarSesiones(usuario.getId());
+            }
 
             return new MessageResponse("Usuario actualizado exitosamente", true);
 
+        } catch (ServicioSaturadoException e) {
+            throw e;
         } catch (Exception e) {
             return new MessageResponse("Error interno del servidor: " + e.getMessage(), false);
         }
@@ -367,19 +542,7 @@ public class AuthService {
      * Obtener estadísticas de usuarios por rol
      */
     public MessageResponse getEstadisticas() {
-        long totalUsuarios = usuarioRepository.count();
-        long admins = usuarioRepository.countByRoleAndActivoTrue(Role.ADMIN);
-        long docentes = usuarioRepository.countByRoleAndActivoTrue(Role.DOCENTE);
-        long alumnos = usuarioRepository.countByRoleAndActivoTrue(Role.ALUMNO);
-        long coordinadores = usuarioRepository.countByRoleAndActivoTrue(Role.COORDINADOR);
-        long postulantes = usuarioRepository.countByRoleAndActivoTrue(Role.POSTULANTE);
-
-        String estadisticas = String.format(
-            "Total: %d, Admins: %d, Docentes: %d, Alumnos: %d, Coordinadores: %d, Postulantes: %d",
-            totalUsuarios, admins, docentes, alumnos, coordinadores, postulantes
-        );
-
-        return new MessageResponse(estadisticas);
+        return new MessageResponse(usuarioEstadisticasService.getEstadisticas().getMessage());
     }
 
     // Métodos auxiliares privados
@@ -411,7 +574,7 @@ public class AuthService {
         return null;
     }
 
-    private void setRoleSpecificFields(Usuario usuario, RegistroRequest request) {
+    void setRoleSpecificFields(Usuario usuario, RegistroRequest request) {
         // Inicializar todos los campos específicos de rol como null
         usuario.setCodigoEstudiante(null);
         usuario.setCodigoDocente(null);
@@ -484,7 +647,15 @@ public class AuthService {
         }
     }
 
-    private AuthResponse mapToAuthResponse(String jwt, Usuario usuario) {
+    /**
+     * Revocar los tokens de refresco y los tokens de acceso ya emitidos del usuario
+     */
+    private void revocarSesiones(Long usuarioId) {
+        refreshTokenService.revocarTodas(usuarioId);
+        revocacionTokenService.revocar(usuarioId);
+    }
+
+    private AuthResponse mapToAuthResponse(String jwt, String refreshToken, Usuario usuario) {
         AuthResponse response = new AuthResponse(
             jwt, 
             usuario.getId(), 
@@ -502,6 +673,8 @@ public class AuthService {
         response.setCodigoDocente(usuario.getCodigoDocente());
         response.setEspecialidad(usuario.getEspecialidad());
         response.setProgramaInteres(usuario.getProgramaInteres());
+        response.setRefreshToken(refreshToken);
+        response.setExpiresIn(jwtUtils.getJwtExpirationMs() / 1000);
         
         return response;
     }
@@ -1,190 +1,188 @@
 package com.escuelaposgrado.Autenticacion.service;
 
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.escuelaposgrado.Autenticacion.model.entity.Usuario;
-import com.escuelaposgrado.Autenticacion.repository.UsuarioRepository;
+import com.escuelaposgrado.Autenticacion.dto.response.LimpiezaDuplicadosResponse;
+import com.escuelaposgrado.Autenticacion.security.services.AccountVersionService;
+import com.escuelaposgrado.Autenticacion.security.services.UsuarioCache;
 
 /**
- * Servicio para limpieza de datos duplicados
+ * Servicio para limpieza de datos duplicados.
+ *
+ * La detección y el borrado se resuelven en la base de datos con una sentencia por campo
+ * único (ROW_NUMBER() OVER (PARTITION BY campo ORDER BY id)), conservando el registro más
+ * antiguo de cada grupo. Los campos se procesan en orden y dentro de una sola transacción,
+ * por lo que cada campo ya no ve los registros eliminados por los anteriores.
+ *
+ * La simulación usa el mismo CTE en un SELECT de solo lectura (sin bloqueos de fila ni
+ * disparadores) y excluye en cada campo los ids que habrían eliminado los anteriores.
  */
 @Service
-@Transactional
 public class DataCleanupService {
 
     private static final Logger logger = LoggerFactory.getLogger(DataCleanupService.class);
 
+    // Campo -> columna, en el orden en que se limpian
+    private static final Map<String, String> CAMPOS_UNICOS = new LinkedHashMap<>();
+    static {
+        CAMPOS_UNICOS.put("username", "username");
+        CAMPOS_UNICOS.put("email", "email");
+        CAMPOS_UNICOS.put("dni", "dni");
+        CAMPOS_UNICOS.put("codigoEstudiante", "codigo_estudiante");
+        CAMPOS_UNICOS.put("codigoDocente", "codigo_docente");
+    }
+
+    // El parámetro son los ids que se consideran ya eliminados (solo los usa la simulación)
+    private static final String DUPLICADOS_SQL =
+        "SELECT id, %1$s AS valor, ROW_NUMBER() OVER (PARTITION BY %1$s ORDER BY id) AS rn " +
+        "FROM usuarios WHERE %1$s IS NOT NULL AND TRIM(%1$s) <> '' AND id <> ALL(?::bigint[])";
+
+    private static final String ELIMINAR_DUPLICADOS_SQL =
+        "WITH duplicados AS (" + DUPLICADOS_SQL + "), " +
+        "eliminados AS (DELETE FROM usuarios u USING duplicados d WHERE u.id = d.id AND d.rn > 1 RETURNING d.valor) " +
+        "SELECT COUNT(*) AS eliminados, COUNT(DISTINCT valor) AS grupos FROM eliminados";
+
+    private static final String SIMULAR_DUPLICADOS_SQL =
+        "WITH duplicados AS (" + DUPLICADOS_SQL + ") " +
+        "SELECT COUNT(*) AS eliminados, COUNT(DISTINCT valor) AS grupos, ARRAY_AGG(id) AS ids " +
+        "FROM duplicados WHERE rn > 1";
+
+    private static final Long[] SIN_EXCLUSIONES = new Long[0];
+
+    private static final String EXISTE_DUPLICADO_SQL =
+        "EXISTS (SELECT 1 FROM usuarios WHERE %1$s IS NOT NULL AND TRIM(%1$s) <> '' " +
+        "GROUP BY %1$s HAVING COUNT(*) > 1)";
+
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UsuarioCache usuarioCache;
+
+    @Autowired
+    private AccountVersionService accountVersionService;
+
+    @Autowired
+    private UsuarioEstadisticasService usuarioEstadisticasService;
 
     /**
      * Limpia registros duplicados en la base de datos
      */
-    public void limpiarDuplicados() {
-        logger.info("Iniciando limpieza de registros duplicados...");
-        
+    public LimpiezaDuplicadosResponse limpiarDuplicados() {
+        return ejecutarLimpieza(false);
+    }
+
+    /**
+     * Calcula qué eliminaría la limpieza sin modificar datos: cuenta con SELECT sobre el
+     * mismo CTE, en una transacción de solo lectura con una única instantánea
+     */
+    public LimpiezaDuplicadosResponse simularLimpieza() {
+        return ejecutarLimpieza(true);
+    }
+
+    private LimpiezaDuplicadosResponse ejecutarLimpieza(boolean simulacion) {
+        logger.info("Iniciando {} de registros duplicados...", simulacion ? "simulación de limpieza" : "limpieza");
+        LimpiezaDuplicadosResponse resultado = new LimpiezaDuplicadosResponse(simulacion);
+
         try {
-            // Limpiar duplicados por username
-            limpiarDuplicadosPorCampo("username");
-            
-            // Limpiar duplicados por email
-            limpiarDuplicadosPorCampo("email");
-            
-            // Limpiar duplicados por DNI
-            limpiarDuplicadosPorDni();
-            
-            // Limpiar duplicados por código de estudiante
-            limpiarDuplicadosPorCodigoEstudiante();
-            
-            // Limpiar duplicados por código de docente
-            limpiarDuplicadosPorCodigoDocente();
-            
-            logger.info("Limpieza de duplicados completada exitosamente");
-            
+            if (simulacion) {
+                TransactionTemplate lectura = new TransactionTemplate(transactionTemplate.getTransactionManager());
+                lectura.setReadOnly(true);
+                lectura.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+                lectura.executeWithoutResult(status -> {
+                    List<Long> eliminados = new ArrayList<>();
+                    CAMPOS_UNICOS.forEach((campo, columna) ->
+                            resultado.agregar(simularDuplicados(campo, columna, eliminados)));
+                });
+            } else {
+                transactionTemplate.executeWithoutResult(status -> {
+                    CAMPOS_UNICOS.forEach((campo, columna) -> resultado.agregar(eliminarDuplicados(campo, columna)));
+
+                    if (resultado.getTotalEliminados() > 0) {
+                        // Las entradas en memoria de los usuarios eliminados dejan de ser válidas
+                        usuarioCache.invalidarTodo();
+                        accountVersionService.invalidarTodo();
+                        usuarioEstadisticasService.invalidar();
+                    }
+                });
+            }
         } catch (Exception e) {
             logger.error("Error durante la limpieza de duplicados: {}", e.getMessage(), e);
             throw new RuntimeException("Error al limpiar duplicados: " + e.getMessage());
         }
-    }
 
-    private void limpiarDuplicadosPorCampo(String campo) {
-        List<Usuario> usuarios = usuarioRepository.findAll();
-        
-        Map<String, List<Usuario>> agrupados;
-        if ("username".equals(campo)) {
-            agrupados = usuarios.stream()
-                .collect(Collectors.groupingBy(Usuario::getUsername));
-        } else if ("email".equals(campo)) {
-            agrupados = usuarios.stream()
-                .collect(Collectors.groupingBy(Usuario::getEmail));
+        if (resultado.getTotalEliminados() == 0) {
+            resultado.setMessage("No se encontraron registros duplicados");
+        } else if (simulacion) {
+            resultado.setMessage("Se eliminarían " + resultado.getTotalEliminados() + " registros duplicados");
         } else {
-            return;
-        }
-        
-        for (Map.Entry<String, List<Usuario>> entry : agrupados.entrySet()) {
-            List<Usuario> duplicados = entry.getValue();
-            if (duplicados.size() > 1) {
-                logger.warn("Encontrados {} duplicados para {}: {}", 
-                    duplicados.size(), campo, entry.getKey());
-                
-                // Mantener solo el primer registro (más antiguo), eliminar el resto
-                for (int i = 1; i < duplicados.size(); i++) {
-                    Usuario duplicado = duplicados.get(i);
-                    logger.info("Eliminando duplicado ID: {} con {}: {}", 
-                        duplicado.getId(), campo, entry.getKey());
-                    usuarioRepository.delete(duplicado);
-                }
-            }
+            resultado.setMessage("Limpieza de duplicados completada exitosamente");
         }
+        logger.info("{}: {} registros", resultado.getMessage(), resultado.getTotalEliminados());
+        return resultado;
     }
 
-    private void limpiarDuplicadosPorDni() {
-        List<Usuario> usuarios = usuarioRepository.findAll();
-        
-        Map<String, List<Usuario>> agrupadosPorDni = usuarios.stream()
-            .filter(u -> u.getDni() != null && !u.getDni().trim().isEmpty())
-            .collect(Collectors.groupingBy(Usuario::getDni));
-        
-        for (Map.Entry<String, List<Usuario>> entry : agrupadosPorDni.entrySet()) {
-            List<Usuario> duplicados = entry.getValue();
-            if (duplicados.size() > 1) {
-                logger.warn("Encontrados {} duplicados para DNI: {}", 
-                    duplicados.size(), entry.getKey());
-                
-                // Mantener solo el primer registro, eliminar el resto
-                for (int i = 1; i < duplicados.size(); i++) {
-                    Usuario duplicado = duplicados.get(i);
-                    logger.info("Eliminando duplicado ID: {} con DNI: {}", 
-                        duplicado.getId(), entry.getKey());
-                    usuarioRepository.delete(duplicado);
-                }
-            }
-        }
-    }
+    private LimpiezaDuplicadosResponse.ResultadoCampo eliminarDuplicados(String campo, String columna) {
+        LimpiezaDuplicadosResponse.ResultadoCampo resultado = jdbcTemplate.queryForObject(
+                String.format(ELIMINAR_DUPLICADOS_SQL, columna),
+                (rs, rowNum) -> new LimpiezaDuplicadosResponse.ResultadoCampo(
+                        campo, rs.getInt("grupos"), rs.getInt("eliminados")),
+                (Object) SIN_EXCLUSIONES);
 
-    private void limpiarDuplicadosPorCodigoEstudiante() {
-        List<Usuario> usuarios = usuarioRepository.findAll();
-        
-        Map<String, List<Usuario>> agrupadosPorCodigo = usuarios.stream()
-            .filter(u -> u.getCodigoEstudiante() != null && !u.getCodigoEstudiante().trim().isEmpty())
-            .collect(Collectors.groupingBy(Usuario::getCodigoEstudiante));
-        
-        for (Map.Entry<String, List<Usuario>> entry : agrupadosPorCodigo.entrySet()) {
-            List<Usuario> duplicados = entry.getValue();
-            if (duplicados.size() > 1) {
-                logger.warn("Encontrados {} duplicados para código estudiante: {}", 
-                    duplicados.size(), entry.getKey());
-                
-                // Mantener solo el primer registro, eliminar el resto
-                for (int i = 1; i < duplicados.size(); i++) {
-                    Usuario duplicado = duplicados.get(i);
-                    logger.info("Eliminando duplicado ID: {} con código estudiante: {}", 
-                        duplicado.getId(), entry.getKey());
-                    usuarioRepository.delete(duplicado);
-                }
-            }
+        if (resultado.getEliminados() > 0) {
+            logger.warn("Encontrados {} duplicados en {} grupos para {}",
+                    resultado.getEliminados(), resultado.getGrupos(), campo);
         }
+        return resultado;
     }
 
-    private void limpiarDuplicadosPorCodigoDocente() {
-        List<Usuario> usuarios = usuarioRepository.findAll();
-        
-        Map<String, List<Usuario>> agrupadosPorCodigo = usuarios.stream()
-            .filter(u -> u.getCodigoDocente() != null && !u.getCodigoDocente().trim().isEmpty())
-            .collect(Collectors.groupingBy(Usuario::getCodigoDocente));
-        
-        for (Map.Entry<String, List<Usuario>> entry : agrupadosPorCodigo.entrySet()) {
-            List<Usuario> duplicados = entry.getValue();
-            if (duplicados.size() > 1) {
-                logger.warn("Encontrados {} duplicados para código docente: {}", 
-                    duplicados.size(), entry.getKey());
-                
-                // Mantener solo el primer registro, eliminar el resto
-                for (int i = 1; i < duplicados.size(); i++) {
-                    Usuario duplicado = duplicados.get(i);
-                    logger.info("Eliminando duplicado ID: {} con código docente: {}", 
-                        duplicado.getId(), entry.getKey());
-                    usuarioRepository.delete(duplicado);
-                }
-            }
-        }
+    /**
+     * Contar lo que eliminaría un campo, sin contar los ids ya eliminados por los campos
+     * anteriores, y agregar a la lista los que eliminaría este
+     */
+    private LimpiezaDuplicadosResponse.ResultadoCampo simularDuplicados(String campo, String columna,
+                                                                       List<Long> eliminados) {
+        return jdbcTemplate.queryForObject(
+                String.format(SIMULAR_DUPLICADOS_SQL, columna),
+                (rs, rowNum) -> {
+                    Array ids = rs.getArray("ids");
+                    if (ids != null) {
+                        eliminados.addAll(Arrays.asList((Long[]) ids.getArray()));
+                    }
+                    return new LimpiezaDuplicadosResponse.ResultadoCampo(
+                            campo, rs.getInt("grupos"), rs.getInt("eliminados"));
+                },
+                (Object) eliminados.toArray(new Long[0]));
     }
 
     /**
      * Verifica si existen registros duplicados
      */
     public boolean existenDuplicados() {
-        List<Usuario> usuarios = usuarioRepository.findAll();
-        
-        // Verificar duplicados por username
-        Map<String, Long> conteoUsername = usuarios.stream()
-            .collect(Collectors.groupingBy(Usuario::getUsername, Collectors.counting()));
-        
-        // Verificar duplicados por email
-        Map<String, Long> conteoEmail = usuarios.stream()
-            .collect(Collectors.groupingBy(Usuario::getEmail, Collectors.counting()));
-        
-        // Verificar duplicados por DNI
-        Map<String, Long> conteoDni = usuarios.stream()
-            .filter(u -> u.getDni() != null && !u.getDni().trim().isEmpty())
-            .collect(Collectors.groupingBy(Usuario::getDni, Collectors.counting()));
-        
-        boolean hayDuplicados = conteoUsername.values().stream().anyMatch(count -> count > 1) ||
-                               conteoEmail.values().stream().anyMatch(count -> count > 1) ||
-                               conteoDni.values().stream().anyMatch(count -> count > 1);
-        
+        String sql = "SELECT " + String.join(" OR ",
+                CAMPOS_UNICOS.values().stream().map(columna -> String.format(EXISTE_DUPLICADO_SQL, columna)).toList());
+        boolean hayDuplicados = Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class));
+
         if (hayDuplicados) {
             logger.warn("Se encontraron registros duplicados en la base de datos");
         }
-        
+
         return hayDuplicados;
     }
 }
@@ -0,0 +1,149 @@
+package com.escuelaposgrado.Autenticacion.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.escuelaposgrado.Autenticacion.dto.response.EventosUsuarioResponse;
+import com.escuelaposgrado.Autenticacion.repository.EventoUsuarioRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bandeja de salida (outbox) de altas, cambios, desactivaciones y bajas de usuarios, que
+ * Intranet consulta para mantener su copia local de usuarios.
+ *
+ * Un disparador sobre usuarios inserta el evento en la misma transacción que el cambio, de
+ * modo que también quedan registradas las escrituras por JDBC (importaciones masivas, limpieza
+ * de duplicados). Los cambios que solo tocan ultimo_acceso, contraseña o versión de cuenta no
+ * generan eventos. Solo se entregan eventos de transacciones anteriores a la más antigua en
+ * curso, así el cursor (transaccion, id) nunca salta un evento que aún no se había confirmado.
+ */
+@Service
+public class EventoUsuarioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventoUsuarioService.class);
+
+    public static final int LIMITE_MAXIMO = 1000;
+
+    // Sentencias idempotentes para preparar el disparador de la bandeja de salida
+    private static final List<String> DDL_EVENTOS = List.of(
+        "CREATE OR REPLACE FUNCTION usuarios_registrar_evento() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+        "BEGIN " +
+        "  IF TG_OP = 'DELETE' THEN " +
+        "    INSERT INTO usuario_eventos (usuario_id, tipo, transaccion, fecha_creacion) " +
+        "    VALUES (OLD.id, 'ELIMINADO', pg_current_xact_id()::text::bigint, LOCALTIMESTAMP); " +
+        "    RETURN OLD; " +
+        "  END IF; " +
+        "  IF TG_OP = 'UPDATE' AND (OLD.username, OLD.email, OLD.nombre, OLD.apellido_paterno, OLD.apellido_materno, " +
+        "      OLD.dni, OLD.telefono, OLD.direccion, OLD.rol, OLD.activo, OLD.codigo_estudiante, OLD.codigo_docente, " +
+        "      OLD.especialidad, OLD.programa_interes) IS NOT DISTINCT FROM (NEW.username, NEW.email, NEW.nombre, " +
+        "      NEW.apellido_paterno, NEW.apellido_materno, NEW.dni, NEW.telefono, NEW.direccion, NEW.rol, NEW.activo, " +
+        "      NEW.codigo_estudiante, NEW.codigo_docente, NEW.especialidad, NEW.programa_interes) THEN " +
+        "    RETURN NEW; " +
+        "  END IF; " +
+        "  INSERT INTO usuario_eventos (usuario_id, tipo, transaccion, fecha_creacion) " +
+        "  VALUES (NEW.id, CASE WHEN TG_OP = 'INSERT' THEN 'CREADO' " +
+        "                       WHEN OLD.activo AND NOT NEW.activo THEN 'DESACTIVADO' " +
+        "                       ELSE 'ACTUALIZADO' END, " +
+        "          pg_current_xact_id()::text::bigint, LOCALTIMESTAMP); " +
+        "  RETURN NEW; " +
+        "END $$",
+        "CREATE OR REPLACE TRIGGER usuarios_eventos_outbox AFTER INSERT OR UPDATE OR DELETE ON usuarios " +
+        "FOR EACH ROW EXECUTE FUNCTION usuarios_registrar_evento()",
+        // Primera vez: un evento por cada usuario existente para que los consumidores partan completos
+        "INSERT INTO usuario_eventos (usuario_id, tipo, transaccion, fecha_creacion) " +
+        "SELECT id, 'CREADO', pg_current_xact_id()::text::bigint, LOCALTIMESTAMP FROM usuarios " +
+        "WHERE NOT EXISTS (SELECT 1 FROM usuario_eventos)"
+    );
+
+    private static final String EVENTOS_SQL =
+        "SELECT e.id, e.tipo, e.usuario_id, e.transaccion, u.id AS existe, u.username, u.email, u.nombre, " +
+        "concat_ws(' ', u.apellido_paterno, NULLIF(trim(u.apellido_materno), '')) AS apellidos, u.dni, u.telefono, " +
+        "u.direccion, u.rol, u.activo, u.codigo_estudiante, u.codigo_docente, u.especialidad, u.programa_interes " +
+        "FROM usuario_eventos e LEFT JOIN usuarios u ON u.id = e.usuario_id " +
+        "WHERE (e.transaccion, e.id) > (?, ?) " +
+        "AND e.transaccion < pg_snapshot_xmin(pg_current_snapshot())::text::bigint " +
+        "ORDER BY e.transaccion, e.id LIMIT ?";
+
+    @Autowired
+    private EventoUsuarioRepository eventoUsuarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.eventosUsuario.retencionDias:7}")
+    private int retencionDias;
+
+    @PostConstruct
+    public void crearDisparador() {
+        try {
+            DDL_EVENTOS.forEach(jdbcTemplate::execute);
+        } catch (DataAccessException e) {
+            logger.error("No se pudo crear el disparador de eventos de usuarios; Intranet no recibirá cambios: {}",
+                    e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * Eventos confirmados posteriores a la posición (desdeTransaccion, desdeId), en orden
+     */
+    @Transactional(readOnly = true)
+    public EventosUsuarioResponse getEventosDesde(long desdeTransaccion, long desdeId, int limite) {
+        int tamanio = Math.min(Math.max(limite, 1), LIMITE_MAXIMO);
+        EventosUsuarioResponse response = new EventosUsuarioResponse(desdeTransaccion, desdeId);
+
+        jdbcTemplate.query(EVENTOS_SQL, rs -> {
+            EventosUsuarioResponse.Evento evento = new EventosUsuarioResponse.Evento();
+            evento.setId(rs.getLong("id"));
+            evento.setTransaccion(rs.getLong("transaccion"));
+            evento.setUsuarioId(rs.getLong("usuario_id"));
+            if (rs.getObject("existe") == null) {
+                // El usuario ya no existe, aunque el evento fuera de un cambio anterior
+                evento.setTipo("ELIMINADO");
+            } else {
+                evento.setTipo(rs.getString("tipo"));
+                evento.setUsername(rs.getString("username"));
+                evento.setEmail(rs.getString("email"));
+                evento.setNombres(rs.getString("nombre"));
+                evento.setApellidos(rs.getString("apellidos"));
+                evento.setDni(rs.getString("dni"));
+                evento.setTelefono(rs.getString("telefono"));
+                evento.setDireccion(rs.getString("direccion"));
+                evento.setRole(rs.getString("rol"));
+                evento.setActivo(rs.getBoolean("activo"));
+                evento.setCodigoEstudiante(rs.getString("codigo_estudiante"));
+                evento.setCodigoDocente(rs.getString("codigo_docente"));
+                evento.setEspecialidad(rs.getString("especialidad"));
+                evento.setProgramaInteres(rs.getString("programa_interes"));
+            }
+            response.getEventos().add(evento);
+            response.setHastaTransaccion(evento.getTransaccion());
+            response.setHastaId(evento.getId());
+        }, desdeTransaccion, desdeId, tamanio);
+
+        response.setHayMas(response.getEventos().size() == tamanio);
+        return response;
+    }
+
+    /**
+     * Compactar la bandeja: pasada la retención solo se conserva el último evento de cada usuario
+     */
+    @Scheduled(fixedDelayString = "${app.eventosUsuario.compactacionIntervaloMs:3600000}")
+    @Transactional
+    public void compactar() {
+        int eliminados = eventoUsuarioRepository.compactarAnteriores(LocalDateTime.now().minusDays(retencionDias));
+        if (eliminados > 0) {
+            logger.debug("Compactados {} eventos de usuarios", eliminados);
+        }
+    }
+}
@@ -4,27 +4,51 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.annotation.Transactional;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
 import com.escuelaposgrado.Autenticacion.dto.request.RegistroRequest;
-import com.escuelaposgrado.Autenticacion.dto.response.MessageResponse;
-import com.escuelaposgrado.Autenticacion.dto.response.UsuarioResponse;
 import com.escuelaposgrado.Autenticacion.model.enums.Role;
 
 /**
@@ -34,7 +58,10 @@ import com.escuelaposgrado.Autenticacion.model.enums.Role;
 public class ExcelService {
 
     @Autowired
-    private AuthService authService;
+    private UsuarioImportService usuarioImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     private static final String[] HEADERS = {
         "ID", "Username", "Email", "Nombres", "Apellidos", "DNI", "Teléfono", 
@@ -42,17 +69,48 @@ public class ExcelService {
         "Especialidad", "Programa de Interés", "Fecha Creación", "Último Acceso"
     };
 
+    // Ancho (en caracteres) de cada columna de la exportación
+    private static final int[] EXPORT_COLUMN_WIDTHS = {
+        8, 20, 30, 25, 30, 12, 15, 40, 14, 8, 18, 16, 25, 30, 18, 18
+    };
+
+    private static final String EXPORT_SQL =
+        "SELECT id, username, email, nombre, apellido_paterno, apellido_materno, dni, telefono, " +
+        "direccion, rol, activo, codigo_estudiante, codigo_docente, especialidad, programa_interes, " +
+        "fecha_creacion, ultimo_acceso FROM usuarios ORDER BY id";
+
+    // Filas leídas por viaje a la base de datos y filas que SXSSF mantiene en memoria
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final int EXPORT_ROW_WINDOW = 100;
+
+    // Columnas de la plantilla de importación y filas por lote de inserción
+    private static final int IMPORT_COLUMNS = 13;
+    private static final int IMPORT_BATCH_SIZE = 500;
+
+    private static final DateTimeFormatter EXPORT_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
     /**
-     * Exporta todos los usuarios a un archivo Excel
+     * Exporta todos los usuarios a un archivo Excel escribiendo directamente en el stream
+     * de salida. Las filas se leen de la base de datos con un cursor y el libro SXSSF solo
+     * mantiene en memoria una ventana de filas, por lo que el consumo de heap no depende
+     * de la cantidad de usuarios.
      */
-    public ByteArrayInputStream exportUsuariosToExcel(List<UsuarioResponse> usuarios) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook()) {
+    @Transactional(readOnly = true)
+    public void exportUsuariosToExcel(OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXPORT_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
             Sheet sheet = workbook.createSheet("Usuarios");
-            
+
             // Crear estilos
             CellStyle headerStyle = createHeaderStyle(workbook);
             CellStyle dataStyle = createDataStyle(workbook);
-            
+
+            // Anchos fijos: autoSizeColumn necesitaría recorrer todas las filas
+            for (int i = 0; i < HEADERS.length; i++) {
+                sheet.setColumnWidth(i, EXPORT_COLUMN_WIDTHS[i] * 256);
+            }
+
             // Crear fila de cabeceras
             Row headerRow = sheet.createRow(0);
             for (int i = 0; i < HEADERS.length; i++) {
@@ -60,114 +118,125 @@ public class ExcelService {
                 cell.setCellValue(HEADERS[i]);
                 cell.setCellStyle(headerStyle);
             }
-            
+
             // Llenar datos
-            int rowIdx = 1;
-            for (UsuarioResponse usuario : usuarios) {
-                Row row = sheet.createRow(rowIdx++);
-                
-                setCellValue(row, 0, String.valueOf(usuario.getId()), dataStyle);
-                setCellValue(row, 1, usuario.getUsername(), dataStyle);
-                setCellValue(row, 2, usuario.getEmail(), dataStyle);
-                setCellValue(row, 3, usuario.getNombres(), dataStyle);
-                setCellValue(row, 4, usuario.getApellidos(), dataStyle);
-                setCellValue(row, 5, usuario.getDni(), dataStyle);
-                setCellValue(row, 6, usuario.getTelefono(), dataStyle);
-                setCellValue(row, 7, usuario.getDireccion(), dataStyle);
-                setCellValue(row, 8, usuario.getRole().toString(), dataStyle);
-                setCellValue(row, 9, usuario.getActivo() ? "SÍ" : "NO", dataStyle);
-                setCellValue(row, 10, usuario.getCodigoEstudiante(), dataStyle);
-                setCellValue(row, 11, usuario.getCodigoDocente(), dataStyle);
-                setCellValue(row, 12, usuario.getEspecialidad(), dataStyle);
-                setCellValue(row, 13, usuario.getProgramaInteres(), dataStyle);
-                setCellValue(row, 14, usuario.getFechaCreacion() != null ? 
-                    usuario.getFechaCreacion().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")) : "", dataStyle);
-                setCellValue(row, 15, usuario.getUltimoAcceso() != null ? 
-                    usuario.getUltimoAcceso().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")) : "", dataStyle);
-            }
-            
-            // Auto-ajustar columnas
-            for (int i = 0; i < HEADERS.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-            
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int[] rowIdx = {1};
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(EXPORT_SQL);
+                ps.setFetchSize(EXPORT_FETCH_SIZE);
+                return ps;
+            }, (RowCallbackHandler) rs -> writeUsuarioRow(sheet.createRow(rowIdx[0]++), rs, dataStyle));
+
             workbook.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
+            out.flush();
+        } finally {
+            // Eliminar los archivos temporales de SXSSF
+            workbook.dispose();
+            workbook.close();
         }
     }
 
-    /**
-     * Importa usuarios desde un archivo Excel
-     */
-    public MessageResponse importUsuariosFromExcel(MultipartFile file) {
-        if (file.isEmpty()) {
-            return new MessageResponse("El archivo está vacío", false);
-        }
+    private void writeUsuarioRow(Row row, ResultSet rs, CellStyle dataStyle) throws SQLException {
+        String apellidos = (nullToEmpty(rs.getString("apellido_paterno")) + " "
+                + nullToEmpty(rs.getString("apellido_materno"))).trim();
+        Timestamp fechaCreacion = rs.getTimestamp("fecha_creacion");
+        Timestamp ultimoAcceso = rs.getTimestamp("ultimo_acceso");
 
-        if (!file.getOriginalFilename().endsWith(".xlsx")) {
-            return new MessageResponse("El archivo debe ser formato .xlsx", false);
-        }
+        setCellValue(row, 0, String.valueOf(rs.getLong("id")), dataStyle);
+        setCellValue(row, 1, rs.getString("username"), dataStyle);
+        setCellValue(row, 2, rs.getString("email"), dataStyle);
+        setCellValue(row, 3, rs.getString("nombre"), dataStyle);
+        setCellValue(row, 4, apellidos, dataStyle);
+        setCellValue(row, 5, rs.getString("dni"), dataStyle);
+        setCellValue(row, 6, rs.getString("telefono"), dataStyle);
+        setCellValue(row, 7, rs.getString("direccion"), dataStyle);
+        setCellValue(row, 8, rs.getString("rol"), dataStyle);
+        setCellValue(row, 9, rs.getBoolean("activo") ? "SÍ" : "NO", dataStyle);
+        setCellValue(row, 10, rs.getString("codigo_estudiante"), dataStyle);
+        setCellValue(row, 11, rs.getString("codigo_docente"), dataStyle);
+        setCellValue(row, 12, rs.getString("especialidad"), dataStyle);
+        setCellValue(row, 13, rs.getString("programa_interes"), dataStyle);
+        setCellValue(row, 14, fechaCreacion != null ?
+            fechaCreacion.toLocalDateTime().format(EXPORT_DATE_FORMAT) : "", dataStyle);
+        setCellValue(row, 15, ultimoAcceso != null ?
+            ultimoAcceso.toLocalDateTime().format(EXPORT_DATE_FORMAT) : "", dataStyle);
+    }
 
-        List<String> errores = new ArrayList<>();
-        List<String> exitosos = new ArrayList<>();
-        int filaActual = 2; // Empezar desde la fila 2 (después de headers)
+    private String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
 
-        try (InputStream is = file.getInputStream();
-             Workbook workbook = new XSSFWorkbook(is)) {
+    /**
+     * Importa usuarios desde un archivo Excel ya guardado en disco.
+     *
+     * La hoja se lee con la API de eventos (SAX) de POI, sin cargar el libro en memoria,
+     * y las filas se registran por lotes de IMPORT_BATCH_SIZE mediante UsuarioImportService.
+     * Las filas hasta ultimaFilaProcesada (inclusive) se omiten, lo que permite reanudar
+     * una importación interrumpida.
+     */
+    public void importUsuariosFromExcel(Path archivo, int ultimaFilaProcesada,
+                                        UsuarioImportService.ResultadoListener listener)
+            throws IOException, OpenXML4JException, SAXException {
+        try (OPCPackage pkg = OPCPackage.open(archivo.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
 
-            Sheet sheet = workbook.getSheetAt(0);
-            Iterator<Row> rows = sheet.iterator();
+            UsuarioImportService.ValoresImportados importados = new UsuarioImportService.ValoresImportados();
+            List<UsuarioImportService.FilaImportacion> lote = new ArrayList<>(IMPORT_BATCH_SIZE);
 
-            if (rows.hasNext()) {
-                rows.next(); // Saltar header
-            }
+            XSSFSheetXMLHandler.SheetContentsHandler filas = new XSSFSheetXMLHandler.SheetContentsHandler() {
+                private final String[] valores = new String[IMPORT_COLUMNS];
 
-            while (rows.hasNext()) {
-                Row currentRow = rows.next();
-                
-                if (isEmptyRow(currentRow)) {
-                    filaActual++;
-                    continue;
+                @Override
+                public void startRow(int rowNum) {
+                    Arrays.fill(valores, "");
                 }
 
-                try {
-                    RegistroRequest registroRequest = mapRowToRegistroRequest(currentRow, filaActual);
-                    
-                    if (registroRequest != null) {
-                        MessageResponse response = authService.registro(registroRequest);
-                        if (response.isSuccess()) {
-                            exitosos.add("Fila " + filaActual + ": " + registroRequest.getUsername());
-                        } else {
-                            errores.add("Fila " + filaActual + ": " + response.getMessage());
-                        }
+                @Override
+                public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+                    int columna = new CellReference(cellReference).getCol();
+                    if (columna < IMPORT_COLUMNS && formattedValue != null) {
+                        valores[columna] = formattedValue;
                     }
-                } catch (Exception e) {
-                    errores.add("Fila " + filaActual + ": Error al procesar - " + e.getMessage());
                 }
-                filaActual++;
-            }
-        } catch (IOException e) {
-            return new MessageResponse("Error al procesar el archivo Excel: " + e.getMessage(), false);
-        }
 
-        // Crear mensaje de respuesta
-        StringBuilder mensaje = new StringBuilder();
-        mensaje.append("Importación completada.\n");
-        mensaje.append("Usuarios importados exitosamente: ").append(exitosos.size()).append("\n");
-        mensaje.append("Errores encontrados: ").append(errores.size()).append("\n");
+                @Override
+                public void endRow(int rowNum) {
+                    int filaActual = rowNum + 1;
 
-        if (!exitosos.isEmpty()) {
-            mensaje.append("\nExitosos:\n");
-            exitosos.forEach(msg -> mensaje.append("  - ").append(msg).append("\n"));
-        }
+                    // Saltar header, filas ya procesadas y filas vacías
+                    if (rowNum == 0 || filaActual <= ultimaFilaProcesada || isEmptyRow(valores)) {
+                        return;
+                    }
 
-        if (!errores.isEmpty()) {
-            mensaje.append("\nErrores:\n");
-            errores.forEach(msg -> mensaje.append("  - ").append(msg).append("\n"));
-        }
+                    try {
+                        lote.add(new UsuarioImportService.FilaImportacion(filaActual,
+                                mapRowToRegistroRequest(valores, filaActual)));
+                    } catch (Exception e) {
+                        listener.error(filaActual, "Error al procesar - " + e.getMessage());
+                    }
+
+                    if (lote.size() >= IMPORT_BATCH_SIZE) {
+                        usuarioImportService.importarLote(lote, importados, listener);
+                        lote.clear();
+                    }
+                }
+            };
+
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings, filas, new DataFormatter(), false));
+            Iterator<InputStream> hojas = reader.getSheetsData();
+            if (hojas.hasNext()) {
+                try (InputStream hoja = hojas.next()) {
+                    parser.parse(new InputSource(hoja));
+                }
+            }
 
-        return new MessageResponse(mensaje.toString(), errores.isEmpty());
+            usuarioImportService.importarLote(lote, importados, listener);
+        } catch (ParserConfigurationException e) {
+            throw new SAXException(e);
+        }
     }
 
     /**
@@ -240,18 +309,18 @@ public class ExcelService {
         return style;
     }
 
-    private RegistroRequest mapRowToRegistroRequest(Row row, int filaActual) {
+    private RegistroRequest mapRowToRegistroRequest(String[] valores, int filaActual) {
         try {
             RegistroRequest request = new RegistroRequest();
             
             // Campos obligatorios
-            String username = getCellValueAsString(row.getCell(0));
-            String email = getCellValueAsString(row.getCell(1));
-            String password = getCellValueAsString(row.getCell(2));
-            String nombres = getCellValueAsString(row.getCell(3));
-            String apellidos = getCellValueAsString(row.getCell(4));
-            String dni = getCellValueAsString(row.getCell(5));
-            String roleStr = getCellValueAsString(row.getCell(8));
+            String username = valores[0];
+            String email = valores[1];
+            String password = valores[2];
+            String nombres = valores[3];
+            String apellidos = valores[4];
+            String dni = valores[5];
+            String roleStr = valores[8];
             
             // Validar campos obligatorios
             if (username.isEmpty() || email.isEmpty() || password.isEmpty() || 
@@ -273,13 +342,13 @@ public class ExcelService {
             request.setNombres(nombres);
             request.setApellidos(apellidos);
             request.setDni(dni);
-            request.setTelefono(getCellValueAsString(row.getCell(6)));
-            request.setDireccion(getCellValueAsString(row.getCell(7)));
+            request.setTelefono(valores[6]);
+            request.setDireccion(valores[7]);
             request.setRole(role);
-            request.setCodigoEstudiante(getCellValueAsString(row.getCell(9)));
-            request.setCodigoDocente(getCellValueAsString(row.getCell(10)));
-            request.setEspecialidad(getCellValueAsString(row.getCell(11)));
-            request.setProgramaInteres(getCellValueAsString(row.getCell(12)));
+            request.setCodigoEstudiante(valores[9]);
+            request.setCodigoDocente(valores[10]);
+            request.setEspecialidad(valores[11]);
+            request.setProgramaInteres(valores[12]);
 
             return request;
         } catch (Exception e) {
@@ -287,30 +356,15 @@ public class ExcelService {
         }
     }
 
-    private boolean isEmptyRow(Row row) {
+    private boolean isEmptyRow(String[] valores) {
         for (int i = 0; i < 9; i++) { // Verificar primeras 9 columnas (campos básicos)
-            Cell cell = row.getCell(i);
-            if (cell != null && !getCellValueAsString(cell).trim().isEmpty()) {
+            if (!valores[i].trim().isEmpty()) {
                 return false;
             }
         }
         return true;
     }
 
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return "";
-        }
-        
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue();
-            case NUMERIC -> String.valueOf((long) cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            case FORMULA -> cell.getCellFormula();
-            default -> "";
-        };
-    }
-
     private void setCellValue(Row row, int columnIndex, String value, CellStyle style) {
         Cell cell = row.createCell(columnIndex);
         cell.setCellValue(value != null ? value : "");
@@ -1,16 +1,16 @@
 package com.escuelaposgrado.Autenticacion.service;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.escuelaposgrado.Autenticacion.dto.request.GoogleLoginRequest;
 import com.escuelaposgrado.Autenticacion.dto.response.AuthResponse;
@@ -18,13 +18,24 @@ import com.escuelaposgrado.Autenticacion.model.entity.Usuario;
 import com.escuelaposgrado.Autenticacion.model.enums.Role;
 import com.escuelaposgrado.Autenticacion.repository.UsuarioRepository;
 import com.escuelaposgrado.Autenticacion.security.jwt.JwtUtils;
+import com.escuelaposgrado.Autenticacion.security.services.AccountVersionService;
+import com.escuelaposgrado.Autenticacion.security.services.GoogleIdTokenVerifier;
+import com.escuelaposgrado.Autenticacion.security.services.UsuarioCache;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
 /**
- * Servicio para manejar la autenticación con Google OAuth
+ * Servicio para manejar la autenticación con Google OAuth.
+ *
+ * La verificación del token se hace fuera de la transacción: solo la búsqueda o creación
+ * del usuario toma una conexión de la base de datos, y no la retiene mientras se espera a Google.
  */
 @Service
-@Transactional
 public class GoogleOAuthService {
     
     private static final Logger logger = LoggerFactory.getLogger(GoogleOAuthService.class);
@@ -38,15 +49,49 @@ public class GoogleOAuthService {
     @Autowired
     private PasswordEncoder encoder;
     
-    @Value("${app.googleOAuth.clientId}")
-    private String googleClientId;
+    @Autowired
+    private AccountVersionService accountVersionService;
     
-    private final WebClient webClient;
+    @Autowired
+    private UsuarioCache usuarioCache;
+    
+    @Autowired
+    private UltimoAccesoService ultimoAccesoService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
     
-    public GoogleOAuthService() {
-        this.webClient = WebClient.builder()
-            .baseUrl("https://www.googleapis.com")
-            .build();
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GoogleIdTokenVerifier googleIdTokenVerifier;
+
+    @Autowired
+    private UsuarioEstadisticasService usuarioEstadisticasService;
+
+    @Autowired
+    private GoogleUserInfoClient googleUserInfoClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Timer de google.verificacion por "tipo:resultado" (id_token/access_token; ok, invalido, error)
+    private Map<String, Timer> tiemposVerificacion;
+
+    @PostConstruct
+    public void init() {
+        Map<String, Timer> timers = new HashMap<>();
+        for (String tipo : new String[] {"id_token", "access_token"}) {
+            for (String resultado : new String[] {"ok", "invalido", "error"}) {
+                timers.put(tipo + ":" + resultado, Timer.builder("google.verificacion")
+                        .description("Verificación del token de Google (local para ID tokens, remota para access tokens)")
+                        .tag("tipo", tipo)
+                        .tag("resultado", resultado)
+                        .register(meterRegistry));
+            }
+        }
+        this.tiemposVerificacion = Map.copyOf(timers);
     }
     
     /**
@@ -105,15 +150,22 @@ public class GoogleOAuthService {
             }
             
             // Buscar o crear usuario
-            Usuario usuario = findOrCreateUser(googleUser);
+            Usuario usuario = transactionTemplate.execute(status -> {
+                Usuario encontrado = findOrCreateUser(googleUser);
+                accountVersionService.registrarVersion(encontrado);
+                return encontrado;
+            });
             
-            // Actualizar último acceso
-            usuarioRepository.actualizarUltimoAcceso(usuario.getId(), LocalDateTime.now());
+            // Registrar último acceso (se escribe en lote, fuera de la transacción de login)
+            ultimoAccesoService.registrarAcceso(usuario.getId());
             
             // Generar JWT token
-            String jwt = jwtUtils.generateJwtTokenForUser(usuario.getUsername());
+            String jwt = jwtUtils.generateTokenForUser(usuario);
             
-            return mapToAuthResponse(jwt, usuario);
+            AuthResponse response = mapToAuthResponse(jwt, usuario);
+            response.setRefreshToken(refreshTokenService.emitir(usuario.getId()));
+            response.setExpiresIn(jwtUtils.getJwtExpirationMs() / 1000);
+            return response;
             
         } catch (RuntimeException e) {
             logger.error("Error en autenticación con Google: {}", e.getMessage());
@@ -125,52 +177,52 @@ public class GoogleOAuthService {
     }
     
     /**
-     * Verifica el token de Google y obtiene la información del usuario
+     * Verifica el token de Google y obtiene la información del usuario.
+     * Los ID tokens se verifican localmente; solo los access tokens requieren llamar a Google.
      */
     private GoogleUserInfo verifyGoogleToken(String token) {
+        String tipo = GoogleIdTokenVerifier.esIdToken(token) ? "id_token" : "access_token";
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        String resultado = "error";
         try {
-            GoogleUserInfo userInfo = null;
-            
-            // Primero intentar como access_token
-            try {
-                userInfo = webClient.get()
-                    .uri("/oauth2/v2/userinfo?access_token=" + token)
-                    .retrieve()
-                    .bodyToMono(GoogleUserInfo.class)
-                    .block();
-                
-                if (userInfo != null) {
-                    logger.debug("Token verificado exitosamente como access_token para usuario: {}", userInfo.getEmail());
-                    return userInfo;
-                }
-            } catch (Exception e) {
-                logger.debug("Fallo verificación como access_token, intentando como id_token");
-            }
-            
-            // Si falla como access_token, intentar como id_token
-            try {
-                userInfo = webClient.get()
-                    .uri("/oauth2/v3/tokeninfo?id_token=" + token)
-                    .retrieve()
-                    .bodyToMono(GoogleUserInfo.class)
-                    .block();
-                
-                if (userInfo != null) {
-                    logger.debug("Token verificado exitosamente como id_token para usuario: {}", userInfo.getEmail());
-                }
-            } catch (Exception e) {
-                logger.debug("Fallo verificación como id_token: {}", e.getMessage());
-            }
-            
-            // Verificar que el token pertenece a nuestra aplicación (opcional pero recomendado)
-            if (userInfo != null && googleClientId != null && !googleClientId.isEmpty()) {
-                // Aquí se podría agregar verificación adicional del client_id si es necesario
-                logger.debug("Verificación adicional de client_id completada");
+            GoogleUserInfo userInfo = "id_token".equals(tipo) ? verificarIdToken(token) : verificarAccessToken(token);
+            resultado = userInfo != null ? "ok" : "invalido";
+            return userInfo;
+        } finally {
+            muestra.stop(tiemposVerificacion.get(tipo + ":" + resultado));
+        }
+    }
+
+    private GoogleUserInfo verificarAccessToken(String token) {
+        GoogleUserInfo userInfo = googleUserInfoClient.obtener(token);
+        if (userInfo != null && !Boolean.TRUE.equals(userInfo.getEmailVerified())) {
+            logger.debug("El correo del access token de Google no está verificado");
+            return null;
+        }
+        return userInfo;
+    }
+
+    private GoogleUserInfo verificarIdToken(String token) {
+        try {
+            Claims claims = googleIdTokenVerifier.verificar(token);
+            // email_verified llega como booleano, aunque algunos emisores lo envían como texto
+            if (!"true".equals(String.valueOf(claims.get("email_verified")))) {
+                logger.debug("El correo del ID token de Google no está verificado");
+                return null;
             }
-            
+
+            GoogleUserInfo userInfo = new GoogleUserInfo();
+            userInfo.setSub(claims.getSubject());
+            userInfo.setEmail(claims.get("email", String.class));
+            userInfo.setGivenName(claims.get("given_name", String.class));
+            userInfo.setFamilyName(claims.get("family_name", String.class));
+            userInfo.setName(claims.get("name", String.class));
+            userInfo.setPicture(claims.get("picture", String.class));
+            userInfo.setEmailVerified(true);
+            logger.debug("ID token de Google verificado para usuario: {}", userInfo.getEmail());
             return userInfo;
-        } catch (Exception e) {
-            logger.error("Error al verificar token de Google: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.debug("ID token de Google inválido: {}", e.getMessage());
             return null;
         }
     }
@@ -225,6 +277,7 @@ public class GoogleOAuthService {
         
         if (needsUpdate) {
             usuarioRepository.save(usuario);
+            usuarioCache.invalidar(usuario);
             logger.info("Usuario actualizado desde Google OAuth: {}", usuario.getEmail());
         }
     }
@@ -260,6 +313,7 @@ public class GoogleOAuthService {
         nuevoUsuario.setFechaCreacion(LocalDateTime.now());
         
         Usuario savedUser = usuarioRepository.save(nuevoUsuario);
+        usuarioEstadisticasService.invalidar();
         logger.info("Nuevo usuario creado desde Google OAuth: {}", savedUser.getEmail());
         
         return savedUser;
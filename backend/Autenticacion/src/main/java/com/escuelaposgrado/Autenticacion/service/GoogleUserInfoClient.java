@@ -0,0 +1,81 @@
+package com.escuelaposgrado.Autenticacion.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.escuelaposgrado.Autenticacion.exception.ServicioSaturadoException;
+
+/**
+ * Consulta de /oauth2/v3/userinfo de Google para los access tokens, que no pueden
+ * verificarse localmente.
+ *
+ * Cada llamada tiene un tiempo máximo (app.googleOAuth.timeoutMs) y pasa por un circuito:
+ * tras app.googleOAuth.circuito.fallos fallos seguidos (timeout o error 5xx) se deja de llamar
+ * a Google durante app.googleOAuth.circuito.aperturaMs y los logins con access token se
+ * rechazan con 503 en lugar de esperar. Un token rechazado por Google (4xx) no cuenta como fallo.
+ */
+@Component
+public class GoogleUserInfoClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleUserInfoClient.class);
+
+    private final RestClient restClient;
+    private final int fallosParaAbrir;
+    private final long aperturaMs;
+
+    private final AtomicInteger fallosSeguidos = new AtomicInteger();
+    private volatile long abiertoHasta = 0;
+
+    public GoogleUserInfoClient(@Value("${app.googleOAuth.userInfoUrl:https://www.googleapis.com/oauth2/v3/userinfo}") String userInfoUrl,
+                                @Value("${app.googleOAuth.timeoutMs:3000}") long timeoutMs,
+                                @Value("${app.googleOAuth.circuito.fallos:5}") int fallosParaAbrir,
+                                @Value("${app.googleOAuth.circuito.aperturaMs:30000}") long aperturaMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(timeoutMs));
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        this.restClient = RestClient.builder()
+                .baseUrl(userInfoUrl)
+                .requestFactory(requestFactory)
+                .build();
+        this.fallosParaAbrir = fallosParaAbrir;
+        this.aperturaMs = aperturaMs;
+    }
+
+    /**
+     * Obtener los datos del usuario dueño del access token (null si Google lo rechaza)
+     */
+    public GoogleOAuthService.GoogleUserInfo obtener(String accessToken) {
+        if (System.currentTimeMillis() < abiertoHasta) {
+            throw new ServicioSaturadoException("La verificación con Google no está disponible, intente nuevamente en unos segundos");
+        }
+        try {
+            GoogleOAuthService.GoogleUserInfo userInfo = restClient.get()
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                    .retrieve()
+                    .body(GoogleOAuthService.GoogleUserInfo.class);
+            fallosSeguidos.set(0);
+            return userInfo;
+        } catch (HttpClientErrorException e) {
+            fallosSeguidos.set(0);
+            logger.debug("Google rechazó el access token: {}", e.getStatusCode());
+            return null;
+        } catch (RestClientException e) {
+            // Pasado el tiempo de apertura, un nuevo fallo vuelve a abrir el circuito de inmediato
+            if (fallosSeguidos.incrementAndGet() >= fallosParaAbrir) {
+                abiertoHasta = System.currentTimeMillis() + aperturaMs;
+                logger.warn("Circuito de Google userinfo abierto durante {} ms: {}", aperturaMs, e.getMessage());
+            }
+            throw new ServicioSaturadoException("No se pudo verificar el token con Google, intente nuevamente", e);
+        }
+    }
+}
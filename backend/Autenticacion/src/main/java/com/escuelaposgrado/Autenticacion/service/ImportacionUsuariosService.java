@@ -0,0 +1,385 @@
+package com.escuelaposgrado.Autenticacion.service;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.escuelaposgrado.Autenticacion.dto.response.ImportacionResponse;
+import com.escuelaposgrado.Autenticacion.model.entity.ImportacionUsuarios;
+import com.escuelaposgrado.Autenticacion.model.enums.EstadoImportacion;
+import com.escuelaposgrado.Autenticacion.repository.ImportacionUsuariosRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ejecuta en segundo plano las importaciones masivas de usuarios desde Excel.
+ *
+ * El archivo subido se guarda en app.importaciones.directorio (legible solo por el proceso,
+ * porque contiene contraseñas en claro) y se elimina al terminar la importación, con éxito
+ * o con error. Las importaciones se procesan de una en una. Tras cada lote se confirman,
+ * junto con los usuarios insertados, los errores por fila, los contadores y la última fila
+ * procesada.
+ *
+ * Con varias instancias, cada importación la ejecuta solo la instancia que la reclama con
+ * un UPDATE condicional (propietario y latido). El propietario renueva el latido mientras
+ * trabaja; si deja de hacerlo durante app.importaciones.latidoVencidoMs, otra instancia la
+ * reclama al revisar las pendientes y la reanuda desde la última fila confirmada.
+ */
+@Service
+public class ImportacionUsuariosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionUsuariosService.class);
+
+    private static final String INSERT_ERROR_SQL =
+        "INSERT INTO importacion_errores (importacion_id, fila, mensaje) VALUES (?, ?, ?)";
+
+    private static final String SELECT_ERRORES_SQL =
+        "SELECT fila, mensaje FROM importacion_errores WHERE importacion_id = ? ORDER BY fila";
+
+    private static final int MAX_MENSAJE = 1000;
+
+    private static final List<EstadoImportacion> ESTADOS_RECLAMABLES =
+            List.of(EstadoImportacion.PENDIENTE, EstadoImportacion.EN_PROCESO);
+
+    @Autowired
+    private ImportacionUsuariosRepository importacionRepository;
+
+    @Autowired
+    private ExcelService excelService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UsuarioEstadisticasService usuarioEstadisticasService;
+
+    @Value("${app.importaciones.directorio:${java.io.tmpdir}/importaciones-usuarios}")
+    private String directorio;
+
+    @Value("${app.importaciones.latidoVencidoMs:120000}")
+    private long latidoVencidoMs;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "importacion-usuarios"));
+
+    // Identifica a esta instancia como propietaria de las importaciones que ejecuta
+    private final String instancia = System.getenv().getOrDefault("HOSTNAME", "local")
+            + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    // Importaciones ya encoladas aquí (para no encolarlas dos veces) y la que está en curso
+    private final Set<Long> encoladas = ConcurrentHashMap.newKeySet();
+    private volatile Long enCurso;
+
+    private volatile boolean deteniendo = false;
+
+    /**
+     * Guardar el archivo y encolar su importación
+     */
+    public ImportacionResponse crearImportacion(MultipartFile file, String creadoPor) throws IOException {
+        Path carpeta = Files.createDirectories(Path.of(directorio));
+        restringirPermisos(carpeta, "rwx------");
+        Path destino = Files.createTempFile(carpeta, "importacion-", ".xlsx");
+
+        ImportacionUsuarios importacion;
+        try {
+            restringirPermisos(destino, "rw-------");
+            file.transferTo(destino);
+            restringirPermisos(destino, "rw-------");
+            importacion = importacionRepository.save(
+                    new ImportacionUsuarios(file.getOriginalFilename(), destino.toString(), creadoPor));
+        } catch (IOException | RuntimeException e) {
+            eliminarArchivo(destino);
+            throw e;
+        }
+        encolar(importacion.getId());
+
+        return mapToImportacionResponse(importacion);
+    }
+
+    /**
+     * Obtener el estado y el avance de una importación
+     */
+    public Optional<ImportacionResponse> getImportacion(Long id) {
+        return importacionRepository.findById(id).map(this::mapToImportacionResponse);
+    }
+
+    /**
+     * Escribir en formato CSV los errores por fila de una importación
+     */
+    @Transactional(readOnly = true)
+    public void escribirErroresCsv(Long id, PrintWriter writer) {
+        writer.println("Fila,Error");
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_ERRORES_SQL);
+            ps.setFetchSize(500);
+            ps.setLong(1, id);
+            return ps;
+        }, (RowCallbackHandler) rs -> writer.println(rs.getInt("fila") + "," + csv(rs.getString("mensaje"))));
+        writer.flush();
+    }
+
+    /**
+     * Encolar las importaciones pendientes sin propietario o cuyo propietario dejó de
+     * latir (reinicio o caída de otra instancia). Las que otra instancia está ejecutando
+     * se dejan en paz; la reclamación al ejecutar decide en caso de carrera.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.importaciones.revisionMs:60000}",
+               fixedDelayString = "${app.importaciones.revisionMs:60000}")
+    public void reanudarImportaciones() {
+        LocalDateTime vencido = LocalDateTime.now().minusNanos(latidoVencidoMs * 1_000_000);
+        List<ImportacionUsuarios> pendientes = importacionRepository.findByEstadoInOrderByIdAsc(ESTADOS_RECLAMABLES);
+        for (ImportacionUsuarios importacion : pendientes) {
+            boolean libre = importacion.getPropietario() == null
+                    || instancia.equals(importacion.getPropietario())
+                    || importacion.getLatido() == null || importacion.getLatido().isBefore(vencido);
+            if (libre && !encoladas.contains(importacion.getId())) {
+                logger.info("Reanudando importación {} desde la fila {}", importacion.getId(), importacion.getUltimaFila());
+                encolar(importacion.getId());
+            }
+        }
+    }
+
+    /**
+     * Renovar el latido de la importación en curso
+     */
+    @Scheduled(fixedDelayString = "${app.importaciones.latidoMs:30000}")
+    public void latir() {
+        Long id = enCurso;
+        if (id != null) {
+            transactionTemplate.executeWithoutResult(status ->
+                    importacionRepository.latir(id, instancia, LocalDateTime.now()));
+        }
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        // Las importaciones en curso quedan EN_PROCESO y se reanudan al volver a arrancar
+        deteniendo = true;
+        executor.shutdownNow();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void encolar(Long id) {
+        if (encoladas.add(id)) {
+            executor.submit(() -> {
+                try {
+                    ejecutar(id);
+                } finally {
+                    enCurso = null;
+                    encoladas.remove(id);
+                }
+            });
+        }
+    }
+
+    private void ejecutar(Long id) {
+        if (!reclamar(id)) {
+            logger.debug("La importación {} ya terminó o la está ejecutando otra instancia", id);
+            return;
+        }
+        enCurso = id;
+        ImportacionUsuarios importacion = importacionRepository.findById(id).orElseThrow();
+
+        Path archivo = Path.of(importacion.getRutaArchivo());
+        try {
+            if (!Files.exists(archivo)) {
+                finalizar(id, EstadoImportacion.FALLIDA, "El archivo de la importación ya no está disponible");
+                return;
+            }
+            excelService.importUsuariosFromExcel(archivo, importacion.getUltimaFila(), new AvanceListener(id));
+            finalizar(id, EstadoImportacion.COMPLETADA, null);
+        } catch (Exception e) {
+            if (esPerdida(e)) {
+                // Otra instancia la reclamó (latido vencido): ella la termina y elimina el archivo
+                logger.warn("La importación {} pasó a otra instancia, se deja de procesar aquí", id);
+                return;
+            }
+            if (deteniendo) {
+                logger.info("Importación {} interrumpida por el apagado, se reanudará al arrancar", id);
+                return;
+            }
+            logger.error("Error en la importación {}: {}", id, e.getMessage(), e);
+            finalizar(id, EstadoImportacion.FALLIDA, "Error al procesar el archivo Excel: " + e.getMessage());
+        }
+        // Terminada (COMPLETADA o FALLIDA): el archivo con las contraseñas ya no se necesita
+        eliminarArchivo(archivo);
+    }
+
+    private boolean reclamar(Long id) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Integer filas = transactionTemplate.execute(status -> importacionRepository.reclamar(id, instancia,
+                EstadoImportacion.EN_PROCESO, ESTADOS_RECLAMABLES, ahora, ahora.minusNanos(latidoVencidoMs * 1_000_000)));
+        return filas != null && filas > 0;
+    }
+
+    private void finalizar(Long id, EstadoImportacion estado, String mensaje) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (importacionRepository.finalizar(id, instancia, estado, truncar(mensaje), LocalDateTime.now()) == 0) {
+                throw new ImportacionPerdidaException(id);
+            }
+        });
+    }
+
+    private boolean esPerdida(Throwable e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ImportacionPerdidaException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void restringirPermisos(Path ruta, String permisos) throws IOException {
+        if (Files.getFileStore(ruta).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            Files.setPosixFilePermissions(ruta, PosixFilePermissions.fromString(permisos));
+        }
+    }
+
+    private void eliminarArchivo(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            logger.warn("No se pudo eliminar el archivo de importación {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    /**
+     * Acumula los resultados del lote en curso y los guarda al completarse el lote
+     */
+    private class AvanceListener implements UsuarioImportService.ResultadoListener {
+
+        private final Long importacionId;
+
+        // Resultado por número de fila (null = éxito); una fila reintentada sobrescribe el anterior
+        private final Map<Integer, String> resultados = new TreeMap<>();
+
+        AvanceListener(Long importacionId) {
+            this.importacionId = importacionId;
+        }
+
+        @Override
+        public void exito(int fila, String username) {
+            resultados.put(fila, null);
+        }
+
+        @Override
+        public void error(int fila, String mensaje) {
+            resultados.put(fila, mensaje);
+        }
+
+        @Override
+        public void loteCompletado() {
+            if (resultados.isEmpty()) {
+                return;
+            }
+
+            TreeMap<Integer, String> lote = new TreeMap<>(resultados);
+            List<Object[]> errores = new ArrayList<>();
+            lote.forEach((fila, mensaje) -> {
+                if (mensaje != null) {
+                    errores.add(new Object[] { importacionId, fila, truncar(mensaje) });
+                }
+            });
+            int exitosos = lote.size() - errores.size();
+
+            // Se une a la transacción de inserción del lote cuando la hay
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!errores.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_ERROR_SQL, errores);
+                }
+                // Si otra instancia la reclamó, revertir el lote: ella lo vuelve a procesar
+                if (importacionRepository.registrarAvance(importacionId, instancia, lote.lastKey(), exitosos,
+                        errores.size(), LocalDateTime.now()) == 0) {
+                    throw new ImportacionPerdidaException(importacionId);
+                }
+                if (exitosos > 0) {
+                    usuarioEstadisticasService.invalidar();
+                }
+
+                // Olvidar los resultados solo si se confirman; si la inserción se revierte,
+                // las filas se reintentan y se vuelven a notificar
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        resultados.keySet().removeAll(lote.keySet());
+                    }
+                });
+            });
+        }
+    }
+
+    /**
+     * La importación dejó de pertenecer a esta instancia
+     */
+    private static class ImportacionPerdidaException extends RuntimeException {
+        ImportacionPerdidaException(Long id) {
+            super("La importación " + id + " la reclamó otra instancia");
+        }
+    }
+
+    private ImportacionResponse mapToImportacionResponse(ImportacionUsuarios importacion) {
+        ImportacionResponse response = new ImportacionResponse();
+        response.setId(importacion.getId());
+        response.setNombreArchivo(importacion.getNombreArchivo());
+        response.setEstado(importacion.getEstado());
+        response.setFilasProcesadas(importacion.getFilasProcesadas());
+        response.setExitosos(importacion.getExitosos());
+        response.setFallidos(importacion.getFallidos());
+        response.setMensaje(importacion.getMensaje());
+        response.setFechaCreacion(importacion.getFechaCreacion());
+        response.setFechaInicio(importacion.getFechaInicio());
+        response.setFechaFin(importacion.getFechaFin());
+
+        if (importacion.getFechaInicio() != null) {
+            LocalDateTime hasta = importacion.getFechaFin() != null ? importacion.getFechaFin() : LocalDateTime.now();
+            long millis = Math.max(Duration.between(importacion.getFechaInicio(), hasta).toMillis(), 1);
+            response.setFilasPorSegundo(Math.round(importacion.getFilasProcesadas() * 100000.0 / millis) / 100.0);
+        }
+        return response;
+    }
+
+    private String csv(String valor) {
+        return "\"" + (valor != null ? valor.replace("\"", "\"\"") : "") + "\"";
+    }
+
+    private String truncar(String mensaje) {
+        return mensaje != null && mensaje.length() > MAX_MENSAJE ? mensaje.substring(0, MAX_MENSAJE) : mensaje;
+    }
+}
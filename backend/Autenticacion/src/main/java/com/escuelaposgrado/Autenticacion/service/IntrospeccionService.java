@@ -0,0 +1,97 @@
+package com.escuelaposgrado.Autenticacion.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.escuelaposgrado.Autenticacion.dto.request.IntrospeccionRequest;
+import com.escuelaposgrado.Autenticacion.dto.response.IntrospeccionResponse;
+import com.escuelaposgrado.Autenticacion.dto.response.IntrospeccionResponse.TokenIntrospeccion;
+import com.escuelaposgrado.Autenticacion.dto.response.IntrospeccionResponse.UsuarioIntrospeccion;
+import com.escuelaposgrado.Autenticacion.model.entity.Usuario;
+import com.escuelaposgrado.Autenticacion.repository.UsuarioRepository;
+import com.escuelaposgrado.Autenticacion.security.jwt.JwtUtils;
+import com.escuelaposgrado.Autenticacion.security.services.RevocacionTokenService;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Introspección en lote para los demás microservicios.
+ *
+ * Las firmas de los tokens se verifican en memoria y todos los usuarios implicados (los de
+ * los tokens y los pedidos por id) se cargan con una sola consulta, de modo que el coste de
+ * una llamada no crece con una consulta por usuario.
+ */
+@Service
+public class IntrospeccionService {
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private RevocacionTokenService revocacionTokenService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Transactional(readOnly = true)
+    public IntrospeccionResponse introspeccionar(IntrospeccionRequest request) {
+        List<String> tokens = request.getTokens() != null ? request.getTokens() : List.of();
+        List<Long> usuarioIds = request.getUsuarioIds() != null ? request.getUsuarioIds() : List.of();
+
+        // Claims de los tokens con firma válida y no revocados (null en los demás)
+        List<Claims> claimsPorToken = new ArrayList<>(tokens.size());
+        Set<Long> ids = new HashSet<>(usuarioIds);
+        for (String token : tokens) {
+            Claims claims = token != null ? jwtUtils.getValidatedClaims(token) : null;
+            Long usuarioId = claims != null ? jwtUtils.getUserIdFromClaims(claims) : null;
+            if (usuarioId == null || revocacionTokenService.estaRevocado(usuarioId, claims.getIssuedAt())) {
+                claims = null;
+            } else {
+                ids.add(usuarioId);
+            }
+            claimsPorToken.add(claims);
+        }
+        ids.remove(null);
+
+        Map<Long, Usuario> usuarios = usuarioRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+
+        IntrospeccionResponse response = new IntrospeccionResponse();
+        for (Claims claims : claimsPorToken) {
+            Usuario usuario = claims != null ? usuarios.get(jwtUtils.getUserIdFromClaims(claims)) : null;
+            response.getTokens().add(usuario != null
+                    ? new TokenIntrospeccion(esVigente(usuario, claims), toIntrospeccion(usuario))
+                    : new TokenIntrospeccion(false, null));
+        }
+        usuarioIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(usuarios::get)
+                .filter(Objects::nonNull)
+                .forEach(usuario -> response.getUsuarios().add(toIntrospeccion(usuario)));
+        return response;
+    }
+
+    /**
+     * Un token solo es válido si la cuenta sigue activa y no cambió de versión desde su emisión
+     */
+    private boolean esVigente(Usuario usuario, Claims claims) {
+        return Boolean.TRUE.equals(usuario.getActivo())
+                && Objects.equals(usuario.getVersionCuenta(), jwtUtils.getAccountVersionFromClaims(claims));
+    }
+
+    private UsuarioIntrospeccion toIntrospeccion(Usuario usuario) {
+        return new UsuarioIntrospeccion(usuario.getId(), usuario.getUsername(), usuario.getNombreCompleto(),
+                usuario.getRole().name(), Boolean.TRUE.equals(usuario.getActivo()));
+    }
+}
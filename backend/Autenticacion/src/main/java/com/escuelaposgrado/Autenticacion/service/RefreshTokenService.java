@@ -0,0 +1,126 @@
+package com.escuelaposgrado.Autenticacion.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.escuelaposgrado.Autenticacion.exception.TokenRefrescoException;
+import com.escuelaposgrado.Autenticacion.model.entity.RefreshToken;
+import com.escuelaposgrado.Autenticacion.repository.RefreshTokenRepository;
+
+/**
+ * Tokens de refresco rotativos.
+ *
+ * Cada login abre una familia; cada renovación revoca el token usado y emite otro de la
+ * misma familia. Si se presenta un token ya rotado (posible robo) se revoca la familia
+ * completa y ambas partes deben iniciar sesión de nuevo.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int BYTES_TOKEN = 32;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${app.jwtRefreshExpirationMs:604800000}")
+    private long refreshExpirationMs; // 7 días por defecto
+
+    /**
+     * Resultado de una renovación: usuario dueño del token y nuevo token de refresco
+     */
+    public record Rotacion(Long usuarioId, String refreshToken) {}
+
+    /**
+     * Emitir el token de refresco de un nuevo login
+     */
+    @Transactional
+    public String emitir(Long usuarioId) {
+        return guardar(usuarioId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Canjear un token de refresco por otro de la misma familia
+     */
+    @Transactional(noRollbackFor = TokenRefrescoException.class)
+    public Rotacion rotar(String valor) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(valor))
+                .orElseThrow(() -> new TokenRefrescoException("Token de refresco inválido"));
+
+        if (refreshTokenRepository.revocarSiVigente(token.getId()) == 0) {
+            logger.warn("Reutilización de un token de refresco revocado (usuario {}), se revoca la familia",
+                    token.getUsuarioId());
+            refreshTokenRepository.revocarFamilia(token.getFamilia());
+            throw new TokenRefrescoException("Token de refresco revocado");
+        }
+        if (token.isExpirado()) {
+            throw new TokenRefrescoException("Token de refresco expirado");
+        }
+
+        return new Rotacion(token.getUsuarioId(), guardar(token.getUsuarioId(), token.getFamilia()));
+    }
+
+    /**
+     * Cerrar la sesión del token (revoca su familia)
+     */
+    @Transactional
+    public void revocarSesion(String valor) {
+        refreshTokenRepository.findByTokenHash(hash(valor))
+                .ifPresent(token -> refreshTokenRepository.revocarFamilia(token.getFamilia()));
+    }
+
+    /**
+     * Revocar todas las sesiones del usuario
+     */
+    @Transactional
+    public void revocarTodas(Long usuarioId) {
+        refreshTokenRepository.revocarPorUsuario(usuarioId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.revocaciones.purgaIntervaloMs:3600000}")
+    @Transactional
+    public void purgarExpirados() {
+        int eliminados = refreshTokenRepository.eliminarExpirados(LocalDateTime.now());
+        if (eliminados > 0) {
+            logger.debug("Eliminados {} tokens de refresco expirados", eliminados);
+        }
+    }
+
+    private String guardar(Long usuarioId, String familia) {
+        byte[] bytes = new byte[BYTES_TOKEN];
+        random.nextBytes(bytes);
+        String valor = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(new RefreshToken(usuarioId, hash(valor), familia,
+                LocalDateTime.now().plus(Duration.ofMillis(refreshExpirationMs))));
+        return valor;
+    }
+
+    // Solo se guarda el hash: una copia de la tabla no permite renovar sesiones
+    private static String hash(String valor) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(valor.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
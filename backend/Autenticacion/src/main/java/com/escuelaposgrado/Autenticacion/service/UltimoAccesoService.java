@@ -0,0 +1,121 @@
+package com.escuelaposgrado.Autenticacion.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.escuelaposgrado.Autenticacion.repository.UsuarioRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Registro diferido (write-behind) del último acceso de los usuarios.
+ *
+ * Los logins solo anotan el instante en memoria; los accesos de un mismo usuario se
+ * agrupan y se escriben en un único lote JDBC cada app.ultimoAcceso.flushIntervalMs,
+ * con un último volcado al detener la aplicación.
+ */
+@Service
+public class UltimoAccesoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UltimoAccesoService.class);
+
+    private static final String UPDATE_SQL = "UPDATE usuarios SET ultimo_acceso = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private final Map<Long, LocalDateTime> pendientes = new ConcurrentHashMap<>();
+
+    // Un volcado a la vez
+    private final ReentrantLock bloqueoFlush = new ReentrantLock();
+
+    /**
+     * Anotar un acceso del usuario (no bloquea en la base de datos)
+     */
+    public void registrarAcceso(Long usuarioId) {
+        registrarAcceso(usuarioId, LocalDateTime.now());
+    }
+
+    public void registrarAcceso(Long usuarioId, LocalDateTime fecha) {
+        if (usuarioId != null) {
+            pendientes.merge(usuarioId, fecha, (actual, nueva) -> nueva.isAfter(actual) ? nueva : actual);
+        }
+    }
+
+    /**
+     * Último acceso del usuario: el pendiente de escribir o, si no hay, el guardado
+     */
+    public LocalDateTime getUltimoAcceso(Long usuarioId) {
+        LocalDateTime pendiente = pendientes.get(usuarioId);
+        if (pendiente != null) {
+            return pendiente;
+        }
+        return usuarioRepository.findUltimoAccesoById(usuarioId).orElse(null);
+    }
+
+    /**
+     * Cantidad de usuarios con un acceso pendiente de escribir
+     */
+    public int getPendientes() {
+        return pendientes.size();
+    }
+
+    /**
+     * Escribir en lote los accesos acumulados
+     */
+    @Scheduled(fixedDelayString = "${app.ultimoAcceso.flushIntervalMs:5000}")
+    public void flush() {
+        bloqueoFlush.lock();
+        try {
+            volcar();
+        } finally {
+            bloqueoFlush.unlock();
+        }
+    }
+
+    private void volcar() {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(pendientes.keySet());
+        List<Object[]> lote = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            LocalDateTime fecha = pendientes.remove(id);
+            if (fecha != null) {
+                lote.add(new Object[] { Timestamp.valueOf(fecha), id });
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, lote);
+            logger.debug("Último acceso actualizado para {} usuarios", lote.size());
+        } catch (Exception e) {
+            logger.error("Error al actualizar último acceso de {} usuarios: {}", lote.size(), e.getMessage());
+            // Reencolar para el siguiente intento sin perder accesos más recientes
+            for (Object[] fila : lote) {
+                registrarAcceso((Long) fila[1], ((Timestamp) fila[0]).toLocalDateTime());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushAlDetener() {
+        flush();
+    }
+}
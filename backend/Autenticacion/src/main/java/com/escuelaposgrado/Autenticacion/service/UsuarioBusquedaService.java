@@ -0,0 +1,106 @@
+package com.escuelaposgrado.Autenticacion.service;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.escuelaposgrado.Autenticacion.model.entity.Usuario;
+import com.escuelaposgrado.Autenticacion.model.enums.Role;
+import com.escuelaposgrado.Autenticacion.repository.UsuarioRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Búsqueda de usuarios por nombres, apellidos, DNI y códigos.
+ *
+ * Usa un índice GIN de trigramas (pg_trgm) sobre el texto normalizado sin tildes (unaccent),
+ * que PostgreSQL mantiene sincronizado con cada escritura. El índice y sus extensiones se
+ * crean al arrancar; si la base de datos no lo permite se usa la búsqueda LIKE anterior.
+ */
+@Service
+public class UsuarioBusquedaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsuarioBusquedaService.class);
+
+    public static final int TAMANIO_PAGINA_MAXIMO = 100;
+
+    // Sentencias idempotentes para preparar la búsqueda indexada
+    private static final List<String> DDL_BUSQUEDA = List.of(
+        "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+        "CREATE EXTENSION IF NOT EXISTS unaccent",
+        // unaccent no es IMMUTABLE; el envoltorio con diccionario explícito permite indexarlo
+        "CREATE OR REPLACE FUNCTION usuarios_texto_busqueda(nombre text, apellido_paterno text, " +
+        "apellido_materno text, dni text, codigo_estudiante text, codigo_docente text) " +
+        "RETURNS text LANGUAGE sql IMMUTABLE PARALLEL SAFE AS " +
+        "$$ SELECT lower(public.unaccent('public.unaccent'::regdictionary, " +
+        "concat_ws(' ', nombre, apellido_paterno, apellido_materno, dni, codigo_estudiante, codigo_docente))) $$",
+        "CREATE INDEX IF NOT EXISTS idx_usuarios_busqueda_trgm ON usuarios USING gin (" +
+        "usuarios_texto_busqueda(nombre, apellido_paterno, apellido_materno, dni, codigo_estudiante, codigo_docente) " +
+        "gin_trgm_ops)"
+    );
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile boolean indiceDisponible = false;
+
+    @PostConstruct
+    public void crearIndiceBusqueda() {
+        try {
+            DDL_BUSQUEDA.forEach(jdbcTemplate::execute);
+            indiceDisponible = true;
+        } catch (DataAccessException e) {
+            logger.warn("No se pudo crear el índice de búsqueda de usuarios, se usará la búsqueda sin índice: {}",
+                    e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * Buscar usuarios ordenados por relevancia. Sin texto se devuelve la página pedida
+     * con los mismos filtros, ordenada por apellidos y nombres
+     */
+    public List<Usuario> buscar(String texto, Role rol, boolean soloActivos, int pagina, int tamanio) {
+        PageRequest pageRequest = PageRequest.of(Math.max(pagina, 0),
+                Math.min(Math.max(tamanio, 1), TAMANIO_PAGINA_MAXIMO));
+        if (texto == null || texto.isBlank()) {
+            return usuarioRepository.listarFiltrados(rol, soloActivos, pageRequest);
+        }
+        String normalizado = normalizar(texto);
+
+        if (!indiceDisponible) {
+            return usuarioRepository.buscarPorNombre(texto.trim()).stream()
+                    .filter(u -> rol == null || u.getRole() == rol)
+                    .filter(u -> !soloActivos || Boolean.TRUE.equals(u.getActivo()))
+                    .skip(pageRequest.getOffset())
+                    .limit(pageRequest.getPageSize())
+                    .toList();
+        }
+
+        String literal = escaparLike(normalizado);
+        return usuarioRepository.buscarPorTexto(normalizado, "%" + literal + "%", literal + "%",
+                "% " + literal + "%", rol != null ? rol.name() : null, soloActivos, pageRequest);
+    }
+
+    /**
+     * Minúsculas, sin tildes y con espacios simples, igual que usuarios_texto_busqueda
+     */
+    private String normalizar(String texto) {
+        String sinTildes = Normalizer.normalize(texto.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinTildes.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,150 @@
+package com.escuelaposgrado.Autenticacion.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.escuelaposgrado.Autenticacion.dto.response.EstadisticasUsuariosResponse;
+import com.escuelaposgrado.Autenticacion.model.enums.Role;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Estadísticas de usuarios para los paneles de administración.
+ *
+ * Los conteos por rol y estado salen de una sola agregación GROUP BY rol, activo, y se
+ * sirven desde una caché de una entrada: pasado app.estadisticas.refreshSeconds la
+ * siguiente petición recibe el valor vigente mientras se recalcula en segundo plano, de
+ * modo que los paneles que consultan periódicamente no llegan a PostgreSQL en cada petición.
+ *
+ * Las altas, activaciones, desactivaciones, cambios de rol, importaciones y limpiezas de
+ * duplicados invalidan el valor tras el commit, así que los conteos por rol y estado se
+ * ven al momento; solo los conteos por actividad (ultimo_acceso) quedan acotados en el tiempo.
+ */
+@Service
+public class UsuarioEstadisticasService {
+
+    private static final String CACHE_NAME = "estadisticas.usuarios";
+    private static final String CLAVE = "estadisticas";
+
+    private static final String CONTEOS_SQL =
+        "SELECT rol, activo, COUNT(*) AS total, COUNT(*) FILTER (WHERE ultimo_acceso >= ?) AS recientes " +
+        "FROM usuarios GROUP BY rol, activo";
+
+    private static final String REGISTROS_POR_DIA_SQL =
+        "SELECT CAST(fecha_creacion AS date) AS dia, COUNT(*) AS cantidad FROM usuarios " +
+        "WHERE fecha_creacion >= ? GROUP BY dia ORDER BY dia";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int diasActividad;
+    private final int diasRegistros;
+    private final ExecutorService refrescos = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "estadisticas-usuarios");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final LoadingCache<String, EstadisticasUsuariosResponse> cache;
+
+    public UsuarioEstadisticasService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                      @Value("${app.estadisticas.refreshSeconds:30}") long refreshSeconds,
+                                      @Value("${app.estadisticas.diasActividad:30}") int diasActividad,
+                                      @Value("${app.estadisticas.diasRegistros:30}") int diasRegistros) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.diasActividad = diasActividad;
+        this.diasRegistros = diasRegistros;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(1)
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                // Si nadie consulta durante un tiempo, la siguiente petición calcula de nuevo
+                .expireAfterWrite(Duration.ofSeconds(refreshSeconds * 10))
+                .executor(refrescos)
+                .recordStats()
+                .build(clave -> calcular());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Estadísticas vigentes (pueden tener hasta refreshSeconds de antigüedad)
+     */
+    public EstadisticasUsuariosResponse getEstadisticas() {
+        return cache.get(CLAVE);
+    }
+
+    /**
+     * Descartar el valor en caché; la próxima consulta vuelve a calcularlo. Dentro de una
+     * transacción se descarta tras el commit, para no recalcular con los datos anteriores
+     */
+    public void invalidar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll();
+                }
+            });
+        } else {
+            cache.invalidateAll();
+        }
+    }
+
+    private EstadisticasUsuariosResponse calcular() {
+        LocalDateTime ahora = LocalDateTime.now();
+        EstadisticasUsuariosResponse estadisticas = new EstadisticasUsuariosResponse();
+        estadisticas.setGeneradoEn(ahora);
+        estadisticas.setDiasActividad(diasActividad);
+        estadisticas.setDiasRegistros(diasRegistros);
+
+        for (Role role : Role.values()) {
+            estadisticas.getPorRol().put(role, new EstadisticasUsuariosResponse.ConteoRol());
+        }
+
+        jdbcTemplate.query(CONTEOS_SQL, rs -> {
+            EstadisticasUsuariosResponse.ConteoRol conteo = estadisticas.getPorRol().get(Role.valueOf(rs.getString("rol")));
+            long total = rs.getLong("total");
+            if (rs.getBoolean("activo")) {
+                conteo.setActivos(conteo.getActivos() + total);
+                estadisticas.setActivos(estadisticas.getActivos() + total);
+            } else {
+                conteo.setInactivos(conteo.getInactivos() + total);
+                estadisticas.setInactivos(estadisticas.getInactivos() + total);
+            }
+            estadisticas.setTotalUsuarios(estadisticas.getTotalUsuarios() + total);
+            estadisticas.setActivosUltimosDias(estadisticas.getActivosUltimosDias() + rs.getLong("recientes"));
+        }, Timestamp.valueOf(ahora.minusDays(diasActividad)));
+
+        LocalDate desde = ahora.toLocalDate().minusDays(diasRegistros - 1L);
+        jdbcTemplate.query(REGISTROS_POR_DIA_SQL, rs -> {
+            estadisticas.getRegistrosPorDia().add(new EstadisticasUsuariosResponse.RegistrosDia(
+                    rs.getDate("dia").toLocalDate(), rs.getLong("cantidad")));
+        }, Timestamp.valueOf(desde.atStartOfDay()));
+
+        estadisticas.setMessage(String.format(
+            "Total: %d, Admins: %d, Docentes: %d, Alumnos: %d, Coordinadores: %d, Postulantes: %d",
+            estadisticas.getTotalUsuarios(),
+            estadisticas.activosDe(Role.ADMIN),
+            estadisticas.activosDe(Role.DOCENTE),
+            estadisticas.activosDe(Role.ALUMNO),
+            estadisticas.activosDe(Role.COORDINADOR),
+            estadisticas.activosDe(Role.POSTULANTE)
+        ));
+        return estadisticas;
+    }
+
+    @PreDestroy
+    public void detener() {
+        refrescos.shutdownNow();
+    }
+}
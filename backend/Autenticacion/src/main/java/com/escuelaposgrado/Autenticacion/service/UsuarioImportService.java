@@ -0,0 +1,247 @@
+package com.escuelaposgrado.Autenticacion.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.escuelaposgrado.Autenticacion.dto.request.RegistroRequest;
+import com.escuelaposgrado.Autenticacion.model.entity.Usuario;
+import com.escuelaposgrado.Autenticacion.model.enums.Role;
+import com.escuelaposgrado.Autenticacion.repository.UsuarioRepository;
+import com.escuelaposgrado.Autenticacion.security.services.BoundedPasswordEncoder;
+
+/**
+ * Alta masiva de usuarios para las importaciones desde Excel.
+ *
+ * En lugar de llamar a AuthService.registro por cada fila, las filas se procesan por lotes:
+ * la unicidad de username, email, DNI y códigos se comprueba con una consulta por campo
+ * para todo el lote, los hashes se calculan en paralelo y las inserciones se envían como
+ * un único batch JDBC. Las reglas de validación y los mensajes de error son los de registro.
+ */
+@Service
+public class UsuarioImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsuarioImportService.class);
+
+    private static final String INSERT_SQL =
+        "INSERT INTO usuarios (username, email, password, nombre, apellido_paterno, apellido_materno, " +
+        "dni, telefono, direccion, rol, activo, estado, fecha_creacion, codigo_estudiante, codigo_docente, " +
+        "especialidad, programa_interes, version_cuenta) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private BoundedPasswordEncoder encoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Fila del Excel ya convertida en solicitud de registro
+     */
+    public record FilaImportacion(int numero, RegistroRequest request) {}
+
+    /**
+     * Recibe el resultado de cada fila a medida que se procesa. Una misma fila puede
+     * notificarse de nuevo si la inserción en lote se revierte y se reintenta por fila.
+     */
+    public interface ResultadoListener {
+        void exito(int fila, String username);
+
+        void error(int fila, String mensaje);
+
+        /**
+         * Fin de un lote. Si el lote se insertó en bloque se invoca dentro de esa misma
+         * transacción, de modo que lo que se registre aquí se confirma junto con los usuarios.
+         */
+        default void loteCompletado() {}
+    }
+
+    /**
+     * Valores ya usados por filas anteriores de la misma importación, para detectar
+     * duplicados dentro del propio archivo
+     */
+    public static class ValoresImportados {
+        private final Set<String> usernames = new HashSet<>();
+        private final Set<String> emails = new HashSet<>();
+        private final Set<String> dnis = new HashSet<>();
+        private final Set<String> codigosEstudiante = new HashSet<>();
+        private final Set<String> codigosDocente = new HashSet<>();
+    }
+
+    /**
+     * Validar e insertar un lote de filas
+     */
+    public void importarLote(List<FilaImportacion> filas, ValoresImportados importados, ResultadoListener listener) {
+        if (filas.isEmpty()) {
+            listener.loteCompletado();
+            return;
+        }
+
+        // Una consulta por campo para todo el lote
+        Set<String> usernames = existentes(filas, r -> r.getUsername(), usuarioRepository::findUsernamesExistentes);
+        Set<String> emails = existentes(filas, r -> r.getEmail(), usuarioRepository::findEmailsExistentes);
+        Set<String> dnis = existentes(filas, r -> r.getDni(), usuarioRepository::findDnisExistentes);
+        Set<String> codigosEstudiante = existentes(filas, this::codigoEstudiante,
+                usuarioRepository::findCodigosEstudianteExistentes);
+        Set<String> codigosDocente = existentes(filas, this::codigoDocente,
+                usuarioRepository::findCodigosDocenteExistentes);
+        usernames.addAll(importados.usernames);
+        emails.addAll(importados.emails);
+        dnis.addAll(importados.dnis);
+        codigosEstudiante.addAll(importados.codigosEstudiante);
+        codigosDocente.addAll(importados.codigosDocente);
+
+        List<FilaImportacion> validas = new ArrayList<>(filas.size());
+        for (FilaImportacion fila : filas) {
+            RegistroRequest request = fila.request();
+            String error = null;
+            if (usernames.contains(request.getUsername())) {
+                error = "Error: El nombre de usuario ya está en uso!";
+            } else if (emails.contains(request.getEmail())) {
+                error = "Error: El email ya está en uso!";
+            } else if (codigoEstudiante(request) != null && codigosEstudiante.contains(codigoEstudiante(request))) {
+                error = "Error: El código de estudiante ya está en uso!";
+            } else if (codigoDocente(request) != null && codigosDocente.contains(codigoDocente(request))) {
+                error = "Error: El código de docente ya está en uso!";
+            } else if (dniInformado(request) && dnis.contains(request.getDni())) {
+                error = "Error: El DNI ya está registrado!";
+            }
+
+            if (error != null) {
+                listener.error(fila.numero(), error);
+                continue;
+            }
+
+            // Reservar los valores para las filas siguientes del archivo
+            agregar(usernames, importados.usernames, request.getUsername());
+            agregar(emails, importados.emails, request.getEmail());
+            agregar(codigosEstudiante, importados.codigosEstudiante, codigoEstudiante(request));
+            agregar(codigosDocente, importados.codigosDocente, codigoDocente(request));
+            if (dniInformado(request)) {
+                agregar(dnis, importados.dnis, request.getDni());
+            }
+            validas.add(fila);
+        }
+
+        if (validas.isEmpty()) {
+            listener.loteCompletado();
+            return;
+        }
+
+        List<String> hashes = encoder.encodeAll(validas.stream().map(f -> f.request().getPassword()).toList());
+        List<Object[]> parametros = new ArrayList<>(validas.size());
+        for (int i = 0; i < validas.size(); i++) {
+            parametros.add(toParametros(validas.get(i).request(), hashes.get(i)));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, parametros);
+                validas.forEach(fila -> listener.exito(fila.numero(), fila.request().getUsername()));
+                listener.loteCompletado();
+            });
+        } catch (DataAccessException e) {
+            // Un conflicto concurrente invalida el batch completo: reintentar fila por fila
+            logger.warn("Falló la inserción en lote de {} usuarios, reintentando por fila: {}",
+                    validas.size(), e.getMessage());
+            for (int i = 0; i < validas.size(); i++) {
+                FilaImportacion fila = validas.get(i);
+                try {
+                    jdbcTemplate.update(INSERT_SQL, parametros.get(i));
+                    listener.exito(fila.numero(), fila.request().getUsername());
+                } catch (DataAccessException filaException) {
+                    listener.error(fila.numero(), "Error al procesar - " + filaException.getMostSpecificCause().getMessage());
+                }
+            }
+            listener.loteCompletado();
+        }
+    }
+
+    private Object[] toParametros(RegistroRequest request, String passwordHash) {
+        Usuario usuario = new Usuario(
+            request.getUsername(),
+            request.getEmail(),
+            passwordHash,
+            request.getNombres(),
+            request.getApellidos(),
+            request.getRole()
+        );
+        authService.setRoleSpecificFields(usuario, request);
+        usuario.setDni(request.getDni());
+        usuario.setTelefono(request.getTelefono());
+        usuario.setDireccion(request.getDireccion());
+
+        return new Object[] {
+            usuario.getUsername(), usuario.getEmail(), usuario.getPassword(), usuario.getNombres(),
+            usuario.getApellidoPaterno(), usuario.getApellidoMaterno(), usuario.getDni(),
+            usuario.getTelefono(), usuario.getDireccion(), usuario.getRole().name(), usuario.getActivo(),
+            usuario.getEstado(), Timestamp.valueOf(usuario.getFechaCreacion()), usuario.getCodigoEstudiante(),
+            usuario.getCodigoDocente(), usuario.getEspecialidad(), usuario.getProgramaInteres(),
+            usuario.getVersionCuenta()
+        };
+    }
+
+    private Set<String> existentes(List<FilaImportacion> filas, Function<RegistroRequest, String> campo,
+                                   Function<Collection<String>, List<String>> consulta) {
+        Set<String> valores = new HashSet<>();
+        for (FilaImportacion fila : filas) {
+            String valor = campo.apply(fila.request());
+            if (valor != null && !valor.isEmpty()) {
+                valores.add(valor);
+            }
+        }
+        return valores.isEmpty() ? new HashSet<>() : new HashSet<>(consulta.apply(valores));
+    }
+
+    private void agregar(Set<String> lote, Set<String> importados, String valor) {
+        if (valor != null) {
+            lote.add(valor);
+            importados.add(valor);
+        }
+    }
+
+    private boolean dniInformado(RegistroRequest request) {
+        return request.getDni() != null && !request.getDni().trim().isEmpty();
+    }
+
+    // Código de estudiante tal como se guardará (solo ALUMNO y POSTULANTE)
+    private String codigoEstudiante(RegistroRequest request) {
+        if (request.getRole() != Role.ALUMNO && request.getRole() != Role.POSTULANTE) {
+            return null;
+        }
+        return textoONulo(request.getCodigoEstudiante());
+    }
+
+    // Código de docente tal como se guardará (solo DOCENTE y COORDINADOR)
+    private String codigoDocente(RegistroRequest request) {
+        if (request.getRole() != Role.DOCENTE && request.getRole() != Role.COORDINADOR) {
+            return null;
+        }
+        return textoONulo(request.getCodigoDocente());
+    }
+
+    private String textoONulo(String valor) {
+        return valor != null && !valor.trim().isEmpty() ? valor.trim() : null;
+    }
+}
@@ -0,0 +1,208 @@
+package com.escuelaposgrado.Autenticacion.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.escuelaposgrado.Autenticacion.dto.request.ListadoUsuariosRequest;
+import com.escuelaposgrado.Autenticacion.dto.response.PaginaResponse;
+import com.escuelaposgrado.Autenticacion.dto.response.UsuarioResponse;
+import com.escuelaposgrado.Autenticacion.exception.BadRequestException;
+import com.escuelaposgrado.Autenticacion.model.entity.Usuario;
+import com.escuelaposgrado.Autenticacion.model.enums.Role;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Listados de usuarios paginados por cursor (keyset).
+ *
+ * Cada página se obtiene con "WHERE (campo, id) > (último campo, último id) ORDER BY campo, id
+ * LIMIT n", de modo que el costo no depende de la posición de la página, y solo se leen las
+ * columnas que muestra el listado (sin cargar entidades ni el hash de la contraseña).
+ */
+@Service
+public class UsuarioListadoService {
+
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 200;
+
+    private static final String SEPARADOR_CURSOR = "|";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Obtener una página de usuarios. rol y activo en null no filtran.
+     */
+    @Transactional(readOnly = true)
+    public PaginaResponse<UsuarioResponse> listar(Role rol, Boolean activo, ListadoUsuariosRequest listado) {
+        ListadoUsuariosRequest.Orden orden = listado.getOrden() != null ? listado.getOrden() : ListadoUsuariosRequest.Orden.ID;
+        boolean descendente = listado.isDescendente();
+        int limite = listado.getLimite() != null
+                ? Math.min(Math.max(listado.getLimite(), 1), LIMITE_MAXIMO)
+                : LIMITE_POR_DEFECTO;
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Usuario> u = query.from(Usuario.class);
+
+        query.multiselect(
+            u.get("id").alias("id"),
+            u.get("username").alias("username"),
+            u.get("email").alias("email"),
+            u.get("nombres").alias("nombres"),
+            u.get("apellidoPaterno").alias("apellidoPaterno"),
+            u.get("apellidoMaterno").alias("apellidoMaterno"),
+            u.get("dni").alias("dni"),
+            u.get("telefono").alias("telefono"),
+            u.get("direccion").alias("direccion"),
+            u.get("role").alias("role"),
+            u.get("activo").alias("activo"),
+            u.get("fechaCreacion").alias("fechaCreacion"),
+            u.get("ultimoAcceso").alias("ultimoAcceso"),
+            u.get("codigoEstudiante").alias("codigoEstudiante"),
+            u.get("codigoDocente").alias("codigoDocente"),
+            u.get("especialidad").alias("especialidad"),
+            u.get("programaInteres").alias("programaInteres")
+        );
+
+        List<Predicate> filtros = new ArrayList<>();
+        if (rol != null) {
+            filtros.add(cb.equal(u.get("role"), rol));
+        }
+        if (activo != null) {
+            filtros.add(cb.equal(u.get("activo"), activo));
+        }
+        if (listado.getEspecialidad() != null && !listado.getEspecialidad().isBlank()) {
+            filtros.add(cb.equal(u.get("especialidad"), listado.getEspecialidad().trim()));
+        }
+        if (listado.getProgramaInteres() != null && !listado.getProgramaInteres().isBlank()) {
+            filtros.add(cb.equal(u.get("programaInteres"), listado.getProgramaInteres().trim()));
+        }
+
+        Path<Long> id = u.get("id");
+        Path<Comparable<Object>> campo = u.get(atributo(orden));
+        if (listado.getCursor() != null && !listado.getCursor().isBlank()) {
+            filtros.add(despuesDelCursor(cb, campo, id, orden, descendente, listado.getCursor()));
+        }
+
+        query.where(filtros.toArray(new Predicate[0]));
+        if (orden == ListadoUsuariosRequest.Orden.ID) {
+            query.orderBy(descendente ? cb.desc(id) : cb.asc(id));
+        } else {
+            query.orderBy(descendente ? cb.desc(campo) : cb.asc(campo), descendente ? cb.desc(id) : cb.asc(id));
+        }
+
+        // Una fila extra indica si hay página siguiente
+        List<Tuple> filas = entityManager.createQuery(query).setMaxResults(limite + 1).getResultList();
+        boolean tieneMas = filas.size() > limite;
+        if (tieneMas) {
+            filas = filas.subList(0, limite);
+        }
+
+        List<UsuarioResponse> items = filas.stream().map(this::mapToUsuarioResponse).toList();
+        String siguienteCursor = tieneMas ? crearCursor(orden, descendente, filas.get(filas.size() - 1)) : null;
+        return new PaginaResponse<>(items, siguienteCursor, tieneMas, limite);
+    }
+
+    private Predicate despuesDelCursor(CriteriaBuilder cb, Path<Comparable<Object>> campo, Path<Long> id,
+                                       ListadoUsuariosRequest.Orden orden, boolean descendente, String cursor) {
+        String[] partes = leerCursor(cursor, orden, descendente);
+        Long ultimoId = Long.valueOf(partes[2]);
+
+        Predicate idPosterior = descendente ? cb.lessThan(id, ultimoId) : cb.greaterThan(id, ultimoId);
+        if (orden == ListadoUsuariosRequest.Orden.ID) {
+            return idPosterior;
+        }
+
+        Comparable<Object> ultimoValor = valorDesdeCursor(orden, partes[3]);
+        Predicate campoPosterior = descendente ? cb.lessThan(campo, ultimoValor) : cb.greaterThan(campo, ultimoValor);
+        return cb.or(campoPosterior, cb.and(cb.equal(campo, ultimoValor), idPosterior));
+    }
+
+    private String atributo(ListadoUsuariosRequest.Orden orden) {
+        return switch (orden) {
+            case ID -> "id";
+            case APELLIDOS -> "apellidoPaterno";
+            case NOMBRES -> "nombres";
+            case FECHA_CREACION -> "fechaCreacion";
+        };
+    }
+
+    /**
+     * El cursor codifica orden, dirección, último id y último valor del campo de orden
+     */
+    private String crearCursor(ListadoUsuariosRequest.Orden orden, boolean descendente, Tuple ultima) {
+        Object valor = orden == ListadoUsuariosRequest.Orden.ID ? "" : ultima.get(atributo(orden));
+        String contenido = String.join(SEPARADOR_CURSOR, orden.name(), String.valueOf(descendente),
+                String.valueOf(ultima.get("id")), String.valueOf(valor));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] leerCursor(String cursor, ListadoUsuariosRequest.Orden orden, boolean descendente) {
+        try {
+            String contenido = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = contenido.split("\\" + SEPARADOR_CURSOR, 4);
+            if (partes.length != 4 || !partes[0].equals(orden.name())
+                    || !partes[1].equals(String.valueOf(descendente))) {
+                throw new BadRequestException("El cursor no corresponde al orden solicitado");
+            }
+            Long.parseLong(partes[2]);
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor inválido");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparable<Object> valorDesdeCursor(ListadoUsuariosRequest.Orden orden, String valor) {
+        try {
+            Object convertido = orden == ListadoUsuariosRequest.Orden.FECHA_CREACION ? LocalDateTime.parse(valor) : valor;
+            return (Comparable<Object>) convertido;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor inválido");
+        }
+    }
+
+    private UsuarioResponse mapToUsuarioResponse(Tuple fila) {
+        UsuarioResponse response = new UsuarioResponse();
+        response.setId(fila.get("id", Long.class));
+        response.setUsername(fila.get("username", String.class));
+        response.setEmail(fila.get("email", String.class));
+        response.setNombres(fila.get("nombres", String.class));
+        response.setApellidos(apellidos(fila.get("apellidoPaterno", String.class), fila.get("apellidoMaterno", String.class)));
+        response.setDni(fila.get("dni", String.class));
+        response.setTelefono(fila.get("telefono", String.class));
+        response.setDireccion(fila.get("direccion", String.class));
+        response.setRole(fila.get("role", Role.class));
+        response.setActivo(fila.get("activo", Boolean.class));
+        response.setFechaCreacion(fila.get("fechaCreacion", LocalDateTime.class));
+        response.setUltimoAcceso(fila.get("ultimoAcceso", LocalDateTime.class));
+        response.setCodigoEstudiante(fila.get("codigoEstudiante", String.class));
+        response.setCodigoDocente(fila.get("codigoDocente", String.class));
+        response.setEspecialidad(fila.get("especialidad", String.class));
+        response.setProgramaInteres(fila.get("programaInteres", String.class));
+        return response;
+    }
+
+    // Mismo formato que Usuario.getApellidos()
+    private String apellidos(String paterno, String materno) {
+        String resultado = paterno != null ? paterno : "";
+        if (materno != null && !materno.trim().isEmpty()) {
+            resultado += " " + materno;
+        }
+        return resultado.trim();
+    }
+}
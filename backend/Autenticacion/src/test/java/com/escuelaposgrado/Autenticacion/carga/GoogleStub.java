@@ -0,0 +1,73 @@
+package com.escuelaposgrado.Autenticacion.carga;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Date;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+
+/**
+ * Servidor local que sustituye a Google: publica un JWKS en /oauth2/v3/certs y firma
+ * ID tokens con la clave correspondiente
+ */
+class GoogleStub implements AutoCloseable {
+
+    static final String CLIENT_ID = "carga.apps.googleusercontent.com";
+
+    private static final String KID = "carga";
+
+    private final KeyPair clave = Jwts.SIG.RS256.keyPair().build();
+    private final HttpServer servidor;
+
+    GoogleStub() throws IOException {
+        String jwk = Jwks.json(Jwks.builder().key((RSAPublicKey) clave.getPublic()).id(KID).algorithm("RS256").build());
+        byte[] jwks = ("{\"keys\":[" + jwk + "]}").getBytes(StandardCharsets.UTF_8);
+
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        servidor.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        servidor.createContext("/oauth2/v3/certs", intercambio -> {
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.getResponseHeaders().add("Cache-Control", "public, max-age=3600");
+            intercambio.sendResponseHeaders(200, jwks.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(jwks);
+            }
+        });
+        servidor.start();
+    }
+
+    String getCertsUrl() {
+        return "http://127.0.0.1:" + servidor.getAddress().getPort() + "/oauth2/v3/certs";
+    }
+
+    /**
+     * ID token válido durante una hora para el correo indicado
+     */
+    String idToken(String email) {
+        long ahora = System.currentTimeMillis();
+        return Jwts.builder()
+                .header().keyId(KID).and()
+                .issuer("https://accounts.google.com")
+                .audience().add(CLIENT_ID).and()
+                .subject(email)
+                .claim("email", email)
+                .claim("email_verified", true)
+                .issuedAt(new Date(ahora))
+                .expiration(new Date(ahora + 3_600_000))
+                .signWith(clave.getPrivate(), Jwts.SIG.RS256)
+                .compact();
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+    }
+}
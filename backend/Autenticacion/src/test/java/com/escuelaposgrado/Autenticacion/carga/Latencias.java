@@ -0,0 +1,83 @@
+package com.escuelaposgrado.Autenticacion.carga;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latencias de un escenario de carga y sus percentiles
+ */
+class Latencias {
+
+    private final String escenario;
+    private final AtomicLongArray muestras;
+    private final AtomicInteger registradas = new AtomicInteger();
+    private final AtomicInteger errores = new AtomicInteger();
+    private long duracionNanos;
+
+    Latencias(String escenario, int capacidad) {
+        this.escenario = escenario;
+        this.muestras = new AtomicLongArray(capacidad);
+    }
+
+    void registrar(long nanos, boolean exito) {
+        int i = registradas.getAndIncrement();
+        if (i < muestras.length()) {
+            muestras.set(i, nanos);
+        }
+        if (!exito) {
+            errores.incrementAndGet();
+        }
+    }
+
+    void setDuracionNanos(long duracionNanos) {
+        this.duracionNanos = duracionNanos;
+    }
+
+    String getEscenario() {
+        return escenario;
+    }
+
+    int getErrores() {
+        return errores.get();
+    }
+
+    /**
+     * Percentil en milisegundos (p entre 0 y 100)
+     */
+    double percentilMs(double p) {
+        long[] ordenadas = ordenadas();
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(p / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1e6;
+    }
+
+    double porSegundo() {
+        return duracionNanos > 0 ? Math.min(registradas.get(), muestras.length()) / (duracionNanos / 1e9) : 0;
+    }
+
+    String fila() {
+        long[] ordenadas = ordenadas();
+        double max = ordenadas.length > 0 ? ordenadas[ordenadas.length - 1] / 1e6 : 0;
+        return String.format("%-12s %8d %7d %10.1f %9.1f %9.1f %9.1f %9.1f",
+                escenario, ordenadas.length, errores.get(), porSegundo(),
+                percentilMs(50), percentilMs(95), percentilMs(99), max);
+    }
+
+    static String encabezado() {
+        return String.format("%-12s %8s %7s %10s %9s %9s %9s %9s",
+                "escenario", "total", "errores", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+    }
+
+    private long[] ordenadas() {
+        int total = Math.min(registradas.get(), muestras.length());
+        long[] valores = new long[total];
+        for (int i = 0; i < total; i++) {
+            valores[i] = muestras.get(i);
+        }
+        Arrays.sort(valores);
+        return valores;
+    }
+}
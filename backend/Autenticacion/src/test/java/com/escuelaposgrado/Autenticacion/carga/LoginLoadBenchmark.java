@@ -0,0 +1,227 @@
+package com.escuelaposgrado.Autenticacion.carga;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.escuelaposgrado.Autenticacion.AutenticacionApplication;
+import com.escuelaposgrado.Autenticacion.model.entity.Usuario;
+import com.escuelaposgrado.Autenticacion.model.enums.Role;
+import com.escuelaposgrado.Autenticacion.repository.UsuarioRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Prueba de carga del camino de autenticación contra un PostgreSQL local.
+ *
+ * Levanta el servicio en un puerto aleatorio, crea carga.usuarios alumnos (y un administrador)
+ * si no existen, y ejecuta cada escenario con carga.concurrencia clientes simultáneos hasta
+ * completar carga.peticiones peticiones:
+ * - login: POST /api/auth/login con usuario y contraseña (BCrypt)
+ * - google: POST /api/auth/google-login con ID tokens firmados por GoogleStub
+ * - me: GET /api/auth/me con tokens de acceso ya emitidos
+ * - admin: GET /api/admin/usuarios paginado y GET /api/admin/estadisticas
+ *
+ * Informa total, errores, req/s y latencias p50/p95/p99/max por escenario. Con
+ * -Dcarga.p95MaxMs.&lt;escenario&gt;=N termina con código 1 si el p95 supera N ms o si hubo errores,
+ * para detectar regresiones antes de publicar.
+ *
+ * Por defecto usa la base de datos autenticacion_carga (créela antes; el esquema lo crea
+ * Hibernate), para no mezclar los usuarios de prueba con los de desarrollo:
+ *
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ *     "-Dexec.args=-Dcarga.concurrencia=64 -cp %classpath com.escuelaposgrado.Autenticacion.carga.LoginLoadBenchmark"
+ *
+ * Otras propiedades: carga.datasource.url, carga.datasource.username, carga.datasource.password,
+ * carga.escenarios (lista separada por comas).
+ */
+public class LoginLoadBenchmark {
+
+    private static final String PREFIJO = "carga.usuario";
+    private static final String ADMIN = "carga.admin";
+    private static final String PASSWORD = "Carga2024!";
+    private static final String DOMINIO = "@unica.edu.pe";
+
+    private final int usuarios = Integer.getInteger("carga.usuarios", 1000);
+    private final int concurrencia = Integer.getInteger("carga.concurrencia", 50);
+    private final int peticiones = Integer.getInteger("carga.peticiones", 5000);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private String baseUrl;
+
+    public static void main(String[] args) throws Exception {
+        int codigo = new LoginLoadBenchmark().ejecutar();
+        System.exit(codigo);
+    }
+
+    private int ejecutar() throws Exception {
+        List<String> escenarios = List.of(System.getProperty("carga.escenarios", "login,google,me,admin").split(","));
+
+        try (GoogleStub google = new GoogleStub();
+             ConfigurableApplicationContext contexto = iniciar(google)) {
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            sembrar(contexto);
+
+            // Tokens para los escenarios autenticados (y calentamiento del camino de login)
+            List<String> tokens = new ArrayList<>();
+            for (int i = 0; i < Math.min(concurrencia, usuarios); i++) {
+                tokens.add(login(PREFIJO + i));
+            }
+            String tokenAdmin = login(ADMIN);
+
+            Map<String, Latencias> resultados = new LinkedHashMap<>();
+            for (String escenario : escenarios) {
+                IntFunction<HttpRequest> peticion = switch (escenario.trim()) {
+                    case "login" -> i -> post("/api/auth/login", String.format(
+                            "{\"usernameOrEmail\":\"%s\",\"password\":\"%s\"}", PREFIJO + (i % usuarios), PASSWORD));
+                    case "google" -> i -> post("/api/auth/google-login", String.format(
+                            "{\"googleToken\":\"%s\"}", google.idToken(PREFIJO + (i % usuarios) + DOMINIO)));
+                    case "me" -> i -> get("/api/auth/me", tokens.get(i % tokens.size()));
+                    case "admin" -> i -> i % 10 == 0
+                            ? get("/api/admin/estadisticas", tokenAdmin)
+                            : get("/api/admin/usuarios/all?limite=50&orden=APELLIDOS", tokenAdmin);
+                    default -> throw new IllegalArgumentException("Escenario desconocido: " + escenario);
+                };
+                resultados.put(escenario.trim(), medir(escenario.trim(), peticion));
+            }
+
+            System.out.printf("%n%d usuarios, %d clientes concurrentes, %d peticiones por escenario%n",
+                    usuarios, concurrencia, peticiones);
+            System.out.println(Latencias.encabezado());
+            resultados.values().forEach(r -> System.out.println(r.fila()));
+
+            return verificarUmbrales(resultados);
+        }
+    }
+
+    private ConfigurableApplicationContext iniciar(GoogleStub google) {
+        return new SpringApplicationBuilder(AutenticacionApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + System.getProperty("carga.datasource.url",
+                        "jdbc:postgresql://localhost:5432/autenticacion_carga"),
+                "--spring.datasource.username=" + System.getProperty("carga.datasource.username", "postgres"),
+                "--spring.datasource.password=" + System.getProperty("carga.datasource.password", "postgres"),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--app.googleOAuth.clientId=" + GoogleStub.CLIENT_ID,
+                "--app.googleOAuth.certsUrl=" + google.getCertsUrl());
+    }
+
+    /**
+     * Crear los usuarios de prueba que falten (la contraseña se cifra una sola vez)
+     */
+    private void sembrar(ConfigurableApplicationContext contexto) {
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        String hash = contexto.getBean(PasswordEncoder.class).encode(PASSWORD);
+
+        Set<String> existentes = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT username FROM usuarios WHERE username LIKE 'carga.%'", String.class));
+
+        List<Usuario> nuevos = new ArrayList<>();
+        for (int i = 0; i < usuarios; i++) {
+            String username = PREFIJO + i;
+            if (!existentes.contains(username)) {
+                nuevos.add(new Usuario(username, username + DOMINIO, hash, "Usuario " + i, "Carga", Role.ALUMNO));
+            }
+        }
+        if (!existentes.contains(ADMIN)) {
+            nuevos.add(new Usuario(ADMIN, ADMIN + DOMINIO, hash, "Administrador", "Carga", Role.ADMIN));
+        }
+        usuarioRepository.saveAll(nuevos);
+        System.out.printf("Usuarios de prueba: %d existentes, %d creados%n", existentes.size(), nuevos.size());
+    }
+
+    private Latencias medir(String escenario, IntFunction<HttpRequest> peticion) throws InterruptedException {
+        Latencias latencias = new Latencias(escenario, peticiones);
+        AtomicInteger siguiente = new AtomicInteger();
+
+        long inicio = System.nanoTime();
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrencia; c++) {
+                clientes.submit(() -> {
+                    int i;
+                    while ((i = siguiente.getAndIncrement()) < peticiones) {
+                        HttpRequest request = peticion.apply(i);
+                        long t0 = System.nanoTime();
+                        boolean exito;
+                        try {
+                            exito = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                        } catch (Exception e) {
+                            exito = false;
+                        }
+                        latencias.registrar(System.nanoTime() - t0, exito);
+                    }
+                });
+            }
+        }
+        latencias.setDuracionNanos(System.nanoTime() - inicio);
+        return latencias;
+    }
+
+    private int verificarUmbrales(Map<String, Latencias> resultados) {
+        int codigo = 0;
+        for (Latencias latencias : resultados.values()) {
+            if (latencias.getErrores() > 0) {
+                System.out.printf("ERROR: %s tuvo %d respuestas distintas de 200%n",
+                        latencias.getEscenario(), latencias.getErrores());
+                codigo = 1;
+            }
+            Long maximo = Long.getLong("carga.p95MaxMs." + latencias.getEscenario());
+            if (maximo != null && latencias.percentilMs(95) > maximo) {
+                System.out.printf("REGRESIÓN: p95 de %s = %.1f ms (máximo %d ms)%n",
+                        latencias.getEscenario(), latencias.percentilMs(95), maximo);
+                codigo = 1;
+            }
+        }
+        return codigo;
+    }
+
+    private String login(String username) throws Exception {
+        HttpResponse<String> respuesta = httpClient.send(post("/api/auth/login", String.format(
+                "{\"usernameOrEmail\":\"%s\",\"password\":\"%s\"}", username, PASSWORD)),
+                HttpResponse.BodyHandlers.ofString());
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException("No se pudo iniciar sesión como " + username + ": " + respuesta.body());
+        }
+        return objectMapper.readTree(respuesta.body()).get("token").asText();
+    }
+
+    private HttpRequest post(String ruta, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + ruta))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest get(String ruta, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + ruta))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.escuelaposgrado.Autenticacion.security.jwt;
+
+import java.security.KeyPair;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.escuelaposgrado.Autenticacion.model.entity.Usuario;
+import com.escuelaposgrado.Autenticacion.model.enums.Role;
+import com.escuelaposgrado.Autenticacion.security.services.JwtKeyService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Microbenchmark del costo por petición de validar un JWT en AuthTokenFilter.
+ *
+ * legacyPerRequest reproduce el camino anterior (clave HMAC y parser derivados en cada llamada,
+ * token parseado dos veces); cachedSinglePass usa el parser cacheado de JwtUtils, que verifica
+ * la firma ES256 con la clave pública localizada por kid.
+ *
+ * Ejecutar con:
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ *     "-Dexec.args=-cp %classpath com.escuelaposgrado.Autenticacion.security.jwt.JwtUtilsBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    private static final String SECRET = "benchmark-jwt-secret-key-with-at-least-256-bits";
+
+    private static final String KID = "benchmark";
+
+    private JwtUtils jwtUtils;
+    private String token;
+    private String legacyToken;
+
+    @Setup
+    public void setup() {
+        // Claves en memoria en lugar de jwt_claves
+        KeyPair par = Jwts.SIG.ES256.keyPair().build();
+        JwtKeyService jwtKeyService = new JwtKeyService();
+        ReflectionTestUtils.setField(jwtKeyService, "vigente", new JwtKeyService.ClaveFirma(KID, par.getPrivate()));
+        ReflectionTestUtils.setField(jwtKeyService, "publicas", Map.of(KID, par.getPublic()));
+
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtKeyService", jwtKeyService);
+        ReflectionTestUtils.setField(jwtUtils, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        jwtUtils.init();
+
+        Usuario usuario = new Usuario("alumno.benchmark", "alumno.benchmark@unica.edu.pe", "",
+                "Alumno", "Benchmark", Role.ALUMNO);
+        usuario.setId(1L);
+        token = jwtUtils.generateTokenForUser(usuario);
+        legacyToken = Jwts.builder()
+                .subject(usuario.getUsername())
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+    }
+
+    @Benchmark
+    public String legacyPerRequest() {
+        // validateJwtToken()
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        Jwts.parser().verifyWith(key).build().parseSignedClaims(legacyToken);
+
+        // getUserNameFromJwtToken()
+        SecretKey key2 = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parser().verifyWith(key2).build()
+                .parseSignedClaims(legacyToken)
+                .getPayload()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String cachedSinglePass() {
+        Claims claims = jwtUtils.getValidatedClaims(token);
+        return claims.getSubject();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtUtilsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,153 @@
+package com.escuelaposgrado.Autenticacion.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+
+/**
+ * Verificación local de ID tokens contra un servidor de certificados local que sustituye a Google
+ */
+class GoogleIdTokenVerifierTest {
+
+    private static final String CLIENT_ID = "cliente-prueba.apps.googleusercontent.com";
+    private static final String EMISOR = "https://accounts.google.com";
+
+    private final KeyPair claveGoogle = Jwts.SIG.RS256.keyPair().build();
+    private final AtomicInteger consultas = new AtomicInteger();
+
+    private HttpServer servidor;
+    private volatile String jwks;
+    private GoogleIdTokenVerifier verifier;
+
+    @BeforeEach
+    void iniciarServidor() throws IOException {
+        jwks = jwks("clave-1", claveGoogle);
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/oauth2/v3/certs", intercambio -> {
+            consultas.incrementAndGet();
+            byte[] cuerpo = jwks.getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.getResponseHeaders().add("Cache-Control", "public, max-age=3600, must-revalidate");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        });
+        servidor.start();
+        verifier = new GoogleIdTokenVerifier(
+                "http://127.0.0.1:" + servidor.getAddress().getPort() + "/oauth2/v3/certs", CLIENT_ID);
+    }
+
+    @AfterEach
+    void detenerServidor() {
+        servidor.stop(0);
+    }
+
+    @Test
+    void verificaTokenValidoYReutilizaCertificados() {
+        Claims claims = verifier.verificar(token("clave-1", claveGoogle, CLIENT_ID, EMISOR, 3_600_000));
+        verifier.verificar(token("clave-1", claveGoogle, CLIENT_ID, "accounts.google.com", 3_600_000));
+
+        assertEquals("alumno@unica.edu.pe", claims.get("email"));
+        assertEquals(1, consultas.get());
+    }
+
+    @Test
+    void rechazaAudienciaDistinta() {
+        String token = token("clave-1", claveGoogle, "otro-cliente", EMISOR, 3_600_000);
+        assertThrows(JwtException.class, () -> verifier.verificar(token));
+    }
+
+    @Test
+    void rechazaEmisorDistinto() {
+        String token = token("clave-1", claveGoogle, CLIENT_ID, "https://emisor.falso", 3_600_000);
+        assertThrows(JwtException.class, () -> verifier.verificar(token));
+    }
+
+    @Test
+    void rechazaTokenExpirado() {
+        String token = token("clave-1", claveGoogle, CLIENT_ID, EMISOR, -600_000);
+        assertThrows(JwtException.class, () -> verifier.verificar(token));
+    }
+
+    @Test
+    void rechazaFirmaConOtraClave() {
+        KeyPair otra = Jwts.SIG.RS256.keyPair().build();
+        String token = token("clave-1", otra, CLIENT_ID, EMISOR, 3_600_000);
+        assertThrows(JwtException.class, () -> verifier.verificar(token));
+    }
+
+    @Test
+    void consultaDeNuevoAlRotarLaClave() {
+        verifier.verificar(token("clave-1", claveGoogle, CLIENT_ID, EMISOR, 3_600_000));
+
+        KeyPair nueva = Jwts.SIG.RS256.keyPair().build();
+        jwks = jwks("clave-2", nueva);
+        // Simular que ya pasó el intervalo mínimo entre consultas
+        ReflectionTestUtils.setField(verifier, "ultimaConsulta", 0L);
+        verifier.verificar(token("clave-2", nueva, CLIENT_ID, EMISOR, 3_600_000));
+
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    void noConsultaEnCadaTokenConKidDesconocido() {
+        verifier.verificar(token("clave-1", claveGoogle, CLIENT_ID, EMISOR, 3_600_000));
+
+        for (int i = 0; i < 5; i++) {
+            String token = token("inventada-" + i, claveGoogle, CLIENT_ID, EMISOR, 3_600_000);
+            assertThrows(JwtException.class, () -> verifier.verificar(token));
+        }
+
+        assertEquals(1, consultas.get());
+    }
+
+    @Test
+    void distingueIdTokenDeAccessToken() {
+        assertTrue(GoogleIdTokenVerifier.esIdToken(token("clave-1", claveGoogle, CLIENT_ID, EMISOR, 3_600_000)));
+        assertFalse(GoogleIdTokenVerifier.esIdToken("ya29.a0AfH6SMBx"));
+    }
+
+    private String jwks(String kid, KeyPair par) {
+        String jwk = Jwks.json(Jwks.builder().key((RSAPublicKey) par.getPublic()).id(kid).algorithm("RS256").build());
+        return "{\"keys\":[" + jwk + "]}";
+    }
+
+    private String token(String kid, KeyPair par, String audiencia, String emisor, long vigenciaMs) {
+        long ahora = System.currentTimeMillis();
+        return Jwts.builder()
+                .header().keyId(kid).and()
+                .issuer(emisor)
+                .audience().add(audiencia).and()
+                .subject("1234567890")
+                .claim("email", "alumno@unica.edu.pe")
+                .claim("email_verified", true)
+                .issuedAt(new Date(ahora - 60_000))
+                .expiration(new Date(ahora + vigenciaMs))
+                .signWith(par.getPrivate(), Jwts.SIG.RS256)
+                .compact();
+    }
+}
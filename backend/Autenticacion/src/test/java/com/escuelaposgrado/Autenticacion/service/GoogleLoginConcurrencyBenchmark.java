@@ -0,0 +1,96 @@
+package com.escuelaposgrado.Autenticacion.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Mide cuántas verificaciones con Google por segundo se atienden cuando Google responde lento,
+ * comparando el pool de 200 hilos de plataforma de Tomcat con un hilo virtual por petición
+ * (spring.threads.virtual.enabled=true).
+ *
+ * Un servidor local sustituye a /oauth2/v3/userinfo y responde tras app.benchmark.retardoMs.
+ *
+ * Ejecutar con:
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ *     "-Dexec.args=-cp %classpath com.escuelaposgrado.Autenticacion.service.GoogleLoginConcurrencyBenchmark"
+ */
+public class GoogleLoginConcurrencyBenchmark {
+
+    private static final int HILOS_TOMCAT = 200;
+
+    private static final String USER_INFO = """
+            {"sub":"1234567890","email":"alumno@unica.edu.pe","email_verified":true,
+             "given_name":"Alumno","family_name":"Prueba"}""";
+
+    public static void main(String[] args) throws Exception {
+        int peticiones = Integer.getInteger("app.benchmark.peticiones", 2000);
+        long retardoMs = Long.getLong("app.benchmark.retardoMs", 300);
+
+        HttpServer servidor = iniciarGoogleLento(retardoMs);
+        try {
+            String url = "http://127.0.0.1:" + servidor.getAddress().getPort() + "/oauth2/v3/userinfo";
+            GoogleUserInfoClient cliente = new GoogleUserInfoClient(url, 5000, Integer.MAX_VALUE, 30000);
+
+            // Calentamiento
+            ejecutar(cliente, Executors.newVirtualThreadPerTaskExecutor(), 200);
+
+            System.out.printf("Google con %d ms de retardo, %d logins%n", retardoMs, peticiones);
+            medir("Hilos de plataforma (" + HILOS_TOMCAT + ")", cliente,
+                    Executors.newFixedThreadPool(HILOS_TOMCAT), peticiones);
+            medir("Hilos virtuales", cliente, Executors.newVirtualThreadPerTaskExecutor(), peticiones);
+        } finally {
+            servidor.stop(0);
+        }
+    }
+
+    private static void medir(String nombre, GoogleUserInfoClient cliente, ExecutorService executor,
+                              int peticiones) throws Exception {
+        long inicio = System.nanoTime();
+        ejecutar(cliente, executor, peticiones);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("  %-28s %7.2f s  %8.1f logins/s%n", nombre, segundos, peticiones / segundos);
+    }
+
+    private static void ejecutar(GoogleUserInfoClient cliente, ExecutorService executor, int peticiones) throws Exception {
+        try (executor) {
+            List<Future<GoogleOAuthService.GoogleUserInfo>> resultados = new ArrayList<>(peticiones);
+            for (int i = 0; i < peticiones; i++) {
+                resultados.add(executor.submit(() -> cliente.obtener("ya29.token-de-prueba")));
+            }
+            for (Future<GoogleOAuthService.GoogleUserInfo> resultado : resultados) {
+                if (resultado.get() == null) {
+                    throw new IllegalStateException("Respuesta vacía del servidor de prueba");
+                }
+            }
+        }
+    }
+
+    private static HttpServer iniciarGoogleLento(long retardoMs) throws IOException {
+        HttpServer servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        servidor.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        servidor.createContext("/oauth2/v3/userinfo", intercambio -> {
+            try {
+                Thread.sleep(retardoMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] cuerpo = USER_INFO.getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        });
+        servidor.start();
+        return servidor;
+    }
+}
@@ -2,6 +2,7 @@ package com.escuelaposgrado.Intranet;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
@@ -10,6 +11,7 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
  * Sistema de gestión académica para la Escuela de Posgrado de la UNICA
  */
 @SpringBootApplication
+@EnableScheduling
 @EnableJpaAuditing
 @EnableTransactionManagement
 public class IntranetApplication {
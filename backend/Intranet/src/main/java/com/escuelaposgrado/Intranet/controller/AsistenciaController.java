@@ -1,6 +1,8 @@
 package com.escuelaposgrado.Intranet.controller;
 
 import com.escuelaposgrado.Intranet.dto.AsistenciaDTO;
+import com.escuelaposgrado.Intranet.dto.AsistenciaMasivaDTO;
+import com.escuelaposgrado.Intranet.dto.ResultadoAsistenciaMasivaDTO;
 import com.escuelaposgrado.Intranet.service.AsistenciaService;
 import com.escuelaposgrado.Intranet.security.jwt.JwtUtils;
 
@@ -48,6 +50,26 @@ public class AsistenciaController {
         }
     }
     
+    /**
+     * Registrar la asistencia de toda la lista de una sesión (materia y fecha).
+     * Crea o actualiza cada registro y devuelve el resultado por estudiante
+     */
+    @PostMapping("/masiva")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('COORDINADOR') or hasRole('DOCENTE')")
+    public ResponseEntity<?> registrarAsistenciaMasiva(
+            @Valid @RequestBody AsistenciaMasivaDTO asistenciaMasivaDTO,
+            @RequestHeader("Authorization") String token) {
+        try {
+            String jwt = token.substring(7);
+            String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            
+            ResultadoAsistenciaMasivaDTO resultado = asistenciaService.registrarAsistenciaMasiva(asistenciaMasivaDTO, username);
+            return ResponseEntity.ok(resultado);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MensajeResponse("Error: " + e.getMessage()));
+        }
+    }
+    
     /**
      * Actualizar asistencia
      */
@@ -151,13 +173,29 @@ public class AsistenciaController {
     }
     
     /**
-     * Obtener estadísticas de asistencia por estudiante
+     * Obtener estadísticas de asistencia por estudiante (porMateria=true agrega el desglose por materia)
      */
     @GetMapping("/estadisticas/estudiante/{estudianteId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('COORDINADOR') or hasRole('DOCENTE') or @usuarioService.esUsuarioActual(#estudianteId, authentication.name)")
-    public ResponseEntity<?> obtenerEstadisticasEstudiante(@PathVariable Long estudianteId) {
+    public ResponseEntity<?> obtenerEstadisticasEstudiante(
+            @PathVariable Long estudianteId,
+            @RequestParam(defaultValue = "false") boolean porMateria) {
+        try {
+            var estadisticas = asistenciaService.obtenerEstadisticasEstudiante(estudianteId, porMateria);
+            return ResponseEntity.ok(estadisticas);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Obtener estadísticas de asistencia de todos los estudiantes de una materia
+     */
+    @GetMapping("/estadisticas/materia/{materiaId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('COORDINADOR') or hasRole('DOCENTE')")
+    public ResponseEntity<?> obtenerEstadisticasMateria(@PathVariable Long materiaId) {
         try {
-            var estadisticas = asistenciaService.obtenerEstadisticasEstudiante(estudianteId);
+            var estadisticas = asistenciaService.obtenerEstadisticasMateria(materiaId);
             return ResponseEntity.ok(estadisticas);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
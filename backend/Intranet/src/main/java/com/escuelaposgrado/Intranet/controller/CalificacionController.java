@@ -1,17 +1,25 @@
 package com.escuelaposgrado.Intranet.controller;
 
 import com.escuelaposgrado.Intranet.dto.CalificacionDTO;
+import com.escuelaposgrado.Intranet.dto.CalificacionMasivaDTO;
+import com.escuelaposgrado.Intranet.dto.ResultadoCalificacionMasivaDTO;
+import com.escuelaposgrado.Intranet.dto.VerificacionResumenDTO;
 import com.escuelaposgrado.Intranet.service.CalificacionService;
+import com.escuelaposgrado.Intranet.service.ResumenCalificacionService;
 import com.escuelaposgrado.Intranet.security.jwt.JwtUtils;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -25,6 +33,9 @@ public class CalificacionController {
     @Autowired
     private CalificacionService calificacionService;
     
+    @Autowired
+    private ResumenCalificacionService resumenCalificacionService;
+    
     @Autowired
     private JwtUtils jwtUtils;
     
@@ -47,6 +58,66 @@ public class CalificacionController {
         }
     }
     
+    /**
+     * Registrar las notas de una evaluación para toda la lista de una materia.
+     * Si alguna fila tiene errores no se guarda ninguna; el resultado se informa por estudiante
+     */
+    @PostMapping("/masiva")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('COORDINADOR') or hasRole('DOCENTE')")
+    public ResponseEntity<?> registrarCalificacionesMasivas(
+            @Valid @RequestBody CalificacionMasivaDTO calificacionMasivaDTO,
+            @RequestHeader("Authorization") String token) {
+        try {
+            String jwt = token.substring(7);
+            String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            
+            ResultadoCalificacionMasivaDTO resultado = calificacionService.registrarCalificacionesMasivas(calificacionMasivaDTO, username);
+            return ResponseEntity.ok(resultado);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MensajeResponse("Error: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Importar una planilla de notas (.csv o .xlsx con columnas Código, Nota y Observaciones)
+     * para una evaluación. Con soloValidar=true devuelve el informe por fila sin guardar
+     */
+    @PostMapping(value = "/importar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('COORDINADOR') or hasRole('DOCENTE')")
+    public ResponseEntity<?> importarPlanilla(
+            @RequestParam("archivo") MultipartFile archivo,
+            @RequestParam Long materiaId,
+            @RequestParam String tipoEvaluacion,
+            @RequestParam String descripcion,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaEvaluacion,
+            @RequestParam BigDecimal peso,
+            @RequestParam String ciclo,
+            @RequestParam Integer anio,
+            @RequestParam(defaultValue = "false") boolean reemplazar,
+            @RequestParam(defaultValue = "false") boolean soloValidar,
+            @RequestHeader("Authorization") String token) {
+        try {
+            String jwt = token.substring(7);
+            String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            
+            CalificacionMasivaDTO evaluacion = new CalificacionMasivaDTO();
+            evaluacion.setMateriaId(materiaId);
+            evaluacion.setTipoEvaluacion(tipoEvaluacion);
+            evaluacion.setDescripcion(descripcion);
+            evaluacion.setFechaEvaluacion(fechaEvaluacion);
+            evaluacion.setPeso(peso);
+            evaluacion.setCiclo(ciclo);
+            evaluacion.setAnio(anio);
+            evaluacion.setReemplazar(reemplazar);
+            evaluacion.setSoloValidar(soloValidar);
+            
+            ResultadoCalificacionMasivaDTO resultado = calificacionService.importarPlanilla(evaluacion, archivo, username);
+            return ResponseEntity.ok(resultado);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MensajeResponse("Error: " + e.getMessage()));
+        }
+    }
+    
     /**
      * Actualizar calificación
      */
@@ -191,15 +262,54 @@ public class CalificacionController {
     }
     
     /**
-     * Obtener ranking de estudiantes
+     * Obtener estudiantes en riesgo académico (promedio de notas publicadas menor que 11)
+     */
+    @GetMapping("/estudiantes-en-riesgo")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('COORDINADOR') or hasRole('DOCENTE')")
+    public ResponseEntity<?> obtenerEstudiantesEnRiesgo() {
+        return ResponseEntity.ok(calificacionService.obtenerEstudiantesEnRiesgo());
+    }
+    
+    /**
+     * Reconstruir el resumen de calificaciones desde cero
+     */
+    @PostMapping("/resumen/reconstruir")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> reconstruirResumen() {
+        long grupos = resumenCalificacionService.reconstruir();
+        return ResponseEntity.ok(new MensajeResponse("Resumen de calificaciones reconstruido: " + grupos + " grupos"));
+    }
+    
+    /**
+     * Comparar el resumen con las calificaciones sin modificar nada
+     */
+    @GetMapping("/resumen/verificar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<VerificacionResumenDTO> verificarResumen() {
+        return ResponseEntity.ok(resumenCalificacionService.verificar(false));
+    }
+    
+    /**
+     * Comparar el resumen con las calificaciones y recalcular los grupos que no coinciden
+     */
+    @PostMapping("/resumen/reparar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<VerificacionResumenDTO> repararResumen() {
+        return ResponseEntity.ok(resumenCalificacionService.verificar(true));
+    }
+    
+    /**
+     * Obtener ranking de estudiantes (paginado; ponderado=true pondera por el peso de cada evaluación)
      */
     @GetMapping("/ranking/materia/{materiaId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('COORDINADOR') or hasRole('DOCENTE')")
     public ResponseEntity<?> obtenerRankingEstudiantes(
             @PathVariable Long materiaId,
-            @RequestParam(defaultValue = "10") Integer limite) {
+            @RequestParam(defaultValue = "10") Integer limite,
+            @RequestParam(defaultValue = "0") Integer pagina,
+            @RequestParam(defaultValue = "false") boolean ponderado) {
         try {
-            var ranking = calificacionService.obtenerRankingEstudiantes(materiaId, limite);
+            var ranking = calificacionService.obtenerRankingEstudiantes(materiaId, limite, pagina, ponderado);
             return ResponseEntity.ok(ranking);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -0,0 +1,100 @@
+package com.escuelaposgrado.Intranet.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para registrar la asistencia de toda una sesión de clase (lista completa de alumnos)
+ */
+public class AsistenciaMasivaDTO {
+    
+    public static final int MAXIMO_REGISTROS = 500;
+    
+    @NotNull(message = "El ID de la materia es obligatorio")
+    private Long materiaId;
+    
+    @NotNull(message = "La fecha es obligatoria")
+    private LocalDate fecha;
+    
+    // Valores de la sesión; cada registro puede indicar su propia hora de entrada o salida
+    @NotNull(message = "La hora de entrada es obligatoria")
+    private LocalTime horaEntrada;
+    
+    private LocalTime horaSalida;
+    
+    @NotNull(message = "Las horas académicas son obligatorias")
+    @Min(value = 1, message = "Las horas académicas deben ser al menos 1")
+    private Integer horasAcademicas;
+    
+    @NotEmpty(message = "La lista de asistencia no puede estar vacía")
+    @Size(max = MAXIMO_REGISTROS, message = "Máximo " + MAXIMO_REGISTROS + " estudiantes por sesión")
+    @Valid
+    private List<Registro> registros = new ArrayList<>();
+    
+    /**
+     * Asistencia de un estudiante en la sesión
+     */
+    public static class Registro {
+        
+        @NotNull(message = "El ID del estudiante es obligatorio")
+        private Long estudianteId;
+        
+        @NotBlank(message = "El estado es obligatorio")
+        private String estado;
+        
+        private LocalTime horaEntrada;
+        
+        private LocalTime horaSalida;
+        
+        @Size(max = 500, message = "Las observaciones no pueden exceder 500 caracteres")
+        private String observaciones;
+        
+        public Registro() {}
+        
+        public Registro(Long estudianteId, String estado) {
+            this.estudianteId = estudianteId;
+            this.estado = estado;
+        }
+        
+        public Long getEstudianteId() { return estudianteId; }
+        public void setEstudianteId(Long estudianteId) { this.estudianteId = estudianteId; }
+        
+        public String getEstado() { return estado; }
+        public void setEstado(String estado) { this.estado = estado; }
+        
+        public LocalTime getHoraEntrada() { return horaEntrada; }
+        public void setHoraEntrada(LocalTime horaEntrada) { this.horaEntrada = horaEntrada; }
+        
+        public LocalTime getHoraSalida() { return horaSalida; }
+        public void setHoraSalida(LocalTime horaSalida) { this.horaSalida = horaSalida; }
+        
+        public String getObservaciones() { return observaciones; }
+        public void setObservaciones(String observaciones) { this.observaciones = observaciones; }
+    }
+    
+    // Constructors
+    public AsistenciaMasivaDTO() {}
+    
+    // Getters y Setters
+    public Long getMateriaId() { return materiaId; }
+    public void setMateriaId(Long materiaId) { this.materiaId = materiaId; }
+    
+    public LocalDate getFecha() { return fecha; }
+    public void setFecha(LocalDate fecha) { this.fecha = fecha; }
+    
+    public LocalTime getHoraEntrada() { return horaEntrada; }
+    public void setHoraEntrada(LocalTime horaEntrada) { this.horaEntrada = horaEntrada; }
+    
+    public LocalTime getHoraSalida() { return horaSalida; }
+    public void setHoraSalida(LocalTime horaSalida) { this.horaSalida = horaSalida; }
+    
+    public Integer getHorasAcademicas() { return horasAcademicas; }
+    public void setHorasAcademicas(Integer horasAcademicas) { this.horasAcademicas = horasAcademicas; }
+    
+    public List<Registro> getRegistros() { return registros; }
+    public void setRegistros(List<Registro> registros) { this.registros = registros; }
+}
@@ -0,0 +1,128 @@
+package com.escuelaposgrado.Intranet.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para registrar las notas de una evaluación para toda la lista de una materia
+ */
+public class CalificacionMasivaDTO {
+    
+    public static final int MAXIMO_REGISTROS = 500;
+    
+    @NotNull(message = "El ID de la materia es obligatorio")
+    private Long materiaId;
+    
+    @NotBlank(message = "El tipo de evaluación es obligatorio")
+    private String tipoEvaluacion;
+    
+    @NotBlank(message = "La descripción es obligatoria")
+    @Size(max = 200, message = "La descripción no puede exceder 200 caracteres")
+    private String descripcion;
+    
+    @NotNull(message = "La fecha de evaluación es obligatoria")
+    private LocalDate fechaEvaluacion;
+    
+    @NotNull(message = "El peso es obligatorio")
+    @DecimalMin(value = "0.0", message = "El peso mínimo es 0.0")
+    @DecimalMax(value = "100.0", message = "El peso máximo es 100.0")
+    private BigDecimal peso;
+    
+    @NotBlank(message = "El ciclo es obligatorio")
+    private String ciclo;
+    
+    @NotNull(message = "El año es obligatorio")
+    private Integer anio;
+    
+    // Si es true, las notas ya registradas para la evaluación se corrigen en lugar de rechazarse
+    private boolean reemplazar = false;
+    
+    // Si es true, solo se valida la lista y no se guarda nada
+    private boolean soloValidar = false;
+    
+    @NotEmpty(message = "La lista de notas no puede estar vacía")
+    @Size(max = MAXIMO_REGISTROS, message = "Máximo " + MAXIMO_REGISTROS + " notas por petición")
+    @Valid
+    private List<Registro> registros = new ArrayList<>();
+    
+    /**
+     * Nota de un estudiante, identificado por su ID o por su código de estudiante
+     */
+    public static class Registro {
+        
+        // Fila de la planilla de la que proviene el registro (solo en importaciones)
+        private Integer fila;
+        
+        private Long estudianteId;
+        
+        private String codigoEstudiante;
+        
+        @NotNull(message = "La nota es obligatoria")
+        @DecimalMin(value = "0.0", message = "La nota mínima es 0.0")
+        @DecimalMax(value = "20.0", message = "La nota máxima es 20.0")
+        private BigDecimal nota;
+        
+        @Size(max = 500, message = "Las observaciones no pueden exceder 500 caracteres")
+        private String observaciones;
+        
+        public Registro() {}
+        
+        public Registro(Long estudianteId, BigDecimal nota) {
+            this.estudianteId = estudianteId;
+            this.nota = nota;
+        }
+        
+        public Integer getFila() { return fila; }
+        public void setFila(Integer fila) { this.fila = fila; }
+        
+        public Long getEstudianteId() { return estudianteId; }
+        public void setEstudianteId(Long estudianteId) { this.estudianteId = estudianteId; }
+        
+        public String getCodigoEstudiante() { return codigoEstudiante; }
+        public void setCodigoEstudiante(String codigoEstudiante) { this.codigoEstudiante = codigoEstudiante; }
+        
+        public BigDecimal getNota() { return nota; }
+        public void setNota(BigDecimal nota) { this.nota = nota; }
+        
+        public String getObservaciones() { return observaciones; }
+        public void setObservaciones(String observaciones) { this.observaciones = observaciones; }
+    }
+    
+    // Constructors
+    public CalificacionMasivaDTO() {}
+    
+    // Getters y Setters
+    public Long getMateriaId() { return materiaId; }
+    public void setMateriaId(Long materiaId) { this.materiaId = materiaId; }
+    
+    public String getTipoEvaluacion() { return tipoEvaluacion; }
+    public void setTipoEvaluacion(String tipoEvaluacion) { this.tipoEvaluacion = tipoEvaluacion; }
+    
+    public String getDescripcion() { return descripcion; }
+    public void setDescripcion(String descripcion) { this.descripcion = descripcion; }
+    
+    public LocalDate getFechaEvaluacion() { return fechaEvaluacion; }
+    public void setFechaEvaluacion(LocalDate fechaEvaluacion) { this.fechaEvaluacion = fechaEvaluacion; }
+    
+    public BigDecimal getPeso() { return peso; }
+    public void setPeso(BigDecimal peso) { this.peso = peso; }
+    
+    public String getCiclo() { return ciclo; }
+    public void setCiclo(String ciclo) { this.ciclo = ciclo; }
+    
+    public Integer getAnio() { return anio; }
+    public void setAnio(Integer anio) { this.anio = anio; }
+    
+    public boolean isReemplazar() { return reemplazar; }
+    public void setReemplazar(boolean reemplazar) { this.reemplazar = reemplazar; }
+    
+    public boolean isSoloValidar() { return soloValidar; }
+    public void setSoloValidar(boolean soloValidar) { this.soloValidar = soloValidar; }
+    
+    public List<Registro> getRegistros() { return registros; }
+    public void setRegistros(List<Registro> registros) { this.registros = registros; }
+}
@@ -0,0 +1,68 @@
+package com.escuelaposgrado.Intranet.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado, estudiante por estudiante, del registro masivo de asistencia
+ */
+public class ResultadoAsistenciaMasivaDTO {
+    
+    private int creadas;
+    private int actualizadas;
+    private int errores;
+    private List<Resultado> resultados = new ArrayList<>();
+    
+    /**
+     * Resultado de un estudiante: CREADA, ACTUALIZADA o ERROR (con el motivo en mensaje)
+     */
+    public static class Resultado {
+        
+        private Long estudianteId;
+        private String estudianteNombre;
+        private Long asistenciaId;
+        private String resultado;
+        private String mensaje;
+        
+        public Resultado() {}
+        
+        public Resultado(Long estudianteId, String estudianteNombre, Long asistenciaId, String resultado, String mensaje) {
+            this.estudianteId = estudianteId;
+            this.estudianteNombre = estudianteNombre;
+            this.asistenciaId = asistenciaId;
+            this.resultado = resultado;
+            this.mensaje = mensaje;
+        }
+        
+        public Long getEstudianteId() { return estudianteId; }
+        public void setEstudianteId(Long estudianteId) { this.estudianteId = estudianteId; }
+        
+        public String getEstudianteNombre() { return estudianteNombre; }
+        public void setEstudianteNombre(String estudianteNombre) { this.estudianteNombre = estudianteNombre; }
+        
+        public Long getAsistenciaId() { return asistenciaId; }
+        public void setAsistenciaId(Long asistenciaId) { this.asistenciaId = asistenciaId; }
+        
+        public String getResultado() { return resultado; }
+        public void setResultado(String resultado) { this.resultado = resultado; }
+        
+        public String getMensaje() { return mensaje; }
+        public void setMensaje(String mensaje) { this.mensaje = mensaje; }
+    }
+    
+    // Constructors
+    public ResultadoAsistenciaMasivaDTO() {}
+    
+    // Getters y Setters
+    public int getCreadas() { return creadas; }
+    public void setCreadas(int creadas) { this.creadas = creadas; }
+    
+    public int getActualizadas() { return actualizadas; }
+    public void setActualizadas(int actualizadas) { this.actualizadas = actualizadas; }
+    
+    public int getErrores() { return errores; }
+    public void setErrores(int errores) { this.errores = errores; }
+    
+    public List<Resultado> getResultados() { return resultados; }
+    public void setResultados(List<Resultado> resultados) { this.resultados = resultados; }
+}
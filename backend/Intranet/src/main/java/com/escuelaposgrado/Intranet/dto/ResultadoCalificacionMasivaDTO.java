@@ -0,0 +1,94 @@
+package com.escuelaposgrado.Intranet.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado, fila por fila, del registro masivo o la importación de notas.
+ * Si alguna fila tiene errores (o se pidió solo validar) no se guarda ninguna y guardado es false
+ */
+public class ResultadoCalificacionMasivaDTO {
+    
+    private boolean guardado;
+    private int creadas;
+    private int actualizadas;
+    private int sinCambios;
+    private int errores;
+    private List<Resultado> resultados = new ArrayList<>();
+    
+    /**
+     * Resultado de una fila: CREADA, ACTUALIZADA, SIN_CAMBIOS o ERROR (con el motivo en mensaje)
+     */
+    public static class Resultado {
+        
+        private Integer fila;
+        private Long estudianteId;
+        private String codigoEstudiante;
+        private String estudianteNombre;
+        private Long calificacionId;
+        private BigDecimal nota;
+        private String resultado;
+        private String mensaje;
+        
+        public Resultado() {}
+        
+        public Resultado(Integer fila, Long estudianteId, String codigoEstudiante, String estudianteNombre,
+                        Long calificacionId, BigDecimal nota, String resultado, String mensaje) {
+            this.fila = fila;
+            this.estudianteId = estudianteId;
+            this.codigoEstudiante = codigoEstudiante;
+            this.estudianteNombre = estudianteNombre;
+            this.calificacionId = calificacionId;
+            this.nota = nota;
+            this.resultado = resultado;
+            this.mensaje = mensaje;
+        }
+        
+        public Integer getFila() { return fila; }
+        public void setFila(Integer fila) { this.fila = fila; }
+        
+        public Long getEstudianteId() { return estudianteId; }
+        public void setEstudianteId(Long estudianteId) { this.estudianteId = estudianteId; }
+        
+        public String getCodigoEstudiante() { return codigoEstudiante; }
+        public void setCodigoEstudiante(String codigoEstudiante) { this.codigoEstudiante = codigoEstudiante; }
+        
+        public String getEstudianteNombre() { return estudianteNombre; }
+        public void setEstudianteNombre(String estudianteNombre) { this.estudianteNombre = estudianteNombre; }
+        
+        public Long getCalificacionId() { return calificacionId; }
+        public void setCalificacionId(Long calificacionId) { this.calificacionId = calificacionId; }
+        
+        public BigDecimal getNota() { return nota; }
+        public void setNota(BigDecimal nota) { this.nota = nota; }
+        
+        public String getResultado() { return resultado; }
+        public void setResultado(String resultado) { this.resultado = resultado; }
+        
+        public String getMensaje() { return mensaje; }
+        public void setMensaje(String mensaje) { this.mensaje = mensaje; }
+    }
+    
+    // Constructors
+    public ResultadoCalificacionMasivaDTO() {}
+    
+    // Getters y Setters
+    public boolean isGuardado() { return guardado; }
+    public void setGuardado(boolean guardado) { this.guardado = guardado; }
+    
+    public int getCreadas() { return creadas; }
+    public void setCreadas(int creadas) { this.creadas = creadas; }
+    
+    public int getActualizadas() { return actualizadas; }
+    public void setActualizadas(int actualizadas) { this.actualizadas = actualizadas; }
+    
+    public int getSinCambios() { return sinCambios; }
+    public void setSinCambios(int sinCambios) { this.sinCambios = sinCambios; }
+    
+    public int getErrores() { return errores; }
+    public void setErrores(int errores) { this.errores = errores; }
+    
+    public List<Resultado> getResultados() { return resultados; }
+    public void setResultados(List<Resultado> resultados) { this.resultados = resultados; }
+}
@@ -0,0 +1,68 @@
+package com.escuelaposgrado.Intranet.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado de comparar el resumen de calificaciones con las calificaciones
+ */
+public class VerificacionResumenDTO {
+    
+    private long grupos;
+    private int inconsistentes;
+    private int reparados;
+    private List<Grupo> muestra = new ArrayList<>();
+    
+    /**
+     * Estudiante, materia, ciclo y año de un grupo del resumen
+     */
+    public static class Grupo {
+        
+        private Long estudianteId;
+        private Long materiaId;
+        private String ciclo;
+        private Integer anio;
+        
+        public Grupo() {}
+        
+        public Grupo(Long estudianteId, Long materiaId, String ciclo, Integer anio) {
+            this.estudianteId = estudianteId;
+            this.materiaId = materiaId;
+            this.ciclo = ciclo;
+            this.anio = anio;
+        }
+        
+        public Long getEstudianteId() { return estudianteId; }
+        public void setEstudianteId(Long estudianteId) { this.estudianteId = estudianteId; }
+        
+        public Long getMateriaId() { return materiaId; }
+        public void setMateriaId(Long materiaId) { this.materiaId = materiaId; }
+        
+        public String getCiclo() { return ciclo; }
+        public void setCiclo(String ciclo) { this.ciclo = ciclo; }
+        
+        public Integer getAnio() { return anio; }
+        public void setAnio(Integer anio) { this.anio = anio; }
+        
+        @Override
+        public String toString() {
+            return "estudiante " + estudianteId + ", materia " + materiaId + ", " + ciclo + " " + anio;
+        }
+    }
+    
+    // Constructors
+    public VerificacionResumenDTO() {}
+    
+    // Getters y Setters
+    public long getGrupos() { return grupos; }
+    public void setGrupos(long grupos) { this.grupos = grupos; }
+    
+    public int getInconsistentes() { return inconsistentes; }
+    public void setInconsistentes(int inconsistentes) { this.inconsistentes = inconsistentes; }
+    
+    public int getReparados() { return reparados; }
+    public void setReparados(int reparados) { this.reparados = reparados; }
+    
+    public List<Grupo> getMuestra() { return muestra; }
+    public void setMuestra(List<Grupo> muestra) { this.muestra = muestra; }
+}
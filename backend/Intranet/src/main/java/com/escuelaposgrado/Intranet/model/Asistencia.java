@@ -10,7 +10,10 @@ import java.time.LocalTime;
  * Entidad para registrar la asistencia de estudiantes
  */
 @Entity
-@Table(name = "asistencias")
+@Table(name = "asistencias",
+       uniqueConstraints = @UniqueConstraint(name = "uk_asistencias_sesion",
+                                             columnNames = {"materia_id", "fecha", "estudiante_id"}),
+       indexes = @Index(name = "idx_asistencias_estudiante_materia", columnList = "estudiante_id, materia_id, estado"))
 public class Asistencia {
     
     @Id
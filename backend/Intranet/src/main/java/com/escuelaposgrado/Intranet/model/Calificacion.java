@@ -11,7 +11,8 @@ import java.math.RoundingMode;
  * Entidad para registrar las calificaciones de estudiantes
  */
 @Entity
-@Table(name = "calificaciones")
+@Table(name = "calificaciones",
+       indexes = @Index(name = "idx_calificaciones_materia_estudiante", columnList = "materia_id, estudiante_id"))
 public class Calificacion {
     
     @Id
@@ -0,0 +1,46 @@
+package com.escuelaposgrado.Intranet.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Posición hasta la que se aplicaron los eventos de otro servicio (p. ej. "usuarios").
+ * Se guarda en la misma transacción que los cambios aplicados, para reanudar tras un reinicio.
+ */
+@Entity
+@Table(name = "sincronizacion_estado")
+public class EstadoSincronizacion {
+    
+    @Id
+    @Column(length = 50)
+    private String nombre;
+    
+    @Column(nullable = false)
+    private Long transaccion = 0L;
+    
+    @Column(name = "evento_id", nullable = false)
+    private Long eventoId = 0L;
+    
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+    
+    // Constructors
+    public EstadoSincronizacion() {}
+    
+    public EstadoSincronizacion(String nombre) {
+        this.nombre = nombre;
+    }
+    
+    // Getters y Setters
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+    
+    public Long getTransaccion() { return transaccion; }
+    public void setTransaccion(Long transaccion) { this.transaccion = transaccion; }
+    
+    public Long getEventoId() { return eventoId; }
+    public void setEventoId(Long eventoId) { this.eventoId = eventoId; }
+    
+    public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) { this.fechaActualizacion = fechaActualizacion; }
+}
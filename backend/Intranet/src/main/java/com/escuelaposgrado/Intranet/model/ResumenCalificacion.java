@@ -0,0 +1,124 @@
+package com.escuelaposgrado.Intranet.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Acumulados de las calificaciones de un estudiante en una materia, ciclo y año.
+ * Los mantiene un disparador sobre calificaciones (ver ResumenCalificacionService); guarda sumas
+ * y conteos en lugar de promedios para poder sumar o restar cada nota sin recalcular el grupo.
+ */
+@Entity
+@Table(name = "calificaciones_resumen",
+       uniqueConstraints = @UniqueConstraint(name = "uk_calificaciones_resumen",
+                                             columnNames = {"estudiante_id", "materia_id", "ciclo", "anio"}),
+       indexes = @Index(name = "idx_calificaciones_resumen_materia", columnList = "materia_id"))
+public class ResumenCalificacion {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "estudiante_id", nullable = false)
+    private Usuario estudiante;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "materia_id", nullable = false)
+    private Materia materia;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Ciclo ciclo;
+    
+    @Column(nullable = false)
+    private Integer anio;
+    
+    // Todas las calificaciones
+    @Column(nullable = false)
+    private Long total = 0L;
+    
+    @Column(name = "suma_notas", precision = 12, scale = 2, nullable = false)
+    private BigDecimal sumaNotas = BigDecimal.ZERO;
+    
+    @Column(name = "suma_ponderada", precision = 14, scale = 4, nullable = false)
+    private BigDecimal sumaPonderada = BigDecimal.ZERO; // Suma de nota * peso
+    
+    @Column(name = "suma_pesos", precision = 12, scale = 2, nullable = false)
+    private BigDecimal sumaPesos = BigDecimal.ZERO;
+    
+    @Column(name = "nota_maxima", precision = 4, scale = 2)
+    private BigDecimal notaMaxima;
+    
+    @Column(name = "nota_minima", precision = 4, scale = 2)
+    private BigDecimal notaMinima;
+    
+    // Solo las calificaciones publicadas
+    @Column(nullable = false)
+    private Long publicadas = 0L;
+    
+    @Column(name = "suma_notas_publicadas", precision = 12, scale = 2, nullable = false)
+    private BigDecimal sumaNotasPublicadas = BigDecimal.ZERO;
+    
+    @Column(name = "suma_ponderada_publicadas", precision = 14, scale = 4, nullable = false)
+    private BigDecimal sumaPonderadaPublicadas = BigDecimal.ZERO;
+    
+    @Column(name = "suma_pesos_publicadas", precision = 12, scale = 2, nullable = false)
+    private BigDecimal sumaPesosPublicadas = BigDecimal.ZERO;
+    
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+    
+    // Constructors
+    public ResumenCalificacion() {}
+    
+    // Getters y Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Usuario getEstudiante() { return estudiante; }
+    public void setEstudiante(Usuario estudiante) { this.estudiante = estudiante; }
+    
+    public Materia getMateria() { return materia; }
+    public void setMateria(Materia materia) { this.materia = materia; }
+    
+    public Ciclo getCiclo() { return ciclo; }
+    public void setCiclo(Ciclo ciclo) { this.ciclo = ciclo; }
+    
+    public Integer getAnio() { return anio; }
+    public void setAnio(Integer anio) { this.anio = anio; }
+    
+    public Long getTotal() { return total; }
+    public void setTotal(Long total) { this.total = total; }
+    
+    public BigDecimal getSumaNotas() { return sumaNotas; }
+    public void setSumaNotas(BigDecimal sumaNotas) { this.sumaNotas = sumaNotas; }
+    
+    public BigDecimal getSumaPonderada() { return sumaPonderada; }
+    public void setSumaPonderada(BigDecimal sumaPonderada) { this.sumaPonderada = sumaPonderada; }
+    
+    public BigDecimal getSumaPesos() { return sumaPesos; }
+    public void setSumaPesos(BigDecimal sumaPesos) { this.sumaPesos = sumaPesos; }
+    
+    public BigDecimal getNotaMaxima() { return notaMaxima; }
+    public void setNotaMaxima(BigDecimal notaMaxima) { this.notaMaxima = notaMaxima; }
+    
+    public BigDecimal getNotaMinima() { return notaMinima; }
+    public void setNotaMinima(BigDecimal notaMinima) { this.notaMinima = notaMinima; }
+    
+    public Long getPublicadas() { return publicadas; }
+    public void setPublicadas(Long publicadas) { this.publicadas = publicadas; }
+    
+    public BigDecimal getSumaNotasPublicadas() { return sumaNotasPublicadas; }
+    public void setSumaNotasPublicadas(BigDecimal sumaNotasPublicadas) { this.sumaNotasPublicadas = sumaNotasPublicadas; }
+    
+    public BigDecimal getSumaPonderadaPublicadas() { return sumaPonderadaPublicadas; }
+    public void setSumaPonderadaPublicadas(BigDecimal sumaPonderadaPublicadas) { this.sumaPonderadaPublicadas = sumaPonderadaPublicadas; }
+    
+    public BigDecimal getSumaPesosPublicadas() { return sumaPesosPublicadas; }
+    public void setSumaPesosPublicadas(BigDecimal sumaPesosPublicadas) { this.sumaPesosPublicadas = sumaPesosPublicadas; }
+    
+    public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) { this.fechaActualizacion = fechaActualizacion; }
+}
@@ -77,6 +77,10 @@ public class Usuario {
     @Column(nullable = false)
     private Boolean eliminado = false;
     
+    // Id del usuario en el servicio de autenticación (copia sincronizada por eventos)
+    @Column(name = "usuario_auth_id", unique = true)
+    private Long usuarioAuthId;
+    
     @Column(name = "ultimo_acceso")
     private LocalDateTime ultimoAcceso;
     
@@ -197,6 +201,9 @@ public class Usuario {
     public Boolean getEliminado() { return eliminado; }
     public void setEliminado(Boolean eliminado) { this.eliminado = eliminado; }
     
+    public Long getUsuarioAuthId() { return usuarioAuthId; }
+    public void setUsuarioAuthId(Long usuarioAuthId) { this.usuarioAuthId = usuarioAuthId; }
+    
     // Métodos de compatibilidad
     public Role getRol() { return role; }
     public void setRol(Role rol) { this.role = rol; }
@@ -63,6 +63,26 @@ public interface AsistenciaRepository extends JpaRepository<Asistencia, Long> {
     @Query("SELECT COUNT(a) FROM Asistencia a WHERE a.estudiante = :estudiante AND a.materia = :materia AND a.estado = 'PRESENTE'")
     long countAsistenciasPresente(@Param("estudiante") Usuario estudiante, @Param("materia") Materia materia);
     
+    // Conteos por estado en una sola agregación (estado, total)
+    @Query("SELECT a.estado, COUNT(a) FROM Asistencia a WHERE a.estudiante.id = :estudianteId GROUP BY a.estado")
+    List<Object[]> contarPorEstado(@Param("estudianteId") Long estudianteId);
+    
+    @Query("SELECT a.estado, COUNT(a) FROM Asistencia a WHERE a.estudiante.id = :estudianteId AND a.materia.id = :materiaId " +
+           "GROUP BY a.estado")
+    List<Object[]> contarPorEstado(@Param("estudianteId") Long estudianteId, @Param("materiaId") Long materiaId);
+    
+    // Desglose por materia de un estudiante (id de la materia, nombre, estado, total)
+    @Query("SELECT a.materia.id, a.materia.nombre, a.estado, COUNT(a) FROM Asistencia a WHERE a.estudiante.id = :estudianteId " +
+           "GROUP BY a.materia.id, a.materia.nombre, a.estado ORDER BY a.materia.nombre")
+    List<Object[]> contarPorMateriaYEstado(@Param("estudianteId") Long estudianteId);
+    
+    // Todos los estudiantes de una materia (id del estudiante, nombres, apellidos, estado, total)
+    @Query("SELECT a.estudiante.id, a.estudiante.nombres, a.estudiante.apellidos, a.estado, COUNT(a) FROM Asistencia a " +
+           "WHERE a.materia.id = :materiaId " +
+           "GROUP BY a.estudiante.id, a.estudiante.nombres, a.estudiante.apellidos, a.estado " +
+           "ORDER BY a.estudiante.apellidos, a.estudiante.nombres, a.estudiante.id")
+    List<Object[]> contarPorEstudianteYEstado(@Param("materiaId") Long materiaId);
+    
     // Faltas consecutivas
     @Query("SELECT a FROM Asistencia a WHERE a.estudiante = :estudiante AND a.materia = :materia AND a.estado = 'AUSENTE' ORDER BY a.fecha DESC")
     List<Asistencia> findFaltasPorEstudianteYMateria(@Param("estudiante") Usuario estudiante, @Param("materia") Materia materia);
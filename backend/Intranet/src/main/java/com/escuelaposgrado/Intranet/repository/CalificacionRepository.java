@@ -12,6 +12,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -75,10 +76,6 @@ public interface CalificacionRepository extends JpaRepository<Calificacion, Long
     @Query("SELECT DISTINCT c.estudiante FROM Calificacion c WHERE c.nota >= 18.0 AND c.publicada = true")
     List<Usuario> findEstudiantesSobresalientes();
     
-    // Estudiantes en riesgo académico (promedio < 11)
-    @Query("SELECT c.estudiante FROM Calificacion c WHERE c.publicada = true GROUP BY c.estudiante HAVING AVG(c.nota) < 11.0")
-    List<Usuario> findEstudiantesEnRiesgo();
-    
     // Conteo de evaluaciones por tipo
     @Query("SELECT COUNT(c) FROM Calificacion c WHERE c.tipoEvaluacion = :tipo AND c.materia = :materia")
     long countByTipoEvaluacionAndMateria(@Param("tipo") TipoEvaluacion tipo, @Param("materia") Materia materia);
@@ -123,4 +120,48 @@ public interface CalificacionRepository extends JpaRepository<Calificacion, Long
     
     @Query("SELECT COUNT(c) FROM Calificacion c WHERE c.materia = :materia")
     Long countCalificacionesMateria(@Param("materia") Materia materia);
+    
+    // Notas ya registradas de una evaluación para una lista de estudiantes (id del estudiante, id de la calificación, nota)
+    @Query("SELECT c.estudiante.id, c.id, c.nota FROM Calificacion c WHERE c.materia.id = :materiaId " +
+           "AND c.tipoEvaluacion = :tipoEvaluacion AND c.fechaEvaluacion = :fechaEvaluacion " +
+           "AND c.estudiante.id IN :estudianteIds")
+    List<Object[]> findNotasPorEvaluacion(@Param("materiaId") Long materiaId,
+                                          @Param("tipoEvaluacion") TipoEvaluacion tipoEvaluacion,
+                                          @Param("fechaEvaluacion") LocalDate fechaEvaluacion,
+                                          @Param("estudianteIds") Collection<Long> estudianteIds);
+    
+    // Ranking de una materia calculado en la base de datos a partir de calificaciones_resumen:
+    // promedio simple o ponderado por peso, RANK() deja huecos tras un empate y DENSE_RANK() no.
+    // Las posiciones se calculan sobre todos los estudiantes antes de aplicar LIMIT/OFFSET, así
+    // que cualquier página es consistente
+    @Query(value = "WITH promedios AS (" +
+                   "SELECT r.estudiante_id, SUM(r.total) AS evaluaciones, " +
+                   "ROUND(CASE WHEN :ponderado THEN SUM(r.suma_ponderada) / NULLIF(SUM(r.suma_pesos), 0) " +
+                   "ELSE SUM(r.suma_notas) / SUM(r.total) END, 2) AS promedio " +
+                   "FROM calificaciones_resumen r WHERE r.materia_id = :materiaId GROUP BY r.estudiante_id) " +
+                   "SELECT p.estudiante_id AS \"estudianteId\", u.nombres AS \"nombres\", u.apellidos AS \"apellidos\", " +
+                   "p.promedio AS \"promedio\", p.evaluaciones AS \"evaluaciones\", " +
+                   "RANK() OVER (ORDER BY p.promedio DESC NULLS LAST) AS \"posicion\", " +
+                   "DENSE_RANK() OVER (ORDER BY p.promedio DESC NULLS LAST) AS \"posicionDensa\" " +
+                   "FROM promedios p JOIN usuarios u ON u.id = p.estudiante_id " +
+                   "ORDER BY \"posicion\", u.apellidos, u.nombres, p.estudiante_id " +
+                   "LIMIT :limite OFFSET :desde",
+           nativeQuery = true)
+    List<PosicionRanking> findRankingPorMateria(@Param("materiaId") Long materiaId,
+                                                @Param("ponderado") boolean ponderado,
+                                                @Param("limite") int limite,
+                                                @Param("desde") long desde);
+    
+    /**
+     * Fila del ranking de una materia
+     */
+    interface PosicionRanking {
+        Long getEstudianteId();
+        String getNombres();
+        String getApellidos();
+        BigDecimal getPromedio();
+        Long getEvaluaciones();
+        Long getPosicion();
+        Long getPosicionDensa();
+    }
 }
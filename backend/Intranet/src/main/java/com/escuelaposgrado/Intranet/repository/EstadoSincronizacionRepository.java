@@ -0,0 +1,12 @@
+package com.escuelaposgrado.Intranet.repository;
+
+import com.escuelaposgrado.Intranet.model.EstadoSincronizacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para la posición de sincronización con otros servicios
+ */
+@Repository
+public interface EstadoSincronizacionRepository extends JpaRepository<EstadoSincronizacion, String> {
+}
@@ -0,0 +1,60 @@
+package com.escuelaposgrado.Intranet.repository;
+
+import com.escuelaposgrado.Intranet.model.ResumenCalificacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Repositorio para los acumulados de calificaciones por estudiante, materia, ciclo y año
+ */
+@Repository
+public interface ResumenCalificacionRepository extends JpaRepository<ResumenCalificacion, Long> {
+    
+    // Acumulados de un estudiante en una materia (todas sus filas de ciclo y año)
+    @Query("SELECT SUM(r.total) AS total, SUM(r.sumaNotas) AS sumaNotas, SUM(r.sumaPonderada) AS sumaPonderada, " +
+           "SUM(r.sumaPesos) AS sumaPesos, MAX(r.notaMaxima) AS notaMaxima, MIN(r.notaMinima) AS notaMinima " +
+           "FROM ResumenCalificacion r WHERE r.estudiante.id = :estudianteId AND r.materia.id = :materiaId")
+    Totales findTotalesEstudianteMateria(@Param("estudianteId") Long estudianteId, @Param("materiaId") Long materiaId);
+    
+    // Acumulados de una materia
+    @Query("SELECT SUM(r.total) AS total, SUM(r.sumaNotas) AS sumaNotas, SUM(r.sumaPonderada) AS sumaPonderada, " +
+           "SUM(r.sumaPesos) AS sumaPesos, MAX(r.notaMaxima) AS notaMaxima, MIN(r.notaMinima) AS notaMinima " +
+           "FROM ResumenCalificacion r WHERE r.materia.id = :materiaId")
+    Totales findTotalesMateria(@Param("materiaId") Long materiaId);
+    
+    // Estudiantes en riesgo académico: promedio de sus notas publicadas menor que el umbral
+    @Query("SELECT r.estudiante.id AS estudianteId, r.estudiante.nombres AS nombres, r.estudiante.apellidos AS apellidos, " +
+           "SUM(r.sumaNotasPublicadas) / SUM(r.publicadas) AS promedio, SUM(r.publicadas) AS evaluaciones " +
+           "FROM ResumenCalificacion r GROUP BY r.estudiante.id, r.estudiante.nombres, r.estudiante.apellidos " +
+           "HAVING SUM(r.publicadas) > 0 AND SUM(r.sumaNotasPublicadas) < :umbral * SUM(r.publicadas) " +
+           "ORDER BY SUM(r.sumaNotasPublicadas) / SUM(r.publicadas) ASC")
+    List<EstudianteEnRiesgo> findEstudiantesEnRiesgo(@Param("umbral") BigDecimal umbral);
+    
+    /**
+     * Sumas y extremos de un grupo de filas del resumen (null si no hay calificaciones)
+     */
+    interface Totales {
+        Long getTotal();
+        BigDecimal getSumaNotas();
+        BigDecimal getSumaPonderada();
+        BigDecimal getSumaPesos();
+        BigDecimal getNotaMaxima();
+        BigDecimal getNotaMinima();
+    }
+    
+    /**
+     * Estudiante con promedio de notas publicadas por debajo del umbral
+     */
+    interface EstudianteEnRiesgo {
+        Long getEstudianteId();
+        String getNombres();
+        String getApellidos();
+        BigDecimal getPromedio();
+        Long getEvaluaciones();
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -94,4 +95,12 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
            "LOWER(u.apellidos) LIKE LOWER(CONCAT('%', :termino, '%')) OR " +
            "LOWER(u.email) LIKE LOWER(CONCAT('%', :termino, '%'))) AND u.eliminado = false")
     List<Usuario> buscarPorNombreOEmail(@Param("termino") String termino);
+    
+    // Sincronización con el servicio de autenticación
+    List<Usuario> findByUsuarioAuthIdIn(Collection<Long> usuarioAuthIds);
+    List<Usuario> findByUsernameIn(Collection<String> usernames);
+    List<Usuario> findByEmailIn(Collection<String> emails);
+    
+    // Registro masivo e importación de notas
+    List<Usuario> findByCodigoEstudianteIn(Collection<String> codigosEstudiante);
 }
@@ -1,49 +1,96 @@
 package com.escuelaposgrado.Intranet.security.jwt;
 
+import java.security.Key;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import javax.crypto.SecretKey;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 /**
- * Utilidad para validar tokens JWT en el microservicio de Intranet
+ * Utilidad para validar tokens JWT en el microservicio de Intranet.
+ *
+ * Los tokens del servicio de autenticación (ES256) se verifican con la clave pública de su
+ * JWKS; app.jwtSecret solo firma y verifica los tokens HS256 que emite /api/auth/signin.
  */
 @Component
 public class JwtUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    /**
+     * Claim con las autoridades (ROLE_*) emitido por el servicio de autenticación
+     */
+    public static final String CLAIM_ROLES = "roles";
+
+    /**
+     * Claim con el id del usuario emitido por el servicio de autenticación
+     */
+    public static final String CLAIM_USER_ID = "uid";
+
     @Value("${app.jwtSecret:escuelaPosgradoUnicaSecretKey2024JWTAuthentication}")
     private String jwtSecret;
 
     @Value("${app.jwtExpirationMs:86400000}")
     private int jwtExpirationMs;
 
+    @Autowired
+    private JwksKeyLocator jwksKeyLocator;
+
+    // Clave y parser derivados una sola vez al iniciar (ambos son inmutables y thread-safe)
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return header.getAlgorithm() != null && header.getAlgorithm().startsWith("HS")
+                                ? signingKey
+                                : jwksKeyLocator.locate(header);
+                    }
+                })
+                .build();
+    }
+
     /**
      * Generar token JWT
      */
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
         return Jwts.builder()
                 .subject(userPrincipal.getUsername())
+                .claim(CLAIM_ROLES, roles)
                 .issuedAt(new Date())
                 .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key)
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -51,29 +98,18 @@ public class JwtUtils {
      * Obtener username del token JWT
      */
     public String getUserNameFromJwtToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
+        return jwtParser.parseSignedClaims(token)
                 .getPayload()
                 .getSubject();
     }
 
     /**
-     * Validar token JWT
+     * Validar token JWT y devolver sus claims en una sola verificación de firma.
+     * Devuelve null si el token no es válido.
      */
-    public boolean validateJwtToken(String authToken) {
+    public Claims getValidatedClaims(String authToken) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            
-            Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(authToken);
-            
-            return true;
+            return jwtParser.parseSignedClaims(authToken).getPayload();
         } catch (MalformedJwtException e) {
             logger.error("Token JWT inválido: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -85,20 +121,41 @@ public class JwtUtils {
         } catch (Exception e) {
             logger.error("Error validando token JWT: {}", e.getMessage());
         }
-        
-        return false;
+
+        return null;
+    }
+
+    /**
+     * Obtener los roles contenidos en los claims del token
+     */
+    public List<String> getRolesFromClaims(Claims claims) {
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        if (roles == null) {
+            return Collections.emptyList();
+        }
+        return roles.stream().map(String::valueOf).toList();
+    }
+
+    /**
+     * Obtener el id de usuario contenido en los claims (null en tokens sin él)
+     */
+    public Long getUserIdFromClaims(Claims claims) {
+        Number id = claims.get(CLAIM_USER_ID, Number.class);
+        return id != null ? id.longValue() : null;
+    }
+
+    /**
+     * Validar token JWT
+     */
+    public boolean validateJwtToken(String authToken) {
+        return getValidatedClaims(authToken) != null;
     }
 
     /**
      * Obtener fecha de expiración del token
      */
     public Date getExpirationDateFromJwtToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
+        return jwtParser.parseSignedClaims(token)
                 .getPayload()
                 .getExpiration();
     }
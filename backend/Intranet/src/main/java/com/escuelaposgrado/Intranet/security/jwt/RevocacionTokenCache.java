@@ -0,0 +1,94 @@
+package com.escuelaposgrado.Intranet.security.jwt;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Réplica local de las revocaciones de tokens publicadas por el servicio de autenticación.
+ *
+ * Se sincroniza en segundo plano cada app.revocaciones.intervaloMs, de modo que cada
+ * petición se valida en O(1) contra un mapa en memoria (usuario -> instante de revocación)
+ * sin llamar a Autenticación. Solo contiene revocaciones de la última vigencia de un token
+ * de acceso. Si Autenticación no responde se conservan las revocaciones ya conocidas.
+ */
+@Component
+public class RevocacionTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocacionTokenCache.class);
+
+    private static final String CABECERA_CLAVE_SERVICIO = "X-Service-Key";
+    private static final Duration TIMEOUT = Duration.ofSeconds(3);
+
+    private final Map<Long, Long> revocaciones = new ConcurrentHashMap<>();
+    private final RestClient restClient;
+    private final String claveServicio;
+
+    private volatile long ultimaSincronizacion = 0;
+
+    public RevocacionTokenCache(@Value("${app.autenticacion.url:http://localhost:8080}") String autenticacionUrl,
+                                @Value("${app.revocaciones.claveServicio}") String claveServicio) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(TIMEOUT);
+        requestFactory.setReadTimeout(TIMEOUT);
+        this.restClient = RestClient.builder()
+                .baseUrl(autenticacionUrl)
+                .requestFactory(requestFactory)
+                .build();
+        this.claveServicio = claveServicio;
+    }
+
+    /**
+     * Indica si un token del usuario emitido en emitidoEn fue revocado
+     */
+    public boolean estaRevocado(Long usuarioId, Date emitidoEn) {
+        if (usuarioId == null || emitidoEn == null) {
+            return false;
+        }
+        Long revocadoEn = revocaciones.get(usuarioId);
+        return revocadoEn != null && emitidoEn.getTime() <= revocadoEn;
+    }
+
+    /**
+     * Traer las revocaciones nuevas y olvidar las que ya no afectan a ningún token vigente
+     */
+    @Scheduled(fixedDelayString = "${app.revocaciones.intervaloMs:5000}")
+    public void sincronizar() {
+        try {
+            Revocaciones nuevas = restClient.get()
+                    .uri(uri -> uri.path("/api/auth/revocaciones").queryParam("desde", ultimaSincronizacion).build())
+                    .header(CABECERA_CLAVE_SERVICIO, claveServicio)
+                    .retrieve()
+                    .body(Revocaciones.class);
+            if (nuevas == null) {
+                return;
+            }
+
+            nuevas.revocaciones().forEach(r -> revocaciones.merge(r.usuarioId(), r.revocadoEn(), Math::max));
+            ultimaSincronizacion = nuevas.hasta();
+
+            long limite = nuevas.hasta() - nuevas.ventanaMs();
+            revocaciones.values().removeIf(instante -> instante < limite);
+        } catch (RestClientException e) {
+            logger.warn("No se pudieron sincronizar las revocaciones de tokens: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Respuesta de /api/auth/revocaciones (instantes en milisegundos desde epoch)
+     */
+    public record Revocaciones(long hasta, long ventanaMs, List<Revocacion> revocaciones) {}
+
+    public record Revocacion(Long usuarioId, long revocadoEn) {}
+}
@@ -1,6 +1,8 @@
 package com.escuelaposgrado.Intranet.service;
 
 import com.escuelaposgrado.Intranet.dto.AsistenciaDTO;
+import com.escuelaposgrado.Intranet.dto.AsistenciaMasivaDTO;
+import com.escuelaposgrado.Intranet.dto.ResultadoAsistenciaMasivaDTO;
 import com.escuelaposgrado.Intranet.model.Asistencia;
 import com.escuelaposgrado.Intranet.model.Usuario;
 import com.escuelaposgrado.Intranet.model.Materia;
@@ -9,12 +11,30 @@ import com.escuelaposgrado.Intranet.repository.AsistenciaRepository;
 import com.escuelaposgrado.Intranet.repository.UsuarioRepository;
 import com.escuelaposgrado.Intranet.repository.MateriaRepository;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +53,60 @@ public class AsistenciaService {
     @Autowired
     private MateriaRepository materiaRepository;
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    private static final Logger logger = LoggerFactory.getLogger(AsistenciaService.class);
+    
+    // Inserta o actualiza la asistencia de cada estudiante de la sesión en una sola sentencia;
+    // xmax = 0 solo en las filas recién insertadas
+    private static final String UPSERT_SQL =
+        "INSERT INTO asistencias (fecha, hora_entrada, hora_salida, estado, observaciones, horas_academicas, " +
+        "estudiante_id, materia_id, fecha_registro, fecha_actualizacion, registrado_por) " +
+        "SELECT ?::date, r.hora_entrada::time, r.hora_salida::time, r.estado, r.observaciones, ?::integer, r.estudiante_id, " +
+        "?::bigint, ?::timestamp, ?::timestamp, ?::varchar " +
+        "FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::bigint[]) " +
+        "AS r(hora_entrada, hora_salida, estado, observaciones, estudiante_id) " +
+        "ON CONFLICT (materia_id, fecha, estudiante_id) DO UPDATE SET hora_entrada = EXCLUDED.hora_entrada, " +
+        "hora_salida = EXCLUDED.hora_salida, estado = EXCLUDED.estado, observaciones = EXCLUDED.observaciones, " +
+        "horas_academicas = EXCLUDED.horas_academicas, fecha_actualizacion = EXCLUDED.fecha_actualizacion " +
+        "RETURNING estudiante_id, id, (xmax = 0) AS creada";
+    
+    // La restricción de sesión solo la creaba ddl-auto=update, que no la agrega si ya hay
+    // duplicados: se eliminan (se conserva el último registrado) y se crea si falta
+    private static final String BLOQUEAR_ASISTENCIAS = "LOCK TABLE asistencias IN SHARE ROW EXCLUSIVE MODE";
+    
+    private static final String ELIMINAR_DUPLICADOS_SQL =
+        "DELETE FROM asistencias a USING asistencias b WHERE a.materia_id = b.materia_id AND a.fecha = b.fecha " +
+        "AND a.estudiante_id = b.estudiante_id AND a.id < b.id";
+    
+    private static final String CREAR_RESTRICCION_SQL =
+        "DO $$ BEGIN " +
+        "  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_asistencias_sesion') THEN " +
+        "    ALTER TABLE asistencias ADD CONSTRAINT uk_asistencias_sesion UNIQUE (materia_id, fecha, estudiante_id); " +
+        "  END IF; " +
+        "END $$";
+    
+    @PostConstruct
+    public void crearRestriccionSesion() {
+        try {
+            transactionTemplate.executeWithoutResult(estado -> {
+                jdbcTemplate.execute(BLOQUEAR_ASISTENCIAS);
+                int duplicados = jdbcTemplate.update(ELIMINAR_DUPLICADOS_SQL);
+                if (duplicados > 0) {
+                    logger.warn("Eliminadas {} asistencias duplicadas de una misma sesión", duplicados);
+                }
+                jdbcTemplate.execute(CREAR_RESTRICCION_SQL);
+            });
+        } catch (DataAccessException e) {
+            logger.error("No se pudo crear la restricción uk_asistencias_sesion; el registro masivo fallará: {}",
+                e.getMostSpecificCause().getMessage());
+        }
+    }
+    
     /**
      * Registrar nueva asistencia
      */
@@ -65,6 +139,95 @@ public class AsistenciaService {
         return convertirADTO(asistencia);
     }
     
+    /**
+     * Registrar la asistencia de toda una sesión (materia y fecha) en una sola operación.
+     * 
+     * Los estudiantes se consultan una sola vez para toda la lista y las asistencias se guardan
+     * con un único INSERT ... ON CONFLICT: la restricción uk_asistencias_sesion decide si se
+     * crean o actualizan, también frente a otro registro simultáneo de la misma sesión. Los
+     * registros con errores (estudiante inexistente, estado inválido, repetido) se informan
+     * sin impedir que se guarden los demás.
+     */
+    public ResultadoAsistenciaMasivaDTO registrarAsistenciaMasiva(AsistenciaMasivaDTO dto, String registradoPor) {
+        Materia materia = materiaRepository.findById(dto.getMateriaId())
+            .orElseThrow(() -> new RuntimeException("Materia no encontrada"));
+        
+        Set<Long> estudianteIds = dto.getRegistros().stream()
+            .map(AsistenciaMasivaDTO.Registro::getEstudianteId)
+            .collect(Collectors.toSet());
+        Map<Long, Usuario> estudiantes = usuarioRepository.findAllById(estudianteIds).stream()
+            .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+        
+        ResultadoAsistenciaMasivaDTO resultado = new ResultadoAsistenciaMasivaDTO();
+        Map<Long, ResultadoAsistenciaMasivaDTO.Resultado> guardados = new LinkedHashMap<>();
+        List<String> horasEntrada = new ArrayList<>();
+        List<String> horasSalida = new ArrayList<>();
+        List<String> estados = new ArrayList<>();
+        List<String> observaciones = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        Set<Long> procesados = new HashSet<>();
+        
+        for (AsistenciaMasivaDTO.Registro registro : dto.getRegistros()) {
+            Usuario estudiante = estudiantes.get(registro.getEstudianteId());
+            String error = validarRegistro(registro, estudiante, procesados);
+            if (error != null) {
+                resultado.getResultados().add(new ResultadoAsistenciaMasivaDTO.Resultado(registro.getEstudianteId(),
+                    estudiante != null ? estudiante.getNombreCompleto() : null, null, "ERROR", error));
+                resultado.setErrores(resultado.getErrores() + 1);
+                continue;
+            }
+            
+            LocalTime horaEntrada = registro.getHoraEntrada() != null ? registro.getHoraEntrada() : dto.getHoraEntrada();
+            LocalTime horaSalida = registro.getHoraSalida() != null ? registro.getHoraSalida() : dto.getHoraSalida();
+            horasEntrada.add(horaEntrada != null ? horaEntrada.toString() : null);
+            horasSalida.add(horaSalida != null ? horaSalida.toString() : null);
+            estados.add(EstadoAsistencia.valueOf(registro.getEstado()).name());
+            observaciones.add(registro.getObservaciones());
+            ids.add(estudiante.getId());
+            
+            ResultadoAsistenciaMasivaDTO.Resultado guardado = new ResultadoAsistenciaMasivaDTO.Resultado(
+                estudiante.getId(), estudiante.getNombreCompleto(), null, null, null);
+            guardados.put(estudiante.getId(), guardado);
+            resultado.getResultados().add(guardado);
+        }
+        
+        if (!ids.isEmpty()) {
+            Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.query(UPSERT_SQL, rs -> {
+                ResultadoAsistenciaMasivaDTO.Resultado guardado = guardados.get(rs.getLong("estudiante_id"));
+                guardado.setAsistenciaId(rs.getLong("id"));
+                if (rs.getBoolean("creada")) {
+                    guardado.setResultado("CREADA");
+                    resultado.setCreadas(resultado.getCreadas() + 1);
+                } else {
+                    guardado.setResultado("ACTUALIZADA");
+                    resultado.setActualizadas(resultado.getActualizadas() + 1);
+                }
+            }, dto.getFecha(), dto.getHorasAcademicas(), materia.getId(), ahora, ahora, registradoPor,
+                horasEntrada.toArray(String[]::new), horasSalida.toArray(String[]::new),
+                estados.toArray(String[]::new), observaciones.toArray(String[]::new), ids.toArray(Long[]::new));
+        }
+        return resultado;
+    }
+    
+    private String validarRegistro(AsistenciaMasivaDTO.Registro registro, Usuario estudiante, Set<Long> procesados) {
+        if (estudiante == null) {
+            return "Estudiante no encontrado";
+        }
+        if (!estudiante.esEstudiante()) {
+            return "El usuario no es un estudiante";
+        }
+        if (!procesados.add(estudiante.getId())) {
+            return "Estudiante repetido en la lista";
+        }
+        try {
+            EstadoAsistencia.valueOf(registro.getEstado());
+        } catch (IllegalArgumentException e) {
+            return "Estado de asistencia inválido: " + registro.getEstado();
+        }
+        return null;
+    }
+    
     /**
      * Actualizar asistencia existente
      */
@@ -155,48 +318,116 @@ public class AsistenciaService {
      */
     @Transactional(readOnly = true)
     public Double calcularPorcentajeAsistencia(Long estudianteId, Long materiaId) {
+        Map<EstadoAsistencia, Long> conteos = agrupar(asistenciaRepository.contarPorEstado(estudianteId, materiaId));
+        if (conteos.isEmpty()) {
+            if (!usuarioRepository.existsById(estudianteId)) {
+                throw new RuntimeException("Estudiante no encontrado");
+            }
+            if (!materiaRepository.existsById(materiaId)) {
+                throw new RuntimeException("Materia no encontrada");
+            }
+            return 0.0;
+        }
+        return construirEstadisticas(conteos).getPorcentajeAsistencia();
+    }
+    
+    /**
+     * Obtener estadísticas de asistencia por estudiante, con una sola agregación por estado.
+     * Con porMateria=true se incluye el desglose por materia (calculado en la misma consulta)
+     */
+    @Transactional(readOnly = true)
+    public EstadisticasAsistenciaDTO obtenerEstadisticasEstudiante(Long estudianteId, boolean porMateria) {
         Usuario estudiante = usuarioRepository.findById(estudianteId)
             .orElseThrow(() -> new RuntimeException("Estudiante no encontrado"));
         
+        EstadisticasAsistenciaDTO estadisticas;
+        if (porMateria) {
+            // Filas ordenadas por materia: (id, nombre, estado, total)
+            Map<Long, String> materias = new LinkedHashMap<>();
+            Map<Long, Map<EstadoAsistencia, Long>> conteosPorMateria = new HashMap<>();
+            Map<EstadoAsistencia, Long> conteos = new EnumMap<>(EstadoAsistencia.class);
+            for (Object[] fila : asistenciaRepository.contarPorMateriaYEstado(estudianteId)) {
+                Long materiaId = (Long) fila[0];
+                materias.putIfAbsent(materiaId, (String) fila[1]);
+                conteosPorMateria.computeIfAbsent(materiaId, id -> new EnumMap<>(EstadoAsistencia.class))
+                    .put((EstadoAsistencia) fila[2], (Long) fila[3]);
+                conteos.merge((EstadoAsistencia) fila[2], (Long) fila[3], Long::sum);
+            }
+            estadisticas = construirEstadisticas(conteos);
+            List<EstadisticasAsistenciaDTO> desglose = new ArrayList<>(materias.size());
+            materias.forEach((materiaId, nombre) -> {
+                EstadisticasAsistenciaDTO detalle = construirEstadisticas(conteosPorMateria.get(materiaId));
+                detalle.setMateriaId(materiaId);
+                detalle.setMateriaNombre(nombre);
+                desglose.add(detalle);
+            });
+            estadisticas.setPorMateria(desglose);
+        } else {
+            estadisticas = construirEstadisticas(agrupar(asistenciaRepository.contarPorEstado(estudianteId)));
+        }
+        estadisticas.setEstudianteId(estudianteId);
+        estadisticas.setEstudianteNombre(estudiante.getNombreCompleto());
+        
+        return estadisticas;
+    }
+    
+    /**
+     * Obtener estadísticas de asistencia de todos los estudiantes de una materia en una sola consulta
+     */
+    @Transactional(readOnly = true)
+    public List<EstadisticasAsistenciaDTO> obtenerEstadisticasMateria(Long materiaId) {
         Materia materia = materiaRepository.findById(materiaId)
             .orElseThrow(() -> new RuntimeException("Materia no encontrada"));
         
-        long totalAsistencias = asistenciaRepository.countTotalAsistencias(estudiante, materia);
-        long asistenciasPresente = asistenciaRepository.countAsistenciasPresente(estudiante, materia);
-        
-        if (totalAsistencias == 0) {
-            return 0.0;
+        // Filas ordenadas por estudiante: (id, nombres, apellidos, estado, total)
+        Map<Long, String> nombres = new LinkedHashMap<>();
+        Map<Long, Map<EstadoAsistencia, Long>> conteosPorEstudiante = new HashMap<>();
+        for (Object[] fila : asistenciaRepository.contarPorEstudianteYEstado(materiaId)) {
+            Long estudianteId = (Long) fila[0];
+            nombres.putIfAbsent(estudianteId, fila[1] + " " + fila[2]);
+            conteosPorEstudiante.computeIfAbsent(estudianteId, id -> new EnumMap<>(EstadoAsistencia.class))
+                .put((EstadoAsistencia) fila[3], (Long) fila[4]);
         }
         
-        return (asistenciasPresente * 100.0) / totalAsistencias;
+        List<EstadisticasAsistenciaDTO> estadisticas = new ArrayList<>(nombres.size());
+        nombres.forEach((estudianteId, nombre) -> {
+            EstadisticasAsistenciaDTO dto = construirEstadisticas(conteosPorEstudiante.get(estudianteId));
+            dto.setEstudianteId(estudianteId);
+            dto.setEstudianteNombre(nombre);
+            dto.setMateriaId(materiaId);
+            dto.setMateriaNombre(materia.getNombre());
+            estadisticas.add(dto);
+        });
+        return estadisticas;
     }
     
     /**
-     * Obtener estadísticas de asistencia por estudiante
+     * Convertir filas (estado, total) en conteos por estado
      */
-    @Transactional(readOnly = true)
-    public EstadisticasAsistenciaDTO obtenerEstadisticasEstudiante(Long estudianteId) {
-        Usuario estudiante = usuarioRepository.findById(estudianteId)
-            .orElseThrow(() -> new RuntimeException("Estudiante no encontrado"));
-        
-        long totalPresente = asistenciaRepository.countByEstudianteAndEstado(estudiante, EstadoAsistencia.PRESENTE);
-        long totalAusente = asistenciaRepository.countByEstudianteAndEstado(estudiante, EstadoAsistencia.AUSENTE);
-        long totalTardanza = asistenciaRepository.countByEstudianteAndEstado(estudiante, EstadoAsistencia.TARDANZA);
-        long totalJustificado = asistenciaRepository.countByEstudianteAndEstado(estudiante, EstadoAsistencia.JUSTIFICADO);
+    private Map<EstadoAsistencia, Long> agrupar(List<Object[]> filas) {
+        Map<EstadoAsistencia, Long> conteos = new EnumMap<>(EstadoAsistencia.class);
+        for (Object[] fila : filas) {
+            conteos.put((EstadoAsistencia) fila[0], (Long) fila[1]);
+        }
+        return conteos;
+    }
+    
+    private EstadisticasAsistenciaDTO construirEstadisticas(Map<EstadoAsistencia, Long> conteos) {
+        long totalPresente = conteos.getOrDefault(EstadoAsistencia.PRESENTE, 0L);
+        long totalAusente = conteos.getOrDefault(EstadoAsistencia.AUSENTE, 0L);
+        long totalTardanza = conteos.getOrDefault(EstadoAsistencia.TARDANZA, 0L);
+        long totalJustificado = conteos.getOrDefault(EstadoAsistencia.JUSTIFICADO, 0L);
         
         long total = totalPresente + totalAusente + totalTardanza + totalJustificado;
         double porcentaje = total > 0 ? (totalPresente * 100.0) / total : 0.0;
         
         EstadisticasAsistenciaDTO estadisticas = new EstadisticasAsistenciaDTO();
-        estadisticas.setEstudianteId(estudianteId);
-        estadisticas.setEstudianteNombre(estudiante.getNombreCompleto());
         estadisticas.setTotalPresente(totalPresente);
         estadisticas.setTotalAusente(totalAusente);
         estadisticas.setTotalTardanza(totalTardanza);
         estadisticas.setTotalJustificado(totalJustificado);
         estadisticas.setTotalClases(total);
         estadisticas.setPorcentajeAsistencia(porcentaje);
-        
         return estadisticas;
     }
     
@@ -247,17 +478,21 @@ public class AsistenciaService {
 }
 
 /**
- * DTO para estadísticas de asistencia
+ * DTO para estadísticas de asistencia (los datos de materia y el desglose solo se envían cuando aplican)
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 class EstadisticasAsistenciaDTO {
     private Long estudianteId;
     private String estudianteNombre;
+    private Long materiaId;
+    private String materiaNombre;
     private Long totalPresente;
     private Long totalAusente;
     private Long totalTardanza;
     private Long totalJustificado;
     private Long totalClases;
     private Double porcentajeAsistencia;
+    private List<EstadisticasAsistenciaDTO> porMateria;
     
     // Getters y Setters
     public Long getEstudianteId() { return estudianteId; }
@@ -283,4 +518,13 @@ class EstadisticasAsistenciaDTO {
     
     public Double getPorcentajeAsistencia() { return porcentajeAsistencia; }
     public void setPorcentajeAsistencia(Double porcentajeAsistencia) { this.porcentajeAsistencia = porcentajeAsistencia; }
+    
+    public Long getMateriaId() { return materiaId; }
+    public void setMateriaId(Long materiaId) { this.materiaId = materiaId; }
+    
+    public String getMateriaNombre() { return materiaNombre; }
+    public void setMateriaNombre(String materiaNombre) { this.materiaNombre = materiaNombre; }
+    
+    public List<EstadisticasAsistenciaDTO> getPorMateria() { return porMateria; }
+    public void setPorMateria(List<EstadisticasAsistenciaDTO> porMateria) { this.porMateria = porMateria; }
 }
@@ -1,6 +1,8 @@
 package com.escuelaposgrado.Intranet.service;
 
 import com.escuelaposgrado.Intranet.dto.CalificacionDTO;
+import com.escuelaposgrado.Intranet.dto.CalificacionMasivaDTO;
+import com.escuelaposgrado.Intranet.dto.ResultadoCalificacionMasivaDTO;
 import com.escuelaposgrado.Intranet.model.Calificacion;
 import com.escuelaposgrado.Intranet.model.Usuario;
 import com.escuelaposgrado.Intranet.model.Materia;
@@ -9,17 +11,32 @@ import com.escuelaposgrado.Intranet.model.Ciclo;
 import com.escuelaposgrado.Intranet.repository.CalificacionRepository;
 import com.escuelaposgrado.Intranet.repository.UsuarioRepository;
 import com.escuelaposgrado.Intranet.repository.MateriaRepository;
+import com.escuelaposgrado.Intranet.repository.ResumenCalificacionRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -38,6 +55,34 @@ public class CalificacionService {
     @Autowired
     private MateriaRepository materiaRepository;
     
+    @Autowired
+    private ResumenCalificacionRepository resumenCalificacionRepository;
+    
+    @Autowired
+    private PlanillaCalificacionesService planillaCalificacionesService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Filas por cada batch JDBC del registro masivo
+    private static final int TAMANO_LOTE = 500;
+    
+    // Máximo de estudiantes por página del ranking
+    private static final int MAXIMO_RANKING = 100;
+    
+    // Promedio de notas publicadas por debajo del cual un estudiante está en riesgo académico
+    private static final BigDecimal NOTA_APROBATORIA = new BigDecimal("11.0");
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO calificaciones (tipo_evaluacion, descripcion, nota, peso, fecha_evaluacion, observaciones, publicada, " +
+        "recuperable, ciclo, anio, estudiante_id, materia_id, fecha_registro, fecha_actualizacion, registrado_por) " +
+        "VALUES (?, ?, ?, ?, ?, ?, false, false, ?, ?, ?, ?, ?, ?, ?)";
+    
+    // Igual que corregirCalificacion, la nota reemplazada queda en nota_anterior
+    private static final String UPDATE_SQL =
+        "UPDATE calificaciones SET nota_anterior = nota, nota = ?, observaciones = COALESCE(?, observaciones), " +
+        "fecha_correcion = ?, motivo_correcion = ?, corregido_por = ?, fecha_actualizacion = ? WHERE id = ?";
+    
     /**
      * Registrar nueva calificación
      */
@@ -72,6 +117,232 @@ public class CalificacionService {
         return convertirADTO(calificacion);
     }
     
+    /**
+     * Registrar las notas de una evaluación para una lista de estudiantes.
+     * Valida toda la lista contra los estudiantes y las notas ya registradas de la evaluación
+     * (una consulta para cada uno) y, solo si ninguna fila tiene errores, guarda todo en lotes
+     * dentro de la misma transacción
+     */
+    public ResultadoCalificacionMasivaDTO registrarCalificacionesMasivas(CalificacionMasivaDTO dto, String registradoPor) {
+        return registrarCalificacionesMasivas(dto, Map.of(), registradoPor);
+    }
+    
+    /**
+     * Importar una planilla de notas (.csv o .xlsx) con las columnas Código y Nota (y opcionalmente
+     * Observaciones) para la evaluación indicada en dto. Las filas se leen en streaming y se validan
+     * y guardan como en el registro masivo
+     */
+    public ResultadoCalificacionMasivaDTO importarPlanilla(CalificacionMasivaDTO dto, MultipartFile archivo, String registradoPor) {
+        PlanillaCalificacionesService.Planilla planilla = planillaCalificacionesService.leer(archivo);
+        if (planilla.registros().isEmpty() && planilla.errores().isEmpty()) {
+            throw new RuntimeException("La planilla no contiene notas");
+        }
+        dto.setRegistros(planilla.registros());
+        return registrarCalificacionesMasivas(dto, planilla.errores(), registradoPor);
+    }
+    
+    private ResultadoCalificacionMasivaDTO registrarCalificacionesMasivas(CalificacionMasivaDTO dto,
+                                                                         Map<Integer, String> erroresLectura,
+                                                                         String registradoPor) {
+        Materia materia = materiaRepository.findById(dto.getMateriaId())
+            .orElseThrow(() -> new RuntimeException("Materia no encontrada"));
+        TipoEvaluacion tipoEvaluacion = TipoEvaluacion.valueOf(dto.getTipoEvaluacion());
+        Ciclo ciclo = Ciclo.valueOf(dto.getCiclo());
+        validarEvaluacion(dto);
+        
+        // Lista de estudiantes: por ID y por código de estudiante
+        Set<Long> ids = new HashSet<>();
+        Set<String> codigos = new HashSet<>();
+        for (CalificacionMasivaDTO.Registro registro : dto.getRegistros()) {
+            if (registro.getEstudianteId() != null) {
+                ids.add(registro.getEstudianteId());
+            } else if (registro.getCodigoEstudiante() != null && !registro.getCodigoEstudiante().isBlank()) {
+                codigos.add(registro.getCodigoEstudiante().trim());
+            }
+        }
+        Map<Long, Usuario> porId = ids.isEmpty() ? Map.of() : usuarioRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+        Map<String, Usuario> porCodigo = codigos.isEmpty() ? Map.of() : usuarioRepository.findByCodigoEstudianteIn(codigos).stream()
+            .collect(Collectors.toMap(Usuario::getCodigoEstudiante, Function.identity(), (a, b) -> a));
+        
+        List<Usuario> estudiantes = new ArrayList<>(dto.getRegistros().size());
+        Set<Long> estudianteIds = new HashSet<>();
+        for (CalificacionMasivaDTO.Registro registro : dto.getRegistros()) {
+            Usuario estudiante = registro.getEstudianteId() != null
+                ? porId.get(registro.getEstudianteId())
+                : registro.getCodigoEstudiante() != null ? porCodigo.get(registro.getCodigoEstudiante().trim()) : null;
+            estudiantes.add(estudiante);
+            if (estudiante != null) {
+                estudianteIds.add(estudiante.getId());
+            }
+        }
+        
+        // Notas ya registradas de la evaluación (id del estudiante -> id de la calificación, nota)
+        Map<Long, Object[]> existentes = new HashMap<>();
+        if (!estudianteIds.isEmpty()) {
+            for (Object[] fila : calificacionRepository.findNotasPorEvaluacion(materia.getId(), tipoEvaluacion,
+                    dto.getFechaEvaluacion(), estudianteIds)) {
+                existentes.put((Long) fila[0], fila);
+            }
+        }
+        
+        ResultadoCalificacionMasivaDTO resultado = new ResultadoCalificacionMasivaDTO();
+        erroresLectura.forEach((fila, error) -> {
+            resultado.getResultados().add(new ResultadoCalificacionMasivaDTO.Resultado(fila, null, null, null, null, null, "ERROR", error));
+            resultado.setErrores(resultado.getErrores() + 1);
+        });
+        
+        List<ResultadoCalificacionMasivaDTO.Resultado> insertados = new ArrayList<>();
+        List<Object[]> inserciones = new ArrayList<>();
+        List<Object[]> actualizaciones = new ArrayList<>();
+        Set<Long> procesados = new HashSet<>();
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        
+        for (int i = 0; i < dto.getRegistros().size(); i++) {
+            CalificacionMasivaDTO.Registro registro = dto.getRegistros().get(i);
+            Usuario estudiante = estudiantes.get(i);
+            Object[] existente = estudiante != null ? existentes.get(estudiante.getId()) : null;
+            
+            ResultadoCalificacionMasivaDTO.Resultado fila = new ResultadoCalificacionMasivaDTO.Resultado(registro.getFila(),
+                estudiante != null ? estudiante.getId() : registro.getEstudianteId(),
+                estudiante != null ? estudiante.getCodigoEstudiante() : registro.getCodigoEstudiante(),
+                estudiante != null ? estudiante.getNombreCompleto() : null,
+                existente != null ? (Long) existente[1] : null, registro.getNota(), null, null);
+            resultado.getResultados().add(fila);
+            
+            String error = validarRegistro(registro, estudiante, existente, dto.isReemplazar(), procesados);
+            if (error != null) {
+                fila.setResultado("ERROR");
+                fila.setMensaje(error);
+                resultado.setErrores(resultado.getErrores() + 1);
+            } else if (existente == null) {
+                inserciones.add(new Object[] {tipoEvaluacion.name(), dto.getDescripcion(), registro.getNota(), dto.getPeso(),
+                    dto.getFechaEvaluacion(), registro.getObservaciones(), ciclo.name(), dto.getAnio(), estudiante.getId(),
+                    materia.getId(), ahora, ahora, registradoPor});
+                insertados.add(fila);
+                fila.setResultado("CREADA");
+                resultado.setCreadas(resultado.getCreadas() + 1);
+            } else if (((BigDecimal) existente[2]).compareTo(registro.getNota()) == 0 && registro.getObservaciones() == null) {
+                fila.setResultado("SIN_CAMBIOS");
+                resultado.setSinCambios(resultado.getSinCambios() + 1);
+            } else {
+                actualizaciones.add(new Object[] {registro.getNota(), registro.getObservaciones(), ahora,
+                    "Registro masivo de notas", registradoPor, ahora, existente[1]});
+                fila.setResultado("ACTUALIZADA");
+                fila.setMensaje("Nota anterior: " + existente[2]);
+                resultado.setActualizadas(resultado.getActualizadas() + 1);
+            }
+        }
+        resultado.getResultados().sort(Comparator.comparing(ResultadoCalificacionMasivaDTO.Resultado::getFila,
+            Comparator.nullsLast(Comparator.naturalOrder())));
+        
+        // Todo o nada: con una sola fila inválida la planilla se corrige y se vuelve a enviar completa
+        if (resultado.getErrores() > 0 || dto.isSoloValidar()) {
+            return resultado;
+        }
+        
+        for (int desde = 0; desde < actualizaciones.size(); desde += TAMANO_LOTE) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, actualizaciones.subList(desde, Math.min(desde + TAMANO_LOTE, actualizaciones.size())),
+                new int[] {Types.NUMERIC, Types.VARCHAR, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.BIGINT});
+        }
+        for (int desde = 0; desde < inserciones.size(); desde += TAMANO_LOTE) {
+            int hasta = Math.min(desde + TAMANO_LOTE, inserciones.size());
+            List<Long> idsInsertados = insertarEnLote(inserciones.subList(desde, hasta));
+            for (int i = 0; i < idsInsertados.size(); i++) {
+                insertados.get(desde + i).setCalificacionId(idsInsertados.get(i));
+            }
+        }
+        resultado.setGuardado(true);
+        return resultado;
+    }
+    
+    /**
+     * Datos comunes de la evaluación; en la importación llegan como parámetros y no pasan por @Valid
+     */
+    private void validarEvaluacion(CalificacionMasivaDTO dto) {
+        if (dto.getDescripcion() == null || dto.getDescripcion().isBlank() || dto.getDescripcion().length() > 200) {
+            throw new RuntimeException("La descripción es obligatoria y no puede exceder 200 caracteres");
+        }
+        if (dto.getFechaEvaluacion() == null || dto.getAnio() == null) {
+            throw new RuntimeException("La fecha de evaluación y el año son obligatorios");
+        }
+        if (dto.getPeso() == null || dto.getPeso().compareTo(BigDecimal.ZERO) < 0
+                || dto.getPeso().compareTo(new BigDecimal("100.0")) > 0) {
+            throw new RuntimeException("El peso debe estar entre 0 y 100");
+        }
+    }
+    
+    private String validarRegistro(CalificacionMasivaDTO.Registro registro, Usuario estudiante, Object[] existente,
+                                   boolean reemplazar, Set<Long> procesados) {
+        if (registro.getEstudianteId() == null
+                && (registro.getCodigoEstudiante() == null || registro.getCodigoEstudiante().isBlank())) {
+            return "Debe indicar el estudiante";
+        }
+        if (estudiante == null || Boolean.TRUE.equals(estudiante.getEliminado())) {
+            return "Estudiante no encontrado";
+        }
+        if (!estudiante.esEstudiante()) {
+            return "El usuario no es un estudiante";
+        }
+        if (!procesados.add(estudiante.getId())) {
+            return "Estudiante repetido en la lista";
+        }
+        BigDecimal nota = registro.getNota();
+        if (nota == null) {
+            return "La nota es obligatoria";
+        }
+        if (nota.compareTo(BigDecimal.ZERO) < 0 || nota.compareTo(new BigDecimal("20.0")) > 0) {
+            return "La nota debe estar entre 0 y 20";
+        }
+        if (nota.stripTrailingZeros().scale() > 2) {
+            return "La nota admite como máximo dos decimales";
+        }
+        if (registro.getObservaciones() != null && registro.getObservaciones().length() > 500) {
+            return "Las observaciones no pueden exceder 500 caracteres";
+        }
+        if (existente != null && !reemplazar) {
+            return "Ya existe una calificación de este tipo para esta fecha";
+        }
+        return null;
+    }
+    
+    /**
+     * Insertar un lote de calificaciones en un único batch y devolver sus ids en el mismo orden
+     */
+    private List<Long> insertarEnLote(List<Object[]> inserciones) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            con -> con.prepareStatement(INSERT_SQL, new String[] {"id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Object[] fila = inserciones.get(i);
+                    ps.setString(1, (String) fila[0]);
+                    ps.setString(2, (String) fila[1]);
+                    ps.setBigDecimal(3, (BigDecimal) fila[2]);
+                    ps.setBigDecimal(4, (BigDecimal) fila[3]);
+                    ps.setObject(5, fila[4]);
+                    ps.setString(6, (String) fila[5]);
+                    ps.setString(7, (String) fila[6]);
+                    ps.setInt(8, (Integer) fila[7]);
+                    ps.setLong(9, (Long) fila[8]);
+                    ps.setLong(10, (Long) fila[9]);
+                    ps.setTimestamp(11, (Timestamp) fila[10]);
+                    ps.setTimestamp(12, (Timestamp) fila[11]);
+                    ps.setString(13, (String) fila[12]);
+                }
+                
+                @Override
+                public int getBatchSize() {
+                    return inserciones.size();
+                }
+            },
+            keyHolder);
+        return keyHolder.getKeyList().stream()
+            .map(claves -> ((Number) claves.get("id")).longValue())
+            .toList();
+    }
+    
     /**
      * Actualizar calificación existente
      */
@@ -169,123 +440,121 @@ public class CalificacionService {
     }
     
     /**
-     * Calcular promedio de un estudiante en una materia
+     * Calcular promedio de un estudiante en una materia (desde el resumen de calificaciones)
      */
     @Transactional(readOnly = true)
     public BigDecimal calcularPromedioEstudianteMateria(Long estudianteId, Long materiaId) {
-        Usuario estudiante = usuarioRepository.findById(estudianteId)
-            .orElseThrow(() -> new RuntimeException("Estudiante no encontrado"));
-        
-        Materia materia = materiaRepository.findById(materiaId)
-            .orElseThrow(() -> new RuntimeException("Materia no encontrada"));
-        
-        BigDecimal promedio = calificacionRepository.calcularPromedioEstudianteMateria(estudiante, materia);
-        return promedio != null ? promedio.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+        ResumenCalificacionRepository.Totales totales = resumenCalificacionRepository.findTotalesEstudianteMateria(estudianteId, materiaId);
+        if (totales.getTotal() == null) {
+            validarEstudianteYMateria(estudianteId, materiaId);
+            return BigDecimal.ZERO;
+        }
+        return totales.getSumaNotas().divide(BigDecimal.valueOf(totales.getTotal()), 2, RoundingMode.HALF_UP);
     }
     
     /**
-     * Calcular promedio ponderado de un estudiante en una materia
+     * Calcular promedio ponderado de un estudiante en una materia (desde el resumen de calificaciones)
      */
     @Transactional(readOnly = true)
     public BigDecimal calcularPromedioPonderado(Long estudianteId, Long materiaId) {
-        Usuario estudiante = usuarioRepository.findById(estudianteId)
-            .orElseThrow(() -> new RuntimeException("Estudiante no encontrado"));
-        
-        Materia materia = materiaRepository.findById(materiaId)
-            .orElseThrow(() -> new RuntimeException("Materia no encontrada"));
-        
-        List<Calificacion> calificaciones = calificacionRepository.findByEstudianteAndMateria(estudiante, materia);
-        
-        if (calificaciones.isEmpty()) {
+        ResumenCalificacionRepository.Totales totales = resumenCalificacionRepository.findTotalesEstudianteMateria(estudianteId, materiaId);
+        if (totales.getTotal() == null) {
+            validarEstudianteYMateria(estudianteId, materiaId);
             return BigDecimal.ZERO;
         }
-        
-        BigDecimal sumaNotas = BigDecimal.ZERO;
-        BigDecimal sumaPesos = BigDecimal.ZERO;
-        
-        for (Calificacion calificacion : calificaciones) {
-            BigDecimal peso = calificacion.getPeso() != null ? calificacion.getPeso() : BigDecimal.ONE;
-            sumaNotas = sumaNotas.add(calificacion.getNota().multiply(peso));
-            sumaPesos = sumaPesos.add(peso);
-        }
-        
-        if (sumaPesos.compareTo(BigDecimal.ZERO) == 0) {
+        if (totales.getSumaPesos().compareTo(BigDecimal.ZERO) == 0) {
             return BigDecimal.ZERO;
         }
-        
-        return sumaNotas.divide(sumaPesos, 2, RoundingMode.HALF_UP);
+        return totales.getSumaPonderada().divide(totales.getSumaPesos(), 2, RoundingMode.HALF_UP);
+    }
+    
+    /**
+     * Sin calificaciones en el resumen: distinguir si el estudiante o la materia no existen
+     */
+    private void validarEstudianteYMateria(Long estudianteId, Long materiaId) {
+        if (!usuarioRepository.existsById(estudianteId)) {
+            throw new RuntimeException("Estudiante no encontrado");
+        }
+        if (!materiaRepository.existsById(materiaId)) {
+            throw new RuntimeException("Materia no encontrada");
+        }
     }
     
     /**
-     * Obtener estadísticas de calificaciones por materia
+     * Obtener estadísticas de calificaciones por materia (desde el resumen de calificaciones)
      */
     @Transactional(readOnly = true)
     public EstadisticasCalificacionDTO obtenerEstadisticasMateria(Long materiaId) {
         Materia materia = materiaRepository.findById(materiaId)
             .orElseThrow(() -> new RuntimeException("Materia no encontrada"));
         
-        BigDecimal promedio = calificacionRepository.calcularPromedioMateria(materia);
-        BigDecimal notaMaxima = calificacionRepository.obtenerNotaMaximaMateria(materia);
-        BigDecimal notaMinima = calificacionRepository.obtenerNotaMinimaMateria(materia);
-        Long totalCalificaciones = calificacionRepository.countCalificacionesMateria(materia);
+        ResumenCalificacionRepository.Totales totales = resumenCalificacionRepository.findTotalesMateria(materiaId);
+        long totalCalificaciones = totales.getTotal() != null ? totales.getTotal() : 0L;
         
         EstadisticasCalificacionDTO estadisticas = new EstadisticasCalificacionDTO();
         estadisticas.setMateriaId(materiaId);
         estadisticas.setMateriaNombre(materia.getNombre());
-        estadisticas.setPromedio(promedio != null ? promedio.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO);
-        estadisticas.setNotaMaxima(notaMaxima != null ? notaMaxima : BigDecimal.ZERO);
-        estadisticas.setNotaMinima(notaMinima != null ? notaMinima : BigDecimal.ZERO);
+        estadisticas.setPromedio(totalCalificaciones > 0
+            ? totales.getSumaNotas().divide(BigDecimal.valueOf(totalCalificaciones), 2, RoundingMode.HALF_UP)
+            : BigDecimal.ZERO);
+        estadisticas.setNotaMaxima(totales.getNotaMaxima() != null ? totales.getNotaMaxima() : BigDecimal.ZERO);
+        estadisticas.setNotaMinima(totales.getNotaMinima() != null ? totales.getNotaMinima() : BigDecimal.ZERO);
         estadisticas.setTotalCalificaciones(totalCalificaciones);
         
         return estadisticas;
     }
     
     /**
-     * Obtener ranking de estudiantes por promedio en una materia
+     * Obtener estudiantes en riesgo académico: promedio de sus notas publicadas menor que 11
+     */
+    @Transactional(readOnly = true)
+    public List<EstudianteEnRiesgoDTO> obtenerEstudiantesEnRiesgo() {
+        return resumenCalificacionRepository.findEstudiantesEnRiesgo(NOTA_APROBATORIA)
+            .stream()
+            .map(fila -> {
+                EstudianteEnRiesgoDTO dto = new EstudianteEnRiesgoDTO();
+                dto.setEstudianteId(fila.getEstudianteId());
+                dto.setEstudianteNombre(fila.getNombres() + " " + fila.getApellidos());
+                dto.setPromedio(fila.getPromedio().setScale(2, RoundingMode.HALF_UP));
+                dto.setEvaluaciones(fila.getEvaluaciones());
+                return dto;
+            })
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Obtener ranking de estudiantes por promedio en una materia (top N, promedio simple)
      */
     @Transactional(readOnly = true)
     public List<RankingEstudianteDTO> obtenerRankingEstudiantes(Long materiaId, Integer limite) {
-        Materia materia = materiaRepository.findById(materiaId)
-            .orElseThrow(() -> new RuntimeException("Materia no encontrada"));
-        
-        // Obtener todas las calificaciones de la materia
-        List<Calificacion> calificaciones = calificacionRepository.findByMateria(materia);
-        
-        // Agrupar por estudiante y calcular promedio
-        Map<Usuario, List<Calificacion>> calificacionesPorEstudiante = calificaciones.stream()
-            .collect(Collectors.groupingBy(Calificacion::getEstudiante));
-        
-        List<RankingEstudianteDTO> ranking = new ArrayList<>();
-        
-        for (Map.Entry<Usuario, List<Calificacion>> entry : calificacionesPorEstudiante.entrySet()) {
-            Usuario estudiante = entry.getKey();
-            List<Calificacion> calificacionesEstudiante = entry.getValue();
-            
-            BigDecimal promedio = calificacionesEstudiante.stream()
-                .map(Calificacion::getNota)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(calificacionesEstudiante.size()), 2, RoundingMode.HALF_UP);
-            
-            RankingEstudianteDTO rankingDTO = new RankingEstudianteDTO();
-            rankingDTO.setEstudianteId(estudiante.getId());
-            rankingDTO.setEstudianteNombre(estudiante.getNombreCompleto());
-            rankingDTO.setPromedio(promedio);
-            
-            ranking.add(rankingDTO);
+        return obtenerRankingEstudiantes(materiaId, limite, 0, false);
+    }
+    
+    /**
+     * Obtener una página del ranking de una materia. El promedio y las posiciones (con empates)
+     * se calculan en PostgreSQL; con ponderado=true el promedio se pondera por el peso de cada evaluación
+     */
+    @Transactional(readOnly = true)
+    public List<RankingEstudianteDTO> obtenerRankingEstudiantes(Long materiaId, Integer limite, Integer pagina, boolean ponderado) {
+        if (!materiaRepository.existsById(materiaId)) {
+            throw new RuntimeException("Materia no encontrada");
         }
         
-        // Ordenar por promedio descendente
-        ranking.sort((a, b) -> b.getPromedio().compareTo(a.getPromedio()));
-        
-        // Asignar posiciones
-        for (int i = 0; i < ranking.size(); i++) {
-            ranking.get(i).setPosicion(i + 1);
-        }
+        int maxResultados = Math.min(limite != null && limite > 0 ? limite : 10, MAXIMO_RANKING);
+        long desde = (long) Math.max(pagina != null ? pagina : 0, 0) * maxResultados;
         
-        // Limitar resultados
-        int maxResultados = limite != null ? limite : 10;
-        return ranking.stream()
-            .limit(maxResultados)
+        return calificacionRepository.findRankingPorMateria(materiaId, ponderado, maxResultados, desde)
+            .stream()
+            .map(fila -> {
+                RankingEstudianteDTO rankingDTO = new RankingEstudianteDTO();
+                rankingDTO.setEstudianteId(fila.getEstudianteId());
+                rankingDTO.setEstudianteNombre(fila.getNombres() + " " + fila.getApellidos());
+                rankingDTO.setPromedio(fila.getPromedio());
+                rankingDTO.setEvaluaciones(fila.getEvaluaciones());
+                rankingDTO.setPosicion(fila.getPosicion().intValue());
+                rankingDTO.setPosicionDensa(fila.getPosicionDensa().intValue());
+                return rankingDTO;
+            })
             .collect(Collectors.toList());
     }
     
@@ -371,7 +640,9 @@ class RankingEstudianteDTO {
     private Long estudianteId;
     private String estudianteNombre;
     private BigDecimal promedio;
-    private Integer posicion;
+    private Long evaluaciones;
+    private Integer posicion; // RANK: tras un empate se salta posiciones (1, 1, 3)
+    private Integer posicionDensa; // DENSE_RANK: sin huecos (1, 1, 2)
     
     // Getters y Setters
     public Long getEstudianteId() { return estudianteId; }
@@ -383,6 +654,35 @@ class RankingEstudianteDTO {
     public BigDecimal getPromedio() { return promedio; }
     public void setPromedio(BigDecimal promedio) { this.promedio = promedio; }
     
+    public Long getEvaluaciones() { return evaluaciones; }
+    public void setEvaluaciones(Long evaluaciones) { this.evaluaciones = evaluaciones; }
+    
     public Integer getPosicion() { return posicion; }
     public void setPosicion(Integer posicion) { this.posicion = posicion; }
+    
+    public Integer getPosicionDensa() { return posicionDensa; }
+    public void setPosicionDensa(Integer posicionDensa) { this.posicionDensa = posicionDensa; }
+}
+
+/**
+ * DTO para estudiantes en riesgo académico
+ */
+class EstudianteEnRiesgoDTO {
+    private Long estudianteId;
+    private String estudianteNombre;
+    private BigDecimal promedio;
+    private Long evaluaciones;
+    
+    // Getters y Setters
+    public Long getEstudianteId() { return estudianteId; }
+    public void setEstudianteId(Long estudianteId) { this.estudianteId = estudianteId; }
+    
+    public String getEstudianteNombre() { return estudianteNombre; }
+    public void setEstudianteNombre(String estudianteNombre) { this.estudianteNombre = estudianteNombre; }
+    
+    public BigDecimal getPromedio() { return promedio; }
+    public void setPromedio(BigDecimal promedio) { this.promedio = promedio; }
+    
+    public Long getEvaluaciones() { return evaluaciones; }
+    public void setEvaluaciones(Long evaluaciones) { this.evaluaciones = evaluaciones; }
 }
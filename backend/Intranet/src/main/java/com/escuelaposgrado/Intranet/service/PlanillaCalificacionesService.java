@@ -0,0 +1,262 @@
+package com.escuelaposgrado.Intranet.service;
+
+import com.escuelaposgrado.Intranet.dto.CalificacionMasivaDTO;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lectura en streaming de planillas de notas (.csv o .xlsx).
+ *
+ * La cabecera (puede ir después de algunas filas de título) debe tener las columnas Código (código de estudiante)
+ * y Nota; Observaciones es opcional y el resto de columnas (por ejemplo, el nombre) se ignora.
+ * El CSV se lee línea a línea y el Excel con el parser SAX de POI, sin cargar el libro en memoria.
+ */
+@Service
+public class PlanillaCalificacionesService {
+    
+    public static final int MAXIMO_FILAS = 2000;
+    
+    /**
+     * Filas leídas de la planilla y errores de lectura por número de fila de la planilla
+     */
+    public record Planilla(List<CalificacionMasivaDTO.Registro> registros, Map<Integer, String> errores) {}
+    
+    public Planilla leer(MultipartFile archivo) {
+        String nombre = archivo.getOriginalFilename() != null ? archivo.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+        try {
+            if (nombre.endsWith(".xlsx")) {
+                return leerExcel(archivo);
+            }
+            if (nombre.endsWith(".csv")) {
+                return leerCsv(archivo);
+            }
+        } catch (IOException | OpenXML4JException | SAXException e) {
+            throw new RuntimeException("No se pudo leer la planilla: " + e.getMessage());
+        }
+        throw new RuntimeException("Formato no soportado, use una planilla .csv o .xlsx");
+    }
+    
+    private Planilla leerCsv(MultipartFile archivo) throws IOException {
+        Lector lector = new Lector();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(archivo.getInputStream(), StandardCharsets.UTF_8))) {
+            String linea;
+            int numero = 0;
+            char separador = ',';
+            while ((linea = reader.readLine()) != null) {
+                numero++;
+                if (numero == 1 && linea.startsWith("\uFEFF")) {
+                    linea = linea.substring(1);
+                }
+                // Excel en español exporta CSV separado por punto y coma
+                if (!lector.tieneCabecera() && linea.indexOf(';') >= 0 && linea.indexOf(',') < 0) {
+                    separador = ';';
+                }
+                lector.fila(numero, dividir(linea, separador));
+            }
+        }
+        return lector.planilla();
+    }
+    
+    private Planilla leerExcel(MultipartFile archivo) throws IOException, OpenXML4JException, SAXException {
+        Path temporal = Files.createTempFile("planilla-notas", ".xlsx");
+        try {
+            archivo.transferTo(temporal);
+            try (OPCPackage pkg = OPCPackage.open(temporal.toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                Lector lector = new Lector();
+                
+                XSSFSheetXMLHandler.SheetContentsHandler filas = new XSSFSheetXMLHandler.SheetContentsHandler() {
+                    private final List<String> valores = new ArrayList<>();
+                    
+                    @Override
+                    public void startRow(int rowNum) {
+                        valores.clear();
+                    }
+                    
+                    @Override
+                    public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+                        int columna = new CellReference(cellReference).getCol();
+                        while (valores.size() <= columna) {
+                            valores.add("");
+                        }
+                        valores.set(columna, formattedValue != null ? formattedValue : "");
+                    }
+                    
+                    @Override
+                    public void endRow(int rowNum) {
+                        lector.fila(rowNum + 1, valores);
+                    }
+                };
+                
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null,
+                    new ReadOnlySharedStringsTable(pkg), filas, new DataFormatter(), false));
+                Iterator<InputStream> hojas = reader.getSheetsData();
+                if (hojas.hasNext()) {
+                    try (InputStream hoja = hojas.next()) {
+                        parser.parse(new InputSource(hoja));
+                    }
+                }
+                return lector.planilla();
+            } catch (ParserConfigurationException e) {
+                throw new SAXException(e);
+            }
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+    
+    /**
+     * Separar una línea CSV respetando los valores entre comillas
+     */
+    private List<String> dividir(String linea, char separador) {
+        List<String> valores = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (c == '"') {
+                if (entreComillas && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else {
+                    entreComillas = !entreComillas;
+                }
+            } else if (c == separador && !entreComillas) {
+                valores.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        valores.add(actual.toString());
+        return valores;
+    }
+    
+    /**
+     * Convierte las filas (de cualquiera de los dos formatos) en registros a medida que llegan
+     */
+    private static class Lector {
+        
+        private static final int FILAS_TITULO = 10;
+        
+        private int columnaCodigo = -1;
+        private int columnaNota = -1;
+        private int columnaObservaciones = -1;
+        private int filasSinCabecera = 0;
+        private final List<CalificacionMasivaDTO.Registro> registros = new ArrayList<>();
+        private final Map<Integer, String> errores = new LinkedHashMap<>();
+        
+        boolean tieneCabecera() {
+            return columnaCodigo >= 0;
+        }
+        
+        void fila(int numero, List<String> valores) {
+            if (valores.stream().allMatch(String::isBlank)) {
+                return;
+            }
+            // La cabecera puede ir precedida de algunas filas de título
+            if (!tieneCabecera()) {
+                if (!leerCabecera(valores) && ++filasSinCabecera >= FILAS_TITULO) {
+                    throw new RuntimeException("La cabecera de la planilla debe tener las columnas Código y Nota");
+                }
+                return;
+            }
+            if (registros.size() + errores.size() >= MAXIMO_FILAS) {
+                throw new RuntimeException("La planilla excede el máximo de " + MAXIMO_FILAS + " filas");
+            }
+            
+            String codigo = valor(valores, columnaCodigo);
+            String nota = valor(valores, columnaNota);
+            if (codigo.isEmpty() && nota.isEmpty()) {
+                return;
+            }
+            
+            CalificacionMasivaDTO.Registro registro = new CalificacionMasivaDTO.Registro();
+            registro.setFila(numero);
+            registro.setCodigoEstudiante(codigo.isEmpty() ? null : codigo);
+            String observaciones = valor(valores, columnaObservaciones);
+            registro.setObservaciones(observaciones.isEmpty() ? null : observaciones);
+            if (!nota.isEmpty()) {
+                try {
+                    registro.setNota(new BigDecimal(nota.replace(',', '.')));
+                } catch (NumberFormatException e) {
+                    errores.put(numero, "Nota inválida: " + nota);
+                    return;
+                }
+            }
+            registros.add(registro);
+        }
+        
+        private boolean leerCabecera(List<String> valores) {
+            int codigo = -1;
+            int nota = -1;
+            int observaciones = -1;
+            for (int i = 0; i < valores.size(); i++) {
+                String columna = normalizar(valores.get(i));
+                if (codigo < 0 && columna.startsWith("codigo")) {
+                    codigo = i;
+                } else if (nota < 0 && columna.startsWith("nota")) {
+                    nota = i;
+                } else if (observaciones < 0 && columna.startsWith("observ")) {
+                    observaciones = i;
+                }
+            }
+            if (codigo < 0 || nota < 0) {
+                return false;
+            }
+            columnaCodigo = codigo;
+            columnaNota = nota;
+            columnaObservaciones = observaciones;
+            return true;
+        }
+        
+        private String valor(List<String> valores, int columna) {
+            return columna >= 0 && columna < valores.size() ? valores.get(columna).trim() : "";
+        }
+        
+        private String normalizar(String texto) {
+            return Normalizer.normalize(texto.trim().toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+        }
+        
+        Planilla planilla() {
+            if (!tieneCabecera()) {
+                throw new RuntimeException(filasSinCabecera == 0 ? "La planilla está vacía"
+                    : "La cabecera de la planilla debe tener las columnas Código y Nota");
+            }
+            return new Planilla(registros, errores);
+        }
+    }
+}
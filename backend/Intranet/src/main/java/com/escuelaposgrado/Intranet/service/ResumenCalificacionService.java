@@ -0,0 +1,200 @@
+package com.escuelaposgrado.Intranet.service;
+
+import com.escuelaposgrado.Intranet.dto.VerificacionResumenDTO;
+import com.escuelaposgrado.Intranet.repository.ResumenCalificacionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Mantiene calificaciones_resumen: sumas, conteos, nota máxima y mínima de las calificaciones
+ * por estudiante, materia, ciclo y año, que leen los promedios, las estadísticas, el ranking y
+ * la detección de estudiantes en riesgo en lugar de recorrer calificaciones.
+ *
+ * Un disparador sobre calificaciones resta la fila anterior y suma la nueva en la misma
+ * transacción del cambio, así que registrar, corregir, publicar o eliminar una nota (también por
+ * JDBC, como el registro masivo) actualiza el resumen. La máxima y la mínima solo se recalculan
+ * desde calificaciones cuando se quita la nota que era el extremo. Cada escritor bloquea la fila
+ * del resumen que modifica, por lo que los cambios concurrentes del mismo grupo se aplican en orden.
+ *
+ * reconstruir() vuelve a calcular toda la tabla y verificar() compara el resumen con las
+ * calificaciones y opcionalmente repara los grupos que no coinciden; la verificación también se
+ * ejecuta cada app.resumenCalificaciones.verificacionIntervaloMs.
+ */
+@Service
+public class ResumenCalificacionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ResumenCalificacionService.class);
+    
+    // Grupos inconsistentes que se devuelven como muestra en la verificación
+    private static final int MUESTRA_INCONSISTENCIAS = 100;
+    
+    private static final String CLAVE = "estudiante_id, materia_id, ciclo, anio";
+    
+    private static final String COLUMNAS = CLAVE + ", total, suma_notas, suma_ponderada, suma_pesos, nota_maxima, " +
+        "nota_minima, publicadas, suma_notas_publicadas, suma_ponderada_publicadas, suma_pesos_publicadas, fecha_actualizacion";
+    
+    // Acumulados calculados desde calificaciones, en el orden de COLUMNAS
+    private static final String AGREGADO_SQL =
+        "SELECT " + CLAVE + ", COUNT(*), SUM(nota), SUM(nota * peso), SUM(peso), MAX(nota), MIN(nota), " +
+        "COUNT(*) FILTER (WHERE publicada), COALESCE(SUM(nota) FILTER (WHERE publicada), 0), " +
+        "COALESCE(SUM(nota * peso) FILTER (WHERE publicada), 0), COALESCE(SUM(peso) FILTER (WHERE publicada), 0), " +
+        "LOCALTIMESTAMP FROM calificaciones ";
+    
+    // Los escritores de calificaciones esperan mientras se reconstruye o repara el resumen
+    private static final String BLOQUEAR_CALIFICACIONES = "LOCK TABLE calificaciones IN SHARE MODE";
+    
+    // Sentencias idempotentes para preparar el disparador
+    private static final List<String> DDL_RESUMEN = List.of(
+        "CREATE OR REPLACE FUNCTION calificaciones_actualizar_resumen() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+        "BEGIN " +
+        "  IF TG_OP = 'UPDATE' AND (OLD.estudiante_id, OLD.materia_id, OLD.ciclo, OLD.anio, OLD.nota, OLD.peso, OLD.publicada) " +
+        "      IS NOT DISTINCT FROM (NEW.estudiante_id, NEW.materia_id, NEW.ciclo, NEW.anio, NEW.nota, NEW.peso, NEW.publicada) THEN " +
+        "    RETURN NULL; " +
+        "  END IF; " +
+        "  IF TG_OP IN ('UPDATE', 'DELETE') THEN " +
+        "    UPDATE calificaciones_resumen SET total = total - 1, suma_notas = suma_notas - OLD.nota, " +
+        "      suma_ponderada = suma_ponderada - OLD.nota * OLD.peso, suma_pesos = suma_pesos - OLD.peso, " +
+        "      publicadas = publicadas - CASE WHEN OLD.publicada THEN 1 ELSE 0 END, " +
+        "      suma_notas_publicadas = suma_notas_publicadas - CASE WHEN OLD.publicada THEN OLD.nota ELSE 0 END, " +
+        "      suma_ponderada_publicadas = suma_ponderada_publicadas - CASE WHEN OLD.publicada THEN OLD.nota * OLD.peso ELSE 0 END, " +
+        "      suma_pesos_publicadas = suma_pesos_publicadas - CASE WHEN OLD.publicada THEN OLD.peso ELSE 0 END, " +
+        "      fecha_actualizacion = LOCALTIMESTAMP " +
+        "    WHERE estudiante_id = OLD.estudiante_id AND materia_id = OLD.materia_id AND ciclo = OLD.ciclo AND anio = OLD.anio; " +
+        "  END IF; " +
+        "  IF TG_OP IN ('INSERT', 'UPDATE') THEN " +
+        "    INSERT INTO calificaciones_resumen (" + COLUMNAS + ") " +
+        "    VALUES (NEW.estudiante_id, NEW.materia_id, NEW.ciclo, NEW.anio, 1, NEW.nota, NEW.nota * NEW.peso, NEW.peso, " +
+        "      NEW.nota, NEW.nota, CASE WHEN NEW.publicada THEN 1 ELSE 0 END, CASE WHEN NEW.publicada THEN NEW.nota ELSE 0 END, " +
+        "      CASE WHEN NEW.publicada THEN NEW.nota * NEW.peso ELSE 0 END, CASE WHEN NEW.publicada THEN NEW.peso ELSE 0 END, " +
+        "      LOCALTIMESTAMP) " +
+        "    ON CONFLICT (" + CLAVE + ") DO UPDATE SET total = calificaciones_resumen.total + 1, " +
+        "      suma_notas = calificaciones_resumen.suma_notas + EXCLUDED.suma_notas, " +
+        "      suma_ponderada = calificaciones_resumen.suma_ponderada + EXCLUDED.suma_ponderada, " +
+        "      suma_pesos = calificaciones_resumen.suma_pesos + EXCLUDED.suma_pesos, " +
+        "      nota_maxima = GREATEST(calificaciones_resumen.nota_maxima, EXCLUDED.nota_maxima), " +
+        "      nota_minima = LEAST(calificaciones_resumen.nota_minima, EXCLUDED.nota_minima), " +
+        "      publicadas = calificaciones_resumen.publicadas + EXCLUDED.publicadas, " +
+        "      suma_notas_publicadas = calificaciones_resumen.suma_notas_publicadas + EXCLUDED.suma_notas_publicadas, " +
+        "      suma_ponderada_publicadas = calificaciones_resumen.suma_ponderada_publicadas + EXCLUDED.suma_ponderada_publicadas, " +
+        "      suma_pesos_publicadas = calificaciones_resumen.suma_pesos_publicadas + EXCLUDED.suma_pesos_publicadas, " +
+        "      fecha_actualizacion = EXCLUDED.fecha_actualizacion; " +
+        "  END IF; " +
+        "  IF TG_OP IN ('UPDATE', 'DELETE') THEN " +
+        "    DELETE FROM calificaciones_resumen WHERE estudiante_id = OLD.estudiante_id AND materia_id = OLD.materia_id " +
+        "      AND ciclo = OLD.ciclo AND anio = OLD.anio AND total = 0; " +
+        "    UPDATE calificaciones_resumen r SET nota_maxima = m.maxima, nota_minima = m.minima " +
+        "    FROM (SELECT MAX(nota) AS maxima, MIN(nota) AS minima FROM calificaciones WHERE estudiante_id = OLD.estudiante_id " +
+        "          AND materia_id = OLD.materia_id AND ciclo = OLD.ciclo AND anio = OLD.anio) m " +
+        "    WHERE r.estudiante_id = OLD.estudiante_id AND r.materia_id = OLD.materia_id AND r.ciclo = OLD.ciclo " +
+        "      AND r.anio = OLD.anio AND (OLD.nota >= r.nota_maxima OR OLD.nota <= r.nota_minima); " +
+        "  END IF; " +
+        "  RETURN NULL; " +
+        "END $$",
+        "CREATE OR REPLACE TRIGGER calificaciones_resumen_actualizar AFTER INSERT OR UPDATE OR DELETE ON calificaciones " +
+        "FOR EACH ROW EXECUTE FUNCTION calificaciones_actualizar_resumen()",
+        // Primera vez: calcular el resumen de las calificaciones existentes
+        "INSERT INTO calificaciones_resumen (" + COLUMNAS + ") " + AGREGADO_SQL +
+        "WHERE NOT EXISTS (SELECT 1 FROM calificaciones_resumen) GROUP BY " + CLAVE
+    );
+    
+    // Grupos cuyo resumen no coincide con las calificaciones (o que sobran o faltan en el resumen)
+    private static final String INCONSISTENCIAS_SQL =
+        "WITH real (" + COLUMNAS + ") AS (" + AGREGADO_SQL + "GROUP BY " + CLAVE + ") " +
+        "SELECT COALESCE(x.estudiante_id, r.estudiante_id) AS estudiante_id, COALESCE(x.materia_id, r.materia_id) AS materia_id, " +
+        "COALESCE(x.ciclo, r.ciclo) AS ciclo, COALESCE(x.anio, r.anio) AS anio " +
+        "FROM real x FULL JOIN calificaciones_resumen r ON r.estudiante_id = x.estudiante_id AND r.materia_id = x.materia_id " +
+        "AND r.ciclo = x.ciclo AND r.anio = x.anio " +
+        "WHERE (x.total, x.suma_notas, x.suma_ponderada, x.suma_pesos, x.nota_maxima, x.nota_minima, x.publicadas, " +
+        "x.suma_notas_publicadas, x.suma_ponderada_publicadas, x.suma_pesos_publicadas) " +
+        "IS DISTINCT FROM (r.total, r.suma_notas, r.suma_ponderada, r.suma_pesos, r.nota_maxima, r.nota_minima, " +
+        "r.publicadas, r.suma_notas_publicadas, r.suma_ponderada_publicadas, r.suma_pesos_publicadas)";
+    
+    private static final String CONDICION_GRUPO = "WHERE estudiante_id = ? AND materia_id = ? AND ciclo = ? AND anio = ? ";
+    
+    @Autowired
+    private ResumenCalificacionRepository resumenCalificacionRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    public void crearDisparador() {
+        try {
+            transactionTemplate.executeWithoutResult(estado -> {
+                jdbcTemplate.execute(BLOQUEAR_CALIFICACIONES);
+                DDL_RESUMEN.forEach(jdbcTemplate::execute);
+            });
+        } catch (DataAccessException e) {
+            logger.error("No se pudo crear el disparador del resumen de calificaciones; las estadísticas no se actualizarán: {}",
+                e.getMostSpecificCause().getMessage());
+        }
+    }
+    
+    /**
+     * Volver a calcular todo el resumen desde calificaciones. Devuelve el número de grupos
+     */
+    public long reconstruir() {
+        Integer grupos = transactionTemplate.execute(estado -> {
+            jdbcTemplate.execute(BLOQUEAR_CALIFICACIONES);
+            jdbcTemplate.update("DELETE FROM calificaciones_resumen");
+            return jdbcTemplate.update("INSERT INTO calificaciones_resumen (" + COLUMNAS + ") " + AGREGADO_SQL + "GROUP BY " + CLAVE);
+        });
+        logger.info("Resumen de calificaciones reconstruido: {} grupos", grupos);
+        return grupos != null ? grupos : 0;
+    }
+    
+    /**
+     * Comparar el resumen con las calificaciones y, si reparar es true, recalcular los grupos que no coinciden
+     */
+    public VerificacionResumenDTO verificar(boolean reparar) {
+        VerificacionResumenDTO verificacion = new VerificacionResumenDTO();
+        verificacion.setGrupos(resumenCalificacionRepository.count());
+        
+        List<Object[]> inconsistentes = jdbcTemplate.query(INCONSISTENCIAS_SQL, (rs, i) -> new Object[] {
+            rs.getLong("estudiante_id"), rs.getLong("materia_id"), rs.getString("ciclo"), rs.getInt("anio")});
+        verificacion.setInconsistentes(inconsistentes.size());
+        inconsistentes.stream().limit(MUESTRA_INCONSISTENCIAS).forEach(grupo -> verificacion.getMuestra().add(
+            new VerificacionResumenDTO.Grupo((Long) grupo[0], (Long) grupo[1], (String) grupo[2], (Integer) grupo[3])));
+        
+        if (reparar && !inconsistentes.isEmpty()) {
+            transactionTemplate.executeWithoutResult(estado -> {
+                jdbcTemplate.execute(BLOQUEAR_CALIFICACIONES);
+                jdbcTemplate.batchUpdate("DELETE FROM calificaciones_resumen " + CONDICION_GRUPO, inconsistentes);
+                jdbcTemplate.batchUpdate("INSERT INTO calificaciones_resumen (" + COLUMNAS + ") " + AGREGADO_SQL +
+                    CONDICION_GRUPO + "GROUP BY " + CLAVE, inconsistentes);
+            });
+            verificacion.setReparados(inconsistentes.size());
+        }
+        return verificacion;
+    }
+    
+    /**
+     * Verificación periódica: registra y repara las diferencias, que no deberían existir
+     * salvo por cambios hechos con el disparador deshabilitado
+     */
+    @Scheduled(fixedDelayString = "${app.resumenCalificaciones.verificacionIntervaloMs:86400000}",
+               initialDelayString = "${app.resumenCalificaciones.verificacionIntervaloMs:86400000}")
+    public void verificarPeriodicamente() {
+        try {
+            VerificacionResumenDTO verificacion = verificar(true);
+            if (verificacion.getInconsistentes() > 0) {
+                logger.warn("Resumen de calificaciones: {} grupos no coincidían con las calificaciones y se repararon (muestra: {})",
+                    verificacion.getInconsistentes(), verificacion.getMuestra().stream().limit(5).toList());
+            }
+        } catch (DataAccessException e) {
+            logger.error("No se pudo verificar el resumen de calificaciones: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.escuelaposgrado.Intranet.service;
+
+import com.escuelaposgrado.Intranet.model.EstadoSincronizacion;
+import com.escuelaposgrado.Intranet.model.Role;
+import com.escuelaposgrado.Intranet.model.Usuario;
+import com.escuelaposgrado.Intranet.repository.EstadoSincronizacionRepository;
+import com.escuelaposgrado.Intranet.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Mantiene la tabla usuarios de Intranet sincronizada con el servicio de autenticación.
+ *
+ * Cada app.sincronizacionUsuarios.intervaloMs consulta /api/auth/eventos-usuarios desde la
+ * última posición aplicada y procesa las páginas en lote: una consulta para localizar los
+ * usuarios locales de toda la página y una transacción que guarda los cambios junto con la
+ * nueva posición. Cada evento trae el estado vigente del usuario, así que aplicarlo dos veces
+ * no cambia el resultado. Los usuarios se enlazan por usuario_auth_id y, la primera vez, por
+ * username o email. Las bajas se marcan como eliminado para conservar asistencias y notas.
+ */
+@Service
+public class SincronizacionUsuariosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SincronizacionUsuariosService.class);
+
+    private static final String NOMBRE = "usuarios";
+    private static final String CABECERA_CLAVE_SERVICIO = "X-Service-Key";
+    private static final String EVENTOS_PATH = "/api/auth/eventos-usuarios";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final int TAMANIO_PAGINA = 500;
+    // Máximo de páginas por ejecución, para no acaparar el hilo de tareas programadas
+    private static final int PAGINAS_POR_EJECUCION = 20;
+    // Los usuarios creados por sincronización inician sesión en Autenticación, no aquí
+    private static final String PASSWORD_EXTERNO = "{externo}";
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EstadoSincronizacionRepository estadoSincronizacionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final RestClient restClient;
+    private final String claveServicio;
+
+    public SincronizacionUsuariosService(@Value("${app.autenticacion.url:http://localhost:8080}") String autenticacionUrl,
+                                         @Value("${app.revocaciones.claveServicio}") String claveServicio) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(TIMEOUT);
+        requestFactory.setReadTimeout(TIMEOUT);
+        this.restClient = RestClient.builder()
+                .baseUrl(autenticacionUrl)
+                .requestFactory(requestFactory)
+                .build();
+        this.claveServicio = claveServicio;
+    }
+
+    /**
+     * Aplicar los eventos pendientes
+     */
+    @Scheduled(fixedDelayString = "${app.sincronizacionUsuarios.intervaloMs:5000}")
+    public void sincronizar() {
+        EstadoSincronizacion estado = estadoSincronizacionRepository.findById(NOMBRE)
+                .orElseGet(() -> new EstadoSincronizacion(NOMBRE));
+        try {
+            for (int i = 0; i < PAGINAS_POR_EJECUCION; i++) {
+                Pagina pagina = restClient.get()
+                        .uri(uri -> uri.path(EVENTOS_PATH)
+                                .queryParam("desdeTransaccion", estado.getTransaccion())
+                                .queryParam("desdeId", estado.getEventoId())
+                                .queryParam("limite", TAMANIO_PAGINA)
+                                .build())
+                        .header(CABECERA_CLAVE_SERVICIO, claveServicio)
+                        .retrieve()
+                        .body(Pagina.class);
+                if (pagina == null || pagina.eventos().isEmpty()) {
+                    return;
+                }
+                if (!aplicarPagina(pagina, estado) || !pagina.hayMas()) {
+                    return;
+                }
+            }
+        } catch (RestClientException e) {
+            logger.warn("No se pudieron obtener los eventos de usuarios: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Aplicar una página y avanzar la posición; devuelve false si un evento falló y la
+     * posición quedó detenida antes de él
+     */
+    private boolean aplicarPagina(Pagina pagina, EstadoSincronizacion estado) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                aplicar(pagina.eventos());
+                avanzar(estado, pagina.hastaTransaccion(), pagina.hastaId());
+            });
+            logger.debug("Aplicados {} eventos de usuarios", pagina.eventos().size());
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Error al aplicar la página de eventos de usuarios, se aplicarán uno a uno: {}", e.getMessage());
+        }
+        // Uno a uno, guardando la posición con cada evento; el primero que falla (p. ej. DNI
+        // duplicado localmente) detiene la posición para reintentarlo en la próxima ejecución
+        for (Evento evento : pagina.eventos()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    aplicar(List.of(evento));
+                    avanzar(estado, evento.transaccion(), evento.id());
+                });
+            } catch (RuntimeException e) {
+                logger.error("No se pudo aplicar el evento {} del usuario {}, se reintentará: {}",
+                        evento.id(), evento.usuarioId(), e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void avanzar(EstadoSincronizacion estado, long transaccion, long eventoId) {
+        estado.setTransaccion(transaccion);
+        estado.setEventoId(eventoId);
+        estado.setFechaActualizacion(LocalDateTime.now());
+        estadoSincronizacionRepository.save(estado);
+    }
+
+    private void aplicar(List<Evento> eventos) {
+        // Todos los eventos de un usuario traen el mismo estado vigente: basta el último
+        Map<Long, Evento> porUsuario = new LinkedHashMap<>();
+        eventos.forEach(evento -> porUsuario.put(evento.usuarioId(), evento));
+
+        Map<Long, Usuario> enlazados = indexar(usuarioRepository.findByUsuarioAuthIdIn(porUsuario.keySet()),
+                Usuario::getUsuarioAuthId);
+        List<Evento> sinEnlazar = porUsuario.values().stream()
+                .filter(evento -> !enlazados.containsKey(evento.usuarioId()) && !evento.esBaja())
+                .toList();
+        Map<String, Usuario> porUsername = indexar(usuarioRepository.findByUsernameIn(
+                valores(sinEnlazar, Evento::username)), Usuario::getUsername);
+        Map<String, Usuario> porEmail = indexar(usuarioRepository.findByEmailIn(
+                valores(sinEnlazar, Evento::email)), Usuario::getEmail);
+
+        List<Usuario> cambios = new ArrayList<>();
+        for (Evento evento : porUsuario.values()) {
+            Usuario usuario = enlazados.get(evento.usuarioId());
+            if (evento.esBaja()) {
+                if (usuario != null) {
+                    usuario.setActivo(false);
+                    usuario.setEliminado(true);
+                    cambios.add(usuario);
+                }
+                continue;
+            }
+            if (usuario == null) {
+                usuario = porUsername.get(evento.username());
+            }
+            if (usuario == null) {
+                usuario = porEmail.get(evento.email());
+            }
+            if (usuario == null) {
+                usuario = new Usuario();
+                usuario.setPassword(PASSWORD_EXTERNO);
+            }
+            copiar(evento, usuario);
+            cambios.add(usuario);
+        }
+        usuarioRepository.saveAll(cambios);
+    }
+
+    private void copiar(Evento evento, Usuario usuario) {
+        usuario.setUsuarioAuthId(evento.usuarioId());
+        usuario.setUsername(evento.username());
+        usuario.setEmail(evento.email());
+        usuario.setNombres(evento.nombres());
+        usuario.setApellidos(evento.apellidos());
+        usuario.setDni(evento.dni());
+        usuario.setTelefono(evento.telefono());
+        usuario.setDireccion(evento.direccion());
+        usuario.setRole(evento.role() != null ? Role.valueOf(evento.role()) : null);
+        usuario.setCodigoEstudiante(evento.codigoEstudiante());
+        usuario.setCodigoDocente(evento.codigoDocente());
+        usuario.setEspecialidad(evento.especialidad());
+        usuario.setProgramaInteres(evento.programaInteres());
+        usuario.setActivo(evento.activo());
+        usuario.setEliminado(false);
+    }
+
+    private static <K> Map<K, Usuario> indexar(List<Usuario> usuarios, Function<Usuario, K> clave) {
+        return usuarios.stream().collect(Collectors.toMap(clave, Function.identity(), (a, b) -> a));
+    }
+
+    private static Collection<String> valores(List<Evento> eventos, Function<Evento, String> campo) {
+        return eventos.stream().map(campo).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    /**
+     * Respuesta de /api/auth/eventos-usuarios
+     */
+    public record Pagina(long hastaTransaccion, long hastaId, boolean hayMas, List<Evento> eventos) {}
+
+    public record Evento(long id, long transaccion, String tipo, Long usuarioId, String username, String email, String nombres,
+                         String apellidos, String dni, String telefono, String direccion, String role,
+                         boolean activo, String codigoEstudiante, String codigoDocente, String especialidad,
+                         String programaInteres) {
+
+        boolean esBaja() {
+            return "ELIMINADO".equals(tipo);
+        }
+    }
+}
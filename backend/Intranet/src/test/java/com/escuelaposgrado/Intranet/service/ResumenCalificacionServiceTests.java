@@ -0,0 +1,86 @@
+package com.escuelaposgrado.Intranet.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.escuelaposgrado.Intranet.dto.VerificacionResumenDTO;
+import com.escuelaposgrado.Intranet.model.Calificacion;
+import com.escuelaposgrado.Intranet.model.Ciclo;
+import com.escuelaposgrado.Intranet.model.Materia;
+import com.escuelaposgrado.Intranet.model.Role;
+import com.escuelaposgrado.Intranet.model.TipoEvaluacion;
+import com.escuelaposgrado.Intranet.model.Usuario;
+import com.escuelaposgrado.Intranet.repository.CalificacionRepository;
+import com.escuelaposgrado.Intranet.repository.MateriaRepository;
+import com.escuelaposgrado.Intranet.repository.UsuarioRepository;
+
+/**
+ * El disparador de calificaciones debe mantener calificaciones_resumen igual a lo que
+ * verificar() recalcula desde calificaciones. Cada prueba se revierte al terminar.
+ */
+@SpringBootTest
+@Transactional
+class ResumenCalificacionServiceTests {
+
+	@Autowired
+	private ResumenCalificacionService resumenCalificacionService;
+
+	@Autowired
+	private CalificacionRepository calificacionRepository;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private MateriaRepository materiaRepository;
+
+	@Test
+	void elResumenCoincideTrasRegistrarCorregirPublicarYEliminar() {
+		Usuario estudiante = new Usuario("resumen.prueba", "resumen.prueba@example.com", "Prueba", "Resumen", Role.ALUMNO);
+		estudiante.setPassword("{externo}");
+		estudiante = usuarioRepository.saveAndFlush(estudiante);
+
+		Materia materia = new Materia("RESUMEN-PRUEBA", "Materia de prueba del resumen", 3, Ciclo.I);
+		materia.setHorasTeoricas(2);
+		materia.setHorasPracticas(2);
+		materia = materiaRepository.saveAndFlush(materia);
+
+		// Registrar
+		Calificacion parcial = calificacionRepository.saveAndFlush(
+				nueva(TipoEvaluacion.EXAMEN_PARCIAL, "14.00", "30.00", estudiante, materia));
+		Calificacion examenFinal = calificacionRepository.saveAndFlush(
+				nueva(TipoEvaluacion.EXAMEN_FINAL, "9.50", "70.00", estudiante, materia));
+
+		// Corregir la nota que era la mínima
+		examenFinal.setNota(new BigDecimal("16.00"));
+		calificacionRepository.saveAndFlush(examenFinal);
+
+		// Publicar
+		parcial.setPublicada(true);
+		calificacionRepository.saveAndFlush(parcial);
+
+		// Eliminar la nota que era la máxima
+		calificacionRepository.delete(examenFinal);
+		calificacionRepository.flush();
+
+		VerificacionResumenDTO verificacion = resumenCalificacionService.verificar(false);
+		assertEquals(0, verificacion.getInconsistentes(), () -> "Grupos inconsistentes: " + verificacion.getMuestra());
+		assertEquals(0, verificacion.getReparados());
+	}
+
+	private static Calificacion nueva(TipoEvaluacion tipo, String nota, String peso, Usuario estudiante, Materia materia) {
+		Calificacion calificacion = new Calificacion(tipo, tipo.name(), new BigDecimal(nota), new BigDecimal(peso),
+				LocalDate.of(2025, 6, 1), estudiante, materia);
+		calificacion.setCiclo(Ciclo.I);
+		calificacion.setAnio(2025);
+		return calificacion;
+	}
+
+}
@@ -2,8 +2,10 @@ package com.escuelaposgrado.Matricula;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MatriculaApplication {
 
 	public static void main(String[] args) {
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,12 +15,13 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
-import java.util.Collections;
+import java.util.List;
 
 /**
  * Filtro para validar tokens JWT en cada petición del microservicio de Matrícula
@@ -29,6 +31,12 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private RevocacionTokenCache revocacionTokenCache;
+
+    @Autowired
+    private IntrospeccionClient introspeccionClient;
+
     private static final Logger authLogger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -37,14 +45,39 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                                   @NonNull FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            Claims claims = jwt != null ? jwtUtils.getValidatedClaims(jwt) : null;
+            if (claims != null && revocacionTokenCache.estaRevocado(jwtUtils.getUserIdFromClaims(claims), claims.getIssuedAt())) {
+                authLogger.debug("Token rechazado: los tokens de {} fueron revocados", claims.getSubject());
+                claims = null;
+            }
+            // Rol y estado vigentes de la cuenta (caché de introspección); solo si Autenticación no
+            // responde y no hay datos en caché se usan los roles del token
+            IntrospeccionClient.DatosUsuario cuenta = null;
+            if (claims != null) {
+                try {
+                    cuenta = introspeccionClient.getUsuario(jwtUtils.getUserIdFromClaims(claims)).orElse(null);
+                    if (cuenta == null || !cuenta.activo()) {
+                        authLogger.debug("Token rechazado: la cuenta de {} no existe o está desactivada", claims.getSubject());
+                        claims = null;
+                    }
+                } catch (IntrospeccionClient.NoDisponibleException e) {
+                    authLogger.debug("Introspección no disponible, se usan los roles del token de {}", claims.getSubject());
+                }
+            }
+            if (claims != null) {
+                String username = claims.getSubject();
+                List<String> roles = cuenta != null && cuenta.role() != null
+                    ? List.of("ROLE_" + cuenta.role())
+                    : jwtUtils.getRolesFromClaims(claims);
+                List<SimpleGrantedAuthority> authorities = roles.stream()
+                    .map(SimpleGrantedAuthority::new)
+                    .toList();
 
-                // Crear un UserDetails básico para el usuario autenticado
+                // Crear un UserDetails básico con los roles vigentes
                 UserDetails userDetails = User.builder()
                     .username(username)
                     .password("") // No necesitamos la contraseña para validación JWT
-                    .authorities(Collections.emptyList()) // Agregar roles según necesidad
+                    .authorities(authorities)
                     .build();
 
                 UsernamePasswordAuthenticationToken authentication = 
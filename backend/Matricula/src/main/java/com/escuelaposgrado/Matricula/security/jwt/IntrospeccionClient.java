@@ -0,0 +1,170 @@
+package com.escuelaposgrado.Matricula.security.jwt;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+/**
+ * Cliente de /api/auth/introspeccion del servicio de autenticación, con caché local.
+ *
+ * Los datos de cada usuario (rol, estado de la cuenta y nombre) se renuevan en segundo plano
+ * pasado app.introspeccion.ttlMs: mientras tanto se sigue sirviendo el valor anterior, así que
+ * una petición solo espera a Autenticación la primera vez que aparece un usuario, y las
+ * peticiones simultáneas del mismo usuario comparten esa única consulta. Los ids que faltan se
+ * piden juntos (en lotes de MAXIMO_POR_LOTE) y los que Autenticación no conoce también se
+ * guardan, como cuenta inexistente. Si Autenticación no responde se conserva lo que haya en
+ * caché hasta app.introspeccion.expiraMs.
+ *
+ * AuthTokenFilter lo usa para aplicar el rol y el estado vigentes de la cuenta en lugar de
+ * los que trae el token.
+ */
+@Component
+public class IntrospeccionClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntrospeccionClient.class);
+
+    private static final String CABECERA_CLAVE_SERVICIO = "X-Service-Key";
+    private static final String INTROSPECCION_PATH = "/api/auth/introspeccion";
+    private static final Duration TIMEOUT = Duration.ofSeconds(3);
+    private static final int MAXIMO_POR_LOTE = 500;
+
+    // Optional.empty(): Autenticación confirmó que la cuenta no existe
+    private final LoadingCache<Long, Optional<DatosUsuario>> usuarios;
+    private final RestClient restClient;
+    private final String claveServicio;
+
+    public IntrospeccionClient(@Value("${app.autenticacion.url:http://localhost:8080}") String autenticacionUrl,
+                               @Value("${app.revocaciones.claveServicio}") String claveServicio,
+                               @Value("${app.introspeccion.ttlMs:60000}") long ttlMs,
+                               @Value("${app.introspeccion.expiraMs:600000}") long expiraMs,
+                               @Value("${app.introspeccion.maxEntradas:10000}") int maxEntradas) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(TIMEOUT);
+        requestFactory.setReadTimeout(TIMEOUT);
+        this.restClient = RestClient.builder()
+                .baseUrl(autenticacionUrl)
+                .requestFactory(requestFactory)
+                .build();
+        this.claveServicio = claveServicio;
+        this.usuarios = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .refreshAfterWrite(Duration.ofMillis(ttlMs))
+                .expireAfterWrite(Duration.ofMillis(Math.max(expiraMs, ttlMs)))
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Optional<DatosUsuario> load(Long usuarioId) {
+                        return consultar(Set.of(usuarioId)).get(usuarioId);
+                    }
+
+                    @Override
+                    public Map<Long, Optional<DatosUsuario>> loadAll(Set<? extends Long> usuarioIds) {
+                        return consultar(usuarioIds);
+                    }
+                });
+    }
+
+    /**
+     * Datos de un usuario; vacío si Autenticación indica que no existe.
+     * Lanza NoDisponibleException si no se pudo consultar y no hay datos en caché
+     */
+    public Optional<DatosUsuario> getUsuario(Long usuarioId) {
+        if (usuarioId == null) {
+            return Optional.empty();
+        }
+        return usuarios.get(usuarioId);
+    }
+
+    /**
+     * Datos de varios usuarios por id (una sola consulta para los que falten); los
+     * inexistentes no aparecen en el mapa
+     */
+    public Map<Long, DatosUsuario> getUsuarios(Collection<Long> usuarioIds) {
+        Map<Long, DatosUsuario> resultado = new HashMap<>();
+        usuarios.getAll(usuarioIds.stream().filter(id -> id != null).toList())
+                .forEach((id, usuario) -> usuario.ifPresent(datos -> resultado.put(id, datos)));
+        return resultado;
+    }
+
+    /**
+     * Verificar varios tokens de acceso en una sola llamada (sin caché: los tokens de las
+     * peticiones propias ya se validan localmente con el JWKS)
+     */
+    public List<Token> introspeccionarTokens(List<String> tokens) {
+        Respuesta respuesta = llamar(tokens, List.of());
+        respuesta.tokens().stream()
+                .map(Token::usuario)
+                .filter(usuario -> usuario != null)
+                .forEach(usuario -> usuarios.put(usuario.id(), Optional.of(usuario)));
+        return respuesta.tokens();
+    }
+
+    /**
+     * Descartar los datos de un usuario (p. ej. tras saber que su cuenta cambió)
+     */
+    public void invalidar(Long usuarioId) {
+        usuarios.invalidate(usuarioId);
+    }
+
+    private Map<Long, Optional<DatosUsuario>> consultar(Collection<? extends Long> ids) {
+        List<Long> pendientes = List.copyOf(ids);
+        Map<Long, Optional<DatosUsuario>> resultado = new HashMap<>();
+        for (int desde = 0; desde < pendientes.size(); desde += MAXIMO_POR_LOTE) {
+            List<Long> lote = pendientes.subList(desde, Math.min(desde + MAXIMO_POR_LOTE, pendientes.size()));
+            lote.forEach(id -> resultado.put(id, Optional.empty()));
+            llamar(List.of(), lote).usuarios().forEach(usuario -> resultado.put(usuario.id(), Optional.of(usuario)));
+        }
+        return resultado;
+    }
+
+    private Respuesta llamar(List<String> tokens, List<Long> usuarioIds) {
+        try {
+            Respuesta respuesta = restClient.post()
+                    .uri(INTROSPECCION_PATH)
+                    .header(CABECERA_CLAVE_SERVICIO, claveServicio)
+                    .body(Map.of("tokens", tokens, "usuarioIds", usuarioIds))
+                    .retrieve()
+                    .body(Respuesta.class);
+            if (respuesta == null) {
+                throw new NoDisponibleException("Respuesta vacía del servicio de autenticación");
+            }
+            return respuesta;
+        } catch (RestClientException e) {
+            logger.warn("No se pudo consultar la introspección del servicio de autenticación: {}", e.getMessage());
+            throw new NoDisponibleException(e.getMessage());
+        }
+    }
+
+    /**
+     * Autenticación no respondió y no hay datos en caché para decidir
+     */
+    public static class NoDisponibleException extends RuntimeException {
+        public NoDisponibleException(String mensaje) {
+            super(mensaje);
+        }
+    }
+
+    /**
+     * Respuesta de /api/auth/introspeccion
+     */
+    public record Respuesta(List<Token> tokens, List<DatosUsuario> usuarios) {}
+
+    public record Token(boolean valido, DatosUsuario usuario) {}
+
+    public record DatosUsuario(Long id, String username, String nombreCompleto, String role, boolean activo) {}
+}
@@ -0,0 +1,100 @@
+package com.escuelaposgrado.Matricula.security.jwt;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Localiza la clave pública con la que verificar un token según su kid, a partir del JWKS
+ * publicado por el servicio de autenticación (/.well-known/jwks.json).
+ *
+ * Las claves se guardan en memoria; solo se vuelve a consultar el JWKS cuando llega un kid
+ * desconocido (rotación de clave), como mucho una vez cada INTERVALO_CONSULTA_MS para que
+ * tokens con kid inventado no generen una llamada por petición.
+ */
+@Component
+public class JwksKeyLocator extends LocatorAdapter<Key> {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwksKeyLocator.class);
+
+    private static final String JWKS_PATH = "/.well-known/jwks.json";
+    private static final Duration TIMEOUT = Duration.ofSeconds(3);
+    private static final long INTERVALO_CONSULTA_MS = 10_000;
+
+    private final RestClient restClient;
+
+    private volatile Map<String, Key> claves = Map.of();
+    private volatile long ultimaConsulta = 0;
+
+    public JwksKeyLocator(@Value("${app.autenticacion.url:http://localhost:8080}") String autenticacionUrl) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(TIMEOUT);
+        requestFactory.setReadTimeout(TIMEOUT);
+        this.restClient = RestClient.builder()
+                .baseUrl(autenticacionUrl)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    @PostConstruct
+    public void init() {
+        // Si Autenticación aún no está disponible se consultará con el primer token
+        actualizar();
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            return null;
+        }
+        Key clave = claves.get(kid);
+        if (clave == null && System.currentTimeMillis() - ultimaConsulta > INTERVALO_CONSULTA_MS) {
+            actualizar();
+            clave = claves.get(kid);
+        }
+        return clave;
+    }
+
+    private synchronized void actualizar() {
+        // Otro hilo pudo haber actualizado mientras se esperaba el bloqueo
+        if (System.currentTimeMillis() - ultimaConsulta <= INTERVALO_CONSULTA_MS) {
+            return;
+        }
+        ultimaConsulta = System.currentTimeMillis();
+        try {
+            String json = restClient.get().uri(JWKS_PATH).retrieve().body(String.class);
+            if (json == null) {
+                return;
+            }
+            JwkSet jwks = Jwks.setParser().build().parse(json);
+            Map<String, Key> nuevas = new HashMap<>();
+            for (Jwk<?> jwk : jwks) {
+                if (jwk.getId() != null) {
+                    nuevas.put(jwk.getId(), jwk.toKey());
+                }
+            }
+            claves = Map.copyOf(nuevas);
+        } catch (RestClientException e) {
+            logger.warn("No se pudo obtener el JWKS del servicio de autenticación: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("JWKS del servicio de autenticación inválido: {}", e.getMessage());
+        }
+    }
+}
@@ -1,58 +1,72 @@
 package com.escuelaposgrado.Matricula.security.jwt;
 
+import java.util.Collections;
 import java.util.Date;
-
-import javax.crypto.SecretKey;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 /**
- * Utilidad para validar tokens JWT en el microservicio de Matrícula
+ * Utilidad para validar tokens JWT en el microservicio de Matrícula.
+ *
+ * Los tokens vienen firmados con ES256 por el servicio de autenticación; la firma se verifica
+ * con la clave pública de su JWKS, sin compartir ningún secreto.
  */
 @Component
 public class JwtUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${app.jwtSecret:escuelaPosgradoUnicaSecretKey2024}")
-    private String jwtSecret;
+    /**
+     * Claim con las autoridades (ROLE_*) emitido por el servicio de autenticación
+     */
+    public static final String CLAIM_ROLES = "roles";
+
+    /**
+     * Claim con el id del usuario emitido por el servicio de autenticación
+     */
+    public static final String CLAIM_USER_ID = "uid";
+
+    @Autowired
+    private JwksKeyLocator jwksKeyLocator;
+
+    // Parser creado una sola vez al iniciar (inmutable y thread-safe)
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        this.jwtParser = Jwts.parser()
+                .keyLocator(jwksKeyLocator)
+                .build();
+    }
 
     /**
      * Obtener username del token JWT
      */
     public String getUserNameFromJwtToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
+        return jwtParser.parseSignedClaims(token)
                 .getPayload()
                 .getSubject();
     }
 
     /**
-     * Validar token JWT
+     * Validar token JWT y devolver sus claims en una sola verificación de firma.
+     * Devuelve null si el token no es válido.
      */
-    public boolean validateJwtToken(String authToken) {
+    public Claims getValidatedClaims(String authToken) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            
-            Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(authToken);
-            
-            return true;
+            return jwtParser.parseSignedClaims(authToken).getPayload();
         } catch (MalformedJwtException e) {
             logger.error("Token JWT inválido: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -64,20 +78,41 @@ public class JwtUtils {
         } catch (Exception e) {
             logger.error("Error validando token JWT: {}", e.getMessage());
         }
-        
-        return false;
+
+        return null;
+    }
+
+    /**
+     * Obtener los roles contenidos en los claims del token
+     */
+    public List<String> getRolesFromClaims(Claims claims) {
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        if (roles == null) {
+            return Collections.emptyList();
+        }
+        return roles.stream().map(String::valueOf).toList();
+    }
+
+    /**
+     * Obtener el id de usuario contenido en los claims (null en tokens sin él)
+     */
+    public Long getUserIdFromClaims(Claims claims) {
+        Number id = claims.get(CLAIM_USER_ID, Number.class);
+        return id != null ? id.longValue() : null;
+    }
+
+    /**
+     * Validar token JWT
+     */
+    public boolean validateJwtToken(String authToken) {
+        return getValidatedClaims(authToken) != null;
     }
 
     /**
      * Obtener fecha de expiración del token
      */
     public Date getExpirationDateFromJwtToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
+        return jwtParser.parseSignedClaims(token)
                 .getPayload()
                 .getExpiration();
     }
@@ -2,8 +2,7 @@
 
 import { useState, useEffect } from 'react';
 import { CreateDeudaRequest } from '@/types/pagos';
-import { UsuarioResponse } from '@/types/auth';
-import { API_CONFIG, getAuthHeaders } from '@/lib/api';
+import UserSelector from './UserSelector';
 
 interface CreateDeudaModalProps {
   isOpen: boolean;
@@ -27,15 +26,7 @@ export default function CreateDeudaModal({
     importe: 0,
     descripcion: ''
   });
-  const [usuarios, setUsuarios] = useState<UsuarioResponse[]>([]);
   const [loading, setLoading] = useState(false);
-  const [loadingUsuarios, setLoadingUsuarios] = useState(false);
-
-  useEffect(() => {
-    if (isOpen && !preselectedUsuarioId) {
-      loadUsuarios();
-    }
-  }, [isOpen, preselectedUsuarioId]);
 
   useEffect(() => {
     if (preselectedUsuarioId) {
@@ -43,23 +34,6 @@ export default function CreateDeudaModal({
     }
   }, [preselectedUsuarioId]);
 
-  const loadUsuarios = async () => {
-    setLoadingUsuarios(true);
-    try {
-      const response = await fetch(`${API_CONFIG.BASE_URL}/api/admin/usuarios/rol/ALUMNO`, {
-        headers: getAuthHeaders(),
-      });
-      if (response.ok) {
-        const data = await response.json();
-        setUsuarios(data);
-      }
-    } catch (error) {
-      console.error('Error loading usuarios:', error);
-    } finally {
-      setLoadingUsuarios(false);
-    }
-  };
-
   const handleSubmit = async (e: React.FormEvent) => {
     e.preventDefault();
     setLoading(true);
@@ -102,23 +76,12 @@ export default function CreateDeudaModal({
           {!preselectedUsuarioId && (
             <div>
               <label className="block text-sm font-medium mb-1">Usuario *</label>
-              <select
-                name="usuarioId"
-                value={formData.usuarioId}
-                onChange={handleChange}
-                required
-                disabled={loadingUsuarios}
-                className="w-full p-2 border border-gray-300 rounded focus:outline-none focus:ring-2 focus:ring-blue-500"
-              >
-                <option value={0}>
-                  {loadingUsuarios ? 'Cargando usuarios...' : 'Seleccionar usuario'}
-                </option>
-                {usuarios.map((usuario) => (
-                  <option key={usuario.id} value={usuario.id}>
-                    {usuario.nombres} {usuario.apellidos} ({usuario.email})
-                  </option>
-                ))}
-              </select>
+              <UserSelector
+                selectedUserId={formData.usuarioId || null}
+                onUserSelect={(usuarioId) => setFormData(prev => ({ ...prev, usuarioId: usuarioId ?? 0 }))}
+                placeholder="Buscar alumno por nombre, DNI o código"
+                allowAll={false}
+              />
             </div>
           )}
 
@@ -1,55 +1,72 @@
 'use client';
 
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import { UsuarioResponse } from '@/types/auth';
-import { API_CONFIG, getAuthHeaders } from '@/lib/api';
+import { searchUsuarios } from '@/lib/api';
+
+// Alumnos mostrados por búsqueda y espera tras la última tecla antes de consultar
+const RESULTADOS_POR_BUSQUEDA = 20;
+const ESPERA_BUSQUEDA_MS = 300;
 
 interface UserSelectorProps {
   selectedUserId: number | null;
   onUserSelect: (userId: number | null) => void;
   placeholder?: string;
   className?: string;
+  allowAll?: boolean;
 }
 
 export default function UserSelector({ 
   selectedUserId, 
   onUserSelect, 
   placeholder = "Seleccionar usuario",
-  className = ""
+  className = "",
+  allowAll = true
 }: UserSelectorProps) {
   const [usuarios, setUsuarios] = useState<UsuarioResponse[]>([]);
   const [loading, setLoading] = useState(false);
   const [searchTerm, setSearchTerm] = useState('');
   const [isOpen, setIsOpen] = useState(false);
+  const [selectedUser, setSelectedUser] = useState<UsuarioResponse | null>(null);
+  const ultimaBusquedaRef = useRef(0);
 
+  // Los alumnos se buscan en el servidor mientras se escribe, en lugar de cargarlos todos
   useEffect(() => {
-    loadUsuarios();
-  }, []);
+    if (!isOpen) return;
 
-  const loadUsuarios = async () => {
-    setLoading(true);
-    try {
-      const response = await fetch(`${API_CONFIG.BASE_URL}/api/admin/usuarios/rol/ALUMNO`, {
-        headers: getAuthHeaders(),
-      });
-      if (response.ok) {
-        const data = await response.json();
-        setUsuarios(data);
+    const busqueda = ++ultimaBusquedaRef.current;
+    const timeout = setTimeout(async () => {
+      setLoading(true);
+      try {
+        const data = await searchUsuarios(searchTerm, { rol: 'ALUMNO', tamanio: RESULTADOS_POR_BUSQUEDA });
+        // Descartar respuestas de búsquedas ya reemplazadas
+        if (busqueda === ultimaBusquedaRef.current) {
+          setUsuarios(data);
+        }
+      } catch (error) {
+        console.error('Error loading usuarios:', error);
+      } finally {
+        if (busqueda === ultimaBusquedaRef.current) {
+          setLoading(false);
+        }
       }
-    } catch (error) {
-      console.error('Error loading usuarios:', error);
-    } finally {
-      setLoading(false);
-    }
-  };
+    }, ESPERA_BUSQUEDA_MS);
 
-  const filteredUsuarios = usuarios.filter(usuario =>
-    `${usuario.nombres} ${usuario.apellidos} ${usuario.email} ${usuario.codigoEstudiante || ''}`
-      .toLowerCase()
-      .includes(searchTerm.toLowerCase())
-  );
+    return () => clearTimeout(timeout);
+  }, [searchTerm, isOpen]);
 
-  const selectedUser = usuarios.find(u => u.id === selectedUserId);
+  useEffect(() => {
+    if (selectedUserId === null) {
+      setSelectedUser(null);
+    }
+  }, [selectedUserId]);
+
+  const selectUser = (usuario: UsuarioResponse | null) => {
+    setSelectedUser(usuario);
+    onUserSelect(usuario ? usuario.id : null);
+    setSearchTerm('');
+    setIsOpen(false);
+  };
 
   return (
     <div className={`relative ${className}`}>
@@ -70,11 +87,8 @@ export default function UserSelector({
         {/* Botón para limpiar selección */}
         {selectedUserId && (
           <button
-            onClick={() => {
-              onUserSelect(null);
-              setSearchTerm('');
-              setIsOpen(false);
-            }}
+            type="button"
+            onClick={() => selectUser(null)}
             className="absolute right-8 top-1/2 transform -translate-y-1/2 text-gray-400 hover:text-gray-600"
           >
             ✕
@@ -83,6 +97,7 @@ export default function UserSelector({
         
         {/* Indicador de dropdown */}
         <button
+          type="button"
           onClick={() => setIsOpen(!isOpen)}
           className="absolute right-2 top-1/2 transform -translate-y-1/2 text-gray-400"
         >
@@ -100,32 +115,28 @@ export default function UserSelector({
           ) : (
             <>
               {/* Opción "Todos" */}
-              <button
-                onClick={() => {
-                  onUserSelect(null);
-                  setSearchTerm('');
-                  setIsOpen(false);
-                }}
-                className="w-full p-3 text-left hover:bg-gray-100 border-b"
-              >
-                <div className="font-medium">Todos los usuarios</div>
-                <div className="text-sm text-gray-500">Ver todos</div>
-              </button>
+              {allowAll && (
+                <button
+                  type="button"
+                  onClick={() => selectUser(null)}
+                  className="w-full p-3 text-left hover:bg-gray-100 border-b"
+                >
+                  <div className="font-medium">Todos los usuarios</div>
+                  <div className="text-sm text-gray-500">Ver todos</div>
+                </button>
+              )}
 
-              {/* Lista de usuarios filtrados */}
-              {filteredUsuarios.length === 0 ? (
+              {/* Resultados de la búsqueda */}
+              {usuarios.length === 0 ? (
                 <div className="p-3 text-center text-gray-500">
                   No se encontraron usuarios
                 </div>
               ) : (
-                filteredUsuarios.map((usuario) => (
+                usuarios.map((usuario) => (
                   <button
+                    type="button"
                     key={usuario.id}
-                    onClick={() => {
-                      onUserSelect(usuario.id);
-                      setSearchTerm('');
-                      setIsOpen(false);
-                    }}
+                    onClick={() => selectUser(usuario)}
                     className={`w-full p-3 text-left hover:bg-gray-100 ${
                       selectedUserId === usuario.id ? 'bg-blue-50' : ''
                     }`}
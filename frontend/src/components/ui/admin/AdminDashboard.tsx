@@ -4,6 +4,7 @@ import { useEffect } from "react";
 import { useRouter } from "next/navigation";
 import { useAuth } from "@/contexts/AuthContext";
 import { useAdminUsers } from "@/hooks/useAdminUsers";
+import Button from "@/components/common/Button";
 import { useUserSearch } from "@/hooks/useUserSearch";
 import {
   AdminPageHeader,
@@ -25,6 +26,8 @@ export default function AdminDashboard() {
     usuarios,
     stats,
     loadingData,
+    hasMoreUsers,
+    loadingMoreUsers,
     error,
     selectedRole,
     showInactiveUsers,
@@ -34,6 +37,7 @@ export default function AdminDashboard() {
     setShowInactiveUsers,
     setUsuarios,
     loadUsers,
+    loadMoreUsers,
     loadAdminData,
     toggleUserStatus,
     openCreateModal,
@@ -120,6 +124,21 @@ export default function AdminDashboard() {
           onToggleUserStatus={toggleUserStatus}
         />
 
+        {/* Siguiente página del listado */}
+        {hasMoreUsers && (
+          <div className="flex justify-center mb-4 sm:mb-6 lg:mb-8">
+            <Button
+              variant="outline"
+              size="sm"
+              isLoading={loadingMoreUsers}
+              disabled={loadingMoreUsers}
+              onClick={loadMoreUsers}
+            >
+              Cargar más usuarios
+            </Button>
+          </div>
+        )}
+
         {/* Información del Panel */}
         <AdminInfoPanel userRole={user?.role || 'ADMIN'} />
 
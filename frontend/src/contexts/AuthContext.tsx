@@ -2,7 +2,7 @@
 
 import React, { createContext, useContext, useState, useEffect} from 'react';
 import { AuthContextType, AuthResponse, LoginRequest, UpdateProfileRequest, ChangePasswordRequest, MessageResponse } from '@/types/auth';
-import authService from '@/services/authService';
+import authService, { MARGEN_RENOVACION_MS } from '@/services/authService';
 import { AuthProviderProps } from '@/types/auth'; 
 
 const AuthContext = createContext<AuthContextType | undefined>(undefined);
@@ -21,17 +21,22 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
         const storedToken = authService.getToken();
         const storedUser = authService.getStoredUser();
 
-        if (storedToken && storedUser) {
-          // Validar si el token sigue siendo válido
-          const isValid = await authService.validateToken();
-          
-          if (isValid) {
-            setToken(storedToken);
-            setUser(storedUser);
+        // Validar si el token sigue siendo válido
+        if (storedToken && storedUser && await authService.validateToken()) {
+          setToken(storedToken);
+          setUser(storedUser);
+        } else if (authService.getRefreshToken()) {
+          // Token de acceso caducado: intentar renovar la sesión
+          const renewed = await authService.refreshSession();
+          if (renewed) {
+            setToken(renewed.token);
+            setUser(renewed);
           } else {
-            // Token inválido, limpiar datos
             authService.logout();
           }
+        } else if (storedToken || storedUser) {
+          // Token inválido, limpiar datos
+          authService.logout();
         }
       } catch (error) {
         console.error('Error al inicializar autenticación:', error);
@@ -44,6 +49,51 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
     initializeAuth();
   }, []);
 
+  useEffect(() => {
+    // Renovar el token de acceso un minuto antes de que caduque
+    if (!token) return;
+
+    let expiresAt: number;
+    try {
+      expiresAt = JSON.parse(atob(token.split('.')[1])).exp * 1000;
+    } catch {
+      return;
+    }
+
+    const timer = setTimeout(async () => {
+      const renewed = await authService.refreshSession();
+      if (renewed) {
+        setToken(renewed.token);
+        setUser(renewed);
+      } else {
+        setUser(null);
+        setToken(null);
+        authService.logout();
+      }
+    }, Math.max(expiresAt - Date.now() - MARGEN_RENOVACION_MS, 0));
+
+    return () => clearTimeout(timer);
+  }, [token]);
+
+  useEffect(() => {
+    // Seguir la sesión que otra pestaña renueva o cierra, para no presentar un token de
+    // refresco que ya se rotó
+    const onStorage = (event: StorageEvent) => {
+      if (event.key !== 'authToken') return;
+      if (event.newValue) {
+        const storedUser = authService.getStoredUser();
+        setToken(event.newValue);
+        if (storedUser) setUser({ ...storedUser, token: event.newValue });
+      } else {
+        setUser(null);
+        setToken(null);
+      }
+    };
+
+    window.addEventListener('storage', onStorage);
+    return () => window.removeEventListener('storage', onStorage);
+  }, []);
+
   const login = async (credentials: LoginRequest): Promise<AuthResponse> => {
     setIsLoading(true);
     try {
@@ -1,7 +1,7 @@
-import { useState, useCallback, useEffect } from 'react';
+import { useState, useCallback, useEffect, useRef } from 'react';
 import { UsuarioResponse, Role } from '@/types/auth';
 import { UserStats, UserFormData } from '@/types/Admin';
-import { API_CONFIG, getAuthHeaders } from '@/lib/api';
+import { API_CONFIG, getAuthHeaders, fetchPage } from '@/lib/api';
 import Swal from 'sweetalert2';
 
 interface UseAdminUsersProps {
@@ -13,6 +13,8 @@ interface UseAdminUsersReturn {
   usuarios: UsuarioResponse[];
   stats: UserStats | null;
   loadingData: boolean;
+  hasMoreUsers: boolean;
+  loadingMoreUsers: boolean;
   error: string | null;
   selectedRole: Role | 'ALL';
   showInactiveUsers: boolean;
@@ -25,6 +27,7 @@ interface UseAdminUsersReturn {
   setUsuarios: (usuarios: UsuarioResponse[]) => void;
   setError: (error: string | null) => void;
   loadUsers: () => Promise<void>;
+  loadMoreUsers: () => Promise<void>;
   loadAdminData: () => Promise<void>;
   toggleUserStatus: (userId: number, isActive: boolean) => Promise<void>;
   openCreateModal: () => void;
@@ -42,6 +45,17 @@ export function useAdminUsers({ userRole, isAuthenticated }: UseAdminUsersProps)
   const [error, setError] = useState<string | null>(null);
   const [showCreateModal, setShowCreateModal] = useState(false);
   const [editingUser, setEditingUser] = useState<UsuarioResponse | null>(null);
+  // Cursor de la siguiente página del listado de administración (null si no hay más)
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMoreUsers, setLoadingMoreUsers] = useState(false);
+  const listEndpointRef = useRef<string | null>(null);
+
+  // Reemplazar la lista (por ejemplo, con resultados de búsqueda) deja sin páginas pendientes
+  const replaceUsuarios = useCallback((data: UsuarioResponse[]) => {
+    listEndpointRef.current = null;
+    setNextCursor(null);
+    setUsuarios(data);
+  }, []);
 
   const loadUsers = useCallback(async () => {
     try {
@@ -64,13 +78,24 @@ export function useAdminUsers({ userRole, isAuthenticated }: UseAdminUsersProps)
 
       console.log('Using endpoint:', endpoint);
 
+      if (userRole === 'ADMIN') {
+        // Los listados de administración están paginados por cursor: solo la primera página,
+        // las siguientes se piden con "Cargar más"
+        const pagina = await fetchPage<UsuarioResponse>(endpoint);
+        console.log('Received data:', pagina.items.length);
+        listEndpointRef.current = endpoint;
+        setNextCursor(pagina.tieneMas ? pagina.siguienteCursor : null);
+        setUsuarios(pagina.items);
+        return;
+      }
+
       const response = await fetch(`${API_CONFIG.BASE_URL}${endpoint}`, {
         method: 'GET',
         headers: getAuthHeaders(),
       });
 
       if (response.ok) {
-        if (selectedRole === 'ALL' && userRole !== 'ADMIN') {
+        if (selectedRole === 'ALL') {
           // Para coordinadores, cargar todos los tipos por separado
           const [docentes, alumnos, postulantes, coordinadores] = await Promise.all([
             fetch(`${API_CONFIG.BASE_URL}/api/coordinador/docentes`, { headers: getAuthHeaders() }).then(r => r.json()),
@@ -91,6 +116,25 @@ export function useAdminUsers({ userRole, isAuthenticated }: UseAdminUsersProps)
     }
   }, [selectedRole, showInactiveUsers, userRole]);
 
+  const loadMoreUsers = useCallback(async () => {
+    const endpoint = listEndpointRef.current;
+    if (!endpoint || !nextCursor || loadingMoreUsers) return;
+
+    try {
+      setLoadingMoreUsers(true);
+      const pagina = await fetchPage<UsuarioResponse>(endpoint, nextCursor);
+      // Ignorar la respuesta si mientras tanto cambió el filtro
+      if (listEndpointRef.current !== endpoint) return;
+      setUsuarios(prev => [...prev, ...pagina.items]);
+      setNextCursor(pagina.tieneMas ? pagina.siguienteCursor : null);
+    } catch (error) {
+      console.error('Error al cargar más usuarios:', error);
+      setError('Error al cargar más usuarios');
+    } finally {
+      setLoadingMoreUsers(false);
+    }
+  }, [nextCursor, loadingMoreUsers]);
+
   const loadAdminData = useCallback(async () => {
     try {
       setLoadingData(true);
@@ -105,18 +149,15 @@ export function useAdminUsers({ userRole, isAuthenticated }: UseAdminUsersProps)
         
         if (statsResponse.ok) {
           const statsData = await statsResponse.json();
-          // Parsear las estadísticas del mensaje
-          const statsMatch = statsData.message.match(/Total: (\d+), Admins: (\d+), Docentes: (\d+), Alumnos: (\d+), Coordinadores: (\d+), Postulantes: (\d+)/);
-          if (statsMatch) {
-            setStats({
-              totalUsuarios: parseInt(statsMatch[1]),
-              admins: parseInt(statsMatch[2]),
-              docentes: parseInt(statsMatch[3]),
-              alumnos: parseInt(statsMatch[4]),
-              coordinadores: parseInt(statsMatch[5]),
-              postulantes: parseInt(statsMatch[6])
-            });
-          }
+          const porRol = statsData.porRol ?? {};
+          setStats({
+            totalUsuarios: statsData.totalUsuarios ?? 0,
+            admins: porRol.ADMIN?.activos ?? 0,
+            docentes: porRol.DOCENTE?.activos ?? 0,
+            alumnos: porRol.ALUMNO?.activos ?? 0,
+            coordinadores: porRol.COORDINADOR?.activos ?? 0,
+            postulantes: porRol.POSTULANTE?.activos ?? 0
+          });
         }
       }
 
@@ -254,6 +295,8 @@ export function useAdminUsers({ userRole, isAuthenticated }: UseAdminUsersProps)
     usuarios,
     stats,
     loadingData,
+    hasMoreUsers: nextCursor !== null,
+    loadingMoreUsers,
     error,
     selectedRole,
     showInactiveUsers,
@@ -263,9 +306,10 @@ export function useAdminUsers({ userRole, isAuthenticated }: UseAdminUsersProps)
     setShowInactiveUsers,
     setShowCreateModal,
     setEditingUser,
-    setUsuarios,
+    setUsuarios: replaceUsuarios,
     setError,
     loadUsers,
+    loadMoreUsers,
     loadAdminData,
     toggleUserStatus,
     openCreateModal,
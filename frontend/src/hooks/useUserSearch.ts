@@ -37,24 +37,23 @@ export function useUserSearch({
     try {
       setIsSearching(true);
 
-      const response = await fetch(`${API_CONFIG.BASE_URL}/api/admin/usuarios/buscar?texto=${encodeURIComponent(searchText.trim())}`, {
+      // Los filtros de rol y estado se aplican en el servidor, antes de paginar
+      const params = new URLSearchParams({ texto: searchText.trim(), tamanio: '50' });
+      if (selectedRole !== 'ALL') {
+        params.set('rol', selectedRole);
+      }
+      if (!showInactiveUsers) {
+        params.set('soloActivos', 'true');
+      }
+
+      const response = await fetch(`${API_CONFIG.BASE_URL}/api/admin/usuarios/buscar?${params.toString()}`, {
         method: 'GET',
         headers: getAuthHeaders(),
       });
 
       if (response.ok) {
         const data = await response.json();
-        let filteredData = Array.isArray(data) ? data : [];
-        
-        // Aplicar filtros de rol si es necesario
-        if (selectedRole !== 'ALL') {
-          filteredData = filteredData.filter(usuario => usuario.role === selectedRole);
-        }
-        
-        // Aplicar filtro de usuarios inactivos si es necesario
-        if (!showInactiveUsers) {
-          filteredData = filteredData.filter(usuario => usuario.activo === true);
-        }
+        const filteredData = Array.isArray(data) ? data : [];
         
         onUsersUpdate(filteredData);
       } else {
@@ -1,3 +1,5 @@
+import type { Role, UsuarioResponse } from '@/types/auth';
+
 // API configuration
 export const API_CONFIG = {
   BASE_URL: process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080',
@@ -8,6 +10,8 @@ export const API_CONFIG = {
       REGISTER: '/api/auth/registro',
       ME: '/api/auth/me',
       VALIDATE: '/api/auth/validate',
+      REFRESH: '/api/auth/refresh',
+      LOGOUT: '/api/auth/logout',
       UPDATE_PROFILE: '/api/auth/actualizar-perfil',
       CHANGE_PASSWORD: '/api/auth/cambiar-password'
     }
@@ -85,3 +89,53 @@ export const getAuthHeaders = (token?: string): HeadersInit => {
   
   return headers;
 };
+
+// Página de un listado paginado por cursor
+export interface PaginaResponse<T> {
+  items: T[];
+  siguienteCursor: string | null;
+  tieneMas: boolean;
+  limite: number;
+}
+
+// Helper function to load one page of a cursor-paginated listing
+export const fetchPage = async <T>(
+  endpoint: string,
+  cursor: string | null = null,
+  limite = 50
+): Promise<PaginaResponse<T>> => {
+  const params = new URLSearchParams({ limite: String(limite) });
+  if (cursor) params.set('cursor', cursor);
+  const separator = endpoint.includes('?') ? '&' : '?';
+
+  const response = await fetch(`${API_CONFIG.BASE_URL}${endpoint}${separator}${params.toString()}`, {
+    method: 'GET',
+    headers: getAuthHeaders(),
+  });
+  if (!response.ok) {
+    throw new Error(`Error ${response.status} al cargar ${endpoint}`);
+  }
+
+  return response.json();
+};
+
+// Helper function to search users on the server (one page, filtered by role and state)
+export const searchUsuarios = async (
+  texto: string,
+  { rol, soloActivos = true, tamanio = 20 }: { rol?: Role; soloActivos?: boolean; tamanio?: number } = {}
+): Promise<UsuarioResponse[]> => {
+  const params = new URLSearchParams({ texto: texto.trim(), tamanio: String(tamanio) });
+  if (rol) params.set('rol', rol);
+  if (soloActivos) params.set('soloActivos', 'true');
+
+  const response = await fetch(`${API_CONFIG.BASE_URL}/api/admin/usuarios/buscar?${params.toString()}`, {
+    method: 'GET',
+    headers: getAuthHeaders(),
+  });
+  if (!response.ok) {
+    throw new Error(`Error ${response.status} al buscar usuarios`);
+  }
+
+  const data = await response.json();
+  return Array.isArray(data) ? data : [];
+};
@@ -7,6 +7,19 @@ export interface ExcelImportResult {
   details?: string;
 }
 
+export interface ImportacionStatus {
+  id: number;
+  nombreArchivo: string;
+  estado: 'PENDIENTE' | 'EN_PROCESO' | 'COMPLETADA' | 'FALLIDA';
+  filasProcesadas: number;
+  exitosos: number;
+  fallidos: number;
+  filasPorSegundo?: number;
+  mensaje?: string;
+}
+
+const IMPORT_POLL_INTERVAL_MS = 1000;
+
 /**
  * Servicio para manejar operaciones de Excel en el frontend
  */
@@ -87,7 +100,10 @@ export class ExcelService {
   /**
    * Importa usuarios desde un archivo Excel
    */
-  static async importUsuarios(file: File): Promise<ExcelImportResult> {
+  static async importUsuarios(
+    file: File,
+    onProgress?: (status: ImportacionStatus) => void
+  ): Promise<ExcelImportResult> {
     try {
       // Validar archivo
       if (!file) {
@@ -134,10 +150,21 @@ export class ExcelService {
         };
       }
 
+      // La importación se procesa en segundo plano: consultar su avance hasta que termine
+      const importacion = await ExcelService.esperarImportacion(result.id, onProgress);
+      if (importacion.estado === 'FALLIDA') {
+        return {
+          success: false,
+          message: importacion.mensaje || 'La importación no pudo completarse'
+        };
+      }
+
       return {
-        success: result.success,
-        message: result.message,
-        details: result.details
+        success: importacion.fallidos === 0,
+        message: 'Importación completada.\n' +
+          `Usuarios importados exitosamente: ${importacion.exitosos}\n` +
+          `Errores encontrados: ${importacion.fallidos}`,
+        details: importacion.fallidos > 0 ? await ExcelService.getErroresImportacion(importacion.id) : undefined
       };
     } catch (error) {
       console.error('Error al importar usuarios:', error);
@@ -149,6 +176,48 @@ export class ExcelService {
     }
   }
 
+  /**
+   * Consulta el estado de una importación hasta que finaliza
+   */
+  static async esperarImportacion(
+    id: number,
+    onProgress?: (status: ImportacionStatus) => void
+  ): Promise<ImportacionStatus> {
+    for (;;) {
+      const response = await fetch(`${API_CONFIG.BASE_URL}/api/admin/usuarios/importaciones/${id}`, {
+        method: 'GET',
+        headers: getAuthHeaders(),
+      });
+
+      if (!response.ok) {
+        throw new Error(`Error HTTP: ${response.status}`);
+      }
+
+      const status: ImportacionStatus = await response.json();
+      onProgress?.(status);
+      if (status.estado === 'COMPLETADA' || status.estado === 'FALLIDA') {
+        return status;
+      }
+      await new Promise(resolve => setTimeout(resolve, IMPORT_POLL_INTERVAL_MS));
+    }
+  }
+
+  /**
+   * Obtiene el reporte de errores por fila (CSV) de una importación
+   */
+  static async getErroresImportacion(id: number): Promise<string> {
+    const response = await fetch(`${API_CONFIG.BASE_URL}/api/admin/usuarios/importaciones/${id}/errores`, {
+      method: 'GET',
+      headers: getAuthHeaders(),
+    });
+
+    if (!response.ok) {
+      throw new Error(`Error HTTP: ${response.status}`);
+    }
+
+    return response.text();
+  }
+
   /**
    * Valida un archivo Excel antes de enviarlo (validación del lado cliente)
    */
@@ -1,6 +1,9 @@
 import { API_CONFIG, getAuthHeaders } from '@/lib/api';
 import { LoginRequest, AuthResponse, MessageResponse, UsuarioResponse, ApiError, UpdateProfileRequest, ChangePasswordRequest } from '@/types/auth';
 
+// Antelación con la que se renueva el token de acceso antes de que caduque
+export const MARGEN_RENOVACION_MS = 60_000;
+
 class AuthService {
   private baseUrl = API_CONFIG.BASE_URL;
 
@@ -27,11 +30,7 @@ class AuthService {
 
       // Guardar token en localStorage y cookie
       if (data.token) {
-        localStorage.setItem('authToken', data.token);
-        localStorage.setItem('user', JSON.stringify(data));
-        
-        // También establecer cookie para el middleware
-        document.cookie = `authToken=${data.token}; path=/; max-age=86400; SameSite=Strict`;
+        this.storeSession(data);
       }
 
       return data;
@@ -66,11 +65,7 @@ class AuthService {
 
       // Guardar token en localStorage y cookie
       if (data.token) {
-        localStorage.setItem('authToken', data.token);
-        localStorage.setItem('user', JSON.stringify(data));
-        
-        // También establecer cookie para el middleware
-        document.cookie = `authToken=${data.token}; path=/; max-age=86400; SameSite=Strict`;
+        this.storeSession(data);
       }
 
       return data;
@@ -82,6 +77,82 @@ class AuthService {
     }
   }
 
+  /**
+   * Renueva el token de acceso con el token de refresco guardado.
+   * Devuelve null si no hay sesión que renovar o el servidor la rechaza.
+   *
+   * Las pestañas abiertas comparten el token de refresco de localStorage: la renovación se
+   * hace bajo un bloqueo común y, si otra pestaña ya la hizo, se reutiliza la sesión que dejó
+   * guardada en lugar de presentar un token ya rotado (que revocaría toda la sesión).
+   */
+  async refreshSession(): Promise<AuthResponse | null> {
+    if (typeof navigator !== 'undefined' && navigator.locks) {
+      return navigator.locks.request('auth-refresh', () => this.refreshSessionBloqueado());
+    }
+    return this.refreshSessionBloqueado();
+  }
+
+  private async refreshSessionBloqueado(): Promise<AuthResponse | null> {
+    const vigente = this.getSesionVigente();
+    if (vigente) {
+      return vigente;
+    }
+
+    const refreshToken = this.getRefreshToken();
+    if (!refreshToken) {
+      return null;
+    }
+
+    try {
+      const response = await fetch(`${this.baseUrl}${API_CONFIG.ENDPOINTS.AUTH.REFRESH}`, {
+        method: 'POST',
+        headers: API_CONFIG.HEADERS,
+        body: JSON.stringify({ refreshToken }),
+      });
+
+      if (!response.ok) {
+        return null;
+      }
+
+      const data: AuthResponse = await response.json();
+      this.storeSession(data);
+      return data;
+    } catch {
+      return null;
+    }
+  }
+
+  /**
+   * Sesión guardada cuyo token de acceso aún no está por caducar (renovada por otra pestaña)
+   */
+  private getSesionVigente(): AuthResponse | null {
+    const token = this.getToken();
+    const user = this.getStoredUser();
+    if (!token || !user) {
+      return null;
+    }
+    try {
+      const expiresAt = JSON.parse(atob(token.split('.')[1])).exp * 1000;
+      return expiresAt - Date.now() > MARGEN_RENOVACION_MS ? { ...user, token } : null;
+    } catch {
+      return null;
+    }
+  }
+
+  /**
+   * Guarda el token de acceso, el de refresco y los datos del usuario
+   */
+  private storeSession(data: AuthResponse): void {
+    localStorage.setItem('authToken', data.token);
+    localStorage.setItem('user', JSON.stringify(data));
+    if (data.refreshToken) {
+      localStorage.setItem('refreshToken', data.refreshToken);
+    }
+
+    // También establecer cookie para el middleware
+    document.cookie = `authToken=${data.token}; path=/; max-age=86400; SameSite=Strict`;
+  }
+
   /**
    * Registra un nuevo usuario
    */
@@ -222,8 +293,19 @@ class AuthService {
    */
   logout(): void {
     try {
+      // Revocar la sesión en el servidor (sin esperar la respuesta)
+      const refreshToken = this.getRefreshToken();
+      if (refreshToken) {
+        fetch(`${this.baseUrl}${API_CONFIG.ENDPOINTS.AUTH.LOGOUT}`, {
+          method: 'POST',
+          headers: API_CONFIG.HEADERS,
+          body: JSON.stringify({ refreshToken }),
+        }).catch(() => undefined);
+      }
+
       // Limpiar localStorage
       localStorage.removeItem('authToken');
+      localStorage.removeItem('refreshToken');
       localStorage.removeItem('user');
       
       // Limpiar todas las cookies de autenticación
@@ -241,6 +323,7 @@ class AuthService {
       // Aún así, intentar limpiar lo básico
       if (typeof window !== 'undefined') {
         localStorage.removeItem('authToken');
+        localStorage.removeItem('refreshToken');
         localStorage.removeItem('user');
       }
     }
@@ -256,6 +339,16 @@ class AuthService {
     return null;
   }
 
+  /**
+   * Obtiene el token de refresco almacenado
+   */
+  getRefreshToken(): string | null {
+    if (typeof window !== 'undefined') {
+      return localStorage.getItem('refreshToken');
+    }
+    return null;
+  }
+
   /**
    * Obtiene el usuario almacenado
    */
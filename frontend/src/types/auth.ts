@@ -10,6 +10,8 @@ export interface LoginRequest {
 export interface AuthResponse {
   token: string;
   type: string;
+  refreshToken?: string;
+  expiresIn?: number;
   id: number;
   username: string;
   email: string;